@@ -0,0 +1,166 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.internal.IBleManager;
+import com.idevicesinc.sweetblue.internal.ThreadHandler;
+import com.idevicesinc.sweetblue.utils.GattDatabase;
+import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.UpdateThreadType;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+import org.robolectric.RuntimeEnvironment;
+
+
+/**
+ * Sets up a {@link BleManager} on top of the sweetunit fakes for a benchmark to drive.
+ * <br><br>
+ * The manager's update thread is whichever thread calls {@link #tick()}, which is the benchmark thread. Auto updating is turned
+ * off, and the fake gatt layer answers without any delay, so everything a benchmark measures happens on its own thread, in
+ * its own time, and nothing is left waiting on a timer.
+ */
+public final class BenchmarkManager
+{
+
+    // Bail out of a setup step which never finishes, rather than hang the whole run.
+    private static final long TIMEOUT = 30000;
+
+
+    public interface Condition
+    {
+        boolean isMet();
+    }
+
+
+    private final ThreadHandler m_updateHandler;
+    private final BleManager m_manager;
+
+    private long m_lastTickTime;
+
+
+    public BenchmarkManager()
+    {
+        this(newConfig(null));
+    }
+
+    public BenchmarkManager(GattDatabase database_nullable)
+    {
+        this(newConfig(database_nullable));
+    }
+
+    public BenchmarkManager(BleManagerConfig config)
+    {
+        m_updateHandler = new ThreadHandler();
+
+        config.updateThreadType = UpdateThreadType.USER_CUSTOM;
+        config.updateHandler = m_updateHandler;
+
+        m_manager = BleManager.get(RuntimeEnvironment.application, config);
+        Util_Native.forceOn(m_manager);
+        m_manager.onResume();
+
+        m_lastTickTime = System.currentTimeMillis();
+
+        tick();
+    }
+
+    /**
+     * Returns a config with everything a benchmark would want. Tweak it, and pass it to {@link #BenchmarkManager(BleManagerConfig)}.
+     */
+    public static BleManagerConfig_UnitTest newConfig(GattDatabase database_nullable)
+    {
+        final BleManagerConfig_UnitTest config = new BleManagerConfig_UnitTest(database_nullable);
+        config.gattFactory = device -> new InstantBluetoothGatt(device, database_nullable);
+        config.autoUpdateRate = Interval.DISABLED;
+        config.postCallbacksToMainThread = false;
+        config.loggingOptions = LogOptions.OFF;
+        return config;
+    }
+
+
+    public final BleManager get()
+    {
+        return m_manager;
+    }
+
+    public final IBleManager getIBleManager()
+    {
+        return m_manager.getIBleManager();
+    }
+
+    /**
+     * Runs whatever has been posted to the update thread, then a single update of the manager, the same as the manager's own update
+     * loop would. The time step is however long it has been since the last tick.
+     */
+    public final void tick()
+    {
+        runPosted();
+
+        final long currentTime = System.currentTimeMillis();
+        final double timeStep = Math.max((currentTime - m_lastTickTime) / 1000.0, .00001);
+
+        m_manager.getIBleManager().update(timeStep, currentTime);
+
+        m_lastTickTime = currentTime;
+
+        runPosted();
+    }
+
+    /**
+     * Runs whatever has been posted to the update thread, without updating the manager.
+     */
+    public final void runPosted()
+    {
+        m_updateHandler.loop();
+    }
+
+    /**
+     * Calls {@link #tick()} until the given condition is met.
+     */
+    public final void tickUntil(final Condition condition)
+    {
+        final long start = System.currentTimeMillis();
+
+        while (!condition.isMet())
+        {
+            if (System.currentTimeMillis() - start > TIMEOUT)
+                throw new IllegalStateException("Timed out waiting for the benchmark to be set up.");
+
+            tick();
+        }
+    }
+
+    /**
+     * Creates a new device, and connects to it.
+     */
+    public final BleDevice connectNewDevice()
+    {
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+        device.connect();
+        tickUntil(() -> device.is(BleDeviceState.INITIALIZED));
+        return device;
+    }
+
+    public final void shutdown()
+    {
+        m_manager.shutdown();
+
+        // Quitting the update handler interrupts its thread, which is ours, so clear that before going back to JMH.
+        Thread.interrupted();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import java.io.File;
+
+import static org.junit.Assert.assertFalse;
+
+
+/**
+ * Entry point for the benchmarks. JMH is run in-process from inside Robolectric, so the benchmarks get the same Android
+ * environment the unit tests do. Run this through the <code>runBenchmarks</code> gradle task, which sets the system properties
+ * read below.
+ */
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class BenchmarkSuite
+{
+
+    @Test
+    public void runBenchmarks() throws Exception
+    {
+        final File results = new File(System.getProperty("sweetblue.benchmark.results", "build/reports/benchmark/results.json"));
+        results.getAbsoluteFile().getParentFile().mkdirs();
+
+        final ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(System.getProperty("sweetblue.benchmark.include", ".*"))
+                // Forking would start a plain JVM, without Robolectric, and the library can't run there.
+                .forks(0)
+                .threads(1)
+                .shouldFailOnError(true)
+                // Adds gc.alloc.rate.norm (bytes allocated per op) to the results, which is what the pooled notification path is judged on.
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.getAbsolutePath());
+
+        if (Boolean.getBoolean("sweetblue.benchmark.quick"))
+        {
+            // Just enough to make sure every benchmark still runs. The numbers aren't worth keeping.
+            options.warmupIterations(1)
+                    .warmupTime(TimeValue.milliseconds(100))
+                    .measurementIterations(1)
+                    .measurementTime(TimeValue.milliseconds(200));
+        }
+
+        assertFalse(new Runner(options.build()).run().isEmpty());
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.utils.EpochTime;
+import com.idevicesinc.sweetblue.utils.EpochTimeRange;
+import com.idevicesinc.sweetblue.utils.HistoricalData;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Appending to, and querying, a device's in-memory historical data once it has filled up to its limit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HistoricalDataBenchmark
+{
+
+    private static final UUID CHAR_UUID = UUID.fromString("1234666b-1000-2000-8000-001199334455");
+
+    // Entries are a second apart, and queries cover the most recent tenth of them.
+    private static final long SPACING = 1000;
+
+
+    @Param({ "1000", "10000" })
+    public int limit;
+
+
+    private BenchmarkManager m_manager;
+    private BleDevice m_device;
+    private final byte[] m_value = new byte[] { 0x01, 0x02, 0x03, 0x04 };
+    private long m_time;
+
+
+    @Setup
+    public void setup()
+    {
+        final BleManagerConfig config = BenchmarkManager.newConfig(null);
+        config.historicalDataLogFilter = e -> BleNodeConfig.HistoricalDataLogFilter.Please.logToMemory().andLimitLogTo(limit);
+
+        m_manager = new BenchmarkManager(config);
+        m_device = m_manager.get().newDevice(Util_Unit.randomMacAddress());
+
+        for (int i = 0; i < limit; i++)
+        {
+            append();
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        m_manager.shutdown();
+    }
+
+
+    @Benchmark
+    public void append()
+    {
+        m_time += SPACING;
+        m_device.addHistoricalData(CHAR_UUID, m_value, new EpochTime(m_time));
+    }
+
+    @Benchmark
+    public int count_recent()
+    {
+        return m_device.getHistoricalDataCount(CHAR_UUID, recent());
+    }
+
+    @Benchmark
+    public void forEach_recent(Blackhole blackhole)
+    {
+        m_device.getHistoricalData_forEach(CHAR_UUID, recent(), (HistoricalData data) -> blackhole.consume(data));
+    }
+
+    @Benchmark
+    public Object latest()
+    {
+        return m_device.getHistoricalData_latest(CHAR_UUID);
+    }
+
+
+    private EpochTimeRange recent()
+    {
+        return EpochTimeRange.fromGiven_toGiven(new EpochTime(m_time - limit / 10 * SPACING), new EpochTime(m_time));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import android.bluetooth.BluetoothGattCallback;
+import android.content.Context;
+import com.idevicesinc.sweetblue.internal.IBleDevice;
+import com.idevicesinc.sweetblue.internal.android.IBluetoothDevice;
+import com.idevicesinc.sweetblue.utils.GattDatabase;
+import com.idevicesinc.sweetblue.utils.Interval;
+
+
+/**
+ * {@link UnitTestBluetoothGatt} which answers everything as soon as the update thread gets to it, rather than after a random
+ * delay, so benchmarks measure SweetBlue and not the fake radio.
+ */
+public class InstantBluetoothGatt extends UnitTestBluetoothGatt
+{
+
+    public InstantBluetoothGatt(IBleDevice device, GattDatabase gattDb)
+    {
+        super(device, gattDb);
+    }
+
+
+    @Override
+    public void connect(IBluetoothDevice device, Context context, boolean useAutoConnect, BluetoothGattCallback callback)
+    {
+        setGattNull(false);
+        device.connect(context, useAutoConnect, callback);
+        setToConnecting();
+        setToConnected();
+    }
+
+    @Override
+    public Interval getDelayTime()
+    {
+        return Interval.ZERO;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.internal.P_Bridge_BleDevice;
+import com.idevicesinc.sweetblue.internal.android.P_GattHolder;
+import com.idevicesinc.sweetblue.utils.GattDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Throughput of notifications, from the native callback to the app's {@link NotificationListener}, with and without
+ * {@link BleDeviceConfig#usePooledNotificationBuffers}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NotificationBenchmark
+{
+
+    private static final UUID SERVICE_UUID = UUID.fromString("1234666a-1000-2000-8000-001199334455");
+    private static final UUID CHAR_UUID = UUID.fromString("1234666b-1000-2000-8000-001199334455");
+
+
+    @Param({ "false", "true" })
+    public boolean pooled;
+
+    @Param({ "20", "244" })
+    public int size;
+
+
+    private BenchmarkManager m_manager;
+    private BleDevice m_device;
+    private BleCharacteristic m_characteristic;
+    private byte[] m_value;
+
+    private long m_received;
+    private long m_checksum;
+
+
+    @Setup
+    public void setup()
+    {
+        final GattDatabase db = new GattDatabase().addService(SERVICE_UUID)
+                .addCharacteristic(CHAR_UUID).setProperties().readWriteNotify().setPermissions().read().completeService();
+
+        final BleManagerConfig config = BenchmarkManager.newConfig(db);
+        config.usePooledNotificationBuffers = pooled;
+
+        m_manager = new BenchmarkManager(config);
+        m_device = m_manager.connectNewDevice();
+
+        final boolean[] enabled = new boolean[1];
+
+        // Reads the value the cheapest way each mode allows, so the listener isn't what's being measured.
+        m_device.setListener_Notification(e -> {
+            if (e.type() == NotificationListener.Type.ENABLING_NOTIFICATION)
+            {
+                enabled[0] = e.wasSuccess();
+            }
+            else if (e.type() == NotificationListener.Type.NOTIFICATION)
+            {
+                m_received++;
+
+                if (pooled)
+                {
+                    final ByteBuffer buffer = e.data_buffer();
+                    m_checksum += buffer.get(buffer.limit() - 1);
+                }
+                else
+                {
+                    final byte[] data = e.data();
+                    m_checksum += data[data.length - 1];
+                }
+            }
+        });
+
+        m_device.enableNotify(SERVICE_UUID, CHAR_UUID);
+        m_manager.tickUntil(() -> enabled[0]);
+
+        m_characteristic = m_device.getNativeBleCharacteristic(SERVICE_UUID, CHAR_UUID);
+        m_value = new byte[size];
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        m_manager.shutdown();
+    }
+
+
+    @Benchmark
+    public long notification()
+    {
+        m_value[size - 1]++;
+
+        m_characteristic.setValue(m_value);
+        P_Bridge_BleDevice.onCharacteristicChanged(m_device.getIBleDevice(), P_GattHolder.NULL, m_characteristic);
+
+        m_manager.runPosted();
+
+        return m_received + m_checksum;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.utils.BleUuid;
+import com.idevicesinc.sweetblue.utils.ScanRecordView;
+import com.idevicesinc.sweetblue.utils.Utils_ScanRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Cost of pulling a typical advertisement apart, which happens for every scan result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ScanRecordBenchmark
+{
+
+    private static final UUID SERVICE_UUID = UUID.fromString("0000180d-0000-1000-8000-00805f9b34fb");
+
+
+    private byte[] m_record;
+
+
+    @Setup
+    public void setup()
+    {
+        final Map<BleUuid, byte[]> services = new HashMap<>();
+        services.put(new BleUuid(SERVICE_UUID, BleUuid.UuidSize.SHORT), new byte[] { 0x01, 0x02, 0x03, 0x04 });
+
+        m_record = Utils_ScanRecord.newScanRecord((byte) 0x06, services, "Benchmark Device", false, (byte) -12, (short) 0x0059, new byte[] { 0x10, 0x20, 0x30, 0x40, 0x50, 0x60 });
+    }
+
+
+    @Benchmark
+    public Object parseScanRecord()
+    {
+        return Utils_ScanRecord.parseScanRecord(m_record);
+    }
+
+    @Benchmark
+    public void view_name(Blackhole blackhole)
+    {
+        blackhole.consume(new ScanRecordView(m_record).getName());
+    }
+
+    @Benchmark
+    public void view_everything(Blackhole blackhole)
+    {
+        final ScanRecordView view = new ScanRecordView(m_record);
+
+        blackhole.consume(view.getName());
+        blackhole.consume(view.getServiceUuids());
+        blackhole.consume(view.getServiceData());
+        blackhole.consume(view.getManufacturerDataList());
+        blackhole.consume(view.getTxPower());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.utils.GattDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Time to push one auto-striped write through, from {@link BleDevice#write(BleWrite, ReadWriteListener)} to its callback, for
+ * a few sizes and {@link BleNodeConfig#stripedWriteWindow} settings. Every chunk is acked as soon as the update thread gets to it,
+ * so this is SweetBlue's own overhead per write.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StripedWriteBenchmark
+{
+
+    private static final UUID SERVICE_UUID = UUID.fromString("1234666a-1000-2000-8000-001199334455");
+    private static final UUID CHAR_UUID = UUID.fromString("1234666b-1000-2000-8000-001199334455");
+
+
+    @Param({ "512", "4096" })
+    public int size;
+
+    @Param({ "1", "4" })
+    public int window;
+
+
+    private BenchmarkManager m_manager;
+    private BleDevice m_device;
+    private BleWrite m_write;
+
+    private boolean m_done;
+    private final ReadWriteListener m_listener = e -> m_done = true;
+
+
+    @Setup
+    public void setup()
+    {
+        final GattDatabase db = new GattDatabase().addService(SERVICE_UUID)
+                .addCharacteristic(CHAR_UUID).setProperties().write().write_no_response().setPermissions().write().completeService();
+
+        final BleManagerConfig config = BenchmarkManager.newConfig(db);
+        config.stripedWriteWindow = window;
+
+        m_manager = new BenchmarkManager(config);
+        m_device = m_manager.connectNewDevice();
+
+        final byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+
+        m_write = new BleWrite(SERVICE_UUID, CHAR_UUID).setBytes(data);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        m_manager.shutdown();
+    }
+
+
+    @Benchmark
+    public void write()
+    {
+        m_done = false;
+
+        m_device.write(m_write, m_listener);
+
+        m_manager.tickUntil(() -> m_done);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.BenchmarkManager;
+import com.idevicesinc.sweetblue.BleTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Cost of {@link P_TaskQueue} inserting a task among the given number of others (of mixed priorities), and of dequeuing the task
+ * at the head of the queue, the way the task manager does on every update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TaskQueueBenchmark
+{
+
+    @Param({ "10", "100", "1000" })
+    public int queueSize;
+
+
+    private BenchmarkManager m_manager;
+    private P_TaskQueue m_queue;
+    private BenchmarkTask[] m_tasks;
+    private int m_next;
+
+    private final P_TaskQueue.ForEachTaskHandler m_dequeueHead = new P_TaskQueue.ForEachTaskHandler()
+    {
+        @Override
+        public ProcessResult process(PA_Task task)
+        {
+            return ProcessResult.ReturnAndDequeue;
+        }
+    };
+
+    private final P_TaskQueue.ForEachTaskHandler m_scan = new P_TaskQueue.ForEachTaskHandler()
+    {
+        @Override
+        public ProcessResult process(PA_Task task)
+        {
+            return ProcessResult.Continue;
+        }
+    };
+
+
+    @Setup
+    public void setup()
+    {
+        m_manager = new BenchmarkManager();
+
+        final IBleManager manager = m_manager.getIBleManager();
+        final PE_TaskPriority[] priorities = PE_TaskPriority.values();
+        final Random random = new Random(queueSize);
+
+        m_queue = new P_TaskQueue(manager);
+
+        // One more than the queue holds, so there's always one waiting to go back in.
+        m_tasks = new BenchmarkTask[queueSize + 1];
+
+        for (int i = 0; i < m_tasks.length; i++)
+        {
+            m_tasks[i] = new BenchmarkTask(manager, priorities[random.nextInt(priorities.length)], i);
+        }
+
+        for (int i = 0; i < queueSize; i++)
+        {
+            m_queue.insertAtSoonestPosition(m_tasks[i]);
+        }
+
+        m_next = queueSize;
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        m_manager.shutdown();
+    }
+
+
+    // Keeps the queue the same size from one invocation to the next.
+    @Benchmark
+    public Object insert_dequeue()
+    {
+        m_queue.insertAtSoonestPosition(m_tasks[m_next]);
+
+        final BenchmarkTask head = (BenchmarkTask) m_queue.forEachTask(m_dequeueHead).getTask();
+
+        // Whichever task was just dequeued is the next to go back in.
+        m_next = head.m_index;
+
+        return head;
+    }
+
+    // Walks the whole queue without finding anything, like the task manager does when checking whether something is queued.
+    @Benchmark
+    public int scan()
+    {
+        return m_queue.forEachTask(m_scan).getTaskPosition();
+    }
+
+
+    private static final class BenchmarkTask extends PA_Task
+    {
+        private final PE_TaskPriority m_priority;
+        private final int m_index;
+
+
+        private BenchmarkTask(IBleManager manager, PE_TaskPriority priority, int index)
+        {
+            super(manager, null);
+
+            m_priority = priority;
+            m_index = index;
+        }
+
+        @Override
+        protected BleTask getTaskType()
+        {
+            return BleTask.READ;
+        }
+
+        @Override
+        void execute()
+        {
+        }
+
+        @Override
+        public PE_TaskPriority getPriority()
+        {
+            return m_priority;
+        }
+    }
+}
@@ -49,6 +49,7 @@ import com.idevicesinc.sweetblue.utils.PresentData;
 import com.idevicesinc.sweetblue.utils.State;
 import com.idevicesinc.sweetblue.utils.TimeEstimator;
 import com.idevicesinc.sweetblue.utils.Uuids;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -2792,6 +2793,37 @@ public final class BleDevice extends BleNode
         }
     }
 
+    /**
+     * Overload of {@link #readBatch(Iterable, ReadBatchListener)}.
+     */
+    public final void readBatch(final BleRead[] bleReads, final ReadBatchListener listener)
+    {
+        readBatch(Arrays.asList(bleReads), null, listener);
+    }
+
+    /**
+     * Overload of {@link #readBatch(Iterable, Interval, ReadBatchListener)} that always reads every characteristic from the device.
+     */
+    public final void readBatch(final Iterable<BleRead> bleReads, final ReadBatchListener listener)
+    {
+        readBatch(bleReads, null, listener);
+    }
+
+    /**
+     * Reads all of the given characteristics as a single operation, and returns all of their values at once, to the given {@link ReadBatchListener}. Unlike
+     * {@link #readMany(Iterable)}, the batch only takes one spot in the task queue, and holds it until every read is done, so nothing else gets in between
+     * them. Each read is sent out as soon as the previous one comes back. If <code>maxCacheAge</code> is given, any characteristic whose value was read
+     * or notified within that time is not read again, and its last value is returned instead. Values are only remembered once a batch has asked for a
+     * <code>maxCacheAge</code>, or if {@link BleDeviceConfig#cacheReadValues} is <code>true</code>, and a successful write to a characteristic forgets its value.
+     * <br><br>
+     * NOTE: The {@link ReadWriteListener} set on each {@link BleRead}, along with the device, and manager level {@link ReadWriteListener}s are NOT called
+     * for reads done as part of a batch. Everything comes back in the one {@link ReadBatchListener.ReadBatchEvent}.
+     */
+    public final void readBatch(final Iterable<BleRead> bleReads, final @Nullable(Prevalence.NORMAL) Interval maxCacheAge, final ReadBatchListener listener)
+    {
+        m_deviceImpl.readBatch(bleReads, maxCacheAge, listener);
+    }
+
     /**
      * Overload of {@link #read(UUID)}.
      *
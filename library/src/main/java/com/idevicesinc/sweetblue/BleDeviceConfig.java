@@ -239,6 +239,28 @@ public class BleDeviceConfig extends BleNodeConfig implements Cloneable
      */
     public boolean autoEnableNotifiesOnReconnect = true;
 
+    /**
+     * Default is <code>false</code> - if set to <code>true</code>, notification values are copied into a fixed pool of buffers
+     * owned by {@link BleManager}, rather than into a new array for every notification. {@link NotificationListener.NotificationEvent#data_buffer()}
+     * then hands you a read-only view into that buffer, which is only valid until your listener returns.
+     * {@link NotificationListener.NotificationEvent#data()} still works, but makes a copy the first time it's called, so only call
+     * it if you need to hold on to the data. If the pool is ever exhausted, or a value is too large for it, that notification is
+     * delivered the same way it would be with this off.
+     * <br><br>
+     * NOTE: Pooled notifications are not logged to historical data. The Rx wrappers always copy the data before emitting an event, as
+     * a subscriber may not see it until after the listener has returned.
+     */
+    @Advanced
+    public boolean usePooledNotificationBuffers = false;
+
+    /**
+     * Default is <code>0</code> - when {@link BleManagerConfig#useDeviceTaskQueues} is on, and more devices are waiting to connect than
+     * {@link BleManagerConfig#maxConcurrentConnects} allows, devices with a higher value here get to connect (and discover services) first.
+     * Devices with the same value go in order of signal strength, strongest first.
+     */
+    @Advanced
+    public int connectAdmissionPriority = 0;
+
     /**
      * Default is <code>true</code> - whether to automatically renegotiate the MTU size that was set via {@link BleDevice#negotiateMtu(int, ReadWriteListener)}, or
      * {@link BleDevice#negotiateMtu(int)}. If you use either of those methods in a {@link com.idevicesinc.sweetblue.BleTransaction.Init} transaction, you should set
@@ -426,6 +448,16 @@ public class BleDeviceConfig extends BleNodeConfig implements Cloneable
     @Advanced
     public boolean equalOpportunityReadsWrites = false;
 
+    /**
+     * Default is <code>false</code> - whether to remember the last value read or notified for each characteristic, so
+     * {@link BleDevice#readBatch(Iterable, Interval, ReadBatchListener)} can skip characteristics whose value is still fresh. Even when this is
+     * <code>false</code>, a device starts remembering values the first time a batch read asks for a cache age. A successful write to a characteristic
+     * forgets its value.
+     */
+    @Advanced
+    @Nullable(Prevalence.NORMAL)
+    public Boolean cacheReadValues = false;
+
     /**
      * Default is {@link #DEFAULT_MINIMUM_SCAN_TIME} seconds - Undiscovery of devices must be
      * approximated by checking when the last time was that we discovered a device,
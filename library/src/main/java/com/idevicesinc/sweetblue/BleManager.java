@@ -50,6 +50,7 @@ import com.idevicesinc.sweetblue.utils.ForEach_Void;
 import com.idevicesinc.sweetblue.utils.GattDatabase;
 import com.idevicesinc.sweetblue.utils.HistoricalData;
 import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.MetricsRegistry;
 import com.idevicesinc.sweetblue.utils.P_Const;
 import com.idevicesinc.sweetblue.utils.Utils;
 
@@ -212,6 +213,44 @@ public final class BleManager
 		return m_managerImpl.getConfigClone();
 	}
 
+	/**
+	 * Returns the latency histograms recorded for this manager, and the devices it holds. Nothing gets recorded unless
+	 * {@link BleManagerConfig#enableMetrics} is <code>true</code>.
+	 */
+	@Advanced
+	public final @Nullable(Prevalence.NEVER) MetricsRegistry getMetrics()
+	{
+		return m_managerImpl.getMetrics();
+	}
+
+	/**
+	 * Returns the most recent {@link TaskTrace}s, oldest first. This is always empty unless {@link BleManagerConfig#taskTraceCapacity} is above zero.
+	 */
+	@Advanced
+	public final @Nullable(Prevalence.NEVER) List<TaskTrace> getTaskTraces()
+	{
+		return m_managerImpl.getTaskTraces();
+	}
+
+	/**
+	 * Returns the same traces as {@link #getTaskTraces()}, in Chrome's trace event JSON format. Save it to a file and load it in chrome://tracing,
+	 * or Perfetto, to see every task's time in the queue and executing laid out on a timeline, with a row for each device.
+	 */
+	@Advanced
+	public final @Nullable(Prevalence.NEVER) String getTaskTraces_chromeJson()
+	{
+		return m_managerImpl.getTaskTraces_chromeJson();
+	}
+
+	/**
+	 * Throws away every {@link TaskTrace} kept so far.
+	 */
+	@Advanced
+	public final void clearTaskTraces()
+	{
+		m_managerImpl.clearTaskTraces();
+	}
+
 
 	/**
 	 * Returns whether the manager is in any of the provided states.
@@ -993,6 +1032,38 @@ public final class BleManager
 		return m_managerImpl.isScanning();
 	}
 
+	/**
+	 * Returns the most devices that have had scan results waiting to be processed at once. Scan results are buffered until the next
+	 * update tick (see {@link BleManagerConfig#autoUpdateRate}), with only the newest one kept for each device, so this is at most the
+	 * number of devices in range, no matter how fast they advertise.
+	 *
+	 * @see #resetScanBufferStats()
+	 */
+	public final int getScanBacklog_peak()
+	{
+		return m_managerImpl.getScanBacklog_peak();
+	}
+
+	/**
+	 * Returns how many scan results were replaced by a newer one from the same device before they could be processed. The RSSI of
+	 * these still goes into {@link ScanFilter.ScanEvent#rssi_min()}, {@link ScanFilter.ScanEvent#rssi_max()}, and
+	 * {@link ScanFilter.ScanEvent#rssi_smoothed()}.
+	 *
+	 * @see #resetScanBufferStats()
+	 */
+	public final long getScanResults_coalescedCount()
+	{
+		return m_managerImpl.getScanResults_coalescedCount();
+	}
+
+	/**
+	 * Resets {@link #getScanBacklog_peak()} and {@link #getScanResults_coalescedCount()}.
+	 */
+	public final void resetScanBufferStats()
+	{
+		m_managerImpl.resetScanBufferStats();
+	}
+
 	/**
 	 * Returns <code>true</code> if location is enabled to a degree that allows scanning on {@link android.os.Build.VERSION_CODES#M} and above.
 	 * If this returns <code>false</code> it means you're on Android M and you either (A) do not have {@link android.Manifest.permission#ACCESS_COARSE_LOCATION}
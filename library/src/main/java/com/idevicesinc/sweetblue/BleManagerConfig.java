@@ -33,6 +33,7 @@ import com.idevicesinc.sweetblue.annotations.FutureChange;
 import com.idevicesinc.sweetblue.annotations.Nullable;
 import com.idevicesinc.sweetblue.annotations.Nullable.Prevalence;
 import com.idevicesinc.sweetblue.annotations.UnitTest;
+import com.idevicesinc.sweetblue.backend.options.Backend_OptionsStore;
 import com.idevicesinc.sweetblue.compat.L_Util;
 import com.idevicesinc.sweetblue.defaults.DefaultLogger;
 import com.idevicesinc.sweetblue.internal.IBleDevice;
@@ -105,6 +106,16 @@ public class BleManagerConfig extends BleDeviceConfig
      */
     public static final double DEFAULT_MANAGER_STATE_POLL_RATE = .1;
 
+    /**
+     * Default value for {@link #maxConcurrentDeviceTasks}
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_DEVICE_TASKS = 4;
+
+    /**
+     * Default value for {@link #maxConcurrentConnects}
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_CONNECTS = 2;
+
     /**
      * Default native scan filter used by the library if {@link #defaultNativeScanFilterList} is not set.
      */
@@ -140,6 +151,35 @@ public class BleManagerConfig extends BleDeviceConfig
      */
     public TimeTrackerSetting timeTrackerSetting = TimeTrackerSetting.Off;
 
+    /**
+     * Default is <code>false</code> - If <code>true</code>, the library records latency histograms in {@link BleManager#getMetrics()}: how long
+     * each task waits in the queue and takes to execute, how long each phase of connecting takes, and how long after a scan starts each
+     * device is discovered. Recording is lock-free and cheap, but not free, so it's off unless you're going to look at the numbers.
+     *
+     * @see com.idevicesinc.sweetblue.utils.MetricsRegistry
+     */
+    @Advanced
+    public boolean enableMetrics = false;
+
+    /**
+     * Default is <code>false</code> - If <code>true</code>, and {@link #enableMetrics} is too, every metric is also broken down per device,
+     * on top of the totals for all devices. Each histogram takes a few kilobytes, so keep this off when dealing with a large number of devices.
+     */
+    @Advanced
+    public boolean metricsPerDevice = false;
+
+    /**
+     * Default is <code>0</code> - The number of {@link TaskTrace}s to keep, one for each task that goes through the task queue, recording when
+     * it was queued, armed, started executing, and ended. Once this many have been kept, each new one replaces the oldest. Use this to find out
+     * where time goes when throughput drops, whether that's waiting in the queue, waiting out {@link #delayBetweenTasks}, or waiting on the radio.
+     * <code>0</code> turns tracing off.
+     *
+     * @see BleManager#getTaskTraces()
+     * @see BleManager#getTaskTraces_chromeJson()
+     */
+    @Advanced
+    public int taskTraceCapacity = 0;
+
     /**
      * Default is {@link DefaultLogger} - which prints the log statements to Android's logcat. If you want to
      * pipe the log statements elsewhere, create a class which implements {@link SweetLogger}, and set this field
@@ -268,6 +308,17 @@ public class BleManagerConfig extends BleDeviceConfig
      */
     public boolean postCallbacksToMainThread = true;
 
+    /**
+     * Default is <code>false</code> - listener events which have to be handed off to another thread (for instance, from SweetBlue's
+     * internal thread to the main thread when {@link #postCallbacksToMainThread} is <code>true</code>) are delivered in batches.
+     * If this is <code>true</code>, then within a batch, {@link DeviceStateListener.StateEvent}s for the same device going to the same
+     * listener are folded into one event, from the first old state to the last new state. This can cut down on the flood of
+     * callbacks when a lot of devices change state at once (say, a whole fleet reconnecting), but it does mean that a listener
+     * may not see every intermediate state, and a device which ends up back where it started produces no event at all.
+     */
+    @Advanced
+    public boolean coalesceDeviceStateEvents = false;
+
     /**
      * Default is <code>true</code> - requires the {@link android.Manifest.permission#WAKE_LOCK} permission in your app's manifest file.
      * It should look like this: {@code <uses-permission android:name="android.permission.WAKE_LOCK" />}
@@ -408,6 +459,51 @@ public class BleManagerConfig extends BleDeviceConfig
     @Advanced
     public Interval delayBetweenTasks = Interval.DISABLED;
 
+    /**
+     * Default is <code>false</code> - By default, every task for every {@link BleDevice} and {@link BleServer} (reads, writes, connects, bonds, etc)
+     * runs through a single queue, so only one operation is ever in flight at a time. This means a slow operation on one device holds up every other
+     * device. Set this to <code>true</code> to give each device and server its own queue instead, so operations for different devices can run at the
+     * same time, up to {@link #maxConcurrentDeviceTasks}.
+     * <br><br>
+     * Manager-wide tasks, like turning BLE on or off, or resetting, still run one at a time, and devices wait for them to finish before running
+     * anything else. The exception is scanning, which keeps running alongside device operations, rather than being interrupted by them.
+     * <br><br>
+     * NOTE: {@link #delayBetweenTasks} applies to each queue separately when this is enabled.
+     *
+     * @see #maxConcurrentDeviceTasks
+     */
+    @Advanced
+    public boolean useDeviceTaskQueues = false;
+
+    /**
+     * Default is {@value #DEFAULT_MAX_CONCURRENT_DEVICE_TASKS} - The maximum number of device or server tasks that can be running at the same time when
+     * {@link #useDeviceTaskQueues} is <code>true</code>. Android's BLE stack can start failing operations when too many are in flight at once, so
+     * raise this with care. This option does nothing if {@link #useDeviceTaskQueues} is <code>false</code>.
+     */
+    @Advanced
+    public int maxConcurrentDeviceTasks = DEFAULT_MAX_CONCURRENT_DEVICE_TASKS;
+
+    /**
+     * Default is {@value #DEFAULT_MAX_CONCURRENT_CONNECTS} - The maximum number of connects and service discoveries that can be running at the
+     * same time when {@link #useDeviceTaskQueues} is <code>true</code>. These also count towards {@link #maxConcurrentDeviceTasks}. When more
+     * devices than this are waiting to connect, say when a bunch of them reconnect after BLE is turned back on, they're let through in order of
+     * {@link BleDeviceConfig#connectAdmissionPriority}, then by signal strength.
+     * <br><br>
+     * Each time a connection fails with {@link BleStatuses#GATT_ERROR} (status 133), the number allowed at once is halved, down to one. It then
+     * grows back towards this value as connects succeed. This option does nothing if {@link #useDeviceTaskQueues} is <code>false</code>.
+     */
+    @Advanced
+    public int maxConcurrentConnects = DEFAULT_MAX_CONCURRENT_CONNECTS;
+
+    /**
+     * Default is {@link Interval#DISABLED} - The maximum age of historical data persisted to disk (see {@link BleNodeConfig#historicalDataLogFilter}).
+     * Anything older than this gets deleted as new data comes in. Data is stored in files holding a day each, and gets dropped a whole file at a time,
+     * so up to a day's worth of extra data may be kept around. When disabled, data is kept until it's deleted, or the limit set with
+     * {@link BleNodeConfig.HistoricalDataLogFilter.Please#andLimitLogTo(long)} is hit.
+     */
+    @Advanced
+    public Interval historicalDataMaxAge = Interval.DISABLED;
+
     /**
      * Default is {@link Interval#ZERO} seconds - Only applicable for Lollipop and up (i.e. &gt; 5.0), this is the value given to
      * {@link android.bluetooth.le.ScanSettings.Builder#setReportDelay(long)} so that scan results are "batched" ¯\_(ツ)_/¯. It's not clear from source
@@ -474,6 +570,16 @@ public class BleManagerConfig extends BleDeviceConfig
      */
     public UpdateCallback updateLoopCallback = null;
 
+    /**
+     * Default is {@link Backend_OptionsStore#DEFAULT_FACTORY}, which stores things in {@link android.content.SharedPreferences} - provides the
+     * store behind the small pieces of state SweetBlue remembers about devices across app launches, like whether a device was last disconnected
+     * explicitly (see {@link BleDeviceConfig#manageLastDisconnectOnDisk}), or needs bonding. Writes to it are coalesced, and done off of
+     * the update thread. Swap in {@link com.idevicesinc.sweetblue.backend.options.Backend_OptionsStore_Memory} for plain JVM tests, or your
+     * own implementation to keep this state somewhere else.
+     */
+    @Advanced
+    public Backend_OptionsStore.Factory optionsStoreFactory = Backend_OptionsStore.DEFAULT_FACTORY;
+
     /**
      * This option is exposed for unit testing. This factory provides the library with a way to instantiate a "native" bluetooth gatt server
      * instance.
@@ -129,6 +129,24 @@ public class BleNodeConfig
 	 */
 	public boolean autoStripeWrites											= true;
 
+	/**
+	 * Default is <code>1</code> - the number of chunks of an auto-striped write (see {@link #autoStripeWrites}) that are kept in the
+	 * queue at once. With the default, each chunk is only queued after the one before it succeeds. Raising this lets the chunks go out
+	 * back to back, which can speed up large writes like firmware images quite a bit, especially with {@link ReadWriteListener.Type#WRITE_NO_RESPONSE}.
+	 * If a chunk fails, any chunks after it still waiting in the queue are cleared.
+	 */
+	@com.idevicesinc.sweetblue.annotations.Advanced
+	public int stripedWriteWindow											= 1;
+
+	/**
+	 * Default is <code>0</code> - when above zero, and an auto-striped write (see {@link #autoStripeWrites}) uses
+	 * {@link ReadWriteListener.Type#WRITE_NO_RESPONSE}, every chunk at this interval is sent as a regular acknowledged
+	 * {@link ReadWriteListener.Type#WRITE} instead, and no chunks after it are queued until it's acknowledged. This gives the remote
+	 * device a chance to keep up when {@link #stripedWriteWindow} is raised.
+	 */
+	@com.idevicesinc.sweetblue.annotations.Advanced
+	public int stripedWriteAckInterval										= 0;
+
 	/**
 	 * Default is an instance of {@link DefaultTaskTimeoutRequestFilter} - set an implementation here to
 	 * have fine control over how long individual {@link BleTask} instances can take before they
@@ -615,7 +633,7 @@ public class BleNodeConfig
 			filter_specific = null;
 		}
 
-		final TaskTimeoutRequestFilter filter_mngr = manager.getConfigClone().taskTimeoutRequestFilter;
+		final TaskTimeoutRequestFilter filter_mngr = manager.getIBleManager().conf_mngr().taskTimeoutRequestFilter;
 		final TaskTimeoutRequestFilter filter = filter_specific != null ? filter_specific : filter_mngr;
 		final TaskTimeoutRequestFilter.Please please = filter != null ? filter.onEvent(event) : null;
 		final Interval timeout = please != null ? please.interval() : Interval.DISABLED;
@@ -275,6 +275,62 @@ public final class BleServer extends BleNode
 		return m_serverImpl.sendNotification(macAddress, serviceUuid, charUuid, futureData, listener);
 	}
 
+	/**
+	 * Overload of {@link #sendIndicationToAll(UUID, UUID, FutureData, MulticastListener)}.
+	 */
+	public final @Nullable(Nullable.Prevalence.NEVER) MulticastListener.MulticastEvent sendIndicationToAll(final UUID charUuid, final byte[] data, final MulticastListener listener)
+	{
+		return sendIndicationToAll(null, charUuid, new PresentData(data), listener);
+	}
+
+	/**
+	 * Overload of {@link #sendIndicationToAll(UUID, UUID, FutureData, MulticastListener)}.
+	 */
+	public final @Nullable(Nullable.Prevalence.NEVER) MulticastListener.MulticastEvent sendIndicationToAll(final UUID serviceUuid, final UUID charUuid, final byte[] data, final MulticastListener listener)
+	{
+		return sendIndicationToAll(serviceUuid, charUuid, new PresentData(data), listener);
+	}
+
+	/**
+	 * Same as {@link #sendNotificationToAll(UUID, UUID, FutureData, MulticastListener)} but sends an indication instead.
+	 */
+	public final @Nullable(Nullable.Prevalence.NEVER) MulticastListener.MulticastEvent sendIndicationToAll(final UUID serviceUuid, final UUID charUuid, final FutureData futureData, final MulticastListener listener)
+	{
+		return m_serverImpl.sendIndicationToAll(serviceUuid, charUuid, futureData, listener);
+	}
+
+	/**
+	 * Overload of {@link #sendNotificationToAll(UUID, UUID, FutureData, MulticastListener)}.
+	 */
+	public final @Nullable(Nullable.Prevalence.NEVER) MulticastListener.MulticastEvent sendNotificationToAll(final UUID charUuid, final byte[] data, final MulticastListener listener)
+	{
+		return sendNotificationToAll(null, charUuid, new PresentData(data), listener);
+	}
+
+	/**
+	 * Overload of {@link #sendNotificationToAll(UUID, UUID, FutureData, MulticastListener)}.
+	 */
+	public final @Nullable(Nullable.Prevalence.NEVER) MulticastListener.MulticastEvent sendNotificationToAll(final UUID serviceUuid, final UUID charUuid, final byte[] data, final MulticastListener listener)
+	{
+		return sendNotificationToAll(serviceUuid, charUuid, new PresentData(data), listener);
+	}
+
+	/**
+	 * Sends the same notification to every client that's currently {@link BleServerState#CONNECTED}. This is cheaper than calling
+	 * {@link #sendNotification(String, UUID, UUID, FutureData, OutgoingListener)} for each client - the data is only pulled from
+	 * the {@link FutureData} once, and the sends all happen one after the other in a single task. You get one
+	 * {@link MulticastListener.MulticastEvent} once every client has been tried, with an {@link OutgoingListener.OutgoingEvent} for each.
+	 * These per-client events are <b>not</b> passed to any {@link OutgoingListener}.
+	 * <br><br>
+	 * If there is any kind of "early-out" issue (for instance no connected clients) then this method will return a {@link MulticastListener.MulticastEvent}
+	 * in addition to passing it through the listener. Otherwise this method will return an instance with {@link MulticastListener.MulticastEvent#isNull()}
+	 * being <code>true</code>.
+	 */
+	public final @Nullable(Nullable.Prevalence.NEVER) MulticastListener.MulticastEvent sendNotificationToAll(final UUID serviceUuid, final UUID charUuid, final FutureData futureData, final MulticastListener listener)
+	{
+		return m_serverImpl.sendNotificationToAll(serviceUuid, charUuid, futureData, listener);
+	}
+
 	/**
 	 * Checks to see if the device is running an Android OS which supports
 	 * advertising. This is forwarded from {@link BleManager#isAdvertisingSupportedByAndroidVersion()}.
@@ -22,6 +22,7 @@ import com.idevicesinc.sweetblue.ReadWriteListener.Status;
 import com.idevicesinc.sweetblue.annotations.Nullable;
 import com.idevicesinc.sweetblue.internal.IBleTransaction;
 import com.idevicesinc.sweetblue.utils.Event;
+import com.idevicesinc.sweetblue.utils.Interval;
 import com.idevicesinc.sweetblue.utils.Phy;
 import com.idevicesinc.sweetblue.utils.Utils;
 
@@ -108,6 +109,12 @@ public abstract class BleTransaction implements P_ITransaction
 				Utils.refreshGatt(getDevice().getNativeGatt());
 			return super.succeed();
 		}
+
+		/**
+		 * Called each time another chunk of an auto-striped write (see {@link BleNodeConfig#autoStripeWrites}) made from this transaction
+		 * goes through. Override this to drive a progress bar, for example.
+		 */
+		protected void onWriteProgress(int bytesWritten, int totalBytes) {}
 	}
 
 	@Override
@@ -183,6 +190,13 @@ public abstract class BleTransaction implements P_ITransaction
 		{
 			return BleTransaction.this.getAtomicity();
 		}
+
+		@Override
+		public void onWriteProgress(int bytesWritten, int totalBytes)
+		{
+			if (BleTransaction.this instanceof Ota)
+				((Ota) BleTransaction.this).onWriteProgress(bytesWritten, totalBytes);
+		}
 	};
 
 	
@@ -346,6 +360,31 @@ public abstract class BleTransaction implements P_ITransaction
 		return null;
 	}
 
+	/**
+	 * Forwards to {@link BleDevice#readBatch(Iterable, ReadBatchListener)}
+	 */
+	public final Void readBatch(final Iterable<BleRead> bleReads, final ReadBatchListener listener)
+	{
+		return readBatch(bleReads, null, listener);
+	}
+
+	/**
+	 * Forwards to {@link BleDevice#readBatch(Iterable, Interval, ReadBatchListener)}
+	 */
+	public final Void readBatch(final Iterable<BleRead> bleReads, final Interval maxCacheAge, final ReadBatchListener listener)
+	{
+		try
+		{
+			m_transactionImpl.getDevice().setThreadLocalTransaction(m_transactionImpl);
+			getDevice().readBatch(bleReads, maxCacheAge, listener);
+		}
+		finally
+		{
+			m_transactionImpl.getDevice().setThreadLocalTransaction(null);
+		}
+		return null;
+	}
+
 	/**
 	 * Forwards to {@link BleDevice#readBatteryLevel(ReadWriteListener)}
 	 */
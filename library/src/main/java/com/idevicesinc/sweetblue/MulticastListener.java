@@ -0,0 +1,198 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.annotations.Immutable;
+import com.idevicesinc.sweetblue.annotations.Nullable;
+import com.idevicesinc.sweetblue.internal.P_Bridge_Internal;
+import com.idevicesinc.sweetblue.utils.Event;
+import com.idevicesinc.sweetblue.utils.FutureData;
+import com.idevicesinc.sweetblue.utils.GenericListener_Void;
+import com.idevicesinc.sweetblue.utils.P_Const;
+import com.idevicesinc.sweetblue.utils.UsesCustomNull;
+import com.idevicesinc.sweetblue.utils.Utils_String;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+
+/**
+ * Provide an instance to {@link BleServer#sendNotificationToAll(UUID, UUID, FutureData, MulticastListener)},
+ * {@link BleServer#sendIndicationToAll(UUID, UUID, FutureData, MulticastListener)}, or overloads thereof, to be told once
+ * a notification has gone out to every connected client.
+ */
+public interface MulticastListener extends GenericListener_Void<MulticastListener.MulticastEvent>
+{
+
+    /**
+     * Struct passed to {@link MulticastListener#onEvent(MulticastEvent)} that rolls up how a notification or indication went
+     * for every client it was sent to.
+     */
+    @Immutable
+    class MulticastEvent extends Event implements UsesCustomNull
+    {
+        /**
+         * The {@link BleServer} the notification was sent from.
+         */
+        public final BleServer server()  {  return m_server;  }
+        private final BleServer m_server;
+
+        /**
+         * The service {@link UUID} passed in, or {@link ExchangeListener.ExchangeEvent#NON_APPLICABLE_UUID} if none was.
+         */
+        public final UUID serviceUuid()  {  return m_serviceUuid;  }
+        private final UUID m_serviceUuid;
+
+        /**
+         * The characteristic {@link UUID} the notification was for.
+         */
+        public final UUID charUuid()  {  return m_charUuid;  }
+        private final UUID m_charUuid;
+
+        /**
+         * Either {@link ExchangeListener.Type#NOTIFICATION} or {@link ExchangeListener.Type#INDICATION}.
+         */
+        public final ExchangeListener.Type type()  {  return m_type;  }
+        private final ExchangeListener.Type m_type;
+
+        /**
+         * The data that was sent. The same buffer went out to every client.
+         */
+        public final byte[] data_sent()  {  return m_data_sent;  }
+        private final byte[] m_data_sent;
+
+        /**
+         * The status of the batch as a whole. This is {@link OutgoingListener.Status#SUCCESS} if the notification was offered to
+         * every client that was connected when it was queued, even if some of them failed - check {@link #wasSuccess()} or
+         * {@link #failureCount()} for that. Otherwise it's the reason the batch never got going (for instance
+         * {@link OutgoingListener.Status#NO_MATCHING_TARGET}, or {@link OutgoingListener.Status#NOT_CONNECTED} if there were no
+         * clients), or was cut short ({@link OutgoingListener.Status#TIMED_OUT} or {@link OutgoingListener.Status#CANCELLED_FROM_BLE_TURNING_OFF}).
+         */
+        public final OutgoingListener.Status status()  {  return m_status;  }
+        private final OutgoingListener.Status m_status;
+
+        /**
+         * One {@link OutgoingListener.OutgoingEvent} per client, in the order they were sent to. These are <b>not</b> also passed
+         * to any {@link OutgoingListener}s.
+         */
+        public final List<OutgoingListener.OutgoingEvent> events()  {  return m_events;  }
+        private final List<OutgoingListener.OutgoingEvent> m_events;
+
+        private final int m_successCount;
+
+
+        MulticastEvent(BleServer server, UUID serviceUuid, UUID charUuid, ExchangeListener.Type type, byte[] data_sent, OutgoingListener.Status status, List<OutgoingListener.OutgoingEvent> events)
+        {
+            m_server = server;
+            m_serviceUuid = serviceUuid != null ? serviceUuid : ExchangeListener.ExchangeEvent.NON_APPLICABLE_UUID;
+            m_charUuid = charUuid;
+            m_type = type;
+            m_data_sent = data_sent != null ? data_sent : P_Const.EMPTY_BYTE_ARRAY;
+            m_status = status;
+            m_events = Collections.unmodifiableList(new ArrayList<>(events));
+
+            int successCount = 0;
+
+            for (int i = 0; i < m_events.size(); i++)
+            {
+                if (m_events.get(i).wasSuccess())
+                    successCount++;
+            }
+
+            m_successCount = successCount;
+        }
+
+        static MulticastEvent EARLY_OUT(final BleServer server, final UUID serviceUuid, final UUID charUuid, final ExchangeListener.Type type, final FutureData data, final OutgoingListener.Status status)
+        {
+            return new MulticastEvent(server, serviceUuid, charUuid, type, data.getData(), status, Collections.<OutgoingListener.OutgoingEvent>emptyList());
+        }
+
+        static MulticastEvent NULL(final BleServer server, final UUID serviceUuid, final UUID charUuid, final ExchangeListener.Type type)
+        {
+            return EARLY_OUT(server, serviceUuid, charUuid, type, P_Const.EMPTY_FUTURE_DATA, OutgoingListener.Status.NULL);
+        }
+
+        /**
+         * Returns how many clients got the notification.
+         */
+        public final int successCount()
+        {
+            return m_successCount;
+        }
+
+        /**
+         * Returns how many clients didn't get the notification.
+         */
+        public final int failureCount()
+        {
+            return m_events.size() - m_successCount;
+        }
+
+        /**
+         * Returns the result for the given client, or <code>null</code> if it wasn't part of this batch.
+         */
+        public final @Nullable(Nullable.Prevalence.NORMAL) OutgoingListener.OutgoingEvent event(final String macAddress)
+        {
+            for (int i = 0; i < m_events.size(); i++)
+            {
+                final OutgoingListener.OutgoingEvent e = m_events.get(i);
+
+                if (e.isFor(macAddress))
+                    return e;
+            }
+
+            return null;
+        }
+
+        /**
+         * Returns <code>true</code> if {@link #status()} is {@link OutgoingListener.Status#SUCCESS} and every client got the notification.
+         */
+        public final boolean wasSuccess()
+        {
+            return status() == OutgoingListener.Status.SUCCESS && failureCount() == 0;
+        }
+
+        /**
+         * Will return true if the batch was queued successfully, and you'll get the actual result later through the {@link MulticastListener}.
+         */
+        @Override public final boolean isNull()
+        {
+            return status().isNull();
+        }
+
+        @Override public final String toString()
+        {
+            return Utils_String.toString
+            (
+                this.getClass(),
+                "status",			status(),
+                "type",				type(),
+                "charUuid",			P_Bridge_Internal.uuidName(server().getIBleServer().getIManager(), charUuid()),
+                "successCount",		successCount(),
+                "failureCount",		failureCount()
+            );
+        }
+    }
+
+    /**
+     * Called once the notification has been sent to every client, or the batch failed or was cut short.
+     */
+    void onEvent(final MulticastEvent e);
+}
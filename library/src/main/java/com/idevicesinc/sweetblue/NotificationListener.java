@@ -34,6 +34,7 @@ import com.idevicesinc.sweetblue.utils.UsesCustomNull;
 import com.idevicesinc.sweetblue.utils.Utils_Byte;
 import com.idevicesinc.sweetblue.utils.Utils_String;
 import com.idevicesinc.sweetblue.utils.Uuids;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.UUID;
 
@@ -334,13 +335,53 @@ public interface NotificationListener extends GenericListener_Void<NotificationL
         /**
          * The data received from the peripheral. This will never be <code>null</code>. For error cases it will be a
          * zero-length array.
+         * <br><br>
+         * If {@link BleDeviceConfig#usePooledNotificationBuffers} is on, the data is copied out of the pooled buffer the first
+         * time this is called, and the copy is yours to keep. If you only need to look at the data while handling the event,
+         * {@link #data_buffer()} avoids the copy.
+         *
+         * @throws IllegalStateException if the data was pooled, and this is called after the listener it was handed to has returned.
          */
         public @Nullable(Nullable.Prevalence.NEVER) byte[] data()
         {
+            if (m_data == null)
+            {
+                final byte[] data = P_Bridge_Internal.copyPooledPayload(m_pooledPayload, m_pooledGeneration);
+
+                if (data == null)
+                    throw new IllegalStateException("Pooled notification data was accessed after its listener returned. Call data() while handling the event to keep a copy.");
+
+                m_data = data;
+            }
+
             return m_data;
         }
 
-        private final byte[] m_data;
+        /**
+         * Returns a read-only view of {@link #data()}. This will never be <code>null</code>.
+         * <br><br>
+         * If {@link BleDeviceConfig#usePooledNotificationBuffers} is on, this is a view straight into the pooled buffer the data
+         * was received into, so no copy is made. The view is only valid until your listener returns, after which the buffer
+         * gets reused for another notification. Call {@link #data()} if you need to hang on to the data.
+         */
+        public @Nullable(Nullable.Prevalence.NEVER) ByteBuffer data_buffer()
+        {
+            if (m_data == null)
+            {
+                final ByteBuffer view = P_Bridge_Internal.viewPooledPayload(m_pooledPayload, m_pooledGeneration);
+
+                if (view != null)
+                    return view;
+            }
+
+            return ByteBuffer.wrap(data()).asReadOnlyBuffer();
+        }
+
+        // Stays null for pooled events until data() is called.
+        private byte[] m_data;
+
+        private final Object m_pooledPayload;
+        private final int m_pooledGeneration;
 
         /**
          * Indicates either success or the type of failure.
@@ -426,9 +467,32 @@ public interface NotificationListener extends GenericListener_Void<NotificationL
             this.m_totalTime = Interval.secs(totalTime);
             this.m_transitTime = Interval.secs(transitTime);
             this.m_data = data != null ? data : P_Const.EMPTY_BYTE_ARRAY;
+            this.m_pooledPayload = null;
+            this.m_pooledGeneration = 0;
+            this.m_solicited = solicited;
+        }
+
+        NotificationEvent(BleDevice device, UUID serviceUuid, UUID charUuid, NotificationListener.Type type, Object pooledPayload, int pooledGeneration, NotificationListener.Status status, int gattStatus, double totalTime, double transitTime, boolean solicited)
+        {
+            this.m_device = device;
+            this.m_serviceUuid = serviceUuid != null ? serviceUuid : NON_APPLICABLE_UUID;
+            this.m_charUuid = charUuid != null ? charUuid : NON_APPLICABLE_UUID;
+            this.m_type = type;
+            this.m_status = status;
+            this.m_gattStatus = gattStatus;
+            this.m_totalTime = Interval.secs(totalTime);
+            this.m_transitTime = Interval.secs(transitTime);
+            this.m_data = null;
+            this.m_pooledPayload = pooledPayload;
+            this.m_pooledGeneration = pooledGeneration;
             this.m_solicited = solicited;
         }
 
+        final Object getPooledPayload()
+        {
+            return m_pooledPayload;
+        }
+
 
         static NotificationEvent NULL(BleDevice device)
         {
@@ -569,7 +633,7 @@ public interface NotificationListener extends GenericListener_Void<NotificationL
                         (
                                 this.getClass(),
                                 "status", status(),
-                                "data", Arrays.toString(data()),
+                                "data", m_data != null || P_Bridge_Internal.viewPooledPayload(m_pooledPayload, m_pooledGeneration) != null ? Arrays.toString(data()) : "[released]",
                                 "type", type(),
                                 "charUuid",     P_Bridge_Internal.uuidName(device().getIBleDevice().getIManager(), charUuid()),
                                 "gattStatus",   CodeHelper.gattStatus(gattStatus(), true)
@@ -45,6 +45,9 @@ import com.idevicesinc.sweetblue.utils.State;
 import com.idevicesinc.sweetblue.utils.Utils_Config;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public final class P_Bridge_User
@@ -66,6 +69,16 @@ public final class P_Bridge_User
         event.init(manager, device, server, task, charUuid, descUuid);
     }
 
+    public static TaskTrace newTaskTrace(String name, BleTask taskType, String macAddress, UUID charUuid, UUID descUuid, int byteCount, long timeQueued, long timeArmed, long timeExecuting, long timeEnded, String endState)
+    {
+        return new TaskTrace(name, taskType, macAddress, charUuid, descUuid, byteCount, timeQueued, timeArmed, timeExecuting, timeEnded, endState);
+    }
+
+    public static ReadBatchListener.ReadBatchEvent newReadBatchEvent(BleDevice device, Map<UUID, byte[]> values, Map<UUID, ReadWriteListener.Status> statuses, Set<UUID> cached, double totalTime)
+    {
+        return new ReadBatchListener.ReadBatchEvent(device, values, statuses, cached, totalTime);
+    }
+
     public static boolean ack(ScanFilter.Please please)
     {
         return please.ack();
@@ -85,7 +98,7 @@ public final class P_Bridge_User
 
     public static IBluetoothDevice newDeviceLayer(IBleManager mgr, IBleDevice device)
     {
-        return mgr.getConfigClone().newDeviceLayer(device);
+        return mgr.conf_mngr().newDeviceLayer(device);
     }
 
 
@@ -145,6 +158,12 @@ public final class P_Bridge_User
         return ScanFilter.ScanEvent.fromScanRecord(device_native, rawDeviceName, normalizedDeviceName, rssi, lastDisconnectIntent, scanRecord);
     }
 
+    public static ScanFilter.ScanEvent newScanEventFromRecord(final BluetoothDevice device_native, final String rawDeviceName, final String normalizedDeviceName, final int rssi, final State.ChangeIntent lastDisconnectIntent, final byte[] scanRecord,
+                                                              final int advertisementCount, final int rssi_min, final int rssi_max, final double rssi_smoothed)
+    {
+        return ScanFilter.ScanEvent.fromScanRecord(device_native, rawDeviceName, normalizedDeviceName, rssi, lastDisconnectIntent, scanRecord, advertisementCount, rssi_min, rssi_max, rssi_smoothed);
+    }
+
     public static BondListener.BondEvent newBondEvent(BleDevice device, BondListener.BondEvent.Type bondType, BondListener.Status status, int failReason, State.ChangeIntent intent)
     {
         return new BondListener.BondEvent(device, bondType, status, failReason, intent);
@@ -205,6 +224,21 @@ public final class P_Bridge_User
         return new NotificationListener.NotificationEvent(device, notify.getServiceUuid(), notify.getCharacteristicUuid(), type, notify.getData().getData(), status, gattStatus, totalTime, transitTime, solicited);
     }
 
+    public static NotificationListener.NotificationEvent newNotificationEvent(BleDevice device, UUID serviceUuid, UUID charUuid, NotificationListener.Type type, byte[] data, NotificationListener.Status status, int gattStatus, double totalTime, double transitTime, boolean solicited)
+    {
+        return new NotificationListener.NotificationEvent(device, serviceUuid, charUuid, type, data, status, gattStatus, totalTime, transitTime, solicited);
+    }
+
+    public static NotificationListener.NotificationEvent newNotificationEvent(BleDevice device, UUID serviceUuid, UUID charUuid, NotificationListener.Type type, Object pooledPayload, int pooledGeneration, NotificationListener.Status status, int gattStatus, double totalTime, double transitTime, boolean solicited)
+    {
+        return new NotificationListener.NotificationEvent(device, serviceUuid, charUuid, type, pooledPayload, pooledGeneration, status, gattStatus, totalTime, transitTime, solicited);
+    }
+
+    public static Object getPooledPayload(NotificationListener.NotificationEvent event)
+    {
+        return event.getPooledPayload();
+    }
+
     public static DescriptorFilter.DescriptorEvent newDescriptorEvent(BluetoothGattService service, BluetoothGattCharacteristic characteristic, BluetoothGattDescriptor descriptor, FutureData data)
     {
         return new DescriptorFilter.DescriptorEvent(service, characteristic, descriptor, data);
@@ -324,6 +358,21 @@ public final class P_Bridge_User
         return OutgoingListener.OutgoingEvent.NULL__NOTIFICATION(server, device, serviceUuid, charUuid);
     }
 
+    public static MulticastListener.MulticastEvent newMulticastEvent(BleServer server, UUID serviceUuid, UUID charUuid, ExchangeListener.Type type, byte[] data_sent, OutgoingListener.Status status, List<OutgoingListener.OutgoingEvent> events)
+    {
+        return new MulticastListener.MulticastEvent(server, serviceUuid, charUuid, type, data_sent, status, events);
+    }
+
+    public static MulticastListener.MulticastEvent newMulticastEarlyOut(BleServer server, UUID serviceUuid, UUID charUuid, ExchangeListener.Type type, FutureData data, OutgoingListener.Status status)
+    {
+        return MulticastListener.MulticastEvent.EARLY_OUT(server, serviceUuid, charUuid, type, data, status);
+    }
+
+    public static MulticastListener.MulticastEvent multicastNULL(BleServer server, UUID serviceUuid, UUID charUuid, ExchangeListener.Type type)
+    {
+        return MulticastListener.MulticastEvent.NULL(server, serviceUuid, charUuid, type);
+    }
+
     public static HistoricalDataLoadListener.HistoricalDataLoadEvent newHistoricalDataLoadEvent(BleNode node, String macAddress, UUID uuid, EpochTimeRange range, HistoricalDataLoadListener.Status status)
     {
         return new HistoricalDataLoadListener.HistoricalDataLoadEvent(node, macAddress, uuid, range, status);
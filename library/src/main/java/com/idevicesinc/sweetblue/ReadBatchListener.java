@@ -0,0 +1,161 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.annotations.Immutable;
+import com.idevicesinc.sweetblue.annotations.Nullable;
+import com.idevicesinc.sweetblue.annotations.Nullable.Prevalence;
+import com.idevicesinc.sweetblue.utils.Event;
+import com.idevicesinc.sweetblue.utils.GenericListener_Void;
+import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.Utils_String;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+
+/**
+ * Provide an implementation of this callback to {@link BleDevice#readBatch(Iterable, ReadBatchListener)} (or overloads) to get the results of
+ * every read in the batch at once.
+ */
+@com.idevicesinc.sweetblue.annotations.Lambda
+public interface ReadBatchListener extends GenericListener_Void<ReadBatchListener.ReadBatchEvent>
+{
+
+    /**
+     * Event passed to {@link ReadBatchListener#onEvent(Event)} once every read in a batch has either come back, or failed. Results are
+     * keyed by characteristic {@link UUID}, in the order they were read.
+     */
+    @Immutable
+    class ReadBatchEvent extends Event
+    {
+
+        private final BleDevice m_device;
+        private final Map<UUID, byte[]> m_values;
+        private final Map<UUID, ReadWriteListener.Status> m_statuses;
+        private final Set<UUID> m_cached;
+        private final Interval m_totalTime;
+
+
+        ReadBatchEvent(BleDevice device, Map<UUID, byte[]> values, Map<UUID, ReadWriteListener.Status> statuses, Set<UUID> cached, double totalTime)
+        {
+            m_device = device;
+            m_values = Collections.unmodifiableMap(values);
+            m_statuses = Collections.unmodifiableMap(statuses);
+            m_cached = Collections.unmodifiableSet(cached);
+            m_totalTime = Interval.secs(totalTime);
+        }
+
+        /**
+         * The {@link BleDevice} the batch was read from.
+         */
+        public final BleDevice device()
+        {
+            return m_device;
+        }
+
+        /**
+         * Convience to return the mac address of {@link #device()}.
+         */
+        public final String macAddress()
+        {
+            return m_device.getMacAddress();
+        }
+
+        /**
+         * Returns the values of every characteristic that was read successfully, or came from the cache. Characteristics that failed aren't
+         * in here, see {@link #statuses()} for why.
+         */
+        public final Map<UUID, byte[]> values()
+        {
+            return m_values;
+        }
+
+        /**
+         * Returns the status of every characteristic in the batch.
+         */
+        public final Map<UUID, ReadWriteListener.Status> statuses()
+        {
+            return m_statuses;
+        }
+
+        /**
+         * Returns the value read for the given characteristic, or <code>null</code> if it wasn't read successfully, or wasn't part of the batch.
+         */
+        public final @Nullable(Prevalence.NORMAL) byte[] data(final UUID charUuid)
+        {
+            return m_values.get(charUuid);
+        }
+
+        /**
+         * Returns the status of the read for the given characteristic, or {@link ReadWriteListener.Status#NULL} if it wasn't part of the batch.
+         */
+        public final ReadWriteListener.Status status(final UUID charUuid)
+        {
+            final ReadWriteListener.Status status = m_statuses.get(charUuid);
+
+            return status != null ? status : ReadWriteListener.Status.NULL;
+        }
+
+        /**
+         * Returns <code>true</code> if the value for the given characteristic came from a previous read, rather than going over the air,
+         * because it was still fresh enough for the <code>maxCacheAge</code> passed to {@link BleDevice#readBatch(Iterable, Interval, ReadBatchListener)}.
+         */
+        public final boolean wasCached(final UUID charUuid)
+        {
+            return m_cached.contains(charUuid);
+        }
+
+        /**
+         * Total time the batch took, from being added to the queue, to the last read coming back.
+         */
+        public final Interval time_total()
+        {
+            return m_totalTime;
+        }
+
+        /**
+         * Returns <code>true</code> if every characteristic in the batch was read successfully (or came from the cache).
+         */
+        public final boolean wasSuccess()
+        {
+            for (ReadWriteListener.Status status : m_statuses.values())
+            {
+                if (status != ReadWriteListener.Status.SUCCESS)
+                    return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public String toString()
+        {
+            return Utils_String.toString
+            (
+                this.getClass(),
+                "device",       m_device.getName_debug(),
+                "statuses",     m_statuses,
+                "cached",       m_cached.size(),
+                "time_total",   m_totalTime
+            );
+        }
+    }
+}
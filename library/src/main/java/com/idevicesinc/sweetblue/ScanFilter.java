@@ -20,17 +20,14 @@ package com.idevicesinc.sweetblue;
 import android.bluetooth.BluetoothDevice;
 
 import com.idevicesinc.sweetblue.annotations.Immutable;
-import com.idevicesinc.sweetblue.utils.BleScanRecord;
 import com.idevicesinc.sweetblue.utils.Event;
 import com.idevicesinc.sweetblue.utils.Interval;
 import com.idevicesinc.sweetblue.utils.ManufacturerData;
 import com.idevicesinc.sweetblue.utils.P_Const;
+import com.idevicesinc.sweetblue.utils.ScanRecordView;
 import com.idevicesinc.sweetblue.utils.State;
-import com.idevicesinc.sweetblue.utils.Utils_ScanRecord;
 import com.idevicesinc.sweetblue.utils.Utils_String;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -86,8 +83,7 @@ public interface ScanFilter
          * A list of {@link UUID}s parsed from {@link #scanRecord()} as a convenience. May be empty, notably
          * if {@link BleManagerConfig#revertToClassicDiscoveryIfNeeded} is invoked.
          */
-        public List<UUID> advertisedServices(){  return m_advertisedServices;  }
-        private final List<UUID> m_advertisedServices;
+        public List<UUID> advertisedServices(){  return m_scanRecordView.getServiceUuids();  }
 
         /**
          * The unaltered device name retrieved from the native bluetooth stack.
@@ -114,11 +110,37 @@ public interface ScanFilter
         public int rssi(){  return m_rssi;  }
         private final int m_rssi;
 
+        /**
+         * How many advertisements have been received from the device since it was first seen (or since it was last undiscovered). Only the
+         * newest one is passed through (see {@link #scanRecord()} and {@link #rssi()}), but the RSSI of all of them goes into
+         * {@link #rssi_min()}, {@link #rssi_max()}, and {@link #rssi_smoothed()}.
+         */
+        public int advertisementCount(){  return m_advertisementCount;  }
+        private final int m_advertisementCount;
+
+        /**
+         * The lowest RSSI of the advertisements counted by {@link #advertisementCount()}.
+         */
+        public int rssi_min(){  return m_rssi_min;  }
+        private final int m_rssi_min;
+
+        /**
+         * The highest RSSI of the advertisements counted by {@link #advertisementCount()}.
+         */
+        public int rssi_max(){  return m_rssi_max;  }
+        private final int m_rssi_max;
+
+        /**
+         * Exponentially weighted moving average of the RSSI of the advertisements counted by {@link #advertisementCount()}, which is
+         * less jumpy than {@link #rssi()} when a device is advertising quickly.
+         */
+        public double rssi_smoothed(){  return m_rssi_smoothed;  }
+        private final double m_rssi_smoothed;
+
         /**
          * Returns the transmission power of the device in decibels, or {@link BleNodeConfig#INVALID_TX_POWER} if device is not advertising its transmission power.
          */
-        public int txPower(){  return m_txPower;  }
-        private final int m_txPower;
+        public int txPower(){  return m_scanRecordView.isNull() ? 0 : m_scanRecordView.getTxPower();  }
 
         /**
          * Returns the mac address of the discovered device.
@@ -138,56 +160,62 @@ public interface ScanFilter
         /**
          * Returns the advertising flags, if any, parsed from {@link #scanRecord()}.
          */
-        public int advertisingFlags()  {  return m_advertisingFlags;  }
-        private final int m_advertisingFlags;
+        public int advertisingFlags()  {  return m_scanRecordView.isNull() ? 0 : m_scanRecordView.getAdvFlags();  }
 
         /**
          * Returns the manufacturer-specific data, if any, parsed from {@link #scanRecord()}.
          */
-        public List<ManufacturerData> manufacturerDataList(){  return m_manufacturerDataList;  }
-        private final List<ManufacturerData> m_manufacturerDataList;
+        public List<ManufacturerData> manufacturerDataList(){  return m_scanRecordView.getManufacturerDataList();  }
 
-        public byte[] manufacturerData(){ return m_manufacturerData;}
-        private byte[] m_manufacturerData;
+        public byte[] manufacturerData(){ return m_scanRecordView.getManufacturerData();}
 
-        public int manufacturerId(){ return m_manufacturerId;}
-        private int m_manufacturerId;
+        public int manufacturerId(){ return m_scanRecordView.getManufacturerId();}
 
         /**
          * Returns the service data, if any, parsed from {@link #scanRecord()}.
          */
-        public Map<UUID, byte[]> serviceData()  {  return m_serviceData;  }
-        private final Map<UUID, byte[]> m_serviceData;
+        public Map<UUID, byte[]> serviceData()  {  return m_scanRecordView.getServiceData();  }
+
+        /**
+         * Returns a view over {@link #scanRecord()}, which the other parsed fields of this event come from. Fields are only decoded when
+         * they're first asked for, so if you only need one or two of them, this is the cheapest way to get at them.
+         */
+        public ScanRecordView scanRecordView(){  return m_scanRecordView;  }
+        private final ScanRecordView m_scanRecordView;
 
         ScanEvent(
                 BluetoothDevice nativeInstance, String rawDeviceName,
                 String normalizedDeviceName, byte[] scanRecord, int rssi, State.ChangeIntent lastDisconnectIntent,
-                BleScanRecord scanInfo
+                ScanRecordView scanRecordView, int advertisementCount, int rssi_min, int rssi_max, double rssi_smoothed
         )
         {
             this.m_nativeInstance = nativeInstance;
-            this.m_advertisedServices = scanInfo != null ? scanInfo.getServiceUUIDS() : new ArrayList<>(0);
+            this.m_scanRecordView = scanRecordView;
             this.m_rawDeviceName = rawDeviceName != null ? rawDeviceName : "";
             this.m_normalizedDeviceName = normalizedDeviceName;
             this.m_scanRecord = scanRecord != null ? scanRecord : P_Const.EMPTY_BYTE_ARRAY;
             this.m_rssi = rssi;
+            this.m_advertisementCount = advertisementCount;
+            this.m_rssi_min = rssi_min;
+            this.m_rssi_max = rssi_max;
+            this.m_rssi_smoothed = rssi_smoothed;
             this.m_lastDisconnectIntent = lastDisconnectIntent;
-            this.m_txPower = scanInfo != null ? scanInfo.getTxPower().value : 0;
-            this.m_advertisingFlags = scanInfo != null ? scanInfo.getAdvFlags().value : 0;
-            this.m_manufacturerData = scanInfo != null ? scanInfo.getManufacturerData() : P_Const.EMPTY_BYTE_ARRAY;
-            this.m_manufacturerId = scanInfo != null ? scanInfo.getManufacturerId() : 0;
-            this.m_serviceData = scanInfo != null ? scanInfo.getServiceData() : new HashMap<>(0);
-
-            this.m_manufacturerDataList = scanInfo != null ? scanInfo.getManufacturerDataList() : new ArrayList<>(0);
         }
 
         /*package*/ static ScanEvent fromScanRecord(final BluetoothDevice device_native, final String rawDeviceName, final String normalizedDeviceName, final int rssi, final State.ChangeIntent lastDisconnectIntent, final byte[] scanRecord)
         {
-            final String name = rawDeviceName != null ? rawDeviceName : Utils_ScanRecord.parseName(scanRecord);
+            return fromScanRecord(device_native, rawDeviceName, normalizedDeviceName, rssi, lastDisconnectIntent, scanRecord, 1, rssi, rssi, rssi);
+        }
+
+        /*package*/ static ScanEvent fromScanRecord(final BluetoothDevice device_native, final String rawDeviceName, final String normalizedDeviceName, final int rssi, final State.ChangeIntent lastDisconnectIntent, final byte[] scanRecord,
+                                                    final int advertisementCount, final int rssi_min, final int rssi_max, final double rssi_smoothed)
+        {
+            final ScanRecordView scanRecordView = new ScanRecordView(scanRecord);
 
-            BleScanRecord scanInfo = Utils_ScanRecord.parseScanRecord(scanRecord);
+            final String name_record = rawDeviceName == null ? scanRecordView.getName_complete() : null;
+            final String name = rawDeviceName != null ? rawDeviceName : name_record != null ? name_record : "<NO_NAME>";
 
-            final ScanEvent e = new ScanEvent(device_native, name, normalizedDeviceName, scanRecord, rssi, lastDisconnectIntent, scanInfo);
+            final ScanEvent e = new ScanEvent(device_native, name, normalizedDeviceName, scanRecord, rssi, lastDisconnectIntent, scanRecordView, advertisementCount, rssi_min, rssi_max, rssi_smoothed);
 
             return e;
         }
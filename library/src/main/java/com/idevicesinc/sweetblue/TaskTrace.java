@@ -0,0 +1,185 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.annotations.Advanced;
+import com.idevicesinc.sweetblue.annotations.Immutable;
+import com.idevicesinc.sweetblue.annotations.Nullable;
+import com.idevicesinc.sweetblue.annotations.Nullable.Prevalence;
+import java.util.UUID;
+
+
+/**
+ * Record of one task's trip through the task queue, from being added to it, to ending, kept when
+ * {@link BleManagerConfig#taskTraceCapacity} is above zero. See {@link BleManager#getTaskTraces()}.
+ * <br><br>
+ * Times are in nanoseconds, from {@link System#nanoTime()}, so they're only meaningful relative to each other. A time of <code>0</code> means the
+ * task never got to that point, for instance a task that was cancelled while still in the queue never gets armed, or executes.
+ */
+@Advanced
+@Immutable
+public final class TaskTrace
+{
+
+    private final String m_name;
+    private final BleTask m_taskType;
+    private final String m_macAddress;
+    private final UUID m_charUuid;
+    private final UUID m_descUuid;
+    private final int m_byteCount;
+    private final long m_timeQueued;
+    private final long m_timeArmed;
+    private final long m_timeExecuting;
+    private final long m_timeEnded;
+    private final String m_endState;
+
+
+    TaskTrace(String name, BleTask taskType, String macAddress, UUID charUuid, UUID descUuid, int byteCount, long timeQueued, long timeArmed, long timeExecuting, long timeEnded, String endState)
+    {
+        m_name = name;
+        m_taskType = taskType;
+        m_macAddress = macAddress;
+        m_charUuid = charUuid;
+        m_descUuid = descUuid;
+        m_byteCount = byteCount;
+        m_timeQueued = timeQueued;
+        m_timeArmed = timeArmed;
+        m_timeExecuting = timeExecuting;
+        m_timeEnded = timeEnded;
+        m_endState = endState;
+    }
+
+    /**
+     * Returns the name of the task, for example "Read", "Write", or "TxnLock" for the task that holds the queue for a {@link BleTransaction}.
+     */
+    public final String name()
+    {
+        return m_name;
+    }
+
+    /**
+     * Returns the type of the task, or <code>null</code> for the few internal tasks that don't have one, like scanning.
+     */
+    public final @Nullable(Prevalence.RARE) BleTask taskType()
+    {
+        return m_taskType;
+    }
+
+    /**
+     * Returns the mac address of the device the task ran for, or <code>null</code> if it wasn't for a device.
+     */
+    public final @Nullable(Prevalence.NORMAL) String macAddress()
+    {
+        return m_macAddress;
+    }
+
+    /**
+     * Returns the characteristic the task read from, or wrote to, or <code>null</code> if it didn't touch one.
+     */
+    public final @Nullable(Prevalence.NORMAL) UUID charUuid()
+    {
+        return m_charUuid;
+    }
+
+    /**
+     * Returns the descriptor the task read from, or wrote to, or <code>null</code> if it didn't touch one.
+     */
+    public final @Nullable(Prevalence.NORMAL) UUID descUuid()
+    {
+        return m_descUuid;
+    }
+
+    /**
+     * Returns how many bytes were written, or successfully read. This is <code>0</code> for tasks that don't move any data.
+     */
+    public final int byteCount()
+    {
+        return m_byteCount;
+    }
+
+    /**
+     * Returns when the task was added to the queue.
+     */
+    public final long timeQueued()
+    {
+        return m_timeQueued;
+    }
+
+    /**
+     * Returns when the task came off the queue, and was armed to execute.
+     */
+    public final long timeArmed()
+    {
+        return m_timeArmed;
+    }
+
+    /**
+     * Returns when the task started executing.
+     */
+    public final long timeExecuting()
+    {
+        return m_timeExecuting;
+    }
+
+    /**
+     * Returns when the task ended, whether it succeeded or not.
+     */
+    public final long timeEnded()
+    {
+        return m_timeEnded;
+    }
+
+    /**
+     * Returns how the task ended, for example "SUCCEEDED", "FAILED", "TIMED_OUT", or "INTERRUPTED".
+     */
+    public final String endState()
+    {
+        return m_endState;
+    }
+
+    /**
+     * Returns how long the task sat in the queue before being armed. This includes any time spent waiting out
+     * {@link BleManagerConfig#delayBetweenTasks}, or for another task (like a transaction's lock) to get out of the way.
+     */
+    public final long queueTime()
+    {
+        return span(m_timeQueued, m_timeArmed != 0 ? m_timeArmed : m_timeEnded);
+    }
+
+    /**
+     * Returns how long the task took to execute, which is mostly waiting on the radio.
+     */
+    public final long executionTime()
+    {
+        return span(m_timeExecuting, m_timeEnded);
+    }
+
+    @Override
+    public String toString()
+    {
+        return m_name + "(" + m_endState + (m_macAddress != null ? " " + m_macAddress : "") + " queued: " + queueTime() / 1000 + "us executing: " +
+                executionTime() / 1000 + "us)";
+    }
+
+
+    private static long span(long start, long end)
+    {
+        return start != 0 && end != 0 ? end - start : 0;
+    }
+}
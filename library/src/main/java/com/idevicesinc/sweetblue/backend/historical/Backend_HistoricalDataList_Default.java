@@ -31,8 +31,14 @@ import com.idevicesinc.sweetblue.utils.SingleElementIterator;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.UUID;
 
+/**
+ * Default implementation of {@link Backend_HistoricalDataList}. Only the most recent piece of data is kept in memory. Data logged with
+ * a persistence level that includes disk is also written through to the {@link Backend_HistoricalDatabase}, and once there is
+ * data on disk, all reads are served from there, a range at a time, rather than loading everything into memory.
+ */
 public class Backend_HistoricalDataList_Default implements Backend_HistoricalDataList
 {
 	private static final Iterator<HistoricalData> EMPTY_ITERATOR = new EmptyIterator<>();
@@ -41,8 +47,12 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 	private HistoricalData m_data = null;
 
 	private String m_macAddress;
+	private UUID m_uuid;
 	private Backend_HistoricalDatabase m_database;
 
+	private boolean m_hasDataOnDisk = false;
+	private int m_loadState = LOAD_STATE__NOT_LOADED;
+
 	//--- RB > Shut off the historical data warnings, as we aren't really offering the support for it at this time.
 	private boolean m_hasShownWarning_read = true;
 	private boolean m_hasShownWarning_write = true;
@@ -55,6 +65,8 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 	{
 		m_database = database;
 		m_macAddress = macAddress;
+		m_uuid = uuid;
+		m_hasDataOnDisk = hasExistingTable && database != null;
 	}
 
 	private boolean isDataInRange(final EpochTimeRange range)
@@ -62,6 +74,16 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 		return m_data != null && m_data.getEpochTime().isBetween_inclusive(range);
 	}
 
+	private boolean isOnDisk()
+	{
+		return m_hasDataOnDisk;
+	}
+
+	private static boolean includesDisk(final int persistenceLevel)
+	{
+		return BleDeviceConfig.HistoricalDataLogFilter.HistoricalDataLogEvent.includesDisk(persistenceLevel);
+	}
+
 	private void printWarning_read()
 	{
 		if( m_hasShownWarning_read )  return;
@@ -85,8 +107,8 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 		Log.w
 		(
 			"SweetBlue",
-			"NOTICE: The historical data API backend in this version of SweetBlue can only track one piece of data at a time to RAM only. " +
-					"Please contact sweetblue@idevicesinc.com to discuss upgrading to the unlimited backend with database persistence."
+			"NOTICE: The default historical data backend only keeps the most recent piece of data in RAM. " +
+					"Log with a persistence level that includes disk to keep more than that."
 		);
 	}
 
@@ -103,39 +125,92 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 
 		m_data = historicalData;
 
-		if( alreadyHadData || persistenceLevel == BleDeviceConfig.HistoricalDataLogFilter.PersistenceLevel_DISK )
+		if( includesDisk(persistenceLevel) && m_database != null )
+		{
+			m_database.add_single(m_macAddress, m_uuid, historicalData, getCountToDelete(limit, 1));
+
+			m_hasDataOnDisk = true;
+		}
+		else if( alreadyHadData )
 		{
 			printWarning_write();
 		}
 	}
 
-	@Override public void add_multiple(Iterator<HistoricalData> historicalData, final int persistenceLevel, final long limit)
+	@Override public void add_multiple(final Iterator<HistoricalData> historicalData, final int persistenceLevel, final long limit)
 	{
-		while(historicalData.hasNext() )
-		{
-			add_single(historicalData.next(), persistenceLevel, Long.MAX_VALUE);
-		}
+		add_multiple(i -> historicalData.hasNext() ? historicalData.next() : null, persistenceLevel, limit);
 	}
 
 	@Override public void add_multiple(ForEach_Returning<HistoricalData> historicalData, final int persistenceLevel, final long limit)
 	{
-		int i = 0;
+		if( persistenceLevel == BleDeviceConfig.HistoricalDataLogFilter.PersistenceLevel_NONE )  return;
+
+		if( !includesDisk(persistenceLevel) || m_database == null )
+		{
+			int i = 0;
+
+			while( true )
+			{
+				final HistoricalData next = historicalData.next(i);
+
+				if( next == null )  break;
+
+				add_single(next, persistenceLevel, limit);
+
+				i++;
+			}
+
+			return;
+		}
+
+		m_database.add_multiple_start();
+
+		try
+		{
+			int i = 0;
+
+			while( true )
+			{
+				final HistoricalData next = historicalData.next(i);
+
+				if( next == null )  break;
 
-		while( true )
+				m_data = next;
+				m_database.add_multiple_next(m_macAddress, m_uuid, next);
+
+				i++;
+			}
+		}
+		finally
 		{
-			final HistoricalData next = historicalData.next(i);
+			m_database.add_multiple_end();
+		}
 
-			if( next == null )  break;
+		m_hasDataOnDisk = true;
 
-			add_single(next, persistenceLevel, limit);
+		final long countToDelete = getCountToDelete(limit, 0);
 
-			i++;
+		if( countToDelete > 0 )
+		{
+			m_database.delete_singleUuid_inRange(m_macAddress, m_uuid, EpochTimeRange.FROM_MIN_TO_MAX, countToDelete);
 		}
 	}
 
+	private long getCountToDelete(final long limit, final int countBeingAdded)
+	{
+		if( limit == Long.MAX_VALUE )  return 0;
+
+		return Math.max(0, m_database.getCount(m_macAddress, m_uuid, EpochTimeRange.FROM_MIN_TO_MAX) + countBeingAdded - limit);
+	}
+
 	@Override public int getCount(EpochTimeRange range)
 	{
-		if( isDataInRange(range) )
+		if( isOnDisk() )
+		{
+			return m_database.getCount(m_macAddress, m_uuid, range);
+		}
+		else if( isDataInRange(range) )
 		{
 			return 1;
 		}
@@ -147,7 +222,17 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 
 	@Override public HistoricalData get(EpochTimeRange range, int offset)
 	{
-		if( isDataInRange(range) )
+		if( isOnDisk() )
+		{
+			final HistoricalDataCursor cursor = m_database.getCursor(m_macAddress, m_uuid, range);
+
+			final HistoricalData data = cursor.moveToPosition(offset) ? cursor.getHistoricalData() : HistoricalData.NULL;
+
+			cursor.close();
+
+			return data;
+		}
+		else if( isDataInRange(range) )
 		{
 			if( offset > 0 )
 			{
@@ -168,7 +253,11 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 
 	@Override public Iterator<HistoricalData> getIterator(EpochTimeRange range)
 	{
-		if( isDataInRange(range) )
+		if( isOnDisk() )
+		{
+			return new CursorIterator(m_database.getCursor(m_macAddress, m_uuid, range));
+		}
+		else if( isDataInRange(range) )
 		{
 			return new SingleElementIterator<HistoricalData>(m_data)
 			{
@@ -186,7 +275,33 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 
 	@Override public boolean doForEach(EpochTimeRange range, Object forEach)
 	{
-		if( isDataInRange(range) )
+		if( isOnDisk() )
+		{
+			if( !(forEach instanceof ForEach_Void) && !(forEach instanceof ForEach_Breakable) )  return false;
+
+			//--- The type argument gets lost going through Object, but it's always HistoricalData.
+			@SuppressWarnings("unchecked") final ForEach_Void<HistoricalData> forEach_void = forEach instanceof ForEach_Void ? (ForEach_Void<HistoricalData>) forEach : null;
+			@SuppressWarnings("unchecked") final ForEach_Breakable<HistoricalData> forEach_breakable = forEach instanceof ForEach_Breakable ? (ForEach_Breakable<HistoricalData>) forEach : null;
+
+			final HistoricalDataCursor cursor = m_database.getCursor(m_macAddress, m_uuid, range);
+
+			while( cursor.moveToNext() )
+			{
+				if( forEach_void != null )
+				{
+					forEach_void.next(cursor.getHistoricalData());
+				}
+				else if( forEach_breakable.next(cursor.getHistoricalData()).shouldBreak() )
+				{
+					break;
+				}
+			}
+
+			cursor.close();
+
+			return true;
+		}
+		else if( isDataInRange(range) )
 		{
 			if( forEach instanceof ForEach_Void )
 			{
@@ -218,7 +333,7 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 			m_data = null;
 		}
 
-		if( count > 1 )
+		if( count > 1 && !isOnDisk() )
 		{
 			printWarning_write();
 		}
@@ -227,15 +342,18 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 	@Override public void delete_fromMemoryOnlyForNowButDatabaseSoon(EpochTimeRange range, long count)
 	{
 		delete_fromMemoryOnly(range, count);
-
-		printWarning_write();
 	}
 
 	@Override public void delete_fromMemoryAndDatabase(EpochTimeRange range, long count)
 	{
 		delete_fromMemoryOnly(range, count);
 
-		printWarning_write();
+		if( m_database != null )
+		{
+			m_database.delete_singleUuid_inRange(m_macAddress, m_uuid, range, count);
+
+			m_hasDataOnDisk = m_database.doesDataExist(m_macAddress, m_uuid);
+		}
 	}
 
 	@Override public String getMacAddress()
@@ -245,17 +363,27 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 
 	@Override public void load(AsyncLoadCallback callback_nullable)
 	{
-		printWarning_write();
+		//--- Data on disk is read a range at a time as it's asked for, so there's nothing to actually load up front.
+		m_loadState = isOnDisk() ? LOAD_STATE__LOADED : LOAD_STATE__NOT_LOADED;
+
+		if( callback_nullable != null )
+		{
+			callback_nullable.onDone();
+		}
 	}
 
 	@Override public int getLoadState()
 	{
-		return LOAD_STATE__NOT_LOADED;
+		return m_loadState;
 	}
 
 	@Override public HistoricalDataCursor getCursor(EpochTimeRange range)
 	{
-		if( m_data != null )
+		if( isOnDisk() )
+		{
+			return m_database.getCursor(m_macAddress, m_uuid, range);
+		}
+		else if( m_data != null )
 		{
 			final ArrayList<HistoricalData> list = new ArrayList<>();
 			list.add(m_data);
@@ -272,7 +400,26 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 
 	@Override public EpochTimeRange getRange()
 	{
-		if( m_data != null )
+		if( isOnDisk() )
+		{
+			final HistoricalDataCursor cursor = m_database.getCursor(m_macAddress, m_uuid, EpochTimeRange.FROM_MIN_TO_MAX);
+
+			EpochTimeRange range = EpochTimeRange.NULL;
+
+			if( cursor.moveToFirst() )
+			{
+				final long from = cursor.getEpochTime();
+
+				cursor.moveToLast();
+
+				range = new EpochTimeRange(from, cursor.getEpochTime());
+			}
+
+			cursor.close();
+
+			return range;
+		}
+		else if( m_data != null )
 		{
 			return EpochTimeRange.instant(m_data.getEpochTime());
 		}
@@ -281,4 +428,44 @@ public class Backend_HistoricalDataList_Default implements Backend_HistoricalDat
 			return EpochTimeRange.NULL;
 		}
 	}
+
+	private final class CursorIterator implements Iterator<HistoricalData>
+	{
+		private final HistoricalDataCursor m_cursor;
+
+		private HistoricalData m_current = null;
+
+		CursorIterator(final HistoricalDataCursor cursor)
+		{
+			m_cursor = cursor;
+		}
+
+		@Override public boolean hasNext()
+		{
+			return m_cursor.getPosition() + 1 < m_cursor.getCount();
+		}
+
+		@Override public HistoricalData next()
+		{
+			if( !m_cursor.moveToNext() )  throw new NoSuchElementException();
+
+			m_current = m_cursor.getHistoricalData();
+
+			return m_current;
+		}
+
+		@Override public void remove()
+		{
+			if( m_current == null )  throw new IllegalStateException();
+
+			m_database.delete_singleUuid_singleDate(m_macAddress, m_uuid, m_current.getEpochTime_millis());
+
+			if( m_data != null && m_data.getEpochTime_millis() == m_current.getEpochTime_millis() )
+			{
+				m_data = null;
+			}
+
+			m_current = null;
+		}
+	}
 }
@@ -23,120 +23,367 @@ import android.database.Cursor;
 import com.idevicesinc.sweetblue.internal.IBleManager;
 import com.idevicesinc.sweetblue.utils.EmptyCursor;
 import com.idevicesinc.sweetblue.utils.EpochTimeRange;
+import com.idevicesinc.sweetblue.utils.ForEach_Breakable;
 import com.idevicesinc.sweetblue.utils.ForEach_Void;
 import com.idevicesinc.sweetblue.utils.HistoricalData;
 import com.idevicesinc.sweetblue.utils.HistoricalDataCursor;
+import com.idevicesinc.sweetblue.utils.Interval;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.UUID;
 
 /**
- * Defines a specification for an interface over a disk-persisted database (probably SQL-based but not necessarily)
- * storing arbitrary historical data for each MAC-address/UUID combination provided.
+ * Default implementation of {@link Backend_HistoricalDatabase}, which stores historical data in plain files rather than SQL.
+ * <br><br>
+ * Each mac address/uuid combination (a "table") gets its own directory inside {@link Context#getFilesDir()}, holding one
+ * append-only segment file for each day of data. Only a small summary of each segment is kept in memory. Counts, loads, and cursors
+ * only touch the segments overlapping the range asked for, and read them one at a time, so a table is never read into memory
+ * all at once.
+ * <br><br>
+ * Each {@link #add_single(String, UUID, HistoricalData, long)} is written and synced to disk immediately. When adding a lot of
+ * data, wrap the additions in {@link #add_multiple_start()} and {@link #add_multiple_end()} so they're committed together.
+ * <br><br>
+ * Data older than {@link com.idevicesinc.sweetblue.BleManagerConfig#historicalDataMaxAge} is dropped one whole day at a time.
+ * {@link #query(String)} isn't supported, as there is no SQL engine behind this implementation.
  */
 public class Backend_HistoricalDatabase_Default implements Backend_HistoricalDatabase
 {
+	/**
+	 * Name of the directory, inside {@link Context#getFilesDir()}, where historical data is stored.
+	 */
+	public static final String DIRECTORY_NAME = "sweetblue_historical_data";
+
 	private static final HistoricalDataCursor EMPTY_CURSOR = new P_HistoricalDataCursor_Empty();
 
-	private boolean m_hasShownWarning = true;
+	private final Object m_lock = new Object();
+	private final HashMap<String, P_HistoricalDataSeries> m_series = new HashMap<>();
+
+	// Series with appends that haven't been committed yet, while in the middle of add_multiple_start()/add_multiple_end()
+	private final ArrayList<P_HistoricalDataSeries> m_uncommitted = new ArrayList<>();
+	private boolean m_addingMultiple = false;
+
+	private File m_directory;
+	private IBleManager m_manager;
+
 
 	public Backend_HistoricalDatabase_Default(final Context context)
 	{
+		m_directory = context != null ? new File(context.getFilesDir(), DIRECTORY_NAME) : null;
 	}
 
 	public Backend_HistoricalDatabase_Default()
 	{
-	}
-
-	private void printWarning()
-	{
-		if( m_hasShownWarning == true )  return;
-
-		Backend_HistoricalDataList_Default.printWarning();
-
-		m_hasShownWarning = true;
+		this(null);
 	}
 
 	@Override public void init(final IBleManager manager)
 	{
+		m_manager = manager;
 
+		if( m_directory == null && manager != null && manager.getApplicationContext() != null )
+		{
+			m_directory = new File(manager.getApplicationContext().getFilesDir(), DIRECTORY_NAME);
+		}
 	}
 
 	@Override public void add_single(final String macAddress, final UUID uuid, final HistoricalData data, final long maxCountToDelete)
 	{
-		printWarning();
+		synchronized (m_lock)
+		{
+			final P_HistoricalDataSeries series = getSeries(macAddress, uuid, /*create=*/true);
+
+			if( series == null )  return;
+
+			try
+			{
+				series.append(data.getEpochTime_millis(), data.getBlob());
+
+				if( m_addingMultiple )
+				{
+					addUncommitted(series);
+				}
+				else
+				{
+					series.commit();
+				}
+
+				if( maxCountToDelete > 0 )
+				{
+					series.delete(Long.MIN_VALUE, Long.MAX_VALUE, maxCountToDelete);
+				}
+
+				enforceMaxAge(series);
+			}
+			catch(IOException e)
+			{
+				onError(macAddress, uuid, e);
+			}
+		}
 	}
 
 	@Override public void add_multiple_start()
 	{
-		printWarning();
+		synchronized (m_lock)
+		{
+			m_addingMultiple = true;
+		}
 	}
 
 	@Override public void add_multiple_next(final String macAddress, final UUID uuid, final HistoricalData data)
 	{
-		printWarning();
+		synchronized (m_lock)
+		{
+			final P_HistoricalDataSeries series = getSeries(macAddress, uuid, /*create=*/true);
+
+			if( series == null )  return;
+
+			try
+			{
+				series.append(data.getEpochTime_millis(), data.getBlob());
+
+				if( m_addingMultiple )
+				{
+					addUncommitted(series);
+				}
+				else
+				{
+					series.commit();
+				}
+			}
+			catch(IOException e)
+			{
+				onError(macAddress, uuid, e);
+			}
+		}
 	}
 
 	@Override public void add_multiple_end()
 	{
-		printWarning();
+		synchronized (m_lock)
+		{
+			m_addingMultiple = false;
+
+			for( int i = 0; i < m_uncommitted.size(); i++ )
+			{
+				final P_HistoricalDataSeries series = m_uncommitted.get(i);
+
+				try
+				{
+					series.commit();
+
+					enforceMaxAge(series);
+				}
+				catch(IOException e)
+				{
+					onError(series, e);
+				}
+			}
+
+			m_uncommitted.clear();
+		}
 	}
 
 	@Override public void delete_singleUuid_all(final String macAddress, final UUID uuid)
 	{
-		printWarning();
+		synchronized (m_lock)
+		{
+			final P_HistoricalDataSeries series = getSeries(macAddress, uuid, /*create=*/false);
+
+			if( series == null )  return;
+
+			series.deleteAll();
+
+			m_uncommitted.remove(series);
+			m_series.remove(getTableName(macAddress, uuid));
+		}
 	}
 
 	@Override public void delete_singleUuid_inRange(final String macAddress, final UUID uuid, final EpochTimeRange range, final long maxCountToDelete)
 	{
-		printWarning();
+		synchronized (m_lock)
+		{
+			final P_HistoricalDataSeries series = getSeries(macAddress, uuid, /*create=*/false);
+
+			if( series == null )  return;
+
+			try
+			{
+				series.delete(range.from().toMilliseconds(), range.to().toMilliseconds(), maxCountToDelete);
+			}
+			catch(IOException e)
+			{
+				onError(macAddress, uuid, e);
+			}
+		}
 	}
 
 	@Override public void delete_singleUuid_singleDate(final String macAddress, final UUID uuid, final long date)
 	{
-		printWarning();
+		delete_singleUuid_inRange(macAddress, uuid, new EpochTimeRange(date, date), Long.MAX_VALUE);
 	}
 
 	@Override public void delete_multipleUuids(final String[] macAddresses, final UUID[] uuids, final EpochTimeRange range, final long count)
 	{
-		printWarning();
+		if( macAddresses == null || uuids == null )  return;
+
+		for( int i = 0; i < uuids.length; i++ )
+		{
+			if( macAddresses[i] == null || uuids[i] == null )  continue;
+
+			delete_singleUuid_inRange(macAddresses[i], uuids[i], range, count);
+		}
 	}
 
 	@Override public boolean doesDataExist(final String macAddress, final UUID uuid)
 	{
-		printWarning();
+		synchronized (m_lock)
+		{
+			final P_HistoricalDataSeries series = getSeries(macAddress, uuid, /*create=*/false);
 
-		return false;
+			return series != null && !series.isEmpty();
+		}
 	}
 
 	@Override public void load(final String macAddress, final UUID uuid, final EpochTimeRange range, final ForEach_Void<HistoricalData> forEach)
 	{
-		printWarning();
+		synchronized (m_lock)
+		{
+			final P_HistoricalDataSeries series = getSeries(macAddress, uuid, /*create=*/false);
+
+			if( series == null )  return;
+
+			try
+			{
+				series.forEach(range.from().toMilliseconds(), range.to().toMilliseconds(), next ->
+				{
+					forEach.next(next);
+
+					return ForEach_Breakable.Please.doContinue();
+				});
+			}
+			catch(IOException e)
+			{
+				onError(macAddress, uuid, e);
+			}
+		}
 	}
 
-	@Override public int getCount(String macAddress, UUID uuid, final EpochTimeRange range)
+	@Override public int getCount(final String macAddress, final UUID uuid, final EpochTimeRange range)
 	{
-		printWarning();
-
-		return 0;
+		synchronized (m_lock)
+		{
+			final P_HistoricalDataSeries series = getSeries(macAddress, uuid, /*create=*/false);
+
+			if( series == null )  return 0;
+
+			try
+			{
+				return series.getCount(range.from().toMilliseconds(), range.to().toMilliseconds());
+			}
+			catch(IOException e)
+			{
+				onError(macAddress, uuid, e);
+
+				return 0;
+			}
+		}
 	}
 
-	@Override public HistoricalDataCursor getCursor(String macAddress, UUID uuid, EpochTimeRange range)
+	@Override public HistoricalDataCursor getCursor(final String macAddress, final UUID uuid, final EpochTimeRange range)
 	{
-		printWarning();
-
-		return EMPTY_CURSOR;
+		synchronized (m_lock)
+		{
+			final P_HistoricalDataSeries series = getSeries(macAddress, uuid, /*create=*/false);
+
+			if( series == null )  return EMPTY_CURSOR;
+
+			try
+			{
+				return new P_HistoricalDataCursor_Disk(series, m_lock, range.from().toMilliseconds(), range.to().toMilliseconds());
+			}
+			catch(IOException e)
+			{
+				onError(macAddress, uuid, e);
+
+				return EMPTY_CURSOR;
+			}
+		}
 	}
 
 	@Override public Cursor query(String query)
 	{
-		printWarning();
-
 		return EmptyCursor.SINGLETON;
 	}
 
 	@Override public String getTableName(String macAddress, UUID uuid)
 	{
-		printWarning();
+		return macAddress.replace(":", "").toUpperCase() + "_" + uuid.toString();
+	}
+
+
+
+	private P_HistoricalDataSeries getSeries(final String macAddress, final UUID uuid, final boolean create)
+	{
+		if( m_directory == null || macAddress == null || uuid == null )  return null;
+
+		final String tableName = getTableName(macAddress, uuid);
+
+		P_HistoricalDataSeries series = m_series.get(tableName);
+
+		if( series == null )
+		{
+			final File directory = new File(m_directory, tableName);
+
+			if( !create && !directory.exists() )  return null;
+
+			series = new P_HistoricalDataSeries(directory, m_manager);
+
+			m_series.put(tableName, series);
+		}
+
+		return series;
+	}
+
+	private void addUncommitted(final P_HistoricalDataSeries series)
+	{
+		if( !m_uncommitted.contains(series) )
+		{
+			m_uncommitted.add(series);
+		}
+	}
+
+	private void enforceMaxAge(final P_HistoricalDataSeries series)
+	{
+		final Interval maxAge = m_manager != null ? m_manager.conf_mngr().historicalDataMaxAge : null;
+
+		if( Interval.isEnabled(maxAge) && maxAge != Interval.INFINITE )
+		{
+			series.deleteBefore(System.currentTimeMillis() - maxAge.millis());
+		}
+	}
+
+	private void onError(final String macAddress, final UUID uuid, final IOException e)
+	{
+		onError(m_series.get(getTableName(macAddress, uuid)), e);
+	}
+
+	private void onError(final P_HistoricalDataSeries series_nullable, final IOException e)
+	{
+		if( m_manager != null )
+		{
+			m_manager.getLogger().e("Historical data disk operation failed: " + e.getMessage());
+		}
+
+		if( series_nullable == null )  return;
+
+		//--- The in-memory summaries can't be trusted after a failed write, so drop the series. It'll be rescanned from disk
+		//--- (chopping off any partly written record) next time it's needed.
+		series_nullable.close();
 
-		return "";
+		m_uncommitted.remove(series_nullable);
+		m_series.values().remove(series_nullable);
 	}
 }
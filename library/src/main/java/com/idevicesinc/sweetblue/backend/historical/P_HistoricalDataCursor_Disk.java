@@ -0,0 +1,231 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.backend.historical;
+
+import com.idevicesinc.sweetblue.utils.EpochTime;
+import com.idevicesinc.sweetblue.utils.HistoricalData;
+import com.idevicesinc.sweetblue.utils.HistoricalDataCursor;
+import com.idevicesinc.sweetblue.utils.P_Const;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link HistoricalDataCursor} over a range of a {@link P_HistoricalDataSeries}. Only the segment holding the current position
+ * is ever read into memory.
+ */
+final class P_HistoricalDataCursor_Disk implements HistoricalDataCursor
+{
+	private final P_HistoricalDataSeries m_series;
+	private final Object m_lock;
+	private final long m_from;
+	private final long m_to;
+
+	private final P_HistoricalDataSegment[] m_segments;
+
+	// Position of the first record of each segment
+	private final int[] m_offsets;
+	private final int m_count;
+
+	private int m_position = -1;
+
+	private int m_loadedIndex = -1;
+	private List<HistoricalData> m_loaded = null;
+
+	private boolean m_isClosed = false;
+
+
+	P_HistoricalDataCursor_Disk(final P_HistoricalDataSeries series, final Object lock, final long from, final long to) throws IOException
+	{
+		m_series = series;
+		m_lock = lock;
+		m_from = from;
+		m_to = to;
+
+		final List<P_HistoricalDataSegment> segments = series.getSegments(from, to);
+
+		m_segments = new P_HistoricalDataSegment[segments.size()];
+		m_offsets = new int[segments.size()];
+
+		int count = 0;
+
+		for( int i = 0; i < m_segments.length; i++ )
+		{
+			final P_HistoricalDataSegment segment = segments.get(i);
+
+			m_segments[i] = segment;
+			m_offsets[i] = count;
+
+			count += series.getCount(segment, from, to);
+		}
+
+		m_count = count;
+	}
+
+	@Override public int getCount()
+	{
+		return m_count;
+	}
+
+	@Override public int getPosition()
+	{
+		return m_position;
+	}
+
+	@Override public boolean move(int offset)
+	{
+		return moveToPosition(getPosition() + offset);
+	}
+
+	@Override public boolean moveToPosition(int position)
+	{
+		if( position < 0 )
+		{
+			m_position = -1;
+
+			return false;
+		}
+		else if( position >= m_count )
+		{
+			m_position = m_count;
+
+			return false;
+		}
+		else
+		{
+			m_position = position;
+
+			return true;
+		}
+	}
+
+	@Override public boolean moveToFirst()
+	{
+		return moveToPosition(0);
+	}
+
+	@Override public boolean moveToLast()
+	{
+		return moveToPosition(getCount()-1);
+	}
+
+	@Override public boolean moveToNext()
+	{
+		return moveToPosition(getPosition()+1);
+	}
+
+	@Override public boolean moveToPrevious()
+	{
+		return moveToPosition(getPosition()-1);
+	}
+
+	@Override public boolean isFirst()
+	{
+		return m_count > 0 && getPosition() == 0;
+	}
+
+	@Override public boolean isLast()
+	{
+		return m_count > 0 && getPosition() == getCount()-1;
+	}
+
+	@Override public boolean isBeforeFirst()
+	{
+		return m_count == 0 || m_position == -1;
+	}
+
+	@Override public boolean isAfterLast()
+	{
+		return m_count == 0 || m_position >= getCount();
+	}
+
+	@Override public void close()
+	{
+		if( m_isClosed )  return;
+
+		m_isClosed = true;
+		m_loaded = null;
+	}
+
+	@Override public boolean isClosed()
+	{
+		return m_isClosed;
+	}
+
+	@Override public long getEpochTime()
+	{
+		final HistoricalData data = getHistoricalData();
+
+		return data.isNull() ? EpochTime.NULL.toMilliseconds() : data.getEpochTime_millis();
+	}
+
+	@Override public byte[] getBlob()
+	{
+		final HistoricalData data = getHistoricalData();
+
+		return data.isNull() ? P_Const.EMPTY_BYTE_ARRAY : data.getBlob();
+	}
+
+	@Override public HistoricalData getHistoricalData()
+	{
+		if( m_isClosed || m_position < 0 || m_position >= m_count )  return HistoricalData.NULL;
+
+		int index = Arrays.binarySearch(m_offsets, m_position);
+
+		if( index < 0 )
+		{
+			index = -index - 2;
+		}
+		else
+		{
+			//--- Skip past any segments which didn't have anything in range, so we land on the one which actually holds this position.
+			while( index + 1 < m_offsets.length && m_offsets[index + 1] == m_position )
+			{
+				index++;
+			}
+		}
+
+		if( index != m_loadedIndex )
+		{
+			m_loaded = load(m_segments[index]);
+			m_loadedIndex = index;
+		}
+
+		final int offset = m_position - m_offsets[index];
+
+		//--- The segment may have been changed since this cursor was created, in which case positions past its new end have nothing left.
+		return offset < m_loaded.size() ? m_loaded.get(offset) : HistoricalData.NULL;
+	}
+
+	private List<HistoricalData> load(final P_HistoricalDataSegment segment)
+	{
+		synchronized (m_lock)
+		{
+			try
+			{
+				return m_series.read(segment, m_from, m_to);
+			}
+			catch(IOException e)
+			{
+				return Collections.emptyList();
+			}
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.backend.historical;
+
+import java.io.File;
+
+/**
+ * In-memory summary of one segment file of a {@link P_HistoricalDataSeries}. A segment holds every record whose epoch time falls
+ * inside one partition of time, appended one after the other as <code>[epoch time (long)][blob length (int)][blob]</code>.
+ */
+final class P_HistoricalDataSegment
+{
+	static final String EXTENSION = ".seg";
+
+	// Epoch time (long) + blob length (int)
+	static final int RECORD_HEADER_SIZE = 12;
+
+	final File m_file;
+	final long m_partition;
+
+	int m_count;
+	long m_minTime;
+	long m_maxTime;
+	long m_length;
+
+	//--- Records are usually appended in time order. If one ever isn't, reads need to sort the segment before handing anything out.
+	boolean m_sorted;
+
+
+	P_HistoricalDataSegment(final File directory, final long partition)
+	{
+		m_file = new File(directory, partition + EXTENSION);
+		m_partition = partition;
+
+		clear();
+	}
+
+	void clear()
+	{
+		m_count = 0;
+		m_minTime = Long.MAX_VALUE;
+		m_maxTime = Long.MIN_VALUE;
+		m_length = 0;
+		m_sorted = true;
+	}
+
+	void onAppended(final long epochTime, final int blobLength)
+	{
+		if( m_count > 0 && epochTime < m_maxTime )
+		{
+			m_sorted = false;
+		}
+
+		m_minTime = Math.min(m_minTime, epochTime);
+		m_maxTime = Math.max(m_maxTime, epochTime);
+		m_length += RECORD_HEADER_SIZE + blobLength;
+		m_count++;
+	}
+
+	boolean isEmpty()
+	{
+		return m_count == 0;
+	}
+
+	boolean overlaps(final long from, final long to)
+	{
+		return !isEmpty() && m_minTime <= to && m_maxTime >= from;
+	}
+
+	boolean isWithin(final long from, final long to)
+	{
+		return !isEmpty() && m_minTime >= from && m_maxTime <= to;
+	}
+}
@@ -0,0 +1,603 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.backend.historical;
+
+import com.idevicesinc.sweetblue.internal.IBleManager;
+import com.idevicesinc.sweetblue.utils.EpochTimeRange;
+import com.idevicesinc.sweetblue.utils.ForEach_Breakable;
+import com.idevicesinc.sweetblue.utils.HistoricalData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * All the historical data for a single mac address/uuid combination, stored as a directory of append-only
+ * {@link P_HistoricalDataSegment} files, one per {@link #PARTITION_MILLIS} of time. Only the segment summaries are kept
+ * in memory; records are read from disk one segment at a time, and only from segments that overlap the range being asked for.
+ * <br><br>
+ * Not thread safe, {@link Backend_HistoricalDatabase_Default} synchronizes all access.
+ */
+final class P_HistoricalDataSeries
+{
+	static final long PARTITION_MILLIS = 24L * 60L * 60L * 1000L;
+
+	private static final String TEMP_EXTENSION = ".tmp";
+
+	private static final Comparator<HistoricalData> TIME_COMPARATOR = (lhs, rhs) ->
+	{
+		final long lhsTime = lhs.getEpochTime_millis();
+		final long rhsTime = rhs.getEpochTime_millis();
+
+		return lhsTime < rhsTime ? -1 : (lhsTime == rhsTime ? 0 : 1);
+	};
+
+	private final File m_directory;
+	private final IBleManager m_manager_nullable;
+	private final TreeMap<Long, P_HistoricalDataSegment> m_segments = new TreeMap<>();
+
+	private P_HistoricalDataSegment m_openSegment = null;
+	private FileOutputStream m_openFile = null;
+	private DataOutputStream m_openStream = null;
+
+
+	P_HistoricalDataSeries(final File directory, final IBleManager manager_nullable)
+	{
+		m_directory = directory;
+		m_manager_nullable = manager_nullable;
+
+		scan();
+	}
+
+	static long getPartition(final long epochTime)
+	{
+		long partition = epochTime / PARTITION_MILLIS;
+
+		if( epochTime % PARTITION_MILLIS < 0 && partition > Long.MIN_VALUE / PARTITION_MILLIS )
+		{
+			partition--;
+		}
+
+		return partition * PARTITION_MILLIS;
+	}
+
+	boolean isEmpty()
+	{
+		return m_segments.isEmpty();
+	}
+
+	EpochTimeRange getRange()
+	{
+		if( isEmpty() )  return EpochTimeRange.NULL;
+
+		return new EpochTimeRange(m_segments.firstEntry().getValue().m_minTime, m_segments.lastEntry().getValue().m_maxTime);
+	}
+
+	/**
+	 * Appends a record to the segment for its partition. The write is buffered until {@link #commit()} is called.
+	 */
+	void append(final long epochTime, final byte[] blob) throws IOException
+	{
+		final long partition = getPartition(epochTime);
+
+		P_HistoricalDataSegment segment = m_segments.get(partition);
+
+		if( segment == null )
+		{
+			if( !m_directory.exists() && !m_directory.mkdirs() )
+			{
+				throw new IOException("Unable to create historical data directory " + m_directory);
+			}
+
+			segment = new P_HistoricalDataSegment(m_directory, partition);
+
+			//--- The file may have been skipped by scan() (it was empty, or couldn't be read at the time), so pick up whatever is
+			//--- already in it before appending, otherwise the summary wouldn't match the file.
+			if( segment.m_file.exists() )
+			{
+				scan(segment);
+			}
+
+			m_segments.put(partition, segment);
+		}
+
+		if( segment != m_openSegment )
+		{
+			// Whatever went to the previous segment has to be on disk before we move on, or a failure would only show up as lost data later.
+			commit();
+
+			m_openFile = new FileOutputStream(segment.m_file, true);
+			m_openStream = new DataOutputStream(new BufferedOutputStream(m_openFile));
+			m_openSegment = segment;
+		}
+
+		m_openStream.writeLong(epochTime);
+		m_openStream.writeInt(blob.length);
+		m_openStream.write(blob);
+
+		segment.onAppended(epochTime, blob.length);
+	}
+
+	/**
+	 * Flushes and syncs anything appended since the last commit to disk.
+	 */
+	void commit() throws IOException
+	{
+		if( m_openStream == null )  return;
+
+		final DataOutputStream stream = m_openStream;
+		final FileOutputStream file = m_openFile;
+
+		m_openStream = null;
+		m_openFile = null;
+		m_openSegment = null;
+
+		try
+		{
+			stream.flush();
+			file.getFD().sync();
+		}
+		finally
+		{
+			stream.close();
+		}
+	}
+
+	int getCount(final long from, final long to) throws IOException
+	{
+		int count = 0;
+
+		for( P_HistoricalDataSegment segment : getSegments(from, to) )
+		{
+			count += getCount(segment, from, to);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns how many records in the given segment fall in the range. Only reads the segment if it's partly in the range.
+	 */
+	int getCount(final P_HistoricalDataSegment segment, final long from, final long to) throws IOException
+	{
+		if( !segment.overlaps(from, to) )
+		{
+			return 0;
+		}
+		else if( segment.isWithin(from, to) )
+		{
+			return segment.m_count;
+		}
+		else
+		{
+			return countRecords(segment, from, to);
+		}
+	}
+
+	/**
+	 * Returns the segments that may hold records in the given range, oldest first.
+	 */
+	List<P_HistoricalDataSegment> getSegments(final long from, final long to)
+	{
+		if( from > to )  return Collections.emptyList();
+
+		final NavigableMap<Long, P_HistoricalDataSegment> segments = m_segments.subMap(getPartition(from), true, getPartition(to), true);
+
+		return new ArrayList<>(segments.values());
+	}
+
+	/**
+	 * Reads the records in the given range out of a single segment, in time order.
+	 */
+	List<HistoricalData> read(final P_HistoricalDataSegment segment, final long from, final long to) throws IOException
+	{
+		final ArrayList<HistoricalData> records = new ArrayList<>();
+
+		if( !segment.overlaps(from, to) )  return records;
+
+		flushIfOpen(segment);
+
+		final DataInputStream in = openForRead(segment);
+
+		try
+		{
+			for( int i = 0; i < segment.m_count; i++ )
+			{
+				final long epochTime = in.readLong();
+				final int length = in.readInt();
+
+				if( epochTime >= from && epochTime <= to )
+				{
+					final byte[] blob = new byte[length];
+					in.readFully(blob);
+
+					records.add(new HistoricalData(blob, epochTime));
+				}
+				else
+				{
+					skipFully(in, length);
+				}
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+
+		if( !segment.m_sorted )
+		{
+			//--- Collections.sort() is stable, so records with the same time stay in the order they were added.
+			Collections.sort(records, TIME_COMPARATOR);
+		}
+
+		return records;
+	}
+
+	/**
+	 * Calls the given {@link ForEach_Breakable} for each record in the range, oldest first. Returns <code>false</code> if it asked to break.
+	 */
+	boolean forEach(final long from, final long to, final ForEach_Breakable<HistoricalData> forEach) throws IOException
+	{
+		for( P_HistoricalDataSegment segment : getSegments(from, to) )
+		{
+			for( HistoricalData data : read(segment, from, to) )
+			{
+				if( forEach.next(data).shouldBreak() )  return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Deletes up to <code>maxCount</code> records in the given range, oldest first. Segments which are entirely deleted are
+	 * simply removed, anything else gets rewritten without the deleted records. Returns how many records were deleted.
+	 */
+	long delete(final long from, final long to, final long maxCount) throws IOException
+	{
+		long remaining = maxCount;
+
+		for( P_HistoricalDataSegment segment : getSegments(from, to) )
+		{
+			if( remaining <= 0 )  break;
+
+			if( !segment.overlaps(from, to) )  continue;
+
+			if( segment.isWithin(from, to) && segment.m_count <= remaining )
+			{
+				remaining -= segment.m_count;
+
+				deleteSegment(segment);
+			}
+			else
+			{
+				remaining -= rewrite(segment, from, to, remaining);
+			}
+		}
+
+		return maxCount - remaining;
+	}
+
+	/**
+	 * Removes every segment whose partition ended before the given time. Used to enforce a maximum age, so data is dropped a
+	 * whole partition at a time.
+	 */
+	void deleteBefore(final long epochTime)
+	{
+		while( !m_segments.isEmpty() )
+		{
+			final P_HistoricalDataSegment oldest = m_segments.firstEntry().getValue();
+
+			if( oldest.m_partition > epochTime - PARTITION_MILLIS )  break;
+
+			deleteSegment(oldest);
+		}
+	}
+
+	void deleteAll()
+	{
+		closeStream();
+
+		final Collection<P_HistoricalDataSegment> segments = new ArrayList<>(m_segments.values());
+
+		for( P_HistoricalDataSegment segment : segments )
+		{
+			deleteSegment(segment);
+		}
+
+		final File[] leftovers = m_directory.listFiles();
+
+		if( leftovers != null )
+		{
+			for( File leftover : leftovers )
+			{
+				leftover.delete();
+			}
+		}
+
+		m_directory.delete();
+	}
+
+	void close()
+	{
+		closeStream();
+	}
+
+
+
+	private void scan()
+	{
+		final File[] files = m_directory.listFiles();
+
+		if( files == null )  return;
+
+		for( File file : files )
+		{
+			final String name = file.getName();
+
+			if( name.endsWith(TEMP_EXTENSION) )
+			{
+				//--- Left over from a rewrite that never finished, the original segment is still intact.
+				file.delete();
+
+				continue;
+			}
+
+			if( !name.endsWith(P_HistoricalDataSegment.EXTENSION) )  continue;
+
+			final long partition;
+
+			try
+			{
+				partition = Long.parseLong(name.substring(0, name.length() - P_HistoricalDataSegment.EXTENSION.length()));
+			}
+			catch(NumberFormatException e)
+			{
+				continue;
+			}
+
+			final P_HistoricalDataSegment segment = new P_HistoricalDataSegment(m_directory, partition);
+
+			try
+			{
+				scan(segment);
+			}
+			catch(IOException e)
+			{
+				//--- Could well be transient, so leave the file alone. It gets another look the next time the series is loaded,
+				//--- or when something is appended to its partition.
+				if( m_manager_nullable != null )
+				{
+					m_manager_nullable.getLogger().e("Unable to read historical data segment " + file + ": " + e.getMessage());
+				}
+
+				continue;
+			}
+
+			if( !segment.isEmpty() )
+			{
+				m_segments.put(partition, segment);
+			}
+		}
+	}
+
+	private void scan(final P_HistoricalDataSegment segment) throws IOException
+	{
+		final long fileLength = segment.m_file.length();
+		final DataInputStream in = openForRead(segment);
+
+		try
+		{
+			while( segment.m_length + P_HistoricalDataSegment.RECORD_HEADER_SIZE <= fileLength )
+			{
+				final long epochTime = in.readLong();
+				final int length = in.readInt();
+
+				if( length < 0 || segment.m_length + P_HistoricalDataSegment.RECORD_HEADER_SIZE + length > fileLength )  break;
+
+				skipFully(in, length);
+
+				segment.onAppended(epochTime, length);
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+
+		if( segment.m_length < fileLength )
+		{
+			//--- A partial record at the end means we got killed in the middle of a write. Chop it off, otherwise everything
+			//--- appended after it would be misread.
+			final RandomAccessFile file = new RandomAccessFile(segment.m_file, "rw");
+
+			try
+			{
+				file.setLength(segment.m_length);
+			}
+			finally
+			{
+				file.close();
+			}
+		}
+	}
+
+	private int countRecords(final P_HistoricalDataSegment segment, final long from, final long to) throws IOException
+	{
+		flushIfOpen(segment);
+
+		int count = 0;
+
+		final DataInputStream in = openForRead(segment);
+
+		try
+		{
+			for( int i = 0; i < segment.m_count; i++ )
+			{
+				final long epochTime = in.readLong();
+				final int length = in.readInt();
+
+				skipFully(in, length);
+
+				if( epochTime >= from && epochTime <= to )
+				{
+					count++;
+				}
+			}
+		}
+		finally
+		{
+			in.close();
+		}
+
+		return count;
+	}
+
+	private long rewrite(final P_HistoricalDataSegment segment, final long from, final long to, final long maxCount) throws IOException
+	{
+		final List<HistoricalData> records = read(segment, Long.MIN_VALUE, Long.MAX_VALUE);
+
+		if( segment == m_openSegment )
+		{
+			commit();
+		}
+
+		final File temp = new File(m_directory, segment.m_partition + TEMP_EXTENSION);
+		final FileOutputStream file = new FileOutputStream(temp);
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file));
+
+		long deleted = 0;
+
+		segment.clear();
+
+		try
+		{
+			for( HistoricalData record : records )
+			{
+				final long epochTime = record.getEpochTime_millis();
+
+				if( deleted < maxCount && epochTime >= from && epochTime <= to )
+				{
+					deleted++;
+
+					continue;
+				}
+
+				out.writeLong(epochTime);
+				out.writeInt(record.getBlob().length);
+				out.write(record.getBlob());
+
+				segment.onAppended(epochTime, record.getBlob().length);
+			}
+
+			out.flush();
+			file.getFD().sync();
+		}
+		finally
+		{
+			out.close();
+		}
+
+		if( segment.isEmpty() )
+		{
+			temp.delete();
+
+			deleteSegment(segment);
+		}
+		else if( !temp.renameTo(segment.m_file) )
+		{
+			temp.delete();
+
+			throw new IOException("Unable to replace historical data segment " + segment.m_file);
+		}
+
+		return deleted;
+	}
+
+	private void deleteSegment(final P_HistoricalDataSegment segment)
+	{
+		if( segment == m_openSegment )
+		{
+			closeStream();
+		}
+
+		segment.m_file.delete();
+		segment.clear();
+
+		m_segments.remove(segment.m_partition);
+	}
+
+	private void flushIfOpen(final P_HistoricalDataSegment segment) throws IOException
+	{
+		if( segment == m_openSegment && m_openStream != null )
+		{
+			m_openStream.flush();
+		}
+	}
+
+	private void closeStream()
+	{
+		if( m_openStream != null )
+		{
+			try
+			{
+				m_openStream.close();
+			}
+			catch(IOException e)
+			{
+			}
+		}
+
+		m_openStream = null;
+		m_openFile = null;
+		m_openSegment = null;
+	}
+
+	private static DataInputStream openForRead(final P_HistoricalDataSegment segment) throws IOException
+	{
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(segment.m_file)));
+	}
+
+	private static void skipFully(final DataInputStream in, final int length) throws IOException
+	{
+		int remaining = length;
+
+		while( remaining > 0 )
+		{
+			final int skipped = in.skipBytes(remaining);
+
+			if( skipped <= 0 )  throw new EOFException();
+
+			remaining -= skipped;
+		}
+	}
+}
@@ -17,9 +17,7 @@
 
 /**
  * Contains specification and default implementation of a "backend" for instances of {@link com.idevicesinc.sweetblue.BleDevice}
- * that stores and manages historical data. The default implementation released with the open source GPLv3 code can only
- * track one piece of historical data per UUID at a time, and only to memory.
- * <br><br>
- * Please contact sweetblue@idevicesinc.com to discuss upgrade options.
+ * that stores and manages historical data. The default implementation keeps the most recent piece of historical data per UUID
+ * in memory, and persists data logged to disk in append-only segment files, one directory per MAC address/UUID combination.
  */
 package com.idevicesinc.sweetblue.backend.historical;
@@ -0,0 +1,59 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.backend.options;
+
+
+import android.content.Context;
+
+import java.util.Map;
+
+/**
+ * Defines a specification for the key/value store behind the small pieces of state SweetBlue keeps across app launches for each MAC address,
+ * like how a device was last disconnected, whether it needs bonding, and any name it was given. Keys are grouped into namespaces, and
+ * values are only ever {@link Integer}, {@link Boolean}, or {@link String}.
+ * <br><br>
+ * SweetBlue only reads a namespace once, and keeps the authoritative copy in memory. Changes are coalesced and handed to
+ * {@link #write(String, boolean, Map)} in batches, off of SweetBlue's update thread, so implementations are free to block.
+ */
+public interface Backend_OptionsStore
+{
+	/**
+	 * Factory used to create the store for a {@link com.idevicesinc.sweetblue.BleManager}, set through
+	 * {@link com.idevicesinc.sweetblue.BleManagerConfig#optionsStoreFactory}.
+	 */
+	interface Factory
+	{
+		Backend_OptionsStore newInstance(final Context context);
+	}
+
+	/**
+	 * The default {@link Factory}, which creates a {@link Backend_OptionsStore_SharedPreferences}.
+	 */
+	Factory DEFAULT_FACTORY = Backend_OptionsStore_SharedPreferences::new;
+
+	/**
+	 * Returns everything stored in the given namespace.
+	 */
+	Map<String, ?> loadAll(final String namespace);
+
+	/**
+	 * Writes a batch of changes to the given namespace, which should be on disk once this returns. If <code>clearFirst</code> is <code>true</code>,
+	 * everything in the namespace is removed before the changes are applied. A <code>null</code> value means the key should be removed.
+	 */
+	void write(final String namespace, final boolean clearFirst, final Map<String, ?> changes);
+}
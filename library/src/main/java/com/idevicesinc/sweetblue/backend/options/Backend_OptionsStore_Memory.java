@@ -0,0 +1,80 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.backend.options;
+
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Implementation of {@link Backend_OptionsStore} which only keeps things in memory, for plain JVM unit tests where there's no
+ * {@link android.content.SharedPreferences} to write to. Share one instance across {@link com.idevicesinc.sweetblue.BleManager}
+ * instances to simulate things surviving an app relaunch.
+ */
+public class Backend_OptionsStore_Memory implements Backend_OptionsStore
+{
+	private final HashMap<String, HashMap<String, Object>> m_namespaces = new HashMap<>();
+
+	private int m_writeCount = 0;
+
+
+	@Override public synchronized Map<String, ?> loadAll(final String namespace)
+	{
+		final HashMap<String, Object> values = m_namespaces.get(namespace);
+
+		return values != null ? new HashMap<>(values) : new HashMap<String, Object>();
+	}
+
+	@Override public synchronized void write(final String namespace, final boolean clearFirst, final Map<String, ?> changes)
+	{
+		HashMap<String, Object> values = m_namespaces.get(namespace);
+
+		if( values == null )
+		{
+			values = new HashMap<>();
+			m_namespaces.put(namespace, values);
+		}
+
+		if( clearFirst )
+		{
+			values.clear();
+		}
+
+		for( Map.Entry<String, ?> entry : changes.entrySet() )
+		{
+			if( entry.getValue() == null )
+			{
+				values.remove(entry.getKey());
+			}
+			else
+			{
+				values.put(entry.getKey(), entry.getValue());
+			}
+		}
+
+		m_writeCount++;
+	}
+
+	/**
+	 * Returns how many times {@link #write(String, boolean, Map)} has been called.
+	 */
+	public synchronized int getWriteCount()
+	{
+		return m_writeCount;
+	}
+}
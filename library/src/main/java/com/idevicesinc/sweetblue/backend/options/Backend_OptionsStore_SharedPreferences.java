@@ -0,0 +1,99 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.backend.options;
+
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Default implementation of {@link Backend_OptionsStore}, which keeps each namespace in its own {@link SharedPreferences} file.
+ */
+//--- Batches are written off of the update thread, and should be on disk by the time write() returns, so commit() is what we want.
+@SuppressLint("ApplySharedPref")
+public class Backend_OptionsStore_SharedPreferences implements Backend_OptionsStore
+{
+	private static final int ACCESS_MODE = Context.MODE_PRIVATE;
+
+	private final Context m_context;
+	private final HashMap<String, SharedPreferences> m_prefsInstances = new HashMap<>();
+
+
+	public Backend_OptionsStore_SharedPreferences(final Context context)
+	{
+		m_context = context;
+	}
+
+	private synchronized SharedPreferences prefs(final String namespace)
+	{
+		SharedPreferences prefs = m_prefsInstances.get(namespace);
+
+		if( prefs == null )
+		{
+			prefs = m_context.getSharedPreferences(namespace, ACCESS_MODE);
+			m_prefsInstances.put(namespace, prefs);
+		}
+
+		return prefs;
+	}
+
+	@Override public Map<String, ?> loadAll(final String namespace)
+	{
+		final Map<String, ?> all = prefs(namespace).getAll();
+
+		return all != null ? all : new HashMap<String, Object>();
+	}
+
+	@Override public void write(final String namespace, final boolean clearFirst, final Map<String, ?> changes)
+	{
+		final SharedPreferences.Editor editor = prefs(namespace).edit();
+
+		if( clearFirst )
+		{
+			editor.clear();
+		}
+
+		for( Map.Entry<String, ?> entry : changes.entrySet() )
+		{
+			final Object value = entry.getValue();
+
+			if( value == null )
+			{
+				editor.remove(entry.getKey());
+			}
+			else if( value instanceof Integer )
+			{
+				editor.putInt(entry.getKey(), (Integer) value);
+			}
+			else if( value instanceof Boolean )
+			{
+				editor.putBoolean(entry.getKey(), (Boolean) value);
+			}
+			else
+			{
+				editor.putString(entry.getKey(), value.toString());
+			}
+		}
+
+		editor.commit();
+	}
+}
@@ -25,6 +25,7 @@
  * The current back-end modules are as follows:
  * <p><ul>
  * <li>Historical Data for tracking past results of reads and notifications.</li>
+ * <li>Options storage for the small pieces of per-device state kept across app launches.</li>
  * </ul></p>
  * <br><br>
  * In varying stages of development are:
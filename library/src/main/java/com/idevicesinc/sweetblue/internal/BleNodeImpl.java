@@ -238,7 +238,7 @@ abstract class BleNodeImpl implements IBleNode, UsesCustomNull
     {
         if (getIManager() != null)
         {
-            return getIManager().getConfigClone();
+            return getIManager().conf_mngr();
         }
         else
         {
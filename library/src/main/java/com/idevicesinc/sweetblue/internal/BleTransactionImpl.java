@@ -114,6 +114,12 @@ class BleTransactionImpl implements IBleTransaction
             m_callback.updateTxn(timeStep);
     }
 
+    public void onWriteProgress(int bytesWritten, int totalBytes)
+    {
+        if (m_callback != null)
+            m_callback.onWriteProgress(bytesWritten, totalBytes);
+    }
+
     public double getTime()
     {
         return m_timeTracker;
@@ -172,7 +178,7 @@ class BleTransactionImpl implements IBleTransaction
             m_listener.onTransactionEnd(this, reason, failReason);
         }
 
-        if( m_device.getIManager().getConfigClone().postCallbacksToMainThread && !Utils.isOnMainThread() )
+        if( m_device.getIManager().conf_mngr().postCallbacksToMainThread && !Utils.isOnMainThread() )
         {
             m_device.getIManager().getPostManager().postToMain(() -> onEnd(m_device.getBleDevice(), reason));
         }
@@ -34,7 +34,9 @@ import com.idevicesinc.sweetblue.internal.android.IDeviceListener;
 import com.idevicesinc.sweetblue.internal.android.IBluetoothDevice;
 import com.idevicesinc.sweetblue.utils.Event;
 import com.idevicesinc.sweetblue.utils.GenericListener_Void;
+import com.idevicesinc.sweetblue.utils.Interval;
 import com.idevicesinc.sweetblue.utils.Phy;
+import java.util.UUID;
 
 
 interface IBleDevice_Internal
@@ -100,6 +102,8 @@ interface IBleDevice_Internal
     BondListener.BondEvent bond_private(boolean isDirect, boolean userCalled, BondListener listener);
     void onLongTermReconnectTimeOut();
     void postEventAsCallback(final GenericListener_Void listener, final Event event);
+    byte[] getCachedReadValue(UUID serviceUuid, UUID charUuid, Interval maxAge_nullable);
+    void onBatchReadValue(UUID serviceUuid, UUID charUuid, byte[] value);
     void setPhy_private(Phy phy);
     Phy getPhy_private();
     void setThreadLocalTransaction(IBleTransaction transaction);
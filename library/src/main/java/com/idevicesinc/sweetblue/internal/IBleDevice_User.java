@@ -35,6 +35,7 @@ import com.idevicesinc.sweetblue.DeviceReconnectFilter;
 import com.idevicesinc.sweetblue.DeviceStateListener;
 import com.idevicesinc.sweetblue.HistoricalDataLoadListener;
 import com.idevicesinc.sweetblue.NotificationListener;
+import com.idevicesinc.sweetblue.ReadBatchListener;
 import com.idevicesinc.sweetblue.ReadWriteListener;
 import com.idevicesinc.sweetblue.annotations.Nullable;
 import com.idevicesinc.sweetblue.internal.android.IBluetoothDevice;
@@ -176,6 +177,7 @@ interface IBleDevice_User
     void clearHistoricalData_memoryOnly(final UUID characteristicUuid, final EpochTimeRange range, final long count);
     ReadWriteListener.ReadWriteEvent read(final BleRead read);
     ReadWriteListener.ReadWriteEvent read(final BleDescriptorRead descriptorRead);
+    void readBatch(final Iterable<BleRead> reads, final Interval maxCacheAge_nullable, final ReadBatchListener listener_nullable);
     boolean isNotifyEnabled(final UUID uuid);
     boolean isNotifyEnabling(final UUID uuid);
     ReadWriteListener.ReadWriteEvent enableNotify(BleNotify notify);
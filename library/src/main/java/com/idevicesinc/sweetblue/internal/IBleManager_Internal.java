@@ -21,6 +21,7 @@ package com.idevicesinc.sweetblue.internal;
 import com.idevicesinc.sweetblue.AddServiceListener;
 import com.idevicesinc.sweetblue.AdvertisingListener;
 import com.idevicesinc.sweetblue.BleDevice;
+import com.idevicesinc.sweetblue.BleManagerConfig;
 import com.idevicesinc.sweetblue.BleNode;
 import com.idevicesinc.sweetblue.BleServer;
 import com.idevicesinc.sweetblue.BondListener;
@@ -52,12 +53,14 @@ interface IBleManager_Internal
 {
 
     P_Logger getLogger();
+    BleManagerConfig conf_mngr();
     void uhOh(UhOhListener.UhOh uhOh);
     void update(final double timeStep_seconds, final long currentTime);
     P_BluetoothCrashResolver getCrashResolver();
     P_ManagerStateTracker getStateTracker();
     boolean canPerformAutoScan();
     P_TaskManager getTaskManager();
+    P_TimerWheel getTimerWheel();
     void tryPurgingStaleDevices(final double scanTime);
     boolean ready();
     long timeTurnedOn();
@@ -73,6 +76,9 @@ interface IBleManager_Internal
     void postEvent(final GenericListener_Void listener, final Event event);
     P_ScanManager getScanManager();
     P_PostManager getPostManager();
+    P_NotifyBufferPool getNotifyBufferPool();
+    void recordMetric(String name, String type, IBleDevice device_nullable, long nanos);
+    P_TaskTracer getTaskTracer();
     P_WakeLockManager getWakeLockManager();
     P_DeviceManager getDeviceManager();
     P_DeviceManager getDeviceManager_cache();
@@ -49,6 +49,7 @@ import com.idevicesinc.sweetblue.ScanFilter;
 import com.idevicesinc.sweetblue.ScanOptions;
 import com.idevicesinc.sweetblue.ServerReconnectFilter;
 import com.idevicesinc.sweetblue.ServerStateListener;
+import com.idevicesinc.sweetblue.TaskTrace;
 import com.idevicesinc.sweetblue.UhOhListener;
 import com.idevicesinc.sweetblue.annotations.Nullable;
 import com.idevicesinc.sweetblue.internal.android.IBluetoothDevice;
@@ -58,6 +59,7 @@ import com.idevicesinc.sweetblue.utils.ForEach_Void;
 import com.idevicesinc.sweetblue.utils.GattDatabase;
 import com.idevicesinc.sweetblue.utils.HistoricalData;
 import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.MetricsRegistry;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -68,6 +70,10 @@ interface IBleManager_User
 
     void setConfig(@Nullable(Nullable.Prevalence.RARE) BleManagerConfig config_nullable);
     BleManagerConfig getConfigClone();
+    MetricsRegistry getMetrics();
+    List<TaskTrace> getTaskTraces();
+    String getTaskTraces_chromeJson();
+    void clearTaskTraces();
     boolean isAny(BleManagerState... states);
     boolean isAll(BleManagerState... states);
     boolean is(final BleManagerState state);
@@ -120,6 +126,9 @@ interface IBleManager_User
     void requestBluetoothPermissions(final Activity callingActivity, int requestCode);
     boolean isScanningReady();
     boolean isScanning();
+    int getScanBacklog_peak();
+    long getScanResults_coalescedCount();
+    void resetScanBufferStats();
     boolean isLocationEnabledForScanning();
     boolean isLocationEnabledForScanning_byManifestPermissions();
     boolean isLocationEnabledForScanning_byRuntimePermissions();
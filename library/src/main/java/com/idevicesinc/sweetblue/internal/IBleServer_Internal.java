@@ -21,6 +21,7 @@ package com.idevicesinc.sweetblue.internal;
 import com.idevicesinc.sweetblue.AddServiceListener;
 import com.idevicesinc.sweetblue.AdvertisingListener;
 import com.idevicesinc.sweetblue.BleServer;
+import com.idevicesinc.sweetblue.MulticastListener;
 import com.idevicesinc.sweetblue.OutgoingListener;
 import com.idevicesinc.sweetblue.ServerConnectListener;
 import com.idevicesinc.sweetblue.ServerReconnectFilter;
@@ -44,6 +45,7 @@ interface IBleServer_Internal
     void resetAdaptorName();
     P_ServerServiceManager getServerServiceManager();
     void invokeOutgoingListeners(final OutgoingListener.OutgoingEvent e, final OutgoingListener listener_specific_nullable);
+    void invokeMulticastListeners(final MulticastListener.MulticastEvent e, final MulticastListener listener_specific_nullable);
     void invokeConnectListeners(final ServerConnectListener.ConnectEvent e);
     ServerReconnectFilter.ConnectFailEvent connect_internal(final P_DeviceHolder nativeDevice, boolean isRetrying);
     IServerListener getInternalListener();
@@ -27,6 +27,7 @@ import com.idevicesinc.sweetblue.BleNodeConfig;
 import com.idevicesinc.sweetblue.BleServerState;
 import com.idevicesinc.sweetblue.BleService;
 import com.idevicesinc.sweetblue.IncomingListener;
+import com.idevicesinc.sweetblue.MulticastListener;
 import com.idevicesinc.sweetblue.OutgoingListener;
 import com.idevicesinc.sweetblue.ServerConnectListener;
 import com.idevicesinc.sweetblue.ServerReconnectFilter;
@@ -56,6 +57,8 @@ interface IBleServer_User
     void setListener_ReconnectFilter(final ServerReconnectFilter listener);
     OutgoingListener.OutgoingEvent sendIndication(final String macAddress, UUID serviceUuid, UUID charUuid, final FutureData futureData, OutgoingListener listener);
     OutgoingListener.OutgoingEvent sendNotification(final String macAddress, UUID serviceUuid, UUID charUuid, final FutureData futureData, OutgoingListener listener);
+    MulticastListener.MulticastEvent sendIndicationToAll(UUID serviceUuid, UUID charUuid, final FutureData futureData, MulticastListener listener);
+    MulticastListener.MulticastEvent sendNotificationToAll(UUID serviceUuid, UUID charUuid, final FutureData futureData, MulticastListener listener);
     boolean isAdvertisingSupportedByAndroidVersion();
     boolean isAdvertisingSupportedByChipset();
     boolean isAdvertisingSupported();
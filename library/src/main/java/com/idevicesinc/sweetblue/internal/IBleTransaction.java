@@ -35,6 +35,7 @@ public interface IBleTransaction extends IBleTransaction_User, IBleTransaction_I
         void startTxn(BleDevice device);
         void onEndTxn(BleDevice device, BleTransaction.EndReason reason);
         BleTransaction.Atomicity getAtomicity();
+        void onWriteProgress(int bytesWritten, int totalBytes);
     }
 
     /**
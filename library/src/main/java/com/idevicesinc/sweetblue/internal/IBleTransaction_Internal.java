@@ -29,4 +29,5 @@ interface IBleTransaction_Internal
     void start_internal();
     void init(IBleDevice device, PI_EndListener listener);
     void update_internal(double timeStep);
+    void onWriteProgress(int bytesWritten, int totalBytes);
 }
@@ -38,6 +38,12 @@ import java.util.UUID;
 abstract class PA_ServiceManager
 {
 
+    private final Object m_indexLock = new Object();
+
+    private volatile P_GattAttributeIndex m_attributeIndex;
+    private int m_indexGeneration;
+
+
     PA_ServiceManager()
     {
     }
@@ -46,9 +52,83 @@ abstract class PA_ServiceManager
 
     protected abstract List<BleService> getNativeServiceList_original();
 
+    /**
+     * Whether characteristic and descriptor lookups can go through a {@link P_GattAttributeIndex}. If this returns <code>true</code>,
+     * the subclass is on the hook for calling {@link #invalidateAttributeIndex()} whenever the native gatt database may have changed.
+     */
+    protected boolean usesAttributeIndex()
+    {
+        return false;
+    }
+
+    /**
+     * Throws away the current {@link P_GattAttributeIndex}, if any. The next lookup builds a new one from the native gatt database.
+     */
+    public final void invalidateAttributeIndex()
+    {
+        synchronized (m_indexLock)
+        {
+            m_attributeIndex = null;
+            m_indexGeneration++;
+        }
+    }
+
+    private P_GattAttributeIndex getAttributeIndex()
+    {
+        if (!usesAttributeIndex())
+            return null;
+
+        final P_GattAttributeIndex index = m_attributeIndex;
+
+        if (index != null)
+            return index;
+
+        final int generation;
+
+        synchronized (m_indexLock)
+        {
+            generation = m_indexGeneration;
+        }
+
+        final List<BleService> serviceList_native = getNativeServiceList_original();
+
+        // Nothing discovered yet, so there's nothing worth holding on to. Callers fall back to searching the (empty) native lists.
+        if (serviceList_native.isEmpty())
+            return null;
+
+        // If the native layer is throwing when asked for a service, the database is likely still in flux, so don't take a
+        // snapshot of it. Falling back to the native lookups also means the UhOh makes it out to the caller.
+        for (int i = 0; i < serviceList_native.size(); i++)
+        {
+            if (getServiceDirectlyFromNativeNode(serviceList_native.get(i).getUuid()).hasUhOh())
+                return null;
+        }
+
+        final P_GattAttributeIndex newIndex = P_GattAttributeIndex.build(serviceList_native);
+
+        synchronized (m_indexLock)
+        {
+            // If the index was invalidated while we were building this one, it may be stale, so it's only good for this one lookup.
+            if (generation == m_indexGeneration)
+                m_attributeIndex = newIndex;
+        }
+
+        return newIndex;
+    }
+
 
     public BleCharacteristic getCharacteristic(final UUID serviceUuid_nullable, final UUID charUuid)
     {
+        final P_GattAttributeIndex index = getAttributeIndex();
+
+        if (index != null)
+        {
+            final UUID serviceUuid = Uuids.INVALID.equals(serviceUuid_nullable) ? null : serviceUuid_nullable;
+            final P_GattAttributeIndex.CharEntry[] bucket = index.getCharacteristics(serviceUuid, charUuid);
+
+            return bucket.length > 0 ? bucket[0].m_characteristic : BleCharacteristic.NULL;
+        }
+
         if (serviceUuid_nullable == null || serviceUuid_nullable.equals(Uuids.INVALID))
         {
             final List<BleService> serviceList_native = getNativeServiceList_original();
@@ -78,6 +158,28 @@ abstract class PA_ServiceManager
 
     public BleCharacteristic getCharacteristic(final UUID serviceUuid_nullable, final UUID charUuid, final DescriptorFilter filter)
     {
+        final P_GattAttributeIndex index = getAttributeIndex();
+
+        if (index != null)
+        {
+            final UUID serviceUuid = Uuids.INVALID.equals(serviceUuid_nullable) ? null : serviceUuid_nullable;
+            final P_GattAttributeIndex.CharEntry[] bucket = index.getCharacteristics(serviceUuid, charUuid);
+            final UUID descUuid = filter != null ? filter.descriptorUuid() : null;
+
+            for (int i = 0; i < bucket.length; i++)
+            {
+                final P_GattAttributeIndex.CharEntry entry = bucket[i];
+                final BleDescriptor desc = descUuid != null ? entry.getDescriptor(descUuid) : null;
+
+                if (filter == null || accepts(filter, entry.m_service, entry.m_characteristic, desc))
+                {
+                    return entry.m_characteristic;
+                }
+            }
+
+            return BleCharacteristic.NULL;
+        }
+
         if (serviceUuid_nullable == null || serviceUuid_nullable.equals(Uuids.INVALID))
         {
             final List<BleService> serviceList_native = getNativeServiceList_original();
@@ -146,27 +248,11 @@ abstract class PA_ServiceManager
                     else
                     {
                         final UUID descUuid = filter.descriptorUuid();
-                        if (descUuid != null)
-                        {
-                            final BleDescriptor desc = char_jth.getDescriptor(filter.descriptorUuid());
-                            if (desc != null)
-                            {
-                                final DescriptorFilter.DescriptorEvent event = P_Bridge_User.newDescriptorEvent(service.getService(), char_jth.getCharacteristic(), desc.getDescriptor(), new PresentData(desc.getValue()));
-                                final DescriptorFilter.Please please = filter.onEvent(event);
-                                if (P_Bridge_User.accepted(please))
-                                {
-                                    return char_jth;
-                                }
-                            }
-                        }
-                        else
+                        final BleDescriptor desc = descUuid != null ? char_jth.getDescriptor(descUuid) : null;
+
+                        if (accepts(filter, service, char_jth, desc))
                         {
-                            final DescriptorFilter.DescriptorEvent event = P_Bridge_User.newDescriptorEvent(service.getService(), char_jth.getCharacteristic(), null, P_Const.EMPTY_FUTURE_DATA);
-                            final DescriptorFilter.Please please = filter.onEvent(event);
-                            if (P_Bridge_User.accepted(please))
-                            {
-                                return char_jth;
-                            }
+                            return char_jth;
                         }
                     }
                 }
@@ -179,6 +265,22 @@ abstract class PA_ServiceManager
         }
     }
 
+    /**
+     * Runs the given filter against one candidate characteristic. <code>desc_nullable</code> should be <code>null</code> only if
+     * the filter doesn't specify a descriptor UUID.
+     */
+    private static boolean accepts(final DescriptorFilter filter, final BleService service, final BleCharacteristic characteristic, final BleDescriptor desc_nullable)
+    {
+        final DescriptorFilter.DescriptorEvent event;
+
+        if (desc_nullable != null)
+            event = P_Bridge_User.newDescriptorEvent(service.getService(), characteristic.getCharacteristic(), desc_nullable.getDescriptor(), new PresentData(desc_nullable.getValue()));
+        else
+            event = P_Bridge_User.newDescriptorEvent(service.getService(), characteristic.getCharacteristic(), null, P_Const.EMPTY_FUTURE_DATA);
+
+        return P_Bridge_User.accepted(filter.onEvent(event));
+    }
+
     private List<BleService> getNativeServiceList_cloned()
     {
         final List<BleService> list_native = getNativeServiceList_original();
@@ -384,6 +486,13 @@ abstract class PA_ServiceManager
 
     public BleDescriptor getDescriptor(final UUID serviceUuid_nullable, final UUID charUuid_nullable, final UUID descUuid)
     {
+        final P_GattAttributeIndex index = getAttributeIndex();
+
+        if (index != null)
+        {
+            return index.getDescriptor(serviceUuid_nullable, charUuid_nullable, descUuid);
+        }
+
         BleDescriptor descriptor = BleDescriptor.NULL;
         if (serviceUuid_nullable == null)
         {
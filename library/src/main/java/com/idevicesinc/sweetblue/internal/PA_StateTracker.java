@@ -269,11 +269,25 @@ abstract class PA_StateTracker<T extends State>
 			intentMask = 0x0;
 		}
 
+		// Goes out whether or not listeners are told, so anything indexing on state never falls behind.
+		if( oldStateBits != newStateBits )
+		{
+			onStateMaskChanged(oldStateBits, newStateBits);
+		}
+
 		if (fireChange)
 			fireStateChange(oldStateBits, newStateBits, intentMask, status);
 	}
 	
 	protected abstract void onStateChange(int oldStateBits, int newStateBits, int intentMask, int status);
+
+	/**
+	 * Called every time the state mask actually changes, before any listeners are notified, including when
+	 * {@link #onStateChange(int, int, int, int)} isn't called at all. Does nothing by default.
+	 */
+	protected void onStateMaskChanged(int oldStateBits, int newStateBits)
+	{
+	}
 	
 	private void fireStateChange(int oldStateBits, int newStateBits, int intentMask, int status)
 	{
@@ -22,8 +22,10 @@ import com.idevicesinc.sweetblue.BleManager;
 import com.idevicesinc.sweetblue.BleNodeConfig;
 import com.idevicesinc.sweetblue.BleTask;
 import com.idevicesinc.sweetblue.P_Bridge_User;
+import com.idevicesinc.sweetblue.TaskTrace;
 import com.idevicesinc.sweetblue.TaskTimeoutRequestFilter;
 import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.MetricsRegistry;
 import com.idevicesinc.sweetblue.utils.Uuids;
 
 
@@ -35,8 +37,6 @@ abstract class PA_Task implements Comparable<PA_Task>
 	}
 
 	private static final int ORDINAL_NOT_YET_ASSIGNED = -1;
-	
-	private static final TaskTimeoutRequestFilter.TaskTimeoutRequestEvent s_timeoutRequestEvent = new TaskTimeoutRequestFilter.TaskTimeoutRequestEvent();
 
 	
 	private IBleDevice m_device;
@@ -57,11 +57,23 @@ abstract class PA_Task implements Comparable<PA_Task>
 
 	private long m_timeCreated;
 	private long m_timeExecuted;
+
+	private long m_timeQueued_nanos = 0;
+	private long m_timeArmed_nanos = 0;
+	private long m_timeExecuting_nanos = 0;
 	
 	private boolean m_softlyCancelled = false;
 	
 	private int m_defaultOrdinal = ORDINAL_NOT_YET_ASSIGNED; // until added to the queue and assigned an actual ordinal.
 
+	private final P_TimerWheel.Timer m_timeoutTimer = new P_TimerWheel.Timer()
+	{
+		@Override void onExpired(long currentTime)
+		{
+			onTimeoutExpired(currentTime);
+		}
+	};
+
 
     public PA_Task(IBleServer server, I_StateListener listener)
     {
@@ -81,7 +93,7 @@ abstract class PA_Task implements Comparable<PA_Task>
 	{
 		m_device = null;
 		m_manager = manager;
-		m_timeCreated = System.currentTimeMillis();
+		m_timeCreated = now();
 		
 		if( listener == null && this instanceof I_StateListener )
 		{
@@ -106,9 +118,11 @@ abstract class PA_Task implements Comparable<PA_Task>
 		{
 			final IBleDevice device = getDevice() != null ? getDevice() : P_BleDeviceImpl.NULL;
 			final IBleServer server = getServer() != null ? getServer() : P_BleServerImpl.NULL;
-			P_Bridge_User.initTaskTimeoutRequestEvent(s_timeoutRequestEvent, BleManager.get(m_manager.getApplicationContext()), getManager().getBleDevice(device), getManager().getBleServer(server), taskType, getCharUuid(), getDescUuid());
+			// Tasks on different lanes can be armed at the same time, so each one gets its own event rather than sharing one.
+			final TaskTimeoutRequestFilter.TaskTimeoutRequestEvent event = new TaskTimeoutRequestFilter.TaskTimeoutRequestEvent();
+			P_Bridge_User.initTaskTimeoutRequestEvent(event, BleManager.get(m_manager.getApplicationContext()), getManager().getBleDevice(device), getManager().getBleServer(server), taskType, getCharUuid(), getDescUuid());
 
-			return BleNodeConfig.getTimeout(s_timeoutRequestEvent);
+			return BleNodeConfig.getTimeout(event);
 		}
 		else
 		{
@@ -127,6 +141,14 @@ abstract class PA_Task implements Comparable<PA_Task>
 	{
 		return Uuids.INVALID;
 	}
+
+	/**
+	 * Returns how many bytes this task has moved over the air, for {@link TaskTrace#byteCount()}.
+	 */
+	protected /*virtual*/ int getByteCount()
+	{
+		return 0;
+	}
 	
 	void init()
 	{
@@ -145,8 +167,21 @@ abstract class PA_Task implements Comparable<PA_Task>
 	{
 		boolean printed = false;
 		if( !m_manager.ASSERT(newState != m_state, "") )  return false;
+
+		if( m_state == PE_TaskState.EXECUTING )
+		{
+			m_manager.getTimerWheel().cancel(m_timeoutTimer);
+		}
 		
 		m_state = newState;
+
+		final boolean recordMetrics = m_manager.conf_mngr().enableMetrics;
+		final P_TaskTracer tracer = m_manager.getTaskTracer();
+
+		if( recordMetrics || tracer.isEnabled() )
+		{
+			recordTimes(recordMetrics, tracer);
+		}
 		
 		if( getLogger().isEnabled() )
 		{
@@ -172,6 +207,71 @@ abstract class PA_Task implements Comparable<PA_Task>
 		return printed;
 	}
 
+	private void recordTimes(final boolean recordMetrics, final P_TaskTracer tracer)
+	{
+		// Uses nanoTime rather than the manager's clock, which only moves once per update, and most tasks are done well within that.
+		final long now = System.nanoTime();
+
+		if( m_state == PE_TaskState.QUEUED )
+		{
+			m_timeQueued_nanos = now;
+			m_timeArmed_nanos = 0;
+			m_timeExecuting_nanos = 0;
+		}
+		else if( m_state == PE_TaskState.ARMED )
+		{
+			m_timeArmed_nanos = now;
+		}
+		else if( m_state == PE_TaskState.EXECUTING )
+		{
+			if( recordMetrics && m_timeQueued_nanos != 0 )
+			{
+				m_manager.recordMetric(MetricsRegistry.TASK_QUEUE_WAIT, getName(), getDevice(), now - m_timeQueued_nanos);
+			}
+
+			m_timeExecuting_nanos = now;
+		}
+		else if( m_state.isEndingState() )
+		{
+			if( recordMetrics && m_timeExecuting_nanos != 0 )
+			{
+				final long executionTime = now - m_timeExecuting_nanos;
+				final BleTask taskType = getTaskType();
+
+				m_manager.recordMetric(MetricsRegistry.TASK_EXECUTION, getName(), getDevice(), executionTime);
+
+				if( taskType != null && getDevice() != null )
+				{
+					m_manager.recordMetric(MetricsRegistry.GATT_OPERATION, taskType.name(), getDevice(), executionTime);
+				}
+			}
+
+			if( tracer.isEnabled() )
+			{
+				tracer.add(newTrace(now));
+			}
+
+			m_timeQueued_nanos = 0;
+			m_timeArmed_nanos = 0;
+			m_timeExecuting_nanos = 0;
+		}
+	}
+
+	private TaskTrace newTrace(final long timeEnded)
+	{
+		final String macAddress = getDevice() != null && !getDevice().isNull() ? getDevice().getMacAddress() : null;
+		final UUID charUuid = getCharUuid();
+		final UUID descUuid = getDescUuid();
+
+		return P_Bridge_User.newTaskTrace(getName(), getTaskType(), macAddress, Uuids.INVALID.equals(charUuid) ? null : charUuid, Uuids.INVALID.equals(descUuid) ? null : descUuid,
+				getByteCount(), m_timeQueued_nanos, m_timeArmed_nanos, m_timeExecuting_nanos, timeEnded, m_state.name());
+	}
+
+	private String getName()
+	{
+		return this.getClass().getSimpleName().replace("P_Task_", "");
+	}
+
 	private void invokeListeners()
 	{
 		if (m_stateListener != null)
@@ -209,9 +309,61 @@ abstract class PA_Task implements Comparable<PA_Task>
 		//--- DRK > Can be called upstream from different thread than the update loop,
 		//---		so preventing clashes here with this.update method.
 		m_timeout = newTimeout;
-		m_resetableExecuteStartTime = System.currentTimeMillis();
+		m_resetableExecuteStartTime = now();
+
+		if( m_state == PE_TaskState.EXECUTING )
+		{
+			scheduleTimeout();
+		}
+	}
+
+	private void scheduleTimeout()
+	{
+		final P_TimerWheel wheel = m_manager.getTimerWheel();
+
+		if( Interval.isDisabled(m_timeout) || m_timeout == Interval.INFINITE.secs() )
+		{
+			wheel.cancel(m_timeoutTimer);
+		}
+		else
+		{
+			wheel.scheduleAt(m_timeoutTimer, m_resetableExecuteStartTime + (long) (m_timeout * 1000.0));
+		}
+	}
+
+	private void onTimeoutExpired(long currentTime)
+	{
+		if( m_state != PE_TaskState.EXECUTING )  return;
+
+		// The queue isn't ticking, so neither should we. Check back next tick, and time out then if we're still over.
+		if( m_queue.isSuspended() )
+		{
+			m_manager.getTimerWheel().schedule(m_timeoutTimer, currentTime, 0);
+
+			return;
+		}
+
+		if( Interval.isDisabled(m_timeout) || m_timeout == Interval.INFINITE.secs() )  return;
+
+		final double timeExecuting = (currentTime - m_resetableExecuteStartTime)/1000.0;
+
+		if( timeExecuting >= m_timeout )
+		{
+			timeout();
+		}
+		else
+		{
+			// The timeout was pushed back from another thread after we were already due.
+			scheduleTimeout();
+		}
 	}
 	
+	// Times are kept on the manager's clock, which is what the timer wheel runs on, so timeouts line up with it.
+	private long now()
+	{
+		return m_manager != null ? m_manager.currentTime() : System.currentTimeMillis();
+	}
+
 	protected void timeout()
 	{
 		m_queue.tryEndingTask(this, PE_TaskState.TIMED_OUT);
@@ -280,7 +432,7 @@ abstract class PA_Task implements Comparable<PA_Task>
 //		m_totalTimeQueuedAndArmedAndExecuting = m_queue.getTime() - m_addedToQueueTime;
 		m_totalTimeArmedAndExecuting = 0.0;
 //		m_totalTimeExecuting = 0.0;
-		m_resetableExecuteStartTime = System.currentTimeMillis();
+		m_resetableExecuteStartTime = now();
 //		m_retryCount = 0;
 		m_timeout = getInitialTimeout();
 	}
@@ -297,8 +449,10 @@ abstract class PA_Task implements Comparable<PA_Task>
 	
 	private void execute_wrapper()
 	{
-		m_resetableExecuteStartTime = System.currentTimeMillis();
-		m_timeExecuted = System.currentTimeMillis();
+		m_resetableExecuteStartTime = now();
+		m_timeExecuted = m_resetableExecuteStartTime;
+
+		scheduleTimeout();
 		
 		execute();
 	}
@@ -376,24 +530,11 @@ abstract class PA_Task implements Comparable<PA_Task>
 
 		if( m_totalTimeArmedAndExecuting >= m_executionDelay )
 		{
+			// Timeouts are scheduled on the manager's timer wheel once we start executing, rather than checked here every tick.
 			if( m_state == PE_TaskState.ARMED )
 			{
 				tryExecuting();
 			}
-			else if( m_state == PE_TaskState.EXECUTING )
-			{
-				if( !Interval.isDisabled(m_timeout) && m_timeout != Interval.INFINITE.secs() )
-				{
-					double timeExecuting = (currentTime - m_resetableExecuteStartTime)/1000.0;
-
-					if( timeExecuting >= m_timeout )
-					{
-						timeout();
-
-						return;
-					}
-				}
-			}
 		}
 
 		this.update(timeStep);
@@ -408,7 +549,7 @@ abstract class PA_Task implements Comparable<PA_Task>
 	
 	public double getTotalTimeExecuting()
 	{
-		return (System.currentTimeMillis() - m_timeExecuted)/1000.0;
+		return getTotalTimeExecuting(now());
 	}
 
 	public double getTotalTimeExecuting(long currentTime)
@@ -418,7 +559,7 @@ abstract class PA_Task implements Comparable<PA_Task>
 	
 	public double getTotalTime()
 	{
-		return (System.currentTimeMillis() - m_timeCreated)/1000.0;
+		return getTotalTime(now());
 	}
 
 	public double getTotalTime(long currentTime)
@@ -476,6 +617,15 @@ abstract class PA_Task implements Comparable<PA_Task>
 	{
 		return isMoreImportantThan_default(task);
 	}
+
+	/**
+	 * Tells {@link P_TaskQueue} how {@link #isMoreImportantThan(PA_Task)} decides, so it can skip straight to the tasks it might go
+	 * ahead of. Anything overriding {@link #isMoreImportantThan(PA_Task)} needs to override this as well.
+	 */
+	public PE_TaskImportance getImportance()
+	{
+		return PE_TaskImportance.PRIORITY;
+	}
 	
 	/**
 	 * Default implementation to call by subsubclasses if they want to skip their immediate parent's implementation.
@@ -499,6 +649,24 @@ abstract class PA_Task implements Comparable<PA_Task>
 	{
 		return false;
 	}
+
+	/**
+	 * Returns true if this task can softly cancel other queued tasks for the same device or server (see {@link #isSoftlyCancellableBy(PA_Task)}).
+	 * Tasks which return false here don't cause the queue to be walked when they are added.
+	 */
+	protected boolean canSoftlyCancelOthers()
+	{
+		return false;
+	}
+
+	/**
+	 * Returns true if this task has to be admitted by {@link P_ConnectAdmission} before it can run in a device's own queue, which
+	 * limits how many connects and service discoveries are in flight at once.
+	 */
+	protected boolean requiresConnectAdmission()
+	{
+		return false;
+	}
 	
 	protected void attemptToSoftlyCancel(PA_Task task)
 	{
@@ -517,8 +685,7 @@ abstract class PA_Task implements Comparable<PA_Task>
 	
 	@Override public String toString()
 	{
-		String name = this.getClass().getSimpleName();
-		name = name.replace("P_Task_", "");
+		String name = getName();
 		
 		String deviceEntry = getDevice() != null ? " " + getDevice().getName_debug(): "";
 		String addition = getToStringAddition() != null ? " " + getToStringAddition() : "";
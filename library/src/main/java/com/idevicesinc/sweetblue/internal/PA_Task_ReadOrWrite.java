@@ -50,6 +50,8 @@ abstract class PA_Task_ReadOrWrite extends PA_Task_Transactionable implements PA
 	private BleCharacteristic m_filteredCharacteristic;
 	private List<BleCharacteristic> m_characteristicList;
 
+	private int m_byteCount = 0;
+
 
 	PA_Task_ReadOrWrite(IBleDevice device, BleOp bleOp, boolean requiresBonding, IBleTransaction txn_nullable, PE_TaskPriority priority)
 	{
@@ -238,6 +240,11 @@ abstract class PA_Task_ReadOrWrite extends PA_Task_Transactionable implements PA
 		return m_bleOp.getCharacteristicUuid();
 	}
 
+	@Override protected int getByteCount()
+	{
+		return m_byteCount;
+	}
+
 	protected UUID getServiceUuid()
 	{
 		return m_bleOp.getServiceUuid();
@@ -392,6 +399,8 @@ abstract class PA_Task_ReadOrWrite extends PA_Task_Transactionable implements PA
 
 	private void succeedRead(byte[] value, Target target, ReadWriteListener.Type type)
 	{
+		m_byteCount = value.length;
+
 		super.succeed();
 
 		final ReadWriteEvent event = newSuccessReadWriteEvent(value, target, type, getCharUuid(), getDescUuid(), m_bleOp.getDescriptorFilter());
@@ -411,6 +420,8 @@ abstract class PA_Task_ReadOrWrite extends PA_Task_Transactionable implements PA
 
 	protected boolean write_earlyOut(final byte[] data_nullable)
 	{
+		m_byteCount = data_nullable != null ? data_nullable.length : 0;
+
 		if( data_nullable == null )
 		{
 			fail(Status.NULL_DATA, BleStatuses.GATT_STATUS_NOT_APPLICABLE, Target.CHARACTERISTIC, getCharUuid(), getDescUuid());
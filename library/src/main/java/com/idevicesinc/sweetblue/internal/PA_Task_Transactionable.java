@@ -148,6 +148,11 @@ abstract class PA_Task_Transactionable extends PA_Task_RequiresConnection
 		
 		return super.isMoreImportantThan(task);
 	}
+
+	@Override public PE_TaskImportance getImportance()
+	{
+		return PE_TaskImportance.TRANSACTIONABLE;
+	}
 	
 	@Override public PE_TaskPriority getPriority()
 	{
@@ -0,0 +1,28 @@
+/*
+ 
+  Copyright 2022 Hubbell Incorporated
+ 
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+ 
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ 
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ 
+ */
+package com.idevicesinc.sweetblue.internal;
+
+/**
+ * How a task decides what it's more important than (see {@link PA_Task#isMoreImportantThan(PA_Task)}), which tells {@link P_TaskQueue}
+ * how it can go about finding where the task goes.
+ */
+enum PE_TaskImportance
+{
+	PRIORITY,			// purely by priority, which is PA_Task's implementation.
+	TRANSACTIONABLE,	// by priority, except it goes ahead of its own transaction's lock, and not ahead of scans (see PA_Task_Transactionable).
+	CUSTOM;				// anything else, which means asking the task about every other task in the queue.
+}
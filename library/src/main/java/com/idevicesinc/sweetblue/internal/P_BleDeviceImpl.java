@@ -47,6 +47,7 @@ import com.idevicesinc.sweetblue.MtuTestCallback;
 import com.idevicesinc.sweetblue.NotificationListener;
 import com.idevicesinc.sweetblue.P_Bridge_User;
 import com.idevicesinc.sweetblue.internal.PA_StateTracker.E_Intent;
+import com.idevicesinc.sweetblue.ReadBatchListener;
 import com.idevicesinc.sweetblue.ReadWriteListener;
 import com.idevicesinc.sweetblue.ReadWriteListener.ReadWriteEvent;
 import com.idevicesinc.sweetblue.ReconnectFilter;
@@ -73,6 +74,7 @@ import com.idevicesinc.sweetblue.utils.Interval;
 import com.idevicesinc.sweetblue.utils.P_Const;
 import com.idevicesinc.sweetblue.utils.Percent;
 import com.idevicesinc.sweetblue.utils.Phy;
+import com.idevicesinc.sweetblue.utils.ScanRecordView;
 import com.idevicesinc.sweetblue.utils.PresentData;
 import com.idevicesinc.sweetblue.utils.State;
 import com.idevicesinc.sweetblue.utils.TimeEstimator;
@@ -80,13 +82,18 @@ import com.idevicesinc.sweetblue.utils.TimeTracker;
 import com.idevicesinc.sweetblue.utils.Utils;
 import com.idevicesinc.sweetblue.utils.Utils_Config;
 import com.idevicesinc.sweetblue.utils.Utils_Rssi;
-import com.idevicesinc.sweetblue.utils.Utils_ScanRecord;
 import com.idevicesinc.sweetblue.utils.Utils_State;
+import com.idevicesinc.sweetblue.utils.Uuids;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -146,6 +153,9 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
     private byte[] m_scanRecord = P_Const.EMPTY_BYTE_ARRAY;
     private Boolean m_hasMtuBug = null;
 
+    // Only decoded into m_scanInfo when someone asks for it, as devices can be rediscovered many times a second while scanning
+    private ScanRecordView m_scanRecordView = null;
+    private String m_scanRecordName_override = null;
     private BleScanRecord m_scanInfo = new BleScanRecord();
 
     private BleDeviceConfig m_config = null;
@@ -159,6 +169,7 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
     private final boolean m_isNull;
 
     private final P_ReliableWriteManager m_reliableWriteMngr;
+    private final P_ReadCache m_readCache = new P_ReadCache();
 
 
     P_BleDeviceImpl(IBleManager mngr, IBluetoothDevice device_native, String name_normalized, String name_native, BleDeviceOrigin origin, BleDeviceConfig config_nullable, boolean isNull)
@@ -278,7 +289,8 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
     @Override
     public BleDeviceConfig getConfig()
     {
-        return conf_device();
+        // Hand out a copy if we'd otherwise be returning the manager's config, as that instance is shared
+        return m_config != null ? m_config : getIManager().getConfigClone();
     }
 
     @Override
@@ -625,27 +637,42 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
     @Override
     public BleScanRecord getScanInfo()
     {
-        return m_scanInfo;
+        BleScanRecord scanInfo = m_scanInfo;
+
+        if (scanInfo == null)
+        {
+            scanInfo = m_scanRecordView.toBleScanRecord();
+
+            if (m_scanRecordName_override != null)
+                scanInfo.setName(m_scanRecordName_override);
+
+            m_scanInfo = scanInfo;
+        }
+
+        return scanInfo;
     }
 
     @Override
     public int getAdvertisingFlags()
     {
-        final int flags = (m_scanInfo != null && m_scanInfo.getAdvFlags() != null) ? m_scanInfo.getAdvFlags().value : 0;
+        final BleScanRecord scanInfo = getScanInfo();
+        final int flags = (scanInfo != null && scanInfo.getAdvFlags() != null) ? scanInfo.getAdvFlags().value : 0;
         return flags;
     }
 
     @Override
     public UUID[] getAdvertisedServices()
     {
-        final UUID[] toReturn = m_scanInfo.getServiceUUIDS().size() > 0 ? new UUID[m_scanInfo.getServiceUUIDS().size()] : P_Const.EMPTY_UUID_ARRAY;
-        return m_scanInfo.getServiceUUIDS().toArray(toReturn);
+        final List<UUID> serviceUuids = getScanInfo().getServiceUUIDS();
+        final UUID[] toReturn = serviceUuids.size() > 0 ? new UUID[serviceUuids.size()] : P_Const.EMPTY_UUID_ARRAY;
+        return serviceUuids.toArray(toReturn);
     }
 
     @Override
     public byte[] getManufacturerData()
     {
-        final byte[] toReturn = m_scanInfo.getManufacturerData() != null ? m_scanInfo.getManufacturerData().clone() : P_Const.EMPTY_BYTE_ARRAY;
+        final byte[] manufacturerData = getScanInfo().getManufacturerData();
+        final byte[] toReturn = manufacturerData != null ? manufacturerData.clone() : P_Const.EMPTY_BYTE_ARRAY;
 
         return toReturn;
     }
@@ -653,7 +680,7 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
     @Override
     public int getManufacturerId()
     {
-        final int toReturn = m_scanInfo.getManufacturerId();
+        final int toReturn = getScanInfo().getManufacturerId();
 
         return toReturn;
     }
@@ -663,7 +690,7 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
     {
         final Map<UUID, byte[]> toReturn = new HashMap<>();
 
-        toReturn.putAll(m_scanInfo.getServiceData());
+        toReturn.putAll(getScanInfo().getServiceData());
 
         return toReturn;
     }
@@ -1298,6 +1325,82 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
         return read_internal(ReadWriteListener.Type.READ, descriptorRead);
     }
 
+    @Override
+    public void readBatch(Iterable<BleRead> reads, Interval maxCacheAge_nullable, ReadBatchListener listener_nullable)
+    {
+        final List<BleRead> toRead = new ArrayList<>();
+        final Map<UUID, ReadWriteListener.Status> statuses = new LinkedHashMap<>();
+        boolean requiresBonding = false;
+
+        for (BleRead read : reads)
+        {
+            final ReadWriteListener.ReadWriteEvent earlyOutResult = getServiceManager().getEarlyOutEvent(read, ReadWriteListener.Type.READ, ReadWriteListener.Target.CHARACTERISTIC);
+
+            if (earlyOutResult != null)
+            {
+                statuses.put(read.getCharacteristicUuid(), earlyOutResult.status());
+            }
+            else
+            {
+                statuses.put(read.getCharacteristicUuid(), ReadWriteListener.Status.NULL);
+                requiresBonding |= m_bondMngr.bondIfNeeded(read.getCharacteristicUuid(), BondFilter.CharacteristicEventType.READ);
+                toRead.add(read);
+            }
+        }
+
+        if (toRead.isEmpty())
+        {
+            final Map<UUID, byte[]> values = new HashMap<>();
+            final Set<UUID> cached = new HashSet<>();
+
+            postEventAsCallback(listener_nullable, P_Bridge_User.newReadBatchEvent(getBleDevice(), values, statuses, cached, 0.0));
+
+            return;
+        }
+
+        taskManager().add(new P_Task_ReadBatch(this, toRead, statuses, maxCacheAge_nullable, listener_nullable, requiresBonding, m_threadLocalTransaction.get(), getOverrideReadWritePriority()));
+    }
+
+    @Override
+    public byte[] getCachedReadValue(UUID serviceUuid, UUID charUuid, Interval maxAge_nullable)
+    {
+        if (Interval.isDisabled(maxAge_nullable))
+            return null;
+
+        // A batch asking for a cache age is what turns caching on, so the first such batch always goes over the air.
+        m_readCache.enable();
+
+        return m_readCache.get(serviceUuid, charUuid, maxAge_nullable, getIManager().currentTime());
+    }
+
+    @Override
+    public void onBatchReadValue(UUID serviceUuid, UUID charUuid, byte[] value)
+    {
+        m_historicalDataMngr.add_single(charUuid, value, new EpochTime(), ReadWriteListener.Type.READ.toHistoricalDataSource());
+
+        if (isCachingReadValues())
+            m_readCache.put(serviceUuid, charUuid, value, getIManager().currentTime());
+    }
+
+    private boolean isCachingReadValues()
+    {
+        if (!m_readCache.isEnabled() && Utils_Config.bool(conf_device().cacheReadValues, conf_mngr().cacheReadValues))
+            m_readCache.enable();
+
+        return m_readCache.isEnabled();
+    }
+
+    // Reads and writes don't have to name a service, so resolve it the same way the read itself would have, to match what batch reads look up.
+    private UUID cacheServiceUuid(UUID serviceUuid, UUID charUuid)
+    {
+        if (!m_readCache.isEnabled() || (serviceUuid != null && !serviceUuid.equals(Uuids.INVALID)))
+            return serviceUuid;
+
+        final BleCharacteristic characteristic = getNativeBleCharacteristic(null, charUuid);
+
+        return characteristic.isNull() ? serviceUuid : characteristic.getService().getUuid();
+    }
+
     @Override
     public boolean isNotifyEnabled(UUID uuid)
     {
@@ -1404,7 +1507,7 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
 
     public final PE_TaskPriority getOverrideReadWritePriority()
     {
-        if (isAny(AUTHENTICATING, INITIALIZING) || getConfig().equalOpportunityReadsWrites)
+        if (isAny(AUTHENTICATING, INITIALIZING) || conf_device().equalOpportunityReadsWrites)
         {
             getIManager().ASSERT(m_txnMngr.getCurrent() != null, "");
 
@@ -1450,6 +1553,8 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
 
     public final void onNativeDisconnect(final boolean wasExplicit, final int gattStatus, final boolean attemptShortTermReconnect, final boolean saveLastDisconnect)
     {
+        getServiceManager().invalidateAttributeIndex();
+
         m_connectionMgr.onDisconnected(wasExplicit, gattStatus, attemptShortTermReconnect, saveLastDisconnect);
     }
 
@@ -1601,6 +1706,14 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
             final BleNodeConfig.HistoricalDataLogFilter.Source source = event.type().toHistoricalDataSource();
 
             m_historicalDataMngr.add_single(event.charUuid(), event.data(), timestamp, source);
+
+            if ((event.type() == ReadWriteListener.Type.READ || event.type() == ReadWriteListener.Type.POLL) && isCachingReadValues())
+                m_readCache.put(cacheServiceUuid(event.serviceUuid(), event.charUuid()), event.charUuid(), event.data(), getIManager().currentTime());
+        }
+        else if (event.wasSuccess() && event.isWrite() && event.target() == ReadWriteListener.Target.CHARACTERISTIC)
+        {
+            // Whatever we had cached may no longer be what's on the device.
+            m_readCache.remove(cacheServiceUuid(event.serviceUuid(), event.charUuid()), event.charUuid());
         }
 
         m_txnMngr.onReadWriteResult(event);
@@ -1628,12 +1741,23 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
     @Override
     public void invokeNotificationCallback(NotificationListener nl, NotificationListener.NotificationEvent event)
     {
+        final P_NotifyBufferPool.Payload payload = (P_NotifyBufferPool.Payload) P_Bridge_User.getPooledPayload(event);
+
+        if (payload != null)
+        {
+            invokeNotificationCallback_pooled(nl, event, payload);
+            return;
+        }
+
         if (event.wasSuccess())
         {
             final EpochTime timestamp = new EpochTime();
             final BleNodeConfig.HistoricalDataLogFilter.Source source = event.type().toHistoricalDataSource();
 
             m_historicalDataMngr.add_single(event.charUuid(), event.data(), timestamp, source);
+
+            if (isCachingReadValues())
+                m_readCache.put(cacheServiceUuid(event.serviceUuid(), event.charUuid()), event.charUuid(), event.data(), getIManager().currentTime());
         }
 
         NotificationListener listener = nl;
@@ -1656,6 +1780,33 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
         }
     }
 
+    // Same as the non-pooled version, except that nothing is logged to historical data, since that would mean copying every value anyway.
+    private void invokeNotificationCallback_pooled(NotificationListener nl, NotificationListener.NotificationEvent event, P_NotifyBufferPool.Payload payload)
+    {
+        // Only pay for the copy if something is actually going to use it.
+        if (event.wasSuccess() && isCachingReadValues())
+            m_readCache.put(cacheServiceUuid(event.serviceUuid(), event.charUuid()), event.charUuid(), event.data(), getIManager().currentTime());
+
+        if (nl != null)
+        {
+            postPooledNotification(nl, event, payload);
+        }
+
+        final NotificationListener listener = getListener_Notification();
+
+        if (listener != null && listener != nl)
+        {
+            postPooledNotification(listener, event, payload);
+        }
+
+        final NotificationListener defaultListener = getIManager().getDefaultNotificationListener();
+
+        if (defaultListener != null)
+        {
+            postPooledNotification(defaultListener, event, payload);
+        }
+    }
+
     public final void addReadTime(double timeStep)
     {
         if (!shouldAddOperationTime())
@@ -1729,6 +1880,9 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
         if (m_rssiPollMngr != null) m_rssiPollMngr.stop();
         if (m_rssiPollMngr_auto != null) m_rssiPollMngr_auto.stop();
         if (m_pollMngr != null) m_pollMngr.clear();
+        m_readCache.clear();
+
+        getIManager().getScanManager().onUndiscovered(getMacAddress());
 
         stateTracker().set(intent, BleStatuses.GATT_STATUS_NOT_APPLICABLE,
                 UNDISCOVERED, true, DISCOVERED, false, ADVERTISING, false, m_bondMngr.getNativeBondingStateOverrides(),
@@ -1980,26 +2134,23 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
         if (listener != null)
         {
             if (listener instanceof PA_CallbackWrapper)
-            {
-                getIManager().getPostManager().runOrPostToUpdateThread(() -> {
-                    if (listener != null)
-                    {
-                        listener.onEvent(event);
-                    }
-                });
-            }
+                getIManager().getPostManager().runOrDispatchToUpdateThread(listener, event);
             else
-            {
-                getIManager().getPostManager().postCallback(() -> {
-                    if (listener != null)
-                    {
-                        listener.onEvent(event);
-                    }
-                });
-            }
+                getIManager().getPostManager().postEvent(listener, event);
         }
     }
 
+    // Posts a notification whose data lives in a pooled buffer. The listener holds a reference to the buffer until it returns.
+    private void postPooledNotification(final NotificationListener listener, final NotificationListener.NotificationEvent event, final P_NotifyBufferPool.Payload payload)
+    {
+        final NotificationListener releasing = payload.retainFor(listener);
+
+        if (listener instanceof PA_CallbackWrapper)
+            getIManager().getPostManager().runOrDispatchToUpdateThread(releasing, event);
+        else
+            getIManager().getPostManager().postEvent(releasing, event);
+    }
+
     public final P_BleDeviceNativeManager getNativeManager()
     {
         return m_nativeManager;
@@ -2081,6 +2232,7 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
     private void clearForExplicitDisconnect()
     {
         m_pollMngr.clear();
+        m_readCache.clear();
         clearMtu();
     }
 
@@ -2220,28 +2372,20 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
         if (scanEvent_nullable != null)
         {
             m_scanRecord = scanEvent_nullable.scanRecord();
+            m_scanRecordView = scanEvent_nullable.scanRecordView();
+            m_scanRecordName_override = scanEvent_nullable.name_native();
+            m_scanInfo = null;
 
             updateKnownTxPower(scanEvent_nullable.txPower());
-
-            m_scanInfo.setAdvFlags((byte) scanEvent_nullable.advertisingFlags());
-            m_scanInfo.setName(scanEvent_nullable.name_native());
-            m_scanInfo.setTxPower((byte) scanEvent_nullable.txPower());
-
-            m_scanInfo.clearServiceUUIDs();
-            m_scanInfo.addServiceUUIDs(scanEvent_nullable.advertisedServices());
-
-            m_scanInfo.setManufacturerDataList(scanEvent_nullable.manufacturerDataList());
-
-            m_scanInfo.clearServiceData();
-            m_scanInfo.addServiceData(scanEvent_nullable.serviceData());
         }
         else if (scanRecord_nullable != null)
         {
             m_scanRecord = scanRecord_nullable;
+            m_scanRecordView = new ScanRecordView(scanRecord_nullable);
+            m_scanRecordName_override = null;
+            m_scanInfo = null;
 
-            m_scanInfo = Utils_ScanRecord.parseScanRecord(scanRecord_nullable);
-
-            updateKnownTxPower(m_scanInfo.getTxPower().value);
+            updateKnownTxPower(m_scanRecordView.getTxPower());
         }
     }
 
@@ -2299,15 +2443,13 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
 
         m_timeSinceLastDiscovery += timeStep;
 
-        tt.start("BleDevice_Update_PollMngr");
-        m_pollMngr.update(timeStep);
-        tt.transition("BleDevice_Update_PollMngr", "BleDevice_Update_TxnMngr");
+        tt.start("BleDevice_Update_TxnMngr");
         m_txnMngr.update(timeStep);
         tt.transition("BleDevice_Update_TxnMngr", "BleDevice_Update_ConnectionMgr");
         m_connectionMgr.update(timeStep);
         tt.transition("BleDevice_Update_ConnectionMgr", "BleDevice_Update_RssiPollMngr");
         m_rssiPollMngr.update(timeStep);
-        tt.transition("BleDevice_UpdateRssiPollMngr", "BleDevice_Update_BondManager");
+        tt.transition("BleDevice_Update_RssiPollMngr", "BleDevice_Update_BondManager");
         m_bondMngr.update(timeStep);
         tt.stop("BleDevice_Update_BondManager");
 
@@ -2415,9 +2557,30 @@ public final class P_BleDeviceImpl extends BleNodeImpl implements IBleDevice
             final P_Task_Write task_write = new P_Task_Write(this, write, requiresBonding, m_threadLocalTransaction.get(), getOverrideReadWritePriority());
             taskManager().add(task_write);
         }
+        else if (m_threadLocalTransaction.get() != null)
+        {
+            //--- Already inside a transaction (an OTA for example), so stripe the write as part of it, rather than trying to start
+            //--- another transaction, which would just get rejected.
+            final IBleTransaction txn = m_threadLocalTransaction.get();
+            final P_StripedWriter writer = new P_StripedWriter(this, write, requiresBonding, txn, new P_StripedWriter.Listener()
+            {
+                @Override public void onProgress(int bytesWritten, int totalBytes)
+                {
+                    txn.onWriteProgress(bytesWritten, totalBytes);
+                }
+
+                @Override public void onDone(ReadWriteListener.ReadWriteEvent e)
+                {
+                    final ReadWriteListener listener = write.getReadWriteListener();
+                    if (listener != null)
+                        listener.onEvent(e);
+                }
+            });
+            writer.start();
+        }
         else
         {
-            P_StripedWriteTransaction stripedTxn = new P_StripedWriteTransaction(write, requiresBonding, write.getWriteType());
+            P_StripedWriteTransaction stripedTxn = new P_StripedWriteTransaction(write, requiresBonding);
             performTransaction(stripedTxn);
         }
     }
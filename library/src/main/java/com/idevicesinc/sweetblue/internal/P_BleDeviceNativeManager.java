@@ -235,6 +235,8 @@ final class P_BleDeviceNativeManager
 
     final boolean refreshGatt()
     {
+        m_device.getServiceManager().invalidateAttributeIndex();
+
         return m_gattLayer.refreshGatt();
     }
 
@@ -545,7 +547,7 @@ final class P_BleDeviceNativeManager
 
     private void updateGattFromCallback(P_GattHolder gatt)
     {
-        if (gatt == null && !P_Bridge_User.isUnitTest(getManager().getConfigClone()))
+        if (gatt == null && !P_Bridge_User.isUnitTest(getManager().conf_mngr()))
         {
             getLogger().w("Gatt object from callback is null.");
         }
@@ -614,6 +616,7 @@ final class P_BleDeviceNativeManager
     private void closeGatt(boolean disconnectAlso)
     {
         UhOhListener.UhOh uhoh = m_gattLayer.closeGatt();
+        m_device.getServiceManager().invalidateAttributeIndex();
         if (uhoh != null)
         {
             m_device.getIManager().uhOh(uhoh);
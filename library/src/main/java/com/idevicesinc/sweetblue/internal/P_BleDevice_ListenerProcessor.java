@@ -261,7 +261,8 @@ final class P_BleDevice_ListenerProcessor implements IDeviceListener.Callback
 
         if (connectTask != null)
         {
-            connectTask.fail();
+            // Keep the status the stack disconnected with (usually 133), so it makes it to the connect fail event
+            connectTask.onNativeFail(gattStatus);
             m_device.onNativeConnectFail(PE_TaskState.FAILED, connectTask.getGattStatus(), connectTask.getAutoConnectUsage());
         }
         else
@@ -339,6 +340,9 @@ final class P_BleDevice_ListenerProcessor implements IDeviceListener.Callback
     {
         final P_Task_DiscoverServices task = m_queue.getCurrent(P_Task_DiscoverServices.class, m_device);
 
+        // Whatever the outcome, the gatt database we indexed before this may no longer be what the device has.
+        m_device.getServiceManager().invalidateAttributeIndex();
+
         if (Utils.isSuccess(gattStatus))
         {
             if (task != null)
@@ -367,7 +371,7 @@ final class P_BleDevice_ListenerProcessor implements IDeviceListener.Callback
         final byte[] value = characteristic.getValue() == null ? null : characteristic.getValue().clone();
 
         final UUID uuid = characteristic.getCharacteristic().getUuid();
-        m_logger.log_status_native(m_device.getMacAddress(), gattStatus, m_logger.charName(uuid));
+        m_logger.log_status_native(m_device.getMacAddress(), gattStatus, "char", uuid);
 
         m_device.getIManager().getPostManager().runOrPostToUpdateThread(() -> onCharacteristicRead_updateThread(gatt, characteristic, gattStatus, value));
     }
@@ -382,7 +386,16 @@ final class P_BleDevice_ListenerProcessor implements IDeviceListener.Callback
         }
         else
         {
-            fireUnsolicitedEvent(characteristic, BleDescriptor.NULL, ReadWriteListener.Type.READ, ReadWriteListener.Target.CHARACTERISTIC, value, gattStatus);
+            final P_Task_ReadBatch batchTask = m_queue.getCurrent(P_Task_ReadBatch.class, m_device);
+
+            if (batchTask != null && batchTask.isFor(characteristic))
+            {
+                batchTask.onCharacteristicRead(gatt, characteristic.getUuid(), value, gattStatus);
+            }
+            else
+            {
+                fireUnsolicitedEvent(characteristic, BleDescriptor.NULL, ReadWriteListener.Type.READ, ReadWriteListener.Target.CHARACTERISTIC, value, gattStatus);
+            }
         }
     }
 
@@ -392,7 +405,7 @@ final class P_BleDevice_ListenerProcessor implements IDeviceListener.Callback
         final byte[] data = characteristic.getValue();
 
         final UUID uuid = characteristic.getUuid();
-        m_logger.log_status_native(m_device.getMacAddress(), gattStatus, m_logger.charName(uuid));
+        m_logger.log_status_native(m_device.getMacAddress(), gattStatus, "char", uuid);
 
         m_device.getIManager().getPostManager().runOrPostToUpdateThread(() -> onCharacteristicWrite_updateThread(gatt, characteristic, data, gattStatus));
     }
@@ -511,7 +524,8 @@ final class P_BleDevice_ListenerProcessor implements IDeviceListener.Callback
     public final void onDescriptorWrite(final P_GattHolder gatt, final BleDescriptor descriptor, final int gattStatus)
     {
         final UUID uuid = descriptor.getUuid();
-        m_logger.i_native(m_logger.descriptorName(uuid));
+        if (m_logger.isNativeEnabled(LogOptions.LogLevel.INFO.nativeBit()))
+            m_logger.i_native(m_logger.descriptorName(uuid));
         m_logger.log_status_native(m_device.getMacAddress(), gattStatus);
 
         final byte[] data = descriptor.getValue();
@@ -549,7 +563,8 @@ final class P_BleDevice_ListenerProcessor implements IDeviceListener.Callback
     {
         final byte[] data = descriptor.getValue();
         final UUID uuid = descriptor.getUuid();
-        m_logger.i_native(m_logger.descriptorName(uuid));
+        if (m_logger.isNativeEnabled(LogOptions.LogLevel.INFO.nativeBit()))
+            m_logger.i_native(m_logger.descriptorName(uuid));
         m_logger.log_status_native(m_device.getMacAddress(), gattStatus);
 
         m_device.getIManager().getPostManager().runOrPostToUpdateThread(() -> onDescriptorRead_updateThread(gatt, descriptor, data, gattStatus));
@@ -578,20 +593,40 @@ final class P_BleDevice_ListenerProcessor implements IDeviceListener.Callback
     @Override
     public final void onCharacteristicChanged(final P_GattHolder gatt, final BleCharacteristic characteristic)
     {
-        final byte[] value = characteristic.getValue() == null ? null : characteristic.getValue().clone();
+        final byte[] nativeValue = characteristic.getValue();
+
+        // Android reuses the characteristic's value array, so it has to be copied out here either way. When pooling is on, it's
+        // copied into a pooled buffer instead of a new array, unless the pool is out of room.
+        final P_NotifyBufferPool.Payload payload = m_device.conf_device().usePooledNotificationBuffers ? m_device.getIManager().getNotifyBufferPool().acquire(nativeValue) : null;
+        final byte[] value = payload != null || nativeValue == null ? null : nativeValue.clone();
 
         final UUID characteristicUuid = characteristic.getUuid();
-        m_logger.log_native(LogOptions.LogLevel.DEBUG.nativeBit(), m_device.getMacAddress(), "characteristic=" + characteristicUuid.toString());
+        m_logger.logf_native(LogOptions.LogLevel.DEBUG.nativeBit(), m_device.getMacAddress(), "characteristic=%s", characteristicUuid);
 
-        m_device.getIManager().getPostManager().runOrPostToUpdateThread(() -> onCharacteristicChanged_updateThread(gatt, characteristic, value));
+        m_device.getIManager().getPostManager().runOrPostToUpdateThread(() -> onCharacteristicChanged_updateThread(gatt, characteristic, value, payload));
     }
 
-    private void onCharacteristicChanged_updateThread(final P_GattHolder gatt, final BleCharacteristic characteristic, final byte[] value)
+    private void onCharacteristicChanged_updateThread(final P_GattHolder gatt, final BleCharacteristic characteristic, final byte[] value, final P_NotifyBufferPool.Payload payload_nullable)
     {
         final UUID characteristicUuid = characteristic.getUuid();
         final UUID serviceUuid = characteristic.getService().getUuid();
 
-        m_device.getPollManager().onCharacteristicChangedFromNativeNotify(serviceUuid, characteristicUuid, value);
+        if (payload_nullable == null)
+        {
+            m_device.getPollManager().onCharacteristicChangedFromNativeNotify(serviceUuid, characteristicUuid, value);
+        }
+        else
+        {
+            try
+            {
+                m_device.getPollManager().onCharacteristicChangedFromNativeNotify(serviceUuid, characteristicUuid, payload_nullable);
+            }
+            finally
+            {
+                // Listeners have taken their own references by now, so this lets the buffer go once they're all done.
+                payload_nullable.release();
+            }
+        }
     }
 
     public final void onNativeBondRequest_updateThread(IBleDevice device)
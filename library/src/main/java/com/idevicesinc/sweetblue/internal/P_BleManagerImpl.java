@@ -71,6 +71,7 @@ import com.idevicesinc.sweetblue.ScanOptions;
 import com.idevicesinc.sweetblue.ServerConnectListener;
 import com.idevicesinc.sweetblue.ServerReconnectFilter;
 import com.idevicesinc.sweetblue.ServerStateListener;
+import com.idevicesinc.sweetblue.TaskTrace;
 import com.idevicesinc.sweetblue.UhOhListener;
 import com.idevicesinc.sweetblue.annotations.Advanced;
 import com.idevicesinc.sweetblue.annotations.Experimental;
@@ -93,6 +94,7 @@ import com.idevicesinc.sweetblue.utils.GattDatabase;
 import com.idevicesinc.sweetblue.utils.GenericListener_Void;
 import com.idevicesinc.sweetblue.utils.HistoricalData;
 import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.MetricsRegistry;
 import com.idevicesinc.sweetblue.utils.P_Const;
 import com.idevicesinc.sweetblue.utils.State;
 import com.idevicesinc.sweetblue.utils.TimeTracker;
@@ -135,14 +137,19 @@ public final class P_BleManagerImpl implements IBleManager
     private final P_ScanFilterManager m_filterMngr;
     private final P_BluetoothCrashResolver m_crashResolver;
     private P_Logger m_logger;
-    private BleManagerConfig m_config;
+    // Never modified after being set, so it can be handed out to internal classes as is. See conf_mngr().
+    private volatile BleManagerConfig m_config;
     private final P_DeviceManager m_deviceMngr;
     private final P_DeviceManager m_deviceMngr_cache;
     private final P_BleManagerNativeManager m_nativeManager;
     private final P_ManagerStateTracker m_stateTracker;
     private P_PostManager m_postManager;
+    private P_NotifyBufferPool m_notifyBufferPool;
+    private final MetricsRegistry m_metrics = new MetricsRegistry();
+    private final P_TaskTracer m_taskTracer = new P_TaskTracer();
     private P_ScanManager m_scanManager;
     private final P_TaskManager m_taskManager;
+    private final P_TimerWheel m_timerWheel;
     private P_UhOhThrottler m_uhOhThrottler;
     private P_WakeLockManager m_wakeLockMngr;
 
@@ -211,10 +218,10 @@ public final class P_BleManagerImpl implements IBleManager
         m_currentTick = System.currentTimeMillis();
 
         addLifecycleCallbacks();
-        m_config = config.clone();
+        m_config = cloneForUse(config);
 
         // Start up the time tracker
-        TimeTracker.createInstance(config.timeTrackerSetting);
+        TimeTracker.createInstance(config.timeTrackerSetting, m_metrics);
 
         m_logger = new P_Logger(this, P_Const.debugThreadNames, m_config.uuidNameMaps, m_config.loggingOptions, m_config.logger);
 
@@ -239,6 +246,7 @@ public final class P_BleManagerImpl implements IBleManager
         m_stateTracker = new P_ManagerStateTracker(this);
         m_stateTracker.append(nativeState, E_Intent.UNINTENTIONAL, BleStatuses.GATT_STATUS_NOT_APPLICABLE);
         m_stateTracker.update_native(nativeStateInt);
+        m_timerWheel = new P_TimerWheel(m_currentTick);
         m_taskManager = new P_TaskManager(this);
         m_crashResolver = new P_BluetoothCrashResolver(m_context);
         m_deviceMngr = new P_DeviceManager(this);
@@ -264,17 +272,74 @@ public final class P_BleManagerImpl implements IBleManager
 
     public final void setConfig(@Nullable(Nullable.Prevalence.RARE) BleManagerConfig config_nullable)
     {
-        m_config = config_nullable != null ? config_nullable.clone() : new BleManagerConfig();
+        m_config = cloneForUse(config_nullable != null ? config_nullable : new BleManagerConfig());
         updateTimeTracker();
         updateLogger();
         initConfigDependentMembers();
     }
 
+    // Makes the copy which becomes m_config, with any overrides already applied, as it can't be changed once it's been published
+    private static BleManagerConfig cloneForUse(BleManagerConfig config)
+    {
+        final BleManagerConfig clone = config.clone();
+
+        // We may have to do a more thorough check at some point. For now, I think just doing a reference check on the default option
+        // should be sufficient.
+        if (clone.defaultNativeScanFilterList != BleManagerConfig.EMPTY_NATIVE_FILTER)
+            clone.scanApi = BleScanApi.POST_LOLLIPOP;
+
+        return clone;
+    }
+
     public final BleManagerConfig getConfigClone()
     {
         return m_config.clone();
     }
 
+    public final MetricsRegistry getMetrics()
+    {
+        return m_metrics;
+    }
+
+    public final void recordMetric(String name, String type, IBleDevice device_nullable, long nanos)
+    {
+        if (!m_config.enableMetrics)  return;
+
+        final String macAddress = m_config.metricsPerDevice && device_nullable != null && !device_nullable.isNull() ? device_nullable.getMacAddress() : null;
+
+        m_metrics.record(name, type, macAddress, nanos);
+    }
+
+    public final P_TaskTracer getTaskTracer()
+    {
+        return m_taskTracer;
+    }
+
+    public final List<TaskTrace> getTaskTraces()
+    {
+        return m_taskTracer.getTraces();
+    }
+
+    public final String getTaskTraces_chromeJson()
+    {
+        return m_taskTracer.toChromeTraceJson();
+    }
+
+    public final void clearTaskTraces()
+    {
+        m_taskTracer.clear();
+    }
+
+    /**
+     * Returns the config this manager is currently running with, without copying it. The instance only ever gets replaced (in
+     * {@link #setConfig(BleManagerConfig)}), never modified once it's in use, so internal classes can read it as often as they like.
+     * It's shared though, so it must never be modified, or handed out to user code (use {@link #getConfigClone()} for that).
+     */
+    public final BleManagerConfig conf_mngr()
+    {
+        return m_config;
+    }
+
     /**
      * Returns whether the manager is in any of the provided states.
      */
@@ -892,7 +957,7 @@ public final class P_BleManagerImpl implements IBleManager
             {
                 final SharedPreferences.Editor editor = callingActivity.getSharedPreferences(LOCATION_PERMISSION_NAMESPACE, Context.MODE_PRIVATE).edit();
                 editor.putBoolean(LOCATION_PERMISSION_KEY, true).commit();
-                PermissionsCompat.requestPermissions(callingActivity, requestCode, getConfigClone().requestBackgroundOperation);
+                PermissionsCompat.requestPermissions(callingActivity, requestCode, conf_mngr().requestBackgroundOperation);
             }
         }
         else
@@ -913,7 +978,7 @@ public final class P_BleManagerImpl implements IBleManager
     public final void requestBluetoothPermissions(final Activity callingActivity, int requestCode)
     {
         if (Utils.isAndroid12()) {
-            BleManagerConfig cfg = getConfigClone();
+            BleManagerConfig cfg = conf_mngr();
             S_Util.requestPermissions(callingActivity, requestCode, cfg.requestBackgroundOperation, cfg.requestAdvertisePermission);
         }
         else
@@ -927,7 +992,7 @@ public final class P_BleManagerImpl implements IBleManager
         boolean ready = true;
         if (Utils.isAndroid12()) {
             // check for location as well, if doNotRequestLocation is false
-            ready = getConfigClone().doNotRequestLocation ?
+            ready = conf_mngr().doNotRequestLocation ?
                     areBluetoothPermissionsEnabled() :
                     areBluetoothPermissionsEnabled() && isLocationEnabledForScanning();
         } else if (Utils.isMarshmallow()) {
@@ -962,7 +1027,7 @@ public final class P_BleManagerImpl implements IBleManager
 
     public final boolean areBluetoothPermissionsEnabled()
     {
-        BleManagerConfig cfg = getConfigClone();
+        BleManagerConfig cfg = conf_mngr();
         return Utils.areBluetoothPermissionsGranted(getApplicationContext(), cfg.requestBackgroundOperation, cfg.requestAdvertisePermission);
     }
 
@@ -1063,6 +1128,7 @@ public final class P_BleManagerImpl implements IBleManager
         m_postManager.removeUpdateCallbacks(m_updateRunnable);
         m_postManager.quit();
         m_wakeLockMngr.clear();
+        m_diskOptionsMngr.shutdown();
         m_nativeManager.shutdown();
     }
 
@@ -1146,9 +1212,8 @@ public final class P_BleManagerImpl implements IBleManager
      */
     public final @Nullable(Nullable.Prevalence.NEVER) IBleDevice getDevice(final String macAddress)
     {
-        final String macAddress_normalized = normalizeMacAddress(macAddress);
-
-        final IBleDevice device = m_deviceMngr.get(macAddress_normalized);
+        // The device manager matches mac addresses regardless of case or delimiter, so there's no need to normalize here.
+        final IBleDevice device = m_deviceMngr.get(macAddress);
 
         if (device != null) return device;
 
@@ -1225,7 +1290,7 @@ public final class P_BleManagerImpl implements IBleManager
      */
     public final void getDevices(final ForEach_Void<BleDevice> forEach, final BleDeviceState state)
     {
-        m_deviceMngr.forEach(forEach, state, true);
+        m_deviceMngr.forEach(forEach, state);
     }
 
     /**
@@ -1243,7 +1308,7 @@ public final class P_BleManagerImpl implements IBleManager
      */
     public final void getDevices(final ForEach_Breakable<BleDevice> forEach, final BleDeviceState state)
     {
-        m_deviceMngr.forEach(forEach, state, true);
+        m_deviceMngr.forEach(forEach, state);
     }
 
     /**
@@ -1255,6 +1320,21 @@ public final class P_BleManagerImpl implements IBleManager
         return m_diskOptionsMngr.getPreviouslyConnectedDevices();
     }
 
+    public final int getScanBacklog_peak()
+    {
+        return m_scanManager.getPeakBacklog();
+    }
+
+    public final long getScanResults_coalescedCount()
+    {
+        return m_scanManager.getCoalescedCount();
+    }
+
+    public final void resetScanBufferStats()
+    {
+        m_scanManager.resetBufferStats();
+    }
+
 
     /**
      * Convenience method to return a {@link Set} of currently bonded devices. This simply calls
@@ -1648,7 +1728,11 @@ public final class P_BleManagerImpl implements IBleManager
 
         m_uhOhThrottler.update(timeStep_seconds);
 
-        tt.transition("BleManager_Update_UhOhThrottler", "BleManager_Update_TaskManager");
+        tt.transition("BleManager_Update_UhOhThrottler", "BleManager_Update_TimerWheel");
+
+        m_timerWheel.advance(currentTime);
+
+        tt.transition("BleManager_Update_TimerWheel", "BleManager_Update_TaskManager");
 
         if (m_taskManager.update(timeStep_seconds, currentTime))
         {
@@ -1748,6 +1832,11 @@ public final class P_BleManagerImpl implements IBleManager
         return m_taskManager;
     }
 
+    public final P_TimerWheel getTimerWheel()
+    {
+        return m_timerWheel;
+    }
+
     public final void tryPurgingStaleDevices(final double scanTime)
     {
         m_deviceMngr.requestPurge(scanTime, m_deviceMngr_cache, m_discoveryListener);
@@ -1816,7 +1905,8 @@ public final class P_BleManagerImpl implements IBleManager
             getPostManager().removeUpdateCallbacks(m_updateRunnable);
             m_updateRunnable.setUpdateRate(m_config.autoUpdateRate.millis());
             m_stateTracker.update(E_Intent.INTENTIONAL, BleStatuses.GATT_STATUS_NOT_APPLICABLE, IDLE, false);
-            getPostManager().postToUpdateThread(m_updateRunnable);
+            // Posted straight to the handler, so it can still be removed like any other run of the update loop
+            getPostManager().forcePostToUpdate(m_updateRunnable);
         }
     }
 
@@ -1905,7 +1995,8 @@ public final class P_BleManagerImpl implements IBleManager
 
                 final boolean hitDisk = P_Bridge_User.boolOrDefault(m_config.manageLastDisconnectOnDisk);
                 final State.ChangeIntent lastDisconnectIntent = m_diskOptionsMngr.loadLastDisconnect(macAddress, hitDisk);
-                scanEvent_nullable = m_filterMngr.makeEvent() ? P_Bridge_User.newScanEventFromRecord(entry.device().getNativeDevice(), rawDeviceName, normalizedDeviceName, entry.rssi(), lastDisconnectIntent, entry.record()) : null;
+                scanEvent_nullable = m_filterMngr.makeEvent() ? P_Bridge_User.newScanEventFromRecord(entry.device().getNativeDevice(), rawDeviceName, normalizedDeviceName, entry.rssi(), lastDisconnectIntent, entry.record(),
+                        entry.rssiCount(), entry.rssiMin(), entry.rssiMax(), entry.rssiSmoothed()) : null;
 
                 please = m_filterMngr.allow(m_logger, scanEvent_nullable);
 
@@ -1918,6 +2009,8 @@ public final class P_BleManagerImpl implements IBleManager
                 final BleDeviceConfig config_nullable = P_Bridge_User.fromPlease(please);
                 device_sweetblue = newDevice_private(entry.device(), normalizedDeviceName, name_native, BleDeviceOrigin.FROM_DISCOVERY, config_nullable);
                 newlyDiscovered = true;
+
+                recordMetric(MetricsRegistry.SCAN_TO_DISCOVERY, m_scanManager.getCurrentApi().name(), device_sweetblue, (m_currentTick - m_scanManager.getTimeScanStarted()) * 1000000L);
             }
             else
             {
@@ -1962,23 +2055,9 @@ public final class P_BleManagerImpl implements IBleManager
         if (listener != null)
         {
             if (listener instanceof PA_CallbackWrapper)
-            {
-                m_postManager.runOrPostToUpdateThread(() -> {
-                    if (listener != null)
-                    {
-                        listener.onEvent(event);
-                    }
-                });
-            }
+                m_postManager.runOrDispatchToUpdateThread(listener, event);
             else
-            {
-                m_postManager.postCallback(() -> {
-                    if (listener != null)
-                    {
-                        listener.onEvent(event);
-                    }
-                });
-            }
+                m_postManager.postEvent(listener, event);
         }
     }
 
@@ -1992,6 +2071,18 @@ public final class P_BleManagerImpl implements IBleManager
         return m_postManager;
     }
 
+    public final P_NotifyBufferPool getNotifyBufferPool()
+    {
+        // Only built if some device actually asks for it, as it holds on to a fair amount of memory.
+        synchronized (this)
+        {
+            if (m_notifyBufferPool == null)
+                m_notifyBufferPool = new P_NotifyBufferPool();
+
+            return m_notifyBufferPool;
+        }
+    }
+
     public final P_BleManagerNativeManager getNativeManager()
     {
         return m_nativeManager;
@@ -2247,29 +2338,9 @@ public final class P_BleManagerImpl implements IBleManager
     {
         if (listener != null)
         {
-            if (listener instanceof PA_CallbackWrapper)
-            {
-                m_postManager.runOrPostToUpdateThread(() -> {
-                    if (listener != null)
-                    {
-                        for (Event e : events)
-                        {
-                            listener.onEvent(e);
-                        }
-                    }
-                });
-            }
-            else
+            for (Event e : events)
             {
-                m_postManager.postCallback(() -> {
-                    if (listener != null)
-                    {
-                        for (Event e : events)
-                        {
-                            listener.onEvent(e);
-                        }
-                    }
-                });
+                postEvent(listener, e);
             }
         }
     }
@@ -2461,18 +2532,20 @@ public final class P_BleManagerImpl implements IBleManager
                 break;
             }
         }
-        DiscoveryListener listener = m_ephemeralDiscoveryListener;
-        if (listener != null)
+        // Grab the listeners before stopping the scan, as that clears out the ephemeral one. The scan is stopped before posting, so
+        // listeners always see it stopped, rather than racing the callback thread.
+        final DiscoveryListener ephemeralListener = m_ephemeralDiscoveryListener;
+        final DiscoveryListener listener = m_discoveryListener;
+        if (stopScan)
+            stopScan();
+        if (ephemeralListener != null)
         {
-            postEvents(listener, events);
+            postEvents(ephemeralListener, events);
         }
-        listener = m_discoveryListener;
         if (listener != null)
         {
             postEvents(listener, events);
         }
-        if (stopScan)
-            stopScan();
     }
 
     private void reset_private(boolean nuclear, ResetListener listener)
@@ -2612,7 +2685,7 @@ public final class P_BleManagerImpl implements IBleManager
                         " AndroidManifest.xml file, and you must request them at runtime. See https://developer.android.com/guide/topics/connectivity/bluetooth/permissions" +
                         " for more information on how to request permissions (alternatively, you can use the BleSetupHelper.");
             }
-            if (getConfigClone().doNotRequestLocation)
+            if (conf_mngr().doNotRequestLocation)
             {
                 return;
             }
@@ -2747,6 +2820,10 @@ public final class P_BleManagerImpl implements IBleManager
 
         m_filterMngr.setDefaultFilter(m_config.defaultScanFilter);
 
+        m_taskManager.onConfigChanged(m_config);
+
+        m_taskTracer.setCapacity(m_config.taskTraceCapacity);
+
         m_config.bluetoothManagerImplementation.setIBleManager(this);
 
         if (m_config.bluetoothManagerImplementation.isManagerNull())
@@ -2803,12 +2880,10 @@ public final class P_BleManagerImpl implements IBleManager
         if (m_config.reconnectFilter instanceof DeviceReconnectFilter)
             m_defaultDeviceReconnectFilter = (DeviceReconnectFilter) m_config.reconnectFilter;
 
-        // We may have to do a more thorough check at some point. For now, I think just doing a reference check on the default option
-        // should be sufficient.
+        // The scanApi override itself was applied to the config before it was published (see cloneForUse())
         if (m_config.defaultNativeScanFilterList != BleManagerConfig.EMPTY_NATIVE_FILTER)
         {
             m_logger.w("BleManager", "Detected non-default native scan filter list. Setting scanApi option to POST_LOLLIPOP.");
-            m_config.scanApi = BleScanApi.POST_LOLLIPOP;
         }
     }
 
@@ -39,7 +39,7 @@ final class P_BleManagerNativeManager
     final void init(IBluetoothManager mgrLayer)
     {
         m_nativeManager = mgrLayer;
-        m_listenerProcessor.updatePollRate(m_manager.getConfigClone().defaultStatePollRate);
+        m_listenerProcessor.updatePollRate(m_manager.conf_mngr().defaultStatePollRate);
     }
 
     final void shutdown()
@@ -73,7 +73,7 @@ final class P_BleManager_ListenerProcessor implements IManagerListener.Callback
 
         m_mngr.getApplicationContext().registerReceiver(m_receiver, newIntentFilter());
 
-        m_pollRate = m_mngr.getConfigClone().defaultStatePollRate;
+        m_pollRate = m_mngr.conf_mngr().defaultStatePollRate;
 
         m_nativeListener = m_mngr.getManagerListenerFactory().newInstance(this);
     }
@@ -447,7 +447,7 @@ final class P_BleManager_ListenerProcessor implements IManagerListener.Callback
 
         // Only pipe discovery event if the scan task is running, and the manager says we're doing a classic scan
         P_Task_Scan scan = m_mngr.getTaskManager().getCurrent(P_Task_Scan.class, m_mngr);
-        if (hack == null && scan != null && m_mngr.getConfigClone().scanApi == BleScanApi.CLASSIC)
+        if (hack == null && scan != null && m_mngr.conf_mngr().scanApi == BleScanApi.CLASSIC)
         {
             final P_DeviceHolder deviceHolder = P_DeviceHolder.newHolder(intent);
 
@@ -33,7 +33,9 @@ import com.idevicesinc.sweetblue.BleServer;
 import com.idevicesinc.sweetblue.BleServerState;
 import com.idevicesinc.sweetblue.BleService;
 import com.idevicesinc.sweetblue.BleStatuses;
+import com.idevicesinc.sweetblue.ExchangeListener;
 import com.idevicesinc.sweetblue.IncomingListener;
+import com.idevicesinc.sweetblue.MulticastListener;
 import com.idevicesinc.sweetblue.OutgoingListener;
 import com.idevicesinc.sweetblue.P_Bridge_User;
 import com.idevicesinc.sweetblue.ServerConnectListener;
@@ -56,6 +58,7 @@ import com.idevicesinc.sweetblue.utils.State;
 import com.idevicesinc.sweetblue.utils.Utils;
 import com.idevicesinc.sweetblue.utils.Utils_String;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -327,6 +330,16 @@ public final class P_BleServerImpl extends BleNodeImpl implements IBleServer
         return sendNotification_private(macAddress, serviceUuid, charUuid, futureData, listener, /*isIndication=*/false);
     }
 
+    public final @Nullable(Nullable.Prevalence.NEVER) MulticastListener.MulticastEvent sendIndicationToAll(UUID serviceUuid, UUID charUuid, final FutureData futureData, MulticastListener listener)
+    {
+        return sendMulticast_private(serviceUuid, charUuid, futureData, listener, /*isIndication=*/true);
+    }
+
+    public final @Nullable(Nullable.Prevalence.NEVER) MulticastListener.MulticastEvent sendNotificationToAll(UUID serviceUuid, UUID charUuid, final FutureData futureData, MulticastListener listener)
+    {
+        return sendMulticast_private(serviceUuid, charUuid, futureData, listener, /*isIndication=*/false);
+    }
+
     public final boolean isAdvertisingSupportedByAndroidVersion()
     {
         return m_advManager.isAdvertisingSupportedByAndroidVersion();
@@ -749,7 +762,7 @@ public final class P_BleServerImpl extends BleNodeImpl implements IBleServer
     public final void onAdvertiseStartFailed(final AdvertisingListener.Status status, final AdvertisingListener listener)
     {
         m_advManager.onAdvertiseStartFailed(status);
-        if (getIManager().getConfigClone().postCallbacksToMainThread)
+        if (getIManager().conf_mngr().postCallbacksToMainThread)
         {
             getIManager().getPostManager().postToMain(() -> invokeAdvertiseListeners(status, listener));
         }
@@ -851,6 +864,12 @@ public final class P_BleServerImpl extends BleNodeImpl implements IBleServer
             getIManager().postEvent(listener, e);
     }
 
+    public final void invokeMulticastListeners(final MulticastListener.MulticastEvent e, final MulticastListener listener_specific_nullable)
+    {
+        if( listener_specific_nullable != null )
+            getIManager().postEvent(listener_specific_nullable, e);
+    }
+
     public final void invokeConnectListeners(ServerConnectListener.ConnectEvent event)
     {
         ServerConnectListener listener = m_ephemeralConnectListenerMap.remove(event.macAddress());
@@ -1055,4 +1074,52 @@ public final class P_BleServerImpl extends BleNodeImpl implements IBleServer
 
         return P_Bridge_User.outgoingNULL(getBleServer(), P_DeviceHolder.newHolder(nativeDevice.getNativeDevice()), serviceUuid, charUuid);
     }
+
+    private MulticastListener.MulticastEvent sendMulticast_private(final UUID serviceUuid, final UUID charUuid, final FutureData futureData, final MulticastListener listener, final boolean isIndication)
+    {
+        final ExchangeListener.Type type = isIndication ? ExchangeListener.Type.INDICATION : ExchangeListener.Type.NOTIFICATION;
+
+        if( isNull() )
+        {
+            final MulticastListener.MulticastEvent e = P_Bridge_User.newMulticastEarlyOut(getBleServer(), serviceUuid, charUuid, type, futureData, OutgoingListener.Status.NULL_SERVER);
+
+            invokeMulticastListeners(e, listener);
+
+            return e;
+        }
+
+        final List<String> clients = m_clientMngr.getClients_List(CONNECTED.bit());
+
+        if( clients.isEmpty() )
+        {
+            final MulticastListener.MulticastEvent e = P_Bridge_User.newMulticastEarlyOut(getBleServer(), serviceUuid, charUuid, type, futureData, OutgoingListener.Status.NOT_CONNECTED);
+
+            invokeMulticastListeners(e, listener);
+
+            return e;
+        }
+
+        final BleCharacteristic char_native = getNativeBleCharacteristic(serviceUuid, charUuid, null);
+
+        if( char_native == null || char_native.isNull() )
+        {
+            final MulticastListener.MulticastEvent e = P_Bridge_User.newMulticastEarlyOut(getBleServer(), serviceUuid, charUuid, type, futureData, OutgoingListener.Status.NO_MATCHING_TARGET);
+
+            invokeMulticastListeners(e, listener);
+
+            return e;
+        }
+
+        final List<IBluetoothDevice> nativeDevices = new ArrayList<>(clients.size());
+
+        for( int i = 0; i < clients.size(); i++ )
+        {
+            nativeDevices.add(newNativeDevice(clients.get(i)));
+        }
+
+        final P_Task_SendMulticastNotification task = new P_Task_SendMulticastNotification(this, nativeDevices, serviceUuid, charUuid, futureData, /*confirm=*/isIndication, listener);
+        taskManager().add(task);
+
+        return P_Bridge_User.multicastNULL(getBleServer(), serviceUuid, charUuid, type);
+    }
 }
@@ -391,11 +391,16 @@ final class P_BleServer_ListenerProcessor implements IServerListener.Callback
     private void onNotificationSent_updateThread(final P_DeviceHolder device, final int gattStatus)
     {
         final P_Task_SendNotification task = m_queue.getCurrent(P_Task_SendNotification.class, m_server);
+        final P_Task_SendMulticastNotification multicastTask = task == null ? m_queue.getCurrent(P_Task_SendMulticastNotification.class, m_server) : null;
 
         if (task != null && task.m_macAddress.equals(device.getAddress()))
         {
             task.onNotificationSent(device, gattStatus);
         }
+        else if (multicastTask != null && multicastTask.isWaitingOn(device.getAddress()))
+        {
+            multicastTask.onNotificationSent(device, gattStatus);
+        }
         else
         {
             final OutgoingEvent e = P_Bridge_User.newOutgoingEvent(
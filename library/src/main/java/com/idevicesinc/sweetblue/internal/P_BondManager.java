@@ -132,7 +132,7 @@ final class P_BondManager
 
         if (intent == PA_StateTracker.E_Intent.INTENTIONAL)
         {
-            boolean hitDisk = Utils_Config.bool(m_device.getConfig().tryBondingWhileDisconnected_manageOnDisk, m_device.getIManager().getConfigClone().tryBondingWhileDisconnected_manageOnDisk);
+            boolean hitDisk = Utils_Config.bool(m_device.getConfig().tryBondingWhileDisconnected_manageOnDisk, m_device.getIManager().conf_mngr().tryBondingWhileDisconnected_manageOnDisk);
             m_device.getIManager().getDiskOptionsManager().clearNeedsBonding(m_device.getMacAddress(), hitDisk);
         }
 
@@ -208,7 +208,7 @@ final class P_BondManager
         if (getFilter() != null)
         {
             final BondRetryFilter.RetryEvent event = P_Bridge_User.newBondRetryEvent(m_device.getBleDevice(), failReason, m_bondRetries, wasDirect, m_bondRequested);
-            final BondRetryFilter.Please please = m_device.getIManager().getConfigClone().bondRetryFilter.onEvent(event);
+            final BondRetryFilter.Please please = m_device.getIManager().conf_mngr().bondRetryFilter.onEvent(event);
             if (P_Bridge_User.shouldRetry(please))
             {
                 m_device.getIManager().getLogger().w("Bond failed with failReason of " + CodeHelper.gattUnbondReason(failReason, m_device.getIManager().getLogger().isEnabled()) + ". Retrying bond...");
@@ -319,12 +319,14 @@ final class P_BondManager
 
     final void invokeCallback(final BondListener.BondEvent event)
     {
-        if (m_ephemeralListener != null)
-            m_device.getIManager().postEvent(m_ephemeralListener, event);
-
-        // Since the listener had an event posted to it, we now clear out the ephemeral listener.
+        // Since the listener is getting an event posted to it, we now clear out the ephemeral listener. This has to happen before
+        // posting, as the listener may set a new ephemeral listener (by calling bond() or unbond()) before this method returns.
+        final BondListener ephemeralListener = m_ephemeralListener;
         m_ephemeralListener = null;
 
+        if (ephemeralListener != null)
+            m_device.getIManager().postEvent(ephemeralListener, event);
+
         if (m_listener != null)
             m_device.getIManager().postEvent(m_listener, event);
 
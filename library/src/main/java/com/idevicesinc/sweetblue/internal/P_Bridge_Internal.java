@@ -35,6 +35,7 @@ import com.idevicesinc.sweetblue.utils.CodeHelper;
 import com.idevicesinc.sweetblue.utils.P_Const;
 import com.idevicesinc.sweetblue.utils.Uuids;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -84,6 +85,16 @@ public final class P_Bridge_Internal
         ((P_BleManagerImpl) mgr).setBleScanReady();
     }
 
+    public static byte[] copyPooledPayload(Object payload, int generation)
+    {
+        return payload instanceof P_NotifyBufferPool.Payload ? ((P_NotifyBufferPool.Payload) payload).copy(generation) : null;
+    }
+
+    public static ByteBuffer viewPooledPayload(Object payload, int generation)
+    {
+        return payload instanceof P_NotifyBufferPool.Payload ? ((P_NotifyBufferPool.Payload) payload).view(generation) : null;
+    }
+
     public static String uuidName(IBleManager mgr, UUID uuid)
     {
         return mgr.getLogger().uuidName(uuid);
@@ -0,0 +1,108 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.BleManagerConfig;
+import com.idevicesinc.sweetblue.BleStatuses;
+
+
+/**
+ * Decides how many connects and service discoveries {@link P_TaskManager} lets run at once when
+ * {@link BleManagerConfig#useDeviceTaskQueues} is on, and which waiting device goes next.
+ * <br><br>
+ * The limit starts at {@link BleManagerConfig#maxConcurrentConnects}. Every {@link BleStatuses#GATT_ERROR} (the infamous 133) a
+ * connection fails with halves it, down to one at a time, as that's usually the stack telling us it's got too much going on. It then
+ * grows back by one each time that many admitted tasks in a row succeed.
+ * <br><br>
+ * Not thread safe; {@link P_TaskManager} only calls into this while holding its lock.
+ */
+final class P_ConnectAdmission
+{
+
+    private int m_maxConcurrent = BleManagerConfig.DEFAULT_MAX_CONCURRENT_CONNECTS;
+    private int m_limit = BleManagerConfig.DEFAULT_MAX_CONCURRENT_CONNECTS;
+    private int m_successCount = 0;
+
+
+    final void onConfigChanged(BleManagerConfig config)
+    {
+        final int maxConcurrent = Math.max(1, config.maxConcurrentConnects);
+
+        if (maxConcurrent == m_maxConcurrent)
+            return;
+
+        m_maxConcurrent = maxConcurrent;
+        m_limit = maxConcurrent;
+        m_successCount = 0;
+    }
+
+    /**
+     * Returns how many admitted tasks can be running right now.
+     */
+    final int getLimit()
+    {
+        return m_limit;
+    }
+
+    final void onConnectFailed(int gattStatus)
+    {
+        if (gattStatus != BleStatuses.GATT_ERROR)
+            return;
+
+        m_limit = Math.max(1, m_limit / 2);
+        m_successCount = 0;
+    }
+
+    final void onAdmittedTaskSucceeded()
+    {
+        if (m_limit >= m_maxConcurrent)
+            return;
+
+        m_successCount++;
+
+        if (m_successCount >= m_limit)
+        {
+            m_limit++;
+            m_successCount = 0;
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the first device should be let in before the second. Devices with a higher
+     * {@link com.idevicesinc.sweetblue.BleDeviceConfig#connectAdmissionPriority} go first, then whichever has the stronger signal.
+     */
+    static boolean outranks(IBleDevice device, IBleDevice other)
+    {
+        final int priority = device.conf_device().connectAdmissionPriority;
+        final int otherPriority = other.conf_device().connectAdmissionPriority;
+
+        if (priority != otherPriority)
+            return priority > otherPriority;
+
+        return rssiOf(device) > rssiOf(other);
+    }
+
+    private static int rssiOf(IBleDevice device)
+    {
+        // Zero means we haven't heard an rssi yet, so rank it below any real reading.
+        final int rssi = device.getRssi();
+
+        return rssi != 0 ? rssi : Integer.MIN_VALUE;
+    }
+}
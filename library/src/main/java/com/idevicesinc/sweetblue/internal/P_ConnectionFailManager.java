@@ -167,6 +167,8 @@ final class P_ConnectionFailManager
 
         addToHistory(moreInfo);
 
+        m_device.getIManager().getTaskManager().onConnectionFailed(disconnectReason.getGattStatus());
+
         //--- DRK > Not invoking callback if we're attempting short-term reconnect.
         P_ConnectFailPlease retryChoice__PE_Please = m_device.is(BleDeviceState.RECONNECTING_SHORT_TERM) ? DO_NOT_RETRY : invokeCallback(moreInfo, false);
 
@@ -18,12 +18,10 @@
 package com.idevicesinc.sweetblue.internal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import com.idevicesinc.sweetblue.BleDevice;
 import com.idevicesinc.sweetblue.BleDeviceOrigin;
 import com.idevicesinc.sweetblue.BleDeviceState;
@@ -44,8 +42,10 @@ final class P_DeviceManager
 {
     private final Object m_lock = new Object();
 
-    // Map that holds all of our devices (and preserves insertion order)
-    private final LinkedHashMap<String, IBleDevice> m_map = new LinkedHashMap<>();
+    // Holds all of our devices, keyed by packed mac address (and preserves insertion order). Reads don't need m_lock.
+    private final P_DeviceRegistry m_registry = new P_DeviceRegistry();
+    // Which of those devices are in which state, so state queries don't have to walk the registry.
+    private final P_DeviceStateIndex m_stateIndex = new P_DeviceStateIndex();
 
     private final IBleManager m_mngr;
 
@@ -79,13 +79,23 @@ final class P_DeviceManager
 
     private ArrayList<IBleDevice> getList_private(boolean sort)
     {
-        ArrayList<IBleDevice> deviceList;
-        synchronized (m_lock)
-        {
-            deviceList = new ArrayList<>(m_map.values());
-        }
-        if (sort && m_mngr.getConfigClone().defaultListComparator != null)
-            Collections.sort(deviceList, wrapComparator(m_mngr.getConfigClone().defaultListComparator));
+        ArrayList<IBleDevice> deviceList = new ArrayList<>(Arrays.asList(devices()));
+        return sort ? sort(deviceList) : deviceList;
+    }
+
+    /**
+     * Returns the devices as of right now, in the order they were added. This is a shared snapshot, so unlike {@link #getList()}
+     * it costs nothing to get, but must not be modified.
+     */
+    IBleDevice[] devices()
+    {
+        return m_registry.snapshot().devices();
+    }
+
+    private ArrayList<IBleDevice> sort(ArrayList<IBleDevice> deviceList)
+    {
+        if (m_mngr.conf_mngr().defaultListComparator != null)
+            Collections.sort(deviceList, wrapComparator(m_mngr.conf_mngr().defaultListComparator));
         return deviceList;
     }
 
@@ -98,11 +108,11 @@ final class P_DeviceManager
     {
         final boolean isQueryValid = query != null && query.length > 0;
 
-        // Copy the list so we don't have to lock while iterating
-        List<IBleDevice> list = getList();
+        // The snapshot never changes, so there's no need to lock or copy while iterating
+        final IBleDevice[] devices = devices();
 
         // Call the forEach on every device
-        for (IBleDevice device : list)
+        for (IBleDevice device : devices)
         {
             // Don't execute if we have a valid query and the device doesn't match it
             if (isQueryValid && !device.is(query))
@@ -113,6 +123,21 @@ final class P_DeviceManager
         }
     }
 
+    /**
+     * Same as {@link #forEach(Object, Object...)} with a query of <code>state, true</code>, but only visits the devices in the given state.
+     */
+    void forEach(final Object forEach, final BleDeviceState state)
+    {
+        // Copied out first, so the forEach is free to change device states as it goes
+        final ArrayList<IBleDevice> devices = m_stateIndex.getDevices(state.bit(), new ArrayList<IBleDevice>());
+
+        for (IBleDevice device : devices)
+        {
+            if (!forEach_invoke(forEach, m_mngr.getBleDevice(device)))
+                break;
+        }
+    }
+
     private boolean forEach_invoke(final Object forEach, final BleDevice device)
     {
         if (forEach instanceof ForEach_Breakable)
@@ -136,13 +161,13 @@ final class P_DeviceManager
     }
 
     // Helper method for completing iteration after we discover the starting position in the list
-    private IBleDevice iterateStage2(List<IBleDevice> list, int startingIndex, int delta, Object... query)
+    private IBleDevice iterateStage2(IBleDevice[] list, int startingIndex, int delta, Object... query)
     {
         // See if the query is actually valid.  If not, we don't attempt to check it
         final boolean queryValid = query != null && query.length > 0;
 
         // Walk the list from the given index
-        for (int i = 1; i <= list.size(); ++i)
+        for (int i = 1; i <= list.length; ++i)
         {
             int index = startingIndex;
             if (delta > 0)
@@ -152,11 +177,11 @@ final class P_DeviceManager
 
             // Handle wraparound
             if (index < 0)
-                index += list.size();
-            if (index >= list.size())
-                index -= list.size();
+                index += list.length;
+            if (index >= list.length)
+                index -= list.length;
 
-            IBleDevice candidate = list.get(index);
+            IBleDevice candidate = list[index];
 
             if (queryValid)
             {
@@ -177,11 +202,11 @@ final class P_DeviceManager
     private IBleDevice iterate(final IBleDevice device, int delta, Object... query)
     {
         // Grab a snapshot of the list to avoid any issues with concurrency
-        List<IBleDevice> list = getList();
+        final IBleDevice[] list = devices();
 
-        for (int i = 0; i < list.size(); ++i)
+        for (int i = 0; i < list.length; ++i)
         {
-            IBleDevice candidate = list.get(i);
+            IBleDevice candidate = list[i];
 
             if (candidate.equals(device))
             {
@@ -201,41 +226,20 @@ final class P_DeviceManager
 
     public IBleDevice getDevice(final int mask_BleDeviceState)
     {
-        synchronized (m_lock)
-        {
-            for (IBleDevice device : m_map.values())
-            {
-                if (device.isAny(mask_BleDeviceState))
-                    return device;
-            }
-        }
-
-        return P_BleDeviceImpl.NULL;
+        return m_stateIndex.getFirst(mask_BleDeviceState);
     }
 
     public IBleDevice getDevice(BleDeviceState state)
     {
-        synchronized (m_lock)
-        {
-            for (IBleDevice device : m_map.values())
-            {
-                if (device.is(state))
-                    return device;
-            }
-        }
-
-        return P_BleDeviceImpl.NULL;
+        return m_stateIndex.getFirst(state.bit());
     }
 
     public IBleDevice getDevice(Object ... query)
     {
-        synchronized (m_lock)
+        for (IBleDevice device : devices())
         {
-            for (IBleDevice device : m_map.values())
-            {
-                if (device.is(query))
-                    return device;
-            }
+            if (device.is(query))
+                return device;
         }
 
         return P_BleDeviceImpl.NULL;
@@ -243,96 +247,59 @@ final class P_DeviceManager
 
     public List<IBleDevice> getDevices_List(boolean sort, Object... query)
     {
-        final List<IBleDevice> list = sort ? getList_sorted() : getList();
+        final ArrayList<IBleDevice> list = new ArrayList<>();
 
-        // Remove anything from the cloned list that shouldn't be there
-        Iterator<IBleDevice> it = list.iterator();
-        while (it.hasNext())
+        // Only copy out what matches, rather than cloning everything and removing what doesn't
+        for (IBleDevice device : devices())
         {
-            IBleDevice device = it.next();
-            if (!device.is(query))
-                it.remove();
+            if (device.is(query))
+                list.add(device);
         }
 
-        return list;
+        return sort ? sort(list) : list;
     }
 
     public List<IBleDevice> getDevices_List(boolean sort, final BleDeviceState state)
     {
-        final List<IBleDevice> list = sort ? getList_sorted() : getList();
-
-        // Remove anything from the cloned list that shouldn't be there
-        Iterator<IBleDevice> it = list.iterator();
-        while (it.hasNext())
-        {
-            IBleDevice device = it.next();
-            if (!device.is(state))
-                it.remove();
-        }
-
-        return list;
+        return getDevices_List(sort, state.bit());
     }
 
     public List<IBleDevice> getDevices_List(boolean sort, final int mask_BleDeviceState)
     {
-        final List<IBleDevice> list = sort ? getList_sorted() : getList();
-
-        // Remove anything from the cloned list that shouldn't be there
-        Iterator<IBleDevice> it = list.iterator();
-        while (it.hasNext())
-        {
-            IBleDevice device = it.next();
-            if (!device.isAny(mask_BleDeviceState))
-                it.remove();
-        }
+        final ArrayList<IBleDevice> list = m_stateIndex.getDevices(mask_BleDeviceState, new ArrayList<IBleDevice>());
 
-        return list;
+        return sort ? sort(list) : list;
     }
 
     public boolean has(IBleDevice device)
     {
-        return device != null && m_map.containsKey(device.getMacAddress());
+        return device != null && m_registry.snapshot().contains(device.getMacAddress());
         // Uncomment below to get old functionality back where we don't rely on equals, but rather check for the exact instance
-        //return m_map.get(device.getMacAddress()) == device;
+        //return m_registry.snapshot().get(device.getMacAddress()) == device;
     }
 
     //TODO:  Audit usage of this and see if we can get rid of it.  Random access is very slow
     public IBleDevice get(int i)
     {
-        List<IBleDevice> list = getList();
-        if (i < 0 || i >= list.size())
+        final IBleDevice[] list = devices();
+        if (i < 0 || i >= list.length)
             return null;
-        return list.get(i);
+        return list[i];
     }
 
     public int getDeviceIndex(final IBleDevice device)
     {
-        synchronized (m_lock)
-        {
-            int count = 0;
-            for (IBleDevice candidate : m_map.values())
-            {
-                if (candidate.equals(device))
-                    return count;
-                count++;
-            }
-        }
-
-        return -1;
+        return m_registry.snapshot().indexOf(device);
     }
 
     int getCount(Object[] query)
     {
         int count = 0;
 
-        // Don't bother cloning here since the check is so trivial
-        synchronized (m_lock)
+        for (IBleDevice device : devices())
         {
-            for (IBleDevice device : m_map.values())
-            {
-                if (device.is(query))
-                    ++count;
-            }
+            if (device.is(query))
+                ++count;
         }
 
         return count;
@@ -340,36 +307,28 @@ final class P_DeviceManager
 
     int getCount(BleDeviceState state)
     {
-        int count = 0;
-
-        // Don't bother cloning here since the check is so trivial
-        synchronized (m_lock)
-        {
-            for (IBleDevice device : m_map.values())
-            {
-                if (device.is(state))
-                    ++count;
-            }
-        }
-
-        return count;
+        return m_stateIndex.getCount(state);
     }
 
     int getCount()
     {
-        synchronized (m_lock)
-        {
-            return m_map.size();
-        }
+        return m_registry.snapshot().size();
     }
 
+    /**
+     * Looks up a device by mac address, in either case and with any of the usual delimiters, so callers don't need to normalize it first.
+     */
     public IBleDevice get(String uniqueId)
     {
-        // Need to synchronize gets because modifications to the table can cause get to crash
-        synchronized (m_lock)
-        {
-            return m_map.get(uniqueId);
-        }
+        return m_registry.snapshot().get(uniqueId);
+    }
+
+    /**
+     * Looks up a device by a mac address packed with {@link P_DeviceRegistry#packMacAddress(String)}.
+     */
+    IBleDevice get(long macAddress)
+    {
+        return m_registry.snapshot().get(macAddress);
     }
 
     void add(final IBleDevice device)
@@ -379,13 +338,10 @@ final class P_DeviceManager
 
         synchronized (m_lock)
         {
-            if (m_map.containsKey(device.getMacAddress()))
-            {
+            if (m_registry.add(device))
+                m_stateIndex.add(device);
+            else
                 logger().e("Already registered device " + device.getMacAddress());
-                return;
-            }
-
-            m_map.put(device.getMacAddress(), device);
         }
     }
 
@@ -401,18 +357,14 @@ final class P_DeviceManager
     {
         synchronized (m_lock)
         {
-            Iterator<Map.Entry<String, IBleDevice>> it = m_map.entrySet().iterator();
-
-            while (it.hasNext())
+            for (IBleDevice device : devices())
             {
-                Map.Entry<String, IBleDevice> entry = it.next();
-
-                // Call the doRemove method, but tell it to not perform the actual removal itself...  We handle that here with the iterator
-                doRemoval(entry.getValue(), cache, false);
-
-                // Pull the entry out of the map
-                it.remove();
+                // Call the doRemove method, but tell it to not perform the actual removal itself...  We clear everything in one go below
+                doRemoval(device, cache, false);
             }
+
+            m_registry.clear();
+            m_stateIndex.clear();
         }
     }
 
@@ -425,11 +377,16 @@ final class P_DeviceManager
     {
         synchronized (m_lock)
         {
-            m_mngr.ASSERT(m_map.containsKey(device.getMacAddress()), "");
+            m_mngr.ASSERT(m_registry.snapshot().contains(device.getMacAddress()), "");
 
-            // Sometimes the caller may handle the actual removal (in an iterator, for example), so we only execute the remove here if told to
+            // Sometimes the caller may handle the actual removal (clearing everything at once, for example), so we only execute the remove here if told to
             if (actuallyRemove)
-                m_map.remove(device.getMacAddress());
+            {
+                final IBleDevice removed = m_registry.remove(device.getMacAddress());
+
+                if (removed != null)
+                    m_stateIndex.remove(removed);
+            }
 
             final boolean cacheDevice = Utils_Config.bool(device.conf_device().cacheDeviceOnUndiscovery, device.conf_mngr().cacheDeviceOnUndiscovery);
 
@@ -452,7 +409,7 @@ final class P_DeviceManager
         // We can do this with a concurrenthashmap that is cleared here, populated when removes happen, and checked before calling update()
         // This will still allow us to do most of this process unlocked but also track removes in a safe way
 
-        List<IBleDevice> updateList;
+        final IBleDevice[] updateList;
 
         synchronized (m_lock)
         {
@@ -463,8 +420,8 @@ final class P_DeviceManager
             }
             m_updating = true;
 
-            // Clone the list so we don't have to worry about it changing mid iteration
-            updateList = getList();
+            // Snapshots never change, so we don't have to worry about it changing mid iteration
+            updateList = devices();
         }
 
         for (IBleDevice device : updateList)
@@ -478,9 +435,7 @@ final class P_DeviceManager
 
     void unbondAll(PE_TaskPriority priority, BondListener.Status status)
     {
-        List<IBleDevice> list = getList();
-
-        for (IBleDevice device : list)
+        for (IBleDevice device : devices())
         {
             if (device.getBondManager().isNativelyBondingOrBonded())
                 device.unbond_internal(priority, status);
@@ -490,25 +445,19 @@ final class P_DeviceManager
 
     void undiscoverAll()
     {
-        List<IBleDevice> list = getList();
-
-        for (IBleDevice device : list)
+        for (IBleDevice device : devices())
             device.undiscover();
     }
 
     void disconnectAll()
     {
-        List<IBleDevice> list = getList();
-
-        for (IBleDevice device : list)
+        for (IBleDevice device : devices())
             device.disconnect();
     }
 
     void disconnectAll_remote()
     {
-        List<IBleDevice> list = getList();
-
-        for (IBleDevice device : list)
+        for (IBleDevice device : devices())
             device.disconnect_remote();
     }
 
@@ -517,9 +466,7 @@ final class P_DeviceManager
         final P_DisconnectReason disconnectReason = new P_DisconnectReason(BleStatuses.GATT_STATUS_NOT_APPLICABLE)
                 .setConnectFailReason(DeviceReconnectFilter.Status.BLE_TURNING_OFF)
                 .setPriority(priority);
-        List<IBleDevice> list = getList();
-
-        for (IBleDevice device : list)
+        for (IBleDevice device : devices())
         {
             if (device.isAny(BleDeviceState.CONNECTING_OVERALL, BleDeviceState.BLE_CONNECTED))
             {
@@ -531,9 +478,7 @@ final class P_DeviceManager
 
     void rediscoverDevicesAfterBleTurningBackOn()
     {
-        List<IBleDevice> list = getList();
-
-        for (IBleDevice device : list)
+        for (IBleDevice device : devices())
         {
             if (!device.is(BleDeviceState.DISCOVERED))
             {
@@ -551,9 +496,7 @@ final class P_DeviceManager
 
     void reconnectDevicesAfterBleTurningBackOn()
     {
-        List<IBleDevice> list = getList();
-
-        for (IBleDevice device : list)
+        for (IBleDevice device : devices())
         {
             final boolean autoReconnectDeviceWhenBleTurnsBackOn = Utils_Config.bool(device.conf_device().autoReconnectDeviceWhenBleTurnsBackOn, device.conf_mngr().autoReconnectDeviceWhenBleTurnsBackOn);
 
@@ -564,26 +507,22 @@ final class P_DeviceManager
 
     void clearDeviceListeners()
     {
-        synchronized (m_lock)
+        for (IBleDevice d : devices())
         {
-            List<IBleDevice> list = getList();
-            for (IBleDevice d : list)
-            {
-                d.clearListeners();
-            }
+            d.clearListeners();
         }
     }
 
     void undiscoverAllForTurnOff(final P_DeviceManager cache, final PA_StateTracker.E_Intent intent)
     {
-        List<IBleDevice> list;
+        final IBleDevice[] list;
 
         synchronized (m_lock)
         {
             //FIXME:  Why is this only an assert when in every other case we return?
             m_mngr.ASSERT(!m_updating, "Undiscovering devices while updating!");
 
-            list = getList();
+            list = devices();
         }
 
         for (IBleDevice device : list)
@@ -641,13 +580,7 @@ final class P_DeviceManager
 
     void purgeStaleDevices()
     {
-        List<IBleDevice> list;
-        synchronized (m_lock)
-        {
-            list = getList();
-        }
-
-        for (IBleDevice device : list)
+        for (IBleDevice device : devices())
         {
             Interval minScanTimeToInvokeUndiscovery = Utils_Config.interval(device.conf_device().minScanTimeNeededForUndiscovery, device.conf_mngr().minScanTimeNeededForUndiscovery);
             if (Interval.isDisabled(minScanTimeToInvokeUndiscovery))
@@ -676,16 +609,22 @@ final class P_DeviceManager
         if (filter == null || filter.length == 0)
             return getCount() > 0;
 
-        // Don't bother cloning the list here since the isAny check is so quick and cannot possibly cascade back into other list operations
-        synchronized (m_lock)
+        int mask = 0x0;
+
+        for (BleDeviceState state : filter)
         {
-            for (IBleDevice device : m_map.values())
-            {
-                if (device.isAny(filter))
-                    return true;
-            }
+            if (state != null)
+                mask |= state.bit();
         }
 
-        return false;
+        return m_stateIndex.hasAny(mask);
+    }
+
+    /**
+     * Called by {@link P_DeviceStateTracker} whenever a device's state bits change. Devices this manager doesn't hold are ignored.
+     */
+    void onDeviceStateChanged(final IBleDevice device)
+    {
+        m_stateIndex.update(device);
     }
 }
@@ -0,0 +1,344 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.utils.Utils_String;
+import java.util.HashMap;
+
+
+/**
+ * Backing store for {@link P_DeviceManager}. Devices are keyed by their mac address packed into the low 48 bits of a
+ * <code>long</code>, in an open-addressing table, so looking one up doesn't hash (or allocate) a String.
+ * <br><br>
+ * Every change publishes a new, immutable {@link Snapshot}, so readers never lock and can walk {@link Snapshot#devices()}
+ * directly instead of copying it first. Changes are O(n), which is the right trade here; devices are looked up and iterated
+ * every update tick, but only added or removed as they're discovered and undiscovered.
+ */
+final class P_DeviceRegistry
+{
+
+    /**
+     * Returned by {@link #packMacAddress(String)} for anything that isn't a mac address.
+     */
+    static final long NOT_A_MAC = -1L;
+
+    private static final IBleDevice[] EMPTY_DEVICES = new IBleDevice[0];
+
+    static final Snapshot EMPTY = new Snapshot(EMPTY_DEVICES);
+
+
+    /**
+     * Immutable view of the registry at some point in time.
+     */
+    static final class Snapshot
+    {
+        // Insertion order, which is the order the device manager has always handed devices out in.
+        private final IBleDevice[] m_devices;
+
+        // Open-addressing table, with linear probing. A slot is empty when its value is null, so a key of zero is fine.
+        private final long[] m_keys;
+        private final IBleDevice[] m_values;
+        private final int m_mask;
+
+        // Anything registered under an address we can't pack. In practice this stays null.
+        private final HashMap<String, IBleDevice> m_unpackable;
+
+
+        private Snapshot(IBleDevice[] devices)
+        {
+            m_devices = devices;
+
+            final int capacity = tableSizeFor(devices.length);
+            m_keys = new long[capacity];
+            m_values = new IBleDevice[capacity];
+            m_mask = capacity - 1;
+
+            HashMap<String, IBleDevice> unpackable = null;
+
+            for (int i = 0; i < devices.length; i++)
+            {
+                final IBleDevice device = devices[i];
+                final long key = packMacAddress(device.getMacAddress());
+
+                if (key == NOT_A_MAC)
+                {
+                    if (unpackable == null)
+                        unpackable = new HashMap<>();
+
+                    unpackable.put(device.getMacAddress(), device);
+                }
+                else
+                {
+                    int slot = hash(key) & m_mask;
+
+                    while (m_values[slot] != null)
+                    {
+                        slot = (slot + 1) & m_mask;
+                    }
+
+                    m_keys[slot] = key;
+                    m_values[slot] = device;
+                }
+            }
+
+            m_unpackable = unpackable;
+        }
+
+        // Appends one device to an existing snapshot. When the table doesn't need to grow, it's copied as-is rather than rebuilt,
+        // so discovering a large fleet one device at a time doesn't re-pack every address each time.
+        private Snapshot(Snapshot previous, IBleDevice[] devices, IBleDevice added)
+        {
+            m_devices = devices;
+
+            final long key = packMacAddress(added.getMacAddress());
+
+            m_keys = previous.m_keys.clone();
+            m_values = previous.m_values.clone();
+            m_mask = previous.m_mask;
+
+            if (key == NOT_A_MAC)
+            {
+                m_unpackable = previous.m_unpackable != null ? new HashMap<>(previous.m_unpackable) : new HashMap<String, IBleDevice>();
+                m_unpackable.put(added.getMacAddress(), added);
+            }
+            else
+            {
+                m_unpackable = previous.m_unpackable;
+
+                int slot = hash(key) & m_mask;
+
+                while (m_values[slot] != null)
+                {
+                    slot = (slot + 1) & m_mask;
+                }
+
+                m_keys[slot] = key;
+                m_values[slot] = added;
+            }
+        }
+
+        /**
+         * The devices in this snapshot, in the order they were added. Do not modify.
+         */
+        final IBleDevice[] devices()
+        {
+            return m_devices;
+        }
+
+        final int size()
+        {
+            return m_devices.length;
+        }
+
+        final IBleDevice get(final long macAddress)
+        {
+            int slot = hash(macAddress) & m_mask;
+
+            IBleDevice device;
+
+            while ((device = m_values[slot]) != null)
+            {
+                if (m_keys[slot] == macAddress)
+                    return device;
+
+                slot = (slot + 1) & m_mask;
+            }
+
+            return null;
+        }
+
+        /**
+         * Returns the device registered under the given address, or <code>null</code>. Mac addresses are matched regardless
+         * of case or delimiter.
+         */
+        final IBleDevice get(final String macAddress)
+        {
+            if (macAddress == null)
+                return null;
+
+            final long key = packMacAddress(macAddress);
+
+            if (key != NOT_A_MAC)
+                return get(key);
+
+            if (m_unpackable == null)
+                return null;
+
+            final IBleDevice device = m_unpackable.get(macAddress);
+
+            return device != null ? device : m_unpackable.get(Utils_String.normalizeMacAddress(macAddress));
+        }
+
+        final boolean contains(final String macAddress)
+        {
+            return get(macAddress) != null;
+        }
+
+        final int indexOf(final IBleDevice device)
+        {
+            for (int i = 0; i < m_devices.length; i++)
+            {
+                if (m_devices[i].equals(device))
+                    return i;
+            }
+
+            return -1;
+        }
+    }
+
+
+    private final Object m_lock = new Object();
+
+    private volatile Snapshot m_snapshot = EMPTY;
+
+
+    /**
+     * Returns the current snapshot. Never <code>null</code>, and never changes once returned.
+     */
+    final Snapshot snapshot()
+    {
+        return m_snapshot;
+    }
+
+    /**
+     * Adds the given device, unless one is already registered under its address. Returns <code>true</code> if it was added.
+     */
+    final boolean add(final IBleDevice device)
+    {
+        synchronized (m_lock)
+        {
+            final Snapshot current = m_snapshot;
+
+            if (current.contains(device.getMacAddress()))
+                return false;
+
+            final IBleDevice[] devices = new IBleDevice[current.m_devices.length + 1];
+            System.arraycopy(current.m_devices, 0, devices, 0, current.m_devices.length);
+            devices[devices.length - 1] = device;
+
+            if (devices.length * 2 <= current.m_values.length)
+                m_snapshot = new Snapshot(current, devices, device);
+            else
+                m_snapshot = new Snapshot(devices);
+
+            return true;
+        }
+    }
+
+    /**
+     * Removes whatever device is registered under the given address. Returns the device removed, or <code>null</code>.
+     */
+    final IBleDevice remove(final String macAddress)
+    {
+        synchronized (m_lock)
+        {
+            final Snapshot current = m_snapshot;
+            final IBleDevice removed = current.get(macAddress);
+
+            if (removed == null)
+                return null;
+
+            if (current.m_devices.length == 1)
+            {
+                m_snapshot = EMPTY;
+
+                return removed;
+            }
+
+            final IBleDevice[] devices = new IBleDevice[current.m_devices.length - 1];
+            int index = 0;
+
+            for (int i = 0; i < current.m_devices.length; i++)
+            {
+                if (current.m_devices[i] != removed)
+                    devices[index++] = current.m_devices[i];
+            }
+
+            m_snapshot = new Snapshot(devices);
+
+            return removed;
+        }
+    }
+
+    final void clear()
+    {
+        synchronized (m_lock)
+        {
+            m_snapshot = EMPTY;
+        }
+    }
+
+
+    /**
+     * Packs a mac address such as <code>"AA:BB:CC:DD:EE:FF"</code> into the low 48 bits of a <code>long</code>. Hex digits may be
+     * either case, and the same delimiters {@link Utils_String#normalizeMacAddress(String)} accepts
+     * are accepted here. Returns {@link #NOT_A_MAC} for anything else. Doesn't allocate.
+     */
+    static long packMacAddress(final String macAddress)
+    {
+        if (macAddress == null || macAddress.length() != 17)
+            return NOT_A_MAC;
+
+        long packed = 0;
+
+        for (int i = 0; i < 17; i++)
+        {
+            final char c = macAddress.charAt(i);
+
+            if (i % 3 == 2)
+            {
+                if (c != ':' && c != '-' && c != '.' && c != ' ' && c != '_')
+                    return NOT_A_MAC;
+            }
+            else
+            {
+                final int nibble = Character.digit(c, 16);
+
+                if (nibble < 0)
+                    return NOT_A_MAC;
+
+                packed = (packed << 4) | nibble;
+            }
+        }
+
+        return packed;
+    }
+
+
+    private static int hash(final long key)
+    {
+        // The top bytes of a mac are the manufacturer, and shared by most of a fleet, so mix everything down into the low bits.
+        long h = key * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSizeFor(final int count)
+    {
+        // Keep the table at most half full, so probes stay short.
+        int capacity = 2;
+
+        while (capacity < count * 2)
+        {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+}
@@ -234,6 +234,13 @@ final class P_DeviceServiceManager extends PA_ServiceManager
         return 0x0;
     }
 
+    // The index gets thrown away when services are (re)discovered, the gatt is refreshed or closed, and on disconnect.
+    @Override
+    protected final boolean usesAttributeIndex()
+    {
+        return true;
+    }
+
     @Override
     public final BleService getServiceDirectlyFromNativeNode(UUID serviceUuid)
     {
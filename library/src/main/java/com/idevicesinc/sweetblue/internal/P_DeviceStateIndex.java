@@ -0,0 +1,264 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.BleDeviceState;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.TreeSet;
+
+
+/**
+ * Keeps track of which of {@link P_DeviceManager}'s devices are in which {@link BleDeviceState}, so questions like "which
+ * devices are connected" or "is anything performing an OTA" don't have to walk every device. Kept current by
+ * {@link P_DeviceStateTracker} as state bits change.
+ * <br><br>
+ * Each state has its own set of members, ordered by when the device was added, so results come back in the same order the
+ * device manager has always used. Counts and "any" checks are constant time, and lists cost O(result).
+ */
+final class P_DeviceStateIndex
+{
+
+    private static final class Entry
+    {
+        private final IBleDevice m_device;
+        private final long m_order;
+
+        private int m_stateMask;
+
+
+        private Entry(final IBleDevice device, final long order)
+        {
+            m_device = device;
+            m_order = order;
+        }
+    }
+
+
+    private static final Comparator<Entry> ORDER = (e1, e2) -> e1.m_order < e2.m_order ? -1 : (e1.m_order == e2.m_order ? 0 : 1);
+
+    private final Object m_lock = new Object();
+
+    private final IdentityHashMap<IBleDevice, Entry> m_entries = new IdentityHashMap<>();
+    // One set per BleDeviceState ordinal, kept in the order devices started being tracked
+    private final List<TreeSet<Entry>> m_members;
+
+    private long m_nextOrder = 0;
+
+
+    P_DeviceStateIndex()
+    {
+        final int stateCount = BleDeviceState.VALUES().length;
+
+        m_members = new ArrayList<>(stateCount);
+
+        for (int i = 0; i < stateCount; i++)
+        {
+            m_members.add(new TreeSet<>(ORDER));
+        }
+    }
+
+
+    /**
+     * Starts tracking the given device, with whatever state it's in right now. Does nothing if it's already tracked.
+     */
+    final void add(final IBleDevice device)
+    {
+        synchronized (m_lock)
+        {
+            if (m_entries.containsKey(device))
+                return;
+
+            final Entry entry = new Entry(device, m_nextOrder++);
+            m_entries.put(device, entry);
+
+            apply(entry, device.getStateMask());
+        }
+    }
+
+    final void remove(final IBleDevice device)
+    {
+        synchronized (m_lock)
+        {
+            final Entry entry = m_entries.remove(device);
+
+            if (entry != null)
+                apply(entry, 0x0);
+        }
+    }
+
+    final void clear()
+    {
+        synchronized (m_lock)
+        {
+            m_entries.clear();
+
+            for (TreeSet<Entry> members : m_members)
+            {
+                members.clear();
+            }
+        }
+    }
+
+    /**
+     * Brings the given device's membership in line with its current state. Devices which aren't tracked are ignored.
+     */
+    final void update(final IBleDevice device)
+    {
+        synchronized (m_lock)
+        {
+            final Entry entry = m_entries.get(device);
+
+            // Always re-read the mask rather than trusting what the caller saw, so racing updates still settle on the latest state.
+            if (entry != null)
+                apply(entry, device.getStateMask());
+        }
+    }
+
+    final int getCount(final BleDeviceState state)
+    {
+        synchronized (m_lock)
+        {
+            return m_members.get(state.ordinal()).size();
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if any tracked device is in any of the states in the given mask.
+     */
+    final boolean hasAny(final int mask_BleDeviceState)
+    {
+        synchronized (m_lock)
+        {
+            for (int i = 0; i < m_members.size(); i++)
+            {
+                if ((mask_BleDeviceState & (0x1 << i)) != 0x0 && !m_members.get(i).isEmpty())
+                    return true;
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Returns the earliest added device in any of the states in the given mask, or {@link P_BleDeviceImpl#NULL}.
+     */
+    final IBleDevice getFirst(final int mask_BleDeviceState)
+    {
+        synchronized (m_lock)
+        {
+            Entry first = null;
+
+            for (int i = 0; i < m_members.size(); i++)
+            {
+                if ((mask_BleDeviceState & (0x1 << i)) == 0x0 || m_members.get(i).isEmpty())
+                    continue;
+
+                final Entry candidate = m_members.get(i).first();
+
+                if (first == null || candidate.m_order < first.m_order)
+                    first = candidate;
+            }
+
+            return first != null ? first.m_device : P_BleDeviceImpl.NULL;
+        }
+    }
+
+    /**
+     * Adds every device in any of the states in the given mask to <code>out</code>, in the order they were added, and returns it.
+     */
+    final <T extends List<IBleDevice>> T getDevices(final int mask_BleDeviceState, final T out)
+    {
+        synchronized (m_lock)
+        {
+            TreeSet<Entry> only = null;
+            ArrayList<TreeSet<Entry>> several = null;
+
+            for (int i = 0; i < m_members.size(); i++)
+            {
+                if ((mask_BleDeviceState & (0x1 << i)) == 0x0 || m_members.get(i).isEmpty())
+                    continue;
+
+                if (only == null)
+                {
+                    only = m_members.get(i);
+                }
+                else
+                {
+                    if (several == null)
+                    {
+                        several = new ArrayList<>();
+                        several.add(only);
+                    }
+
+                    several.add(m_members.get(i));
+                }
+            }
+
+            if (several != null)
+            {
+                // More than one state has members, so merge them, dropping devices that are in more than one.
+                final TreeSet<Entry> union = new TreeSet<>(ORDER);
+
+                for (TreeSet<Entry> members : several)
+                {
+                    union.addAll(members);
+                }
+
+                only = union;
+            }
+
+            if (only != null)
+            {
+                for (Entry entry : only)
+                {
+                    out.add(entry.m_device);
+                }
+            }
+
+            return out;
+        }
+    }
+
+
+    private void apply(final Entry entry, final int newStateMask)
+    {
+        final int changed = entry.m_stateMask ^ newStateMask;
+
+        if (changed == 0x0)
+            return;
+
+        for (int i = 0; i < m_members.size(); i++)
+        {
+            final int bit = 0x1 << i;
+
+            if ((changed & bit) == 0x0)
+                continue;
+
+            if ((newStateMask & bit) != 0x0)
+                m_members.get(i).add(entry);
+            else
+                m_members.get(i).remove(entry);
+        }
+
+        entry.m_stateMask = newStateMask;
+    }
+}
@@ -25,6 +25,7 @@ import com.idevicesinc.sweetblue.BondFilter;
 import com.idevicesinc.sweetblue.DeviceStateListener;
 import com.idevicesinc.sweetblue.DeviceStateListener.StateEvent;
 import com.idevicesinc.sweetblue.P_Bridge_User;
+import com.idevicesinc.sweetblue.utils.MetricsRegistry;
 import com.idevicesinc.sweetblue.utils.Utils_Config;
 
 import java.util.Stack;
@@ -33,6 +34,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 final class P_DeviceStateTracker extends PA_StateTracker<BleDeviceState>
 {
+	private static final BleDeviceState[] CONNECT_PHASES =
+	{
+		BleDeviceState.CONNECTING_OVERALL, BleDeviceState.BLE_CONNECTING, BleDeviceState.DISCOVERING_SERVICES, BleDeviceState.AUTHENTICATING, BleDeviceState.INITIALIZING
+	};
+
 	private final Stack<DeviceStateListener> m_stateListenerStack;
 	private final P_BleDeviceImpl m_device;
 	private final AtomicInteger m_nativeBondState;
@@ -163,6 +169,48 @@ final class P_DeviceStateTracker extends PA_StateTracker<BleDeviceState>
 		m_syncing = false;
 	}
 
+	@Override protected final void onStateMaskChanged(final int oldStateBits, final int newStateBits)
+	{
+		if( m_device == null || m_device.isNull() )		return;
+
+		final IBleManager manager = m_device.getIManager();
+
+		if( manager == null )		return;
+
+		if( !m_syncing && manager.conf_mngr().enableMetrics )
+		{
+			recordConnectPhases(manager, oldStateBits, newStateBits);
+		}
+
+		// Each manager ignores devices it doesn't hold, so whichever one has this device stays current.
+		final P_DeviceManager deviceMngr = manager.getDeviceManager();
+		final P_DeviceManager deviceMngr_cache = manager.getDeviceManager_cache();
+
+		if( deviceMngr != null )
+		{
+			deviceMngr.onDeviceStateChanged(m_device);
+		}
+
+		if( deviceMngr_cache != null )
+		{
+			deviceMngr_cache.onDeviceStateChanged(m_device);
+		}
+	}
+
+	private void recordConnectPhases(final IBleManager manager, final int oldStateBits, final int newStateBits)
+	{
+		for( BleDeviceState phase : CONNECT_PHASES )
+		{
+			final int bit = phase.bit();
+
+			// The time in a state is only final once it's been exited.
+			if( (oldStateBits & bit) != 0x0 && (newStateBits & bit) == 0x0 )
+			{
+				manager.recordMetric(MetricsRegistry.CONNECT_PHASE, phase.name(), m_device, getTimeInState(phase.ordinal()) * 1000000L);
+			}
+		}
+	}
+
 	@Override protected final void onStateChange(final int oldStateBits, final int newStateBits, final int intentMask, final int gattStatus)
 	{
 		if( m_device.isNull() )		return;
@@ -208,7 +256,7 @@ final class P_DeviceStateTracker extends PA_StateTracker<BleDeviceState>
 
 	private int getManagerStateMask()
     {
-        BleDeviceState[] states = getManager().getConfigClone().defaultDeviceStates;
+        BleDeviceState[] states = getManager().conf_mngr().defaultDeviceStates;
         if (states == null) states = BleDeviceState.VALUES();
 
         int mask = 0;
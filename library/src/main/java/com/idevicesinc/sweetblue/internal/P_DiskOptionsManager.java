@@ -24,21 +24,25 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import android.annotation.SuppressLint;
-import android.content.Context;
-import android.content.SharedPreferences;
-
+import com.idevicesinc.sweetblue.backend.options.Backend_OptionsStore;
 import com.idevicesinc.sweetblue.utils.EmptyIterator;
 import com.idevicesinc.sweetblue.utils.State;
 
 
-// Adding this suppresslint annotation as we always want to make sure we save to disk immediately.
-@SuppressLint("ApplySharedPref")
+/**
+ * Keeps the little bits of state we remember about devices across app launches. Each namespace is read from the
+ * {@link Backend_OptionsStore} once, the first time it's needed, and from then on the copy in memory is authoritative. Saves only
+ * touch that copy, and the changes are coalesced and written out in one batch a short time later on a separate thread, so
+ * nothing here ever blocks the update thread on disk I/O. Anything still pending is written out by {@link #shutdown()}.
+ */
 final class P_DiskOptionsManager
 {
-    private static final int ACCESS_MODE = Context.MODE_PRIVATE;
     private static final String PHONE_NAME_KEY = "Phone_Advertising_Name";
 
+    // How long to wait after a change before flushing, so that a burst of changes (say, a bunch of devices disconnecting at once)
+    // only costs one write per namespace.
+    private static final long FLUSH_DELAY = 200;
+
     //--- DRK > Just adding some salt to these to mitigate any possible conflict.
     private enum E_Namespace
     {
@@ -70,7 +74,23 @@ final class P_DiskOptionsManager
 
     private final HashMap[] m_inMemoryDbs = new HashMap[E_Namespace.values().length];
 
-    private final SharedPreferences[] m_prefsInstances = new SharedPreferences[E_Namespace.values().length];
+    // Everything below is guarded by m_lock
+    private final Object m_lock = new Object();
+    private final Object m_flushLock = new Object();
+
+    // What's on disk, plus any pending changes. Null until the namespace is first loaded.
+    private final ArrayList<HashMap<String, Object>> m_diskDbs = new ArrayList<>();
+
+    // Changes not yet written out, where a null value means the key was removed
+    private final ArrayList<HashMap<String, Object>> m_pendingChanges = new ArrayList<>();
+    private final boolean[] m_pendingClears = new boolean[E_Namespace.values().length];
+
+    private Backend_OptionsStore m_store;
+    private P_SweetBlueThread m_diskThread;
+    private boolean m_flushScheduled = false;
+    private boolean m_isShutdown = false;
+
+    private final Runnable m_flushRunnable = this::flush;
 
 
     P_DiskOptionsManager(P_BleManagerImpl manager)
@@ -90,19 +110,178 @@ final class P_DiskOptionsManager
 
             if (ith == null)
                 throw new Error("Expected in-memory DB to be not null");
+
+            m_diskDbs.add(null);
+            m_pendingChanges.add(new HashMap<>());
+        }
+    }
+
+    private Backend_OptionsStore store()
+    {
+        synchronized (m_lock)
+        {
+            if (m_store == null)
+            {
+                Backend_OptionsStore.Factory factory = m_manager.conf_mngr().optionsStoreFactory;
+
+                if (factory == null)
+                    factory = Backend_OptionsStore.DEFAULT_FACTORY;
+
+                m_store = factory.newInstance(m_manager.getApplicationContext());
+            }
+
+            return m_store;
+        }
+    }
+
+    // Must be called while holding m_lock
+    private HashMap<String, Object> diskDb(final E_Namespace namespace)
+    {
+        HashMap<String, Object> db = m_diskDbs.get(namespace.ordinal());
+
+        if (db == null)
+        {
+            db = new HashMap<>(store().loadAll(namespace.key()));
+            m_diskDbs.set(namespace.ordinal(), db);
         }
+
+        return db;
     }
 
-    private SharedPreferences prefs(E_Namespace namespace)
+    private Object getFromDisk(final E_Namespace namespace, final String key)
     {
-        SharedPreferences prefs = m_prefsInstances[namespace.ordinal()];
-        if (prefs == null)
+        synchronized (m_lock)
         {
-            prefs = m_manager.getApplicationContext().getSharedPreferences(namespace.key(), ACCESS_MODE);
-            m_prefsInstances[namespace.ordinal()] = prefs;
+            return diskDb(namespace).get(key);
         }
+    }
+
+    private void putToDisk(final E_Namespace namespace, final String key, final Object value_nullable)
+    {
+        final boolean flushNow;
+
+        synchronized (m_lock)
+        {
+            final HashMap<String, Object> db = diskDb(namespace);
+
+            if (value_nullable == null)
+                db.remove(key);
+            else
+                db.put(key, value_nullable);
 
-        return prefs;
+            m_pendingChanges.get(namespace.ordinal()).put(key, value_nullable);
+
+            flushNow = scheduleFlush();
+        }
+
+        if (flushNow)
+            flush();
+    }
+
+    private void clearDisk(final E_Namespace namespace)
+    {
+        final boolean flushNow;
+
+        synchronized (m_lock)
+        {
+            // No need to load anything only to throw it away
+            final HashMap<String, Object> db = m_diskDbs.get(namespace.ordinal());
+
+            if (db != null)
+                db.clear();
+            else
+                m_diskDbs.set(namespace.ordinal(), new HashMap<>());
+
+            m_pendingChanges.get(namespace.ordinal()).clear();
+            m_pendingClears[namespace.ordinal()] = true;
+
+            flushNow = scheduleFlush();
+        }
+
+        if (flushNow)
+            flush();
+    }
+
+    // Must be called while holding m_lock. Returns true if the caller should flush itself, once it's let go of the lock.
+    private boolean scheduleFlush()
+    {
+        if (m_isShutdown)
+            return true;
+
+        if (m_flushScheduled)
+            return false;
+
+        m_flushScheduled = true;
+
+        if (m_diskThread == null)
+            m_diskThread = new P_SweetBlueThread("SweetBlue Disk Thread");
+
+        m_diskThread.postDelayed(m_flushRunnable, FLUSH_DELAY);
+
+        return false;
+    }
+
+    private void flush()
+    {
+        final E_Namespace[] values = E_Namespace.values();
+
+        // Held across the writes so batches always land in order. Saves only need m_lock, so they keep going in the meantime,
+        // and just end up in the next batch.
+        synchronized (m_flushLock)
+        {
+            final ArrayList<HashMap<String, Object>> changes = new ArrayList<>(values.length);
+            final boolean[] clears = new boolean[values.length];
+
+            synchronized (m_lock)
+            {
+                m_flushScheduled = false;
+
+                for (int i = 0; i < values.length; i++)
+                {
+                    if (!m_pendingClears[i] && m_pendingChanges.get(i).isEmpty())
+                    {
+                        changes.add(null);
+                        continue;
+                    }
+
+                    changes.add(m_pendingChanges.get(i));
+                    clears[i] = m_pendingClears[i];
+
+                    m_pendingChanges.set(i, new HashMap<>());
+                    m_pendingClears[i] = false;
+                }
+            }
+
+            for (int i = 0; i < values.length; i++)
+            {
+                if (changes.get(i) != null)
+                    store().write(values[i].key(), clears[i], changes.get(i));
+            }
+        }
+    }
+
+    /**
+     * Writes out anything still pending, on the calling thread, and stops the disk thread. Anything saved after this is written out
+     * right away.
+     */
+    final void shutdown()
+    {
+        final P_SweetBlueThread thread;
+
+        synchronized (m_lock)
+        {
+            m_isShutdown = true;
+            thread = m_diskThread;
+            m_diskThread = null;
+        }
+
+        if (thread != null)
+        {
+            thread.removeCallbacks(m_flushRunnable);
+            thread.quit();
+        }
+
+        flush();
     }
 
 
@@ -113,7 +292,7 @@ final class P_DiskOptionsManager
 
         if (!hitDisk) return;
 
-        prefs(E_Namespace.LAST_DISCONNECT).edit().putInt(mac, diskValue).commit();
+        putToDisk(E_Namespace.LAST_DISCONNECT, mac, diskValue);
     }
 
     final State.ChangeIntent loadLastDisconnect(final String mac, final boolean hitDisk)
@@ -129,11 +308,11 @@ final class P_DiskOptionsManager
 
         if (!hitDisk) return State.ChangeIntent.NULL;
 
-        final SharedPreferences prefs = prefs(E_Namespace.LAST_DISCONNECT);
+        final Object value_disk = getFromDisk(E_Namespace.LAST_DISCONNECT, mac);
 
-        final int value_disk = prefs.getInt(mac, State.ChangeIntent.NULL.toDiskValue());
+        final int diskValue = value_disk instanceof Integer ? (Integer) value_disk : State.ChangeIntent.NULL.toDiskValue();
 
-        final State.ChangeIntent lastDisconnect = State.ChangeIntent.fromDiskValue(value_disk);
+        final State.ChangeIntent lastDisconnect = State.ChangeIntent.fromDiskValue(diskValue);
 
         return lastDisconnect;
     }
@@ -146,7 +325,7 @@ final class P_DiskOptionsManager
 
         m_inMemoryDb_adaptorName.put(null, n);
 
-        prefs(E_Namespace.ADAPTOR_NAME).edit().putString(PHONE_NAME_KEY, n).commit();
+        putToDisk(E_Namespace.ADAPTOR_NAME, PHONE_NAME_KEY, n);
     }
 
     final boolean hasAdaptorAdvertisingName()
@@ -155,11 +334,9 @@ final class P_DiskOptionsManager
 
         if (value_memory != null)   return true;
 
-        final SharedPreferences prefs = prefs(E_Namespace.ADAPTOR_NAME);
-
-        final String value_disk = prefs.getString(PHONE_NAME_KEY, null);
+        final Object value_disk = getFromDisk(E_Namespace.ADAPTOR_NAME, PHONE_NAME_KEY);
 
-        return value_disk != null;
+        return value_disk instanceof String;
     }
 
     // Don't use this for checking the name for the first time.
@@ -169,11 +346,9 @@ final class P_DiskOptionsManager
 
         if (value_memory != null)   return value_memory;
 
-        final SharedPreferences prefs = prefs(E_Namespace.ADAPTOR_NAME);
-
-        final String value_disk = prefs.getString(PHONE_NAME_KEY, "");
+        final Object value_disk = getFromDisk(E_Namespace.ADAPTOR_NAME, PHONE_NAME_KEY);
 
-        return value_disk;
+        return value_disk instanceof String ? (String) value_disk : "";
     }
 
     final void saveNeedsBonding(final String mac, final boolean hitDisk)
@@ -182,7 +357,7 @@ final class P_DiskOptionsManager
 
         if (!hitDisk) return;
 
-        prefs(E_Namespace.NEEDS_BONDING).edit().putBoolean(mac, true).commit();
+        putToDisk(E_Namespace.NEEDS_BONDING, mac, true);
     }
 
     final void clearNeedsBonding(final String mac, final boolean hitDisk)
@@ -191,7 +366,7 @@ final class P_DiskOptionsManager
 
         if (!hitDisk) return;
 
-        prefs(E_Namespace.NEEDS_BONDING).edit().remove(mac).commit();
+        putToDisk(E_Namespace.NEEDS_BONDING, mac, null);
     }
 
     final boolean loadNeedsBonding(final String mac, final boolean hitDisk)
@@ -202,11 +377,9 @@ final class P_DiskOptionsManager
 
         if (!hitDisk) return false;
 
-        final SharedPreferences prefs = prefs(E_Namespace.NEEDS_BONDING);
+        final Object value_disk = getFromDisk(E_Namespace.NEEDS_BONDING, mac);
 
-        final boolean value_disk = prefs.getBoolean(mac, false);
-
-        return value_disk;
+        return value_disk instanceof Boolean && (Boolean) value_disk;
     }
 
     final void saveName(final String mac, final String name, final boolean hitDisk)
@@ -217,7 +390,7 @@ final class P_DiskOptionsManager
 
         if (!hitDisk) return;
 
-        prefs(E_Namespace.DEVICE_NAME).edit().putString(mac, name_override).commit();
+        putToDisk(E_Namespace.DEVICE_NAME, mac, name_override);
     }
 
     final String loadName(final String mac, final boolean hitDisk)
@@ -228,11 +401,9 @@ final class P_DiskOptionsManager
 
         if (!hitDisk) return null;
 
-        final SharedPreferences prefs = prefs(E_Namespace.DEVICE_NAME);
-
-        final String value_disk = prefs.getString(mac, null);
+        final Object value_disk = getFromDisk(E_Namespace.DEVICE_NAME, mac);
 
-        return value_disk;
+        return value_disk instanceof String ? (String) value_disk : null;
     }
 
     final void clear()
@@ -241,8 +412,7 @@ final class P_DiskOptionsManager
 
         for (int i = 0; i < values.length; i++)
         {
-            final SharedPreferences prefs = prefs(values[i]);
-            prefs.edit().clear().commit();
+            clearDisk(values[i]);
 
             final HashMap ith = m_inMemoryDbs[i];
 
@@ -268,26 +438,26 @@ final class P_DiskOptionsManager
 
     final Iterator<String> getPreviouslyConnectedDevices()
     {
-        final SharedPreferences prefs = prefs(E_Namespace.LAST_DISCONNECT);
+        final List<String> keys;
 
-        Map<String, ?> map = prefs.getAll();
-
-        if (map != null)
+        synchronized (m_lock)
         {
-            List<String> keys = new ArrayList<>(map.keySet());
-            Collections.sort(keys);
-            return keys.iterator();
+            keys = new ArrayList<>(diskDb(E_Namespace.LAST_DISCONNECT).keySet());
         }
-        else
+
+        if (keys.isEmpty())
             return new EmptyIterator<>();
+
+        Collections.sort(keys);
+        return keys.iterator();
     }
 
 
     private void clearNamespace(final String macAddress, final E_Namespace namespace)
     {
         final int ordinal = namespace.ordinal();
-        final SharedPreferences prefs = prefs(namespace);
-        prefs.edit().remove(macAddress).commit();
+
+        putToDisk(namespace, macAddress, null);
 
         final HashMap ith = m_inMemoryDbs[ordinal];
 
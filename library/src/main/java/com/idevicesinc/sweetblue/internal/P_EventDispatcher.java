@@ -0,0 +1,434 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.BleDevice;
+import com.idevicesinc.sweetblue.DeviceStateListener;
+import com.idevicesinc.sweetblue.P_Bridge_User;
+import com.idevicesinc.sweetblue.utils.Event;
+import com.idevicesinc.sweetblue.utils.GenericListener_Void;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Hands listener events off to the thread owning a {@link P_SweetHandler}. Any thread can add events, without locking, to a
+ * bounded ring buffer. The handler's thread drains everything that has piled up in one go, so a burst of events costs one post
+ * to the handler, rather than one post (and one wrapping {@link Runnable}) per event.
+ * <br><br>
+ * If the ring is ever full, events spill over into a locked list, which is delivered after the ring. Everything added after that goes
+ * to the list too, until it's been emptied, so nothing is ever dropped, or delivered out of order.
+ * <br><br>
+ * Plain {@link Runnable}s going to the same thread have to go through here too (see {@link #dispatch(Runnable)}), otherwise they'd
+ * run before any events still sitting in the ring, even if they were posted after them.
+ */
+final class P_EventDispatcher
+{
+
+    static final int DEFAULT_CAPACITY = 1024;
+
+
+    private final IBleManager m_manager;
+    private final P_SweetHandler m_handler;
+
+    // Ring buffer. A slot at position p is free to write when its sequence is p, and ready to read when it's p + 1.
+    private final int m_mask;
+    private final AtomicLongArray m_sequences;
+    private final GenericListener_Void<?>[] m_listeners;
+    private final Event[] m_events;
+    private final Runnable[] m_actions;
+    private final AtomicLong m_tail = new AtomicLong();
+
+    private final AtomicBoolean m_drainScheduled = new AtomicBoolean(false);
+    private final Runnable m_drainRunnable = this::drain;
+
+    // Where events go when the ring is full. While this is non-empty (or still being delivered), everything goes here, so nothing can
+    // get ahead of what's already waiting.
+    private final Object m_overflowLock = new Object();
+    private ArrayList<Overflow> m_overflow = new ArrayList<>();
+    private volatile boolean m_overflowing = false;
+
+    // Everything below is only touched from the handler's thread.
+    private long m_head = 0;
+
+    private final GenericListener_Void<?>[] m_batchListeners;
+    private final Event[] m_batchEvents;
+    private final Runnable[] m_batchActions;
+    private int m_batchSize = 0;
+    private int m_batchIndex = 0;
+
+    // Overflow taken out of m_overflow by the handler's thread, and swapped back in once it's been delivered.
+    private ArrayList<Overflow> m_overflowBatch = new ArrayList<>();
+    private int m_overflowIndex = 0;
+
+
+    P_EventDispatcher(IBleManager manager, P_SweetHandler handler)
+    {
+        this(manager, handler, DEFAULT_CAPACITY);
+    }
+
+    P_EventDispatcher(IBleManager manager, P_SweetHandler handler, int capacity)
+    {
+        int size = 2;
+
+        while (size < capacity)
+        {
+            size <<= 1;
+        }
+
+        m_manager = manager;
+        m_handler = handler;
+        m_mask = size - 1;
+        m_sequences = new AtomicLongArray(size);
+        m_listeners = new GenericListener_Void<?>[size];
+        m_events = new Event[size];
+        m_actions = new Runnable[size];
+        m_batchListeners = new GenericListener_Void<?>[size];
+        m_batchEvents = new Event[size];
+        m_batchActions = new Runnable[size];
+
+        for (int i = 0; i < size; i++)
+        {
+            m_sequences.set(i, i);
+        }
+    }
+
+
+    /**
+     * Queues the given event for the given listener, to be delivered on the handler's thread. Safe to call from any thread.
+     */
+    final void dispatch(final GenericListener_Void<?> listener, final Event event)
+    {
+        if (m_overflowing || !offer(listener, event, null))
+            spill(listener, event, null);
+
+        scheduleDrain();
+    }
+
+    /**
+     * Queues the given action behind any events already waiting, to be run on the handler's thread. Safe to call from any thread.
+     */
+    final void dispatch(final Runnable action)
+    {
+        if (m_overflowing || !offer(null, null, action))
+            spill(null, null, action);
+
+        scheduleDrain();
+    }
+
+    private void scheduleDrain()
+    {
+        if (m_drainScheduled.compareAndSet(false, true))
+            m_handler.post(m_drainRunnable);
+    }
+
+    private void spill(final GenericListener_Void<?> listener, final Event event, final Runnable action)
+    {
+        synchronized (m_overflowLock)
+        {
+            m_overflowing = true;
+            m_overflow.add(new Overflow(listener, event, action));
+        }
+    }
+
+    private boolean offer(final GenericListener_Void<?> listener, final Event event, final Runnable action)
+    {
+        long position = m_tail.get();
+        int index;
+
+        while (true)
+        {
+            index = (int) (position & m_mask);
+
+            final long difference = m_sequences.get(index) - position;
+
+            if (difference == 0)
+            {
+                if (m_tail.compareAndSet(position, position + 1))
+                    break;
+
+                position = m_tail.get();
+            }
+            else if (difference < 0)
+            {
+                // The consumer hasn't freed this slot up yet, so we're full.
+                return false;
+            }
+            else
+            {
+                // Another producer got here first.
+                position = m_tail.get();
+            }
+        }
+
+        m_listeners[index] = listener;
+        m_events[index] = event;
+        m_actions[index] = action;
+
+        // Publishes the slot to the consumer.
+        m_sequences.set(index, position + 1);
+
+        return true;
+    }
+
+    private void drain()
+    {
+        // Cleared before looking at the ring, so anything added from here on schedules another drain.
+        m_drainScheduled.set(false);
+
+        boolean finished = false;
+
+        try
+        {
+            // Finish off whatever a throwing listener interrupted last time, then deliver what's waiting now. The ring always comes
+            // before the overflow, as nothing goes into the ring while there's overflow waiting.
+            runBatch();
+            runOverflow();
+
+            fillBatch();
+            runBatch();
+
+            if (fillOverflow())
+            {
+                runOverflow();
+
+                // Events only go back to the ring once a look at the overflow finds it empty. If more spilled over in the meantime,
+                // it's already been swapped in, and gets delivered next time.
+                if (fillOverflow())
+                    scheduleDrain();
+            }
+
+            finished = true;
+        }
+        finally
+        {
+            // A listener threw, so pick the rest back up on the next go around.
+            if (!finished && m_drainScheduled.compareAndSet(false, true))
+                m_handler.post(m_drainRunnable);
+        }
+    }
+
+    private void runBatch()
+    {
+        while (m_batchIndex < m_batchSize)
+        {
+            final int i = m_batchIndex++;
+
+            final GenericListener_Void<?> listener = m_batchListeners[i];
+            final Event event = m_batchEvents[i];
+            final Runnable action = m_batchActions[i];
+
+            m_batchListeners[i] = null;
+            m_batchEvents[i] = null;
+            m_batchActions[i] = null;
+
+            // Slots are nulled out when their event gets coalesced into a later one.
+            deliver(listener, event, action);
+        }
+    }
+
+    private void runOverflow()
+    {
+        while (m_overflowIndex < m_overflowBatch.size())
+        {
+            final Overflow overflow = m_overflowBatch.get(m_overflowIndex++);
+
+            deliver(overflow.m_listener, overflow.m_event, overflow.m_action);
+        }
+
+        m_overflowBatch.clear();
+        m_overflowIndex = 0;
+    }
+
+    // Swaps whatever has spilled over into m_overflowBatch. Returns false (and lets events back into the ring) if there wasn't any.
+    private boolean fillOverflow()
+    {
+        synchronized (m_overflowLock)
+        {
+            if (m_overflow.isEmpty())
+            {
+                m_overflowing = false;
+
+                return false;
+            }
+
+            final ArrayList<Overflow> overflow = m_overflow;
+            m_overflow = m_overflowBatch;
+            m_overflowBatch = overflow;
+
+            return true;
+        }
+    }
+
+    private static void deliver(final GenericListener_Void<?> listener, final Event event, final Runnable action)
+    {
+        if (action != null)
+            action.run();
+        else if (listener != null)
+            deliver(listener, event);
+    }
+
+    /**
+     * Hands the event to the listener. Listeners and events are passed around as a {@link GenericListener_Void} of unknown type, and
+     * a plain {@link Event}, as they come from all over, so this is the one place the two get matched back up.
+     */
+    @SuppressWarnings("unchecked") // Whoever posted the event picked the listener for it, so the types match
+    static void deliver(final GenericListener_Void<?> listener, final Event event)
+    {
+        ((GenericListener_Void<Event>) listener).onEvent(event);
+    }
+
+    private void fillBatch()
+    {
+        // Called once the last batch has been delivered, so this is just resetting it.
+        m_batchIndex = 0;
+        m_batchSize = 0;
+
+        while (m_batchSize < m_batchListeners.length)
+        {
+            final int index = (int) (m_head & m_mask);
+
+            // Not published yet (or empty). Whoever is writing it will schedule another drain once they're done.
+            if (m_sequences.get(index) != m_head + 1)
+                break;
+
+            m_batchListeners[m_batchSize] = m_listeners[index];
+            m_batchEvents[m_batchSize] = m_events[index];
+            m_batchActions[m_batchSize] = m_actions[index];
+            m_batchSize++;
+
+            m_listeners[index] = null;
+            m_events[index] = null;
+            m_actions[index] = null;
+
+            // Frees the slot up for the producer one lap from now.
+            m_sequences.set(index, m_head + m_mask + 1);
+            m_head++;
+        }
+
+        if (m_batchSize > 1 && m_manager.conf_mngr().coalesceDeviceStateEvents)
+            coalesce();
+    }
+
+    // Folds each device state event into the next one in the batch going to the same listener for the same device, so the
+    // listener only hears about where the device ended up.
+    private void coalesce()
+    {
+        final HashMap<StateKey, Integer> latest = new HashMap<>();
+
+        for (int i = m_batchSize - 1; i >= 0; i--)
+        {
+            if (!(m_batchEvents[i] instanceof DeviceStateListener.StateEvent))
+                continue;
+
+            final DeviceStateListener.StateEvent event = (DeviceStateListener.StateEvent) m_batchEvents[i];
+            final StateKey key = new StateKey(m_batchListeners[i], event.device());
+            final Integer later = latest.get(key);
+
+            if (later == null)
+            {
+                latest.put(key, i);
+
+                continue;
+            }
+
+            final DeviceStateListener.StateEvent merged = merge(event, (DeviceStateListener.StateEvent) m_batchEvents[later]);
+
+            m_batchListeners[i] = null;
+            m_batchEvents[i] = null;
+
+            if (merged != null)
+            {
+                m_batchEvents[later] = merged;
+            }
+            else
+            {
+                // The device ended up right where it started, so there's nothing to tell.
+                m_batchListeners[later] = null;
+                m_batchEvents[later] = null;
+
+                latest.remove(key);
+            }
+        }
+    }
+
+    private static DeviceStateListener.StateEvent merge(final DeviceStateListener.StateEvent earlier, final DeviceStateListener.StateEvent later)
+    {
+        final int oldStateBits = earlier.oldStateBits();
+        final int newStateBits = later.newStateBits();
+
+        if (oldStateBits == newStateBits)
+            return null;
+
+        // Each changed bit keeps the intent of whichever event changed it last.
+        final int changedLater = later.oldStateBits() ^ later.newStateBits();
+        final int intentMask = ((later.intentMask() & changedLater) | (earlier.intentMask() & ~changedLater)) & (oldStateBits ^ newStateBits);
+
+        return P_Bridge_User.newDeviceStateEvent(later.device(), oldStateBits, newStateBits, intentMask, later.gattStatus());
+    }
+
+
+    private static final class Overflow
+    {
+        private final GenericListener_Void<?> m_listener;
+        private final Event m_event;
+        private final Runnable m_action;
+
+
+        private Overflow(GenericListener_Void<?> listener, Event event, Runnable action)
+        {
+            m_listener = listener;
+            m_event = event;
+            m_action = action;
+        }
+    }
+
+    private static final class StateKey
+    {
+        private final GenericListener_Void<?> m_listener;
+        private final BleDevice m_device;
+
+
+        private StateKey(GenericListener_Void<?> listener, BleDevice device)
+        {
+            m_listener = listener;
+            m_device = device;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof StateKey))
+                return false;
+
+            final StateKey other = (StateKey) obj;
+
+            return m_listener == other.m_listener && m_device.equals(other.m_device);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(m_listener) * 31 + m_device.getMacAddress().hashCode();
+        }
+    }
+}
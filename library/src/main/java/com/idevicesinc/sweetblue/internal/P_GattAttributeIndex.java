@@ -0,0 +1,272 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.BleCharacteristic;
+import com.idevicesinc.sweetblue.BleDescriptor;
+import com.idevicesinc.sweetblue.BleService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+
+/**
+ * Immutable snapshot of a gatt database, hashed by service, characteristic, and descriptor UUID, so {@link PA_ServiceManager}
+ * doesn't have to walk every service and characteristic each time a read, write, or notify needs to find its target.
+ * <br><br>
+ * Characteristics which share a UUID (in the same service, or across services) are kept together in a bucket, in the order
+ * they appear in the database, so callers using a {@link com.idevicesinc.sweetblue.DescriptorFilter} only ever look at the
+ * actual candidates.
+ */
+final class P_GattAttributeIndex
+{
+
+    static final CharEntry[] EMPTY_BUCKET = new CharEntry[0];
+
+
+    static final class CharEntry
+    {
+        final BleService m_service;
+        final BleCharacteristic m_characteristic;
+        // Whether this is the first characteristic with this UUID in its service, which is the only one a descriptor lookup looks at.
+        final boolean m_firstInService;
+
+        private final HashMap<UUID, BleDescriptor> m_descriptors;
+
+
+        private CharEntry(BleService service, BleCharacteristic characteristic, boolean firstInService)
+        {
+            m_service = service;
+            m_characteristic = characteristic;
+            m_firstInService = firstInService;
+
+            final List<BleDescriptor> descriptors = P_Bridge_Internal.fromBleCharacteristic(characteristic);
+            m_descriptors = new HashMap<>(Math.max(2, descriptors.size() * 2));
+
+            for (int i = 0; i < descriptors.size(); i++)
+            {
+                final BleDescriptor desc_ith = descriptors.get(i);
+
+                if (!m_descriptors.containsKey(desc_ith.getUuid()))
+                    m_descriptors.put(desc_ith.getUuid(), desc_ith);
+            }
+        }
+
+        /**
+         * Returns {@link BleDescriptor#NULL} if this characteristic has no descriptor with the given UUID.
+         */
+        final BleDescriptor getDescriptor(UUID descUuid)
+        {
+            final BleDescriptor desc = m_descriptors.get(descUuid);
+
+            return desc != null ? desc : BleDescriptor.NULL;
+        }
+    }
+
+    private static final class ServiceEntry
+    {
+        private final CharEntry m_firstChar;
+        private final HashMap<UUID, CharEntry[]> m_charsByUuid;
+
+
+        private ServiceEntry(CharEntry firstChar, HashMap<UUID, CharEntry[]> charsByUuid)
+        {
+            m_firstChar = firstChar;
+            m_charsByUuid = charsByUuid;
+        }
+    }
+
+
+    // Keyed by service UUID. Like BluetoothGatt.getService(), only the first service with a given UUID is kept.
+    private final HashMap<UUID, ServiceEntry> m_services;
+    // Every characteristic, from every service, keyed by characteristic UUID.
+    private final HashMap<UUID, CharEntry[]> m_charsByUuid;
+    // Services in database order, for descriptor lookups that don't specify a service.
+    private final ServiceEntry[] m_serviceOrder;
+
+
+    private P_GattAttributeIndex(HashMap<UUID, ServiceEntry> services, HashMap<UUID, CharEntry[]> charsByUuid, ServiceEntry[] serviceOrder)
+    {
+        m_services = services;
+        m_charsByUuid = charsByUuid;
+        m_serviceOrder = serviceOrder;
+    }
+
+
+    static P_GattAttributeIndex build(List<BleService> serviceList)
+    {
+        final HashMap<UUID, ServiceEntry> services = new HashMap<>(serviceList.size() * 2);
+        final HashMap<UUID, List<CharEntry>> allChars = new HashMap<>();
+        final ArrayList<ServiceEntry> serviceOrder = new ArrayList<>(serviceList.size());
+
+        for (int i = 0; i < serviceList.size(); i++)
+        {
+            final BleService service_ith = serviceList.get(i);
+
+            if (service_ith.isNull())
+                continue;
+
+            final List<BleCharacteristic> charList = P_Bridge_Internal.fromBleService(service_ith);
+            final HashMap<UUID, List<CharEntry>> serviceChars = new HashMap<>(charList.size() * 2);
+            CharEntry firstChar = null;
+
+            for (int j = 0; j < charList.size(); j++)
+            {
+                final BleCharacteristic char_jth = charList.get(j);
+                final UUID charUuid = char_jth.getUuid();
+
+                List<CharEntry> bucket = serviceChars.get(charUuid);
+                final boolean firstInService = bucket == null;
+
+                if (firstInService)
+                {
+                    bucket = new ArrayList<>(1);
+                    serviceChars.put(charUuid, bucket);
+                }
+
+                final CharEntry entry = new CharEntry(service_ith, char_jth, firstInService);
+                bucket.add(entry);
+                add(allChars, charUuid, entry);
+
+                if (firstChar == null)
+                    firstChar = entry;
+            }
+
+            final ServiceEntry serviceEntry = new ServiceEntry(firstChar, toBuckets(serviceChars));
+            serviceOrder.add(serviceEntry);
+
+            if (!services.containsKey(service_ith.getUuid()))
+                services.put(service_ith.getUuid(), serviceEntry);
+        }
+
+        return new P_GattAttributeIndex(services, toBuckets(allChars), serviceOrder.toArray(new ServiceEntry[serviceOrder.size()]));
+    }
+
+
+    /**
+     * Returns every characteristic with the given UUID, in database order. If <code>serviceUuid_nullable</code> is <code>null</code>,
+     * characteristics from every service are returned. Never returns <code>null</code>.
+     */
+    final CharEntry[] getCharacteristics(UUID serviceUuid_nullable, UUID charUuid)
+    {
+        final CharEntry[] bucket;
+
+        if (serviceUuid_nullable == null)
+        {
+            bucket = m_charsByUuid.get(charUuid);
+        }
+        else
+        {
+            final ServiceEntry service = m_services.get(serviceUuid_nullable);
+
+            bucket = service != null ? service.m_charsByUuid.get(charUuid) : null;
+        }
+
+        return bucket != null ? bucket : EMPTY_BUCKET;
+    }
+
+    /**
+     * Mirrors the linear search this replaces: in each service looked at, only the first characteristic matching <code>charUuid_nullable</code>
+     * (or simply the first characteristic, if it's <code>null</code>) is checked for the descriptor.
+     */
+    final BleDescriptor getDescriptor(UUID serviceUuid_nullable, UUID charUuid_nullable, UUID descUuid)
+    {
+        if (serviceUuid_nullable != null)
+        {
+            final ServiceEntry service = m_services.get(serviceUuid_nullable);
+
+            return service != null ? getDescriptor(service, charUuid_nullable, descUuid) : BleDescriptor.NULL;
+        }
+        else if (charUuid_nullable != null)
+        {
+            final CharEntry[] bucket = getCharacteristics(null, charUuid_nullable);
+
+            for (int i = 0; i < bucket.length; i++)
+            {
+                if (!bucket[i].m_firstInService)
+                    continue;
+
+                final BleDescriptor descriptor = bucket[i].getDescriptor(descUuid);
+
+                if (!descriptor.isNull())
+                    return descriptor;
+            }
+
+            return BleDescriptor.NULL;
+        }
+        else
+        {
+            for (int i = 0; i < m_serviceOrder.length; i++)
+            {
+                final BleDescriptor descriptor = getDescriptor(m_serviceOrder[i], null, descUuid);
+
+                if (!descriptor.isNull())
+                    return descriptor;
+            }
+
+            return BleDescriptor.NULL;
+        }
+    }
+
+
+    private static BleDescriptor getDescriptor(ServiceEntry service, UUID charUuid_nullable, UUID descUuid)
+    {
+        final CharEntry entry;
+
+        if (charUuid_nullable == null)
+        {
+            entry = service.m_firstChar;
+        }
+        else
+        {
+            final CharEntry[] bucket = service.m_charsByUuid.get(charUuid_nullable);
+
+            entry = bucket != null ? bucket[0] : null;
+        }
+
+        return entry != null ? entry.getDescriptor(descUuid) : BleDescriptor.NULL;
+    }
+
+    private static void add(HashMap<UUID, List<CharEntry>> map, UUID charUuid, CharEntry entry)
+    {
+        List<CharEntry> bucket = map.get(charUuid);
+
+        if (bucket == null)
+        {
+            bucket = new ArrayList<>(1);
+            map.put(charUuid, bucket);
+        }
+
+        bucket.add(entry);
+    }
+
+    private static HashMap<UUID, CharEntry[]> toBuckets(HashMap<UUID, List<CharEntry>> lists)
+    {
+        final HashMap<UUID, CharEntry[]> buckets = new HashMap<>(lists.size() * 2);
+
+        for (Map.Entry<UUID, List<CharEntry>> entry : lists.entrySet())
+        {
+            buckets.put(entry.getKey(), entry.getValue().toArray(new CharEntry[entry.getValue().size()]));
+        }
+
+        return buckets;
+    }
+}
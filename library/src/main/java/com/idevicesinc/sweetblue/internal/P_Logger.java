@@ -42,6 +42,14 @@ public final class P_Logger
 	private final static String UPDATE = "UPDATE";
 	private final static String NATIVE_TAG = "%s [Native]";
 	private final static String THREAD_TMPLT = "%s(%d)";
+	private final static String NO_TRACE_TAG = "SweetBlue";
+
+	/**
+	 * Whether each log line should look up the class and method it was logged from. Doing so means walking a freshly created stack trace
+	 * for every line, which is by far the most expensive part of logging. Flip this to <code>false</code> for builds which keep logging on,
+	 * but don't care about where each line came from; as it's a compile time constant, all trace lookups get compiled out.
+	 */
+	static final boolean TRACE_CALLERS = true;
 
 	private String[] m_debugThreadNamePool;
 	private int m_poolIndex = 0;
@@ -92,6 +100,24 @@ public final class P_Logger
 		return m_options.enabled();
 	}
 
+	/**
+	 * Returns <code>true</code> if a SweetBlue log entry of the given level would actually get logged. Use this to guard any logging
+	 * which needs work done to build the message that the format methods (like {@link #logf(int, String, String, String, Object)}) can't defer.
+	 */
+	public final boolean isEnabled(int level)
+	{
+		// The level check alone passes everything when a stream is off, since its level is 0 then.
+		return m_options.sweetBlueEnabled() && m_options.sweetBlueEnabled(level);
+	}
+
+	/**
+	 * Same as {@link #isEnabled(int)}, only for native log entries.
+	 */
+	public final boolean isNativeEnabled(int level)
+	{
+		return m_options.nativeEnabled() && m_options.nativeEnabled(level);
+	}
+
 	public final synchronized String getThreadName(int threadId)
 	{
 		String threadName = null;
@@ -131,25 +157,15 @@ public final class P_Logger
 
 	public final void log_native(int level, String macAddress, String message)
 	{
-		if (!isEnabled()) return;
-
-		if (!m_options.nativeEnabled(level)) return;
+		if (!isNativeEnabled(level)) return;
 
 		final StackTraceElement trace = getSoonestTrace();
-		String className = trace != null ? trace.getClassName() : "Unknown";
-		if (trace != null)
-		{
-			final String[] className_split = className.split("\\.");
-			className = String.format(NATIVE_TAG, className_split[className_split.length - 1]);
-		}
-		log_private(level, className, macAddress, message, trace);
+		log_private(level, String.format(NATIVE_TAG, getClassTag(trace)), macAddress, message, trace);
 	}
 
 	public final void log_native(int level, String tag, String macAddress, String message)
 	{
-		if (!isEnabled()) return;
-
-		if (!m_options.nativeEnabled(level)) return;
+		if (!isNativeEnabled(level)) return;
 
 		StackTraceElement trace = getSoonestTrace();
 		log_private(level, String.format(NATIVE_TAG, tag), macAddress, message, trace);
@@ -162,16 +178,30 @@ public final class P_Logger
 
 	public final void log_status_native(String macAddress, int gattStatus, String message)
 	{
-		if (!isEnabled()) return;
+		final boolean success = Utils.isSuccess(gattStatus);
+		final int level = success ? Log.INFO : Log.WARN;
+
+		if (!isNativeEnabled(level)) return;
 
-		int level = Utils.isSuccess(gattStatus) ? Log.INFO : Log.WARN;
 		StringBuilder b = new StringBuilder();
-		boolean success = Utils.isSuccess(gattStatus);
-		b.append(success ? CodeHelper.gattStatus(gattStatus, isEnabled()) : CodeHelper.gattConnStatus(gattStatus, isEnabled())).append(" ").append(message);
+		b.append(success ? CodeHelper.gattStatus(gattStatus, true) : CodeHelper.gattConnStatus(gattStatus, true)).append(" ").append(message);
 
 		log_native(level, macAddress, b.toString());
 	}
 
+	/**
+	 * Overload of {@link #log_status_native(String, int, String)} for the common case of logging which attribute a status was for. The
+	 * uuid's debug name is only looked up if the entry is actually going to be logged.
+	 *
+	 * @param uuidType one of "char", "descriptor", or "service", see {@link #uuidName(String, String)}.
+	 */
+	public final void log_status_native(String macAddress, int gattStatus, String uuidType, UUID uuid)
+	{
+		if (!isNativeEnabled(Utils.isSuccess(gattStatus) ? Log.INFO : Log.WARN)) return;
+
+		log_status_native(macAddress, gattStatus, uuidName(uuidToString(uuid), uuidType));
+	}
+
 	public void log_conn_status_native(String macAddress, int gattStatus)
 	{
 		log_conn_status_native(macAddress, gattStatus, "");
@@ -179,10 +209,11 @@ public final class P_Logger
 
 	public void log_conn_status_native(String macAddress, int gattStatus, String message)
 	{
-		if (!isEnabled())	return;
-
 		int level = Utils.isSuccess(gattStatus) ? Log.INFO : Log.WARN;
-		message = Utils_String.makeString(CodeHelper.gattConnStatus(gattStatus, isEnabled()), " ", message);
+
+		if (!isNativeEnabled(level)) return;
+
+		message = Utils_String.makeString(CodeHelper.gattConnStatus(gattStatus, true), " ", message);
 
 		log_native(level, macAddress, message);
 	}
@@ -264,32 +295,77 @@ public final class P_Logger
 
 
 
+	/**
+	 * Logs a native entry whose message is only formatted (using {@link String#format(String, Object...)}) if the entry is going to be logged.
+	 * Nothing gets allocated when the level is disabled, so long as <code>arg0</code> is an already existing object. Prefer this over building
+	 * the message with string concatenation in native callbacks, and other hot paths.
+	 */
+	public final void logf_native(int level, String macAddress, String format, Object arg0)
+	{
+		if (!isNativeEnabled(level)) return;
+
+		log_native(level, macAddress, String.format(format, arg0));
+	}
+
+	public final void logf_native(int level, String macAddress, String format, Object arg0, Object arg1)
+	{
+		if (!isNativeEnabled(level)) return;
+
+		log_native(level, macAddress, String.format(format, arg0, arg1));
+	}
+
+	public final void logf_native(int level, String macAddress, String format, Object arg0, Object arg1, Object arg2)
+	{
+		if (!isNativeEnabled(level)) return;
+
+		log_native(level, macAddress, String.format(format, arg0, arg1, arg2));
+	}
+
+
+
 	// *** SweetBlue log methods
 
 
 
 	public final void log(int level, String macAddress, String message)
 	{
-		if( !isEnabled() )  return;
-
-		if (!m_options.sweetBlueEnabled(level)) return;
+		if (!isEnabled(level)) return;
 		
 		StackTraceElement trace = getSoonestTrace();
-		String className = trace.getClassName();
-		String[] className_split = className.split("\\.");
-		className = className_split[className_split.length-1];
-		log_private(level, className, macAddress, message, trace);
+		log_private(level, getClassTag(trace), macAddress, message, trace);
 	}
 
 	public final void log(int level, String tag, String macAddress, String message)
 	{
-		if( !isEnabled() )  return;
-
-		if (!m_options.sweetBlueEnabled(level)) return;
+		if (!isEnabled(level)) return;
 
 		StackTraceElement trace = getSoonestTrace();
 		log_private(level, tag, macAddress, message, trace);
 	}
+
+	/**
+	 * SweetBlue counterpart of {@link #logf_native(int, String, String, Object)}. The message is only formatted if the entry is going to be logged.
+	 */
+	public final void logf(int level, String tag, String macAddress, String format, Object arg0)
+	{
+		if (!isEnabled(level)) return;
+
+		log(level, tag, macAddress, String.format(format, arg0));
+	}
+
+	public final void logf(int level, String tag, String macAddress, String format, Object arg0, Object arg1)
+	{
+		if (!isEnabled(level)) return;
+
+		log(level, tag, macAddress, String.format(format, arg0, arg1));
+	}
+
+	public final void logf(int level, String tag, String macAddress, String format, Object arg0, Object arg1, Object arg2)
+	{
+		if (!isEnabled(level)) return;
+
+		log(level, tag, macAddress, String.format(format, arg0, arg1, arg2));
+	}
 	
 
 	public final void d(String tag, String message)
@@ -432,10 +508,20 @@ public final class P_Logger
 
 	private StackTraceElement getSoonestTrace()
 	{
+		if (!TRACE_CALLERS) return null;
+
 		StackTraceElement[] trace = new Exception().getStackTrace();
 		return getSoonestTrace(trace);
 	}
 
+	private static String getClassTag(StackTraceElement trace_nullable)
+	{
+		if (trace_nullable == null) return NO_TRACE_TAG;
+
+		final String className = trace_nullable.getClassName();
+		return className.substring(className.lastIndexOf('.') + 1);
+	}
+
 	private StackTraceElement getSoonestTrace(StackTraceElement[] trace)
 	{
 		for(int i = 0; i < trace.length; i++ )
@@ -453,7 +539,10 @@ public final class P_Logger
 	{
 		final String threadName = getThreadName(Process.myTid());
 		final StringBuilder b = new StringBuilder();
-		b.append(threadName).append(" ").append(methodName).append("() ");
+		b.append(threadName).append(" ");
+
+		if (!TextUtils.isEmpty(methodName))
+			b.append(methodName).append("() ");
 
 		if (!TextUtils.isEmpty(macAddress))
 			b.append("[").append(macAddress).append("] ");
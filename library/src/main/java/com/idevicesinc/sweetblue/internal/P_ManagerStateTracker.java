@@ -57,7 +57,7 @@ final class P_ManagerStateTracker extends PA_StateTracker<BleManagerState>
 	@Override
 	final int trackedStates()
 	{
-		BleManagerState[] states = getManager().getConfigClone().defaultManagerStates;
+		BleManagerState[] states = getManager().conf_mngr().defaultManagerStates;
 		if (states == null)
 			states = BleManagerState.VALUES();
 		int mask = 0;
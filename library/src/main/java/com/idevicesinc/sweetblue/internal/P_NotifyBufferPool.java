@@ -0,0 +1,300 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.NotificationListener;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Fixed pool of notification payload buffers, carved out of one slab, used when
+ * {@link com.idevicesinc.sweetblue.BleDeviceConfig#usePooledNotificationBuffers} is on. Incoming notification values are copied
+ * into a free slot instead of into a new array, and handed to listeners as a read-only {@link ByteBuffer} view of it.
+ * <br><br>
+ * Each {@link Payload} is reference counted. Whoever acquires it holds one reference, and every listener callback it's posted to
+ * holds another until the callback returns. When the last reference is released, the slot goes back into the pool. Payloads are
+ * themselves reused, so anything holding on to one also holds the generation it was handed out under, and checks it before reading.
+ * <br><br>
+ * If a value doesn't fit in a slot, or every slot is in use, {@link #acquire(byte[])} returns <code>null</code> and the caller
+ * should fall back to copying the value like it always has.
+ */
+final class P_NotifyBufferPool
+{
+
+    /**
+     * Largest value an attribute can have, so every notification fits in a slot.
+     */
+    static final int SLOT_SIZE = 512;
+
+    static final int DEFAULT_SLOT_COUNT = 256;
+
+    // A notification normally goes to at most the listener passed in, the device's and the manager's. Any more than this get
+    // a wrapper of their own.
+    private static final int REUSED_WRAPPER_COUNT = 4;
+
+
+    final class Payload
+    {
+        private final int m_offset;
+
+        // Read-only view of just this slot, so handing out a view only costs the one duplicate.
+        private final ByteBuffer m_slotView;
+
+        // Reused along with the payload, since none of them can still be in use by the time it's back in the pool.
+        private final ReleasingListener[] m_wrappers = new ReleasingListener[REUSED_WRAPPER_COUNT];
+
+        // All guarded by the pool's lock.
+        private int m_length;
+        private int m_refCount;
+        private int m_generation;
+        private int m_wrapperCount;
+
+
+        private Payload(int index, ByteBuffer slab)
+        {
+            m_offset = index * SLOT_SIZE;
+
+            final ByteBuffer view = slab.duplicate();
+
+            // Through Buffer, so this links against the older ByteBuffer which doesn't override these.
+            ((Buffer) view).limit(m_offset + SLOT_SIZE);
+            ((Buffer) view).position(m_offset);
+
+            m_slotView = view.slice();
+        }
+
+        final int length()
+        {
+            return m_length;
+        }
+
+        final int generation()
+        {
+            synchronized (m_lock)
+            {
+                return m_generation;
+            }
+        }
+
+        /**
+         * Returns <code>true</code> if this payload still holds the value it was handed out with under the given generation.
+         */
+        final boolean isValid(final int generation)
+        {
+            synchronized (m_lock)
+            {
+                return m_refCount > 0 && m_generation == generation;
+            }
+        }
+
+        /**
+         * Returns a read-only view of the value, or <code>null</code> if it has since been released.
+         */
+        final ByteBuffer view(final int generation)
+        {
+            if (!isValid(generation))
+                return null;
+
+            final ByteBuffer view = m_slotView.duplicate();
+
+            ((Buffer) view).limit(m_length);
+
+            return view;
+        }
+
+        /**
+         * Returns a copy of the value which belongs to the caller, or <code>null</code> if it has since been released.
+         */
+        final byte[] copy(final int generation)
+        {
+            if (!isValid(generation))
+                return null;
+
+            final byte[] copy = new byte[m_length];
+            System.arraycopy(m_slab, m_offset, copy, 0, m_length);
+
+            return copy;
+        }
+
+        final void retain()
+        {
+            synchronized (m_lock)
+            {
+                m_refCount++;
+            }
+        }
+
+        /**
+         * Takes a reference on behalf of the given listener, and returns a listener to post in its place, which calls through to it
+         * and then releases that reference.
+         */
+        final NotificationListener retainFor(final NotificationListener listener)
+        {
+            ReleasingListener wrapper = null;
+
+            synchronized (m_lock)
+            {
+                m_refCount++;
+
+                if (m_wrapperCount < m_wrappers.length)
+                {
+                    wrapper = m_wrappers[m_wrapperCount];
+
+                    if (wrapper == null)
+                    {
+                        wrapper = new ReleasingListener(this);
+                        m_wrappers[m_wrapperCount] = wrapper;
+                    }
+
+                    m_wrapperCount++;
+                }
+            }
+
+            if (wrapper == null)
+                wrapper = new ReleasingListener(this);
+
+            wrapper.m_listener = listener;
+
+            return wrapper;
+        }
+
+        final void release()
+        {
+            synchronized (m_lock)
+            {
+                if (m_refCount <= 0)
+                    return;
+
+                m_refCount--;
+
+                if (m_refCount == 0)
+                {
+                    m_generation++;
+                    m_free[m_freeCount++] = this;
+                }
+            }
+        }
+    }
+
+    private static final class ReleasingListener implements NotificationListener
+    {
+        private final Payload m_payload;
+
+        // Set before being posted, which publishes it to whichever thread runs the listener.
+        private NotificationListener m_listener;
+
+
+        private ReleasingListener(Payload payload)
+        {
+            m_payload = payload;
+        }
+
+        @Override
+        public void onEvent(NotificationEvent e)
+        {
+            final NotificationListener listener = m_listener;
+
+            try
+            {
+                listener.onEvent(e);
+            }
+            finally
+            {
+                m_listener = null;
+                m_payload.release();
+            }
+        }
+    }
+
+
+    private final Object m_lock = new Object();
+
+    private final byte[] m_slab;
+    private final Payload[] m_free;
+    private int m_freeCount;
+
+
+    P_NotifyBufferPool()
+    {
+        this(DEFAULT_SLOT_COUNT);
+    }
+
+    P_NotifyBufferPool(int slotCount)
+    {
+        m_slab = new byte[slotCount * SLOT_SIZE];
+        m_free = new Payload[slotCount];
+
+        final ByteBuffer readOnly = ByteBuffer.wrap(m_slab).asReadOnlyBuffer();
+
+        for (int i = 0; i < slotCount; i++)
+        {
+            m_free[i] = new Payload(slotCount - 1 - i, readOnly);
+        }
+
+        m_freeCount = slotCount;
+    }
+
+
+    /**
+     * Copies the given value into a free slot, and returns it with one reference held by the caller. Returns <code>null</code> if
+     * the value is <code>null</code>, too big, or there are no free slots. Safe to call from any thread.
+     */
+    final Payload acquire(final byte[] value)
+    {
+        if (value == null || value.length > SLOT_SIZE)
+            return null;
+
+        final Payload payload;
+
+        synchronized (m_lock)
+        {
+            if (m_freeCount == 0)
+                return null;
+
+            payload = m_free[--m_freeCount];
+            m_free[m_freeCount] = null;
+
+            payload.m_length = value.length;
+            payload.m_refCount = 1;
+            payload.m_wrapperCount = 0;
+        }
+
+        // Nobody else can see this slot until we hand it out.
+        System.arraycopy(value, 0, m_slab, payload.m_offset, value.length);
+
+        return payload;
+    }
+
+    /**
+     * Returns how many slots are free right now.
+     */
+    final int getFreeCount()
+    {
+        synchronized (m_lock)
+        {
+            return m_freeCount;
+        }
+    }
+
+    final int getSlotCount()
+    {
+        return m_free.length;
+    }
+}
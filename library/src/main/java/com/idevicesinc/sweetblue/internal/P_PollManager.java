@@ -19,7 +19,7 @@ package com.idevicesinc.sweetblue.internal;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.HashMap;
 import java.util.UUID;
 import android.bluetooth.BluetoothGatt;
 import com.idevicesinc.sweetblue.BleCharacteristic;
@@ -50,9 +50,15 @@ final class P_PollManager
 	
 
 	
+	private static final CallbackEntry[] NO_ENTRIES = new CallbackEntry[0];
+
 	private final IBleDevice m_device;
-	private final ArrayList<CallbackEntry> m_entries = new ArrayList<>();
 	private final Object m_entryLock = new Object();
+
+	// Copy-on-write. Both are only ever swapped out whole (under m_entryLock), so readers can walk them without locking or copying.
+	private volatile CallbackEntry[] m_entries = NO_ENTRIES;
+	// The entries using notify, keyed by characteristic, so incoming notifications only visit the entries they're for.
+	private volatile HashMap<UUID, CallbackEntry[]> m_notifyRoutes = new HashMap<>();
 	
 
 	P_PollManager(IBleDevice device)
@@ -64,10 +70,50 @@ final class P_PollManager
 	{
 		synchronized (m_entryLock)
 		{
-			m_entries.clear();
+			for (CallbackEntry entry : m_entries)
+			{
+				entry.cancel();
+			}
+
+			setEntries(NO_ENTRIES);
 		}
 	}
 
+	// Must be called while holding m_entryLock.
+	private void setEntries(final CallbackEntry[] entries)
+	{
+		final HashMap<UUID, CallbackEntry[]> routes = new HashMap<>();
+
+		for (CallbackEntry entry : entries)
+		{
+			if( !entry.usingNotify() )  continue;
+
+			final UUID charUuid = entry.m_bleOp.getCharacteristicUuid();
+			final CallbackEntry[] existing = routes.get(charUuid);
+
+			if( existing == null )
+			{
+				routes.put(charUuid, new CallbackEntry[] { entry });
+			}
+			else
+			{
+				final CallbackEntry[] grown = Arrays.copyOf(existing, existing.length + 1);
+				grown[existing.length] = entry;
+				routes.put(charUuid, grown);
+			}
+		}
+
+		m_entries = entries;
+		m_notifyRoutes = routes;
+	}
+
+	private CallbackEntry[] getRoute(final UUID charUuid)
+	{
+		final CallbackEntry[] route = m_notifyRoutes.get(charUuid);
+
+		return route != null ? route : NO_ENTRIES;
+	}
+
 	final void startPoll(final BleOp bleOp, Interval interval, boolean trackChanges, boolean usingNotify)
 	{
 		if( m_device.isNull() )  return;
@@ -76,18 +122,15 @@ final class P_PollManager
 
 		if( !allowDuplicatePollEntries )
 		{
-			final List<CallbackEntry> entryList;
-			synchronized (m_entryLock)
-			{
-				entryList = new ArrayList<>(m_entries);
-			}
-			for( int i = entryList.size()-1; i >= 0; i-- )
+			final CallbackEntry[] entries = m_entries;
+
+			for( int i = entries.length-1; i >= 0; i-- )
 			{
-				CallbackEntry ithEntry = entryList.get(i);
+				CallbackEntry ithEntry = entries[i];
 
 				if( ithEntry.m_bleOp.getCharacteristicUuid().equals(bleOp.getCharacteristicUuid()) )
 				{
-					ithEntry.m_interval = interval.secs();
+					ithEntry.setInterval(interval.secs());
 				}
 
 				if( ithEntry.isFor(bleOp, interval.secs(), usingNotify) )
@@ -112,7 +155,10 @@ final class P_PollManager
 
 		synchronized (m_entryLock)
 		{
-			m_entries.add(newEntry);
+			final CallbackEntry[] entries = Arrays.copyOf(m_entries, m_entries.length + 1);
+			entries[entries.length - 1] = newEntry;
+
+			setEntries(entries);
 		}
 	}
 
@@ -122,50 +168,52 @@ final class P_PollManager
 
 		synchronized (m_entryLock)
 		{
-			for (int i = m_entries.size() - 1; i >= 0; i--)
-			{
-				CallbackEntry ithEntry = m_entries.get(i);
+			final ArrayList<CallbackEntry> remaining = new ArrayList<>(m_entries.length);
 
+			for (CallbackEntry ithEntry : m_entries)
+			{
 				if (ithEntry.isFor(bleOp, interval_nullable, usingNotify))
 				{
-					m_entries.remove(i);
+					ithEntry.cancel();
+				}
+				else
+				{
+					remaining.add(ithEntry);
 				}
 			}
-		}
-	}
 
-	final void update(double timeStep)
-	{
-		synchronized (m_entryLock)
-		{
-			for (int i = 0; i < m_entries.size(); i++)
+			if (remaining.size() != m_entries.length)
 			{
-				CallbackEntry ithEntry = m_entries.get(i);
-
-				ithEntry.update(timeStep);
+				setEntries(remaining.toArray(NO_ENTRIES));
 			}
 		}
 	}
 
 	final void onCharacteristicChangedFromNativeNotify(final UUID serviceUuid, final UUID charUuid, byte[] value)
 	{
-		final List<CallbackEntry> entryList;
-		synchronized (m_entryLock)
-		{
-			entryList = new ArrayList<>(m_entries);
-		}
-		for( int i = 0; i < entryList.size(); i++ )
-		{
-			CallbackEntry ithEntry = entryList.get(i);
+		onCharacteristicChangedFromNativeNotify(serviceUuid, charUuid, value, null);
+	}
 
-			// An NPE was reported from a customer where it looks like the CallbackEntry here is null. Not sure how this could happen,
-			// so we're just guarding against it now
-			if (ithEntry == null)
-				continue;
+	/**
+	 * Same as {@link #onCharacteristicChangedFromNativeNotify(UUID, UUID, byte[])}, but for a value sitting in a pooled buffer. The
+	 * caller keeps its own reference to the payload, and releases it once this returns.
+	 */
+	final void onCharacteristicChangedFromNativeNotify(final UUID serviceUuid, final UUID charUuid, P_NotifyBufferPool.Payload payload)
+	{
+		onCharacteristicChangedFromNativeNotify(serviceUuid, charUuid, null, payload);
+	}
+
+	private void onCharacteristicChangedFromNativeNotify(final UUID serviceUuid, final UUID charUuid, final byte[] value, final P_NotifyBufferPool.Payload payload_nullable)
+	{
+		final CallbackEntry[] route = getRoute(charUuid);
 
-			if( ithEntry.isFor(serviceUuid, charUuid) && ithEntry.usingNotify() )
+		for( int i = 0; i < route.length; i++ )
+		{
+			CallbackEntry ithEntry = route[i];
+
+			if( ithEntry.isFor(serviceUuid, charUuid) )
 			{
-				ithEntry.onCharacteristicChangedFromNativeNotify(value);
+				ithEntry.onCharacteristicChangedFromNativeNotify(value, payload_nullable);
 			}
 		}
 	}
@@ -174,15 +222,12 @@ final class P_PollManager
 	{
 		int/*__E_NotifyState*/ highestState = E_NotifyState__NOT_ENABLED;
 
-		final List<CallbackEntry> entryList;
-		synchronized (m_entryLock)
-		{
-			entryList = new ArrayList<>(m_entries);
-		}
+		// Only entries using notify ever move off of NOT_ENABLED, so those are the only ones worth looking at.
+		final CallbackEntry[] route = getRoute(charUuid);
 
-		for( int i = 0; i < entryList.size(); i++ )
+		for( int i = 0; i < route.length; i++ )
 		{
-			CallbackEntry ithEntry = entryList.get(i);
+			CallbackEntry ithEntry = route[i];
 			
 			if( ithEntry.isFor(serviceUuid, charUuid) )
 			{
@@ -198,16 +243,13 @@ final class P_PollManager
 
 	final void onNotifyStateChange(final UUID serviceUuid, final UUID charUuid, int/*__E_NotifyState*/ state)
 	{
-		final List<CallbackEntry> entryList;
-		synchronized (m_entryLock)
-		{
-			entryList = new ArrayList<>(m_entries);
-		}
-		for( int i = 0; i < entryList.size(); i++ )
+		final CallbackEntry[] route = getRoute(charUuid);
+
+		for( int i = 0; i < route.length; i++ )
 		{
-			CallbackEntry ithEntry = entryList.get(i);
+			CallbackEntry ithEntry = route[i];
 			
-			if( ithEntry.usingNotify() && ithEntry.isFor(serviceUuid, charUuid) )
+			if( ithEntry.isFor(serviceUuid, charUuid) )
 			{
 				ithEntry.m_notifyState = state;
 			}
@@ -216,27 +258,19 @@ final class P_PollManager
 
 	final void resetNotifyStates()
 	{
-		synchronized (m_entryLock)
+		for (CallbackEntry ithEntry : m_entries)
 		{
-			for (int i = 0; i < m_entries.size(); i++)
-			{
-				CallbackEntry ithEntry = m_entries.get(i);
-
-				ithEntry.m_notifyState = E_NotifyState__NOT_ENABLED;
-			}
+			ithEntry.m_notifyState = E_NotifyState__NOT_ENABLED;
 		}
 	}
 
 	final void enableNotifications_assumesWeAreConnected()
 	{
-		final List<CallbackEntry> entryList;
-		synchronized (m_entryLock)
-		{
-			entryList = new ArrayList<>(m_entries);
-		}
-		for( int i = 0; i < entryList.size(); i++ )
+		final CallbackEntry[] entries = m_entries;
+
+		for( int i = 0; i < entries.length; i++ )
 		{
-			CallbackEntry ithEntry = entryList.get(i);
+			CallbackEntry ithEntry = entries[i];
 			
 			if( ithEntry.usingNotify() )
 			{
@@ -395,9 +429,18 @@ final class P_PollManager
 		private final boolean m_usingNotify;
 		private int/*_E_NotifyState*/ m_notifyState;
 
-		private double m_timeTracker;
+		// When the interval last started over. Polls are scheduled on the manager's timer wheel for this plus the interval.
+		private long m_lastResetTime;
 		private boolean m_waitingForResponse;
 
+		private final P_TimerWheel.Timer m_timer = new P_TimerWheel.Timer()
+		{
+			@Override void onExpired(long currentTime)
+			{
+				CallbackEntry.this.onIntervalElapsed(currentTime);
+			}
+		};
+
 		CallbackEntry(IBleDevice device, BleOp bleOp, double interval, boolean trackChanges, boolean usingNotify)
 		{
 			m_bleOp = bleOp;
@@ -406,18 +449,65 @@ final class P_PollManager
 			m_usingNotify = usingNotify;
 			m_notifyState = E_NotifyState__NOT_ENABLED;
 
-			m_timeTracker = interval; // to get it to do a first read pretty much instantly.
+			m_lastResetTime = m_device.getIManager().currentTime();
 
 			if( trackChanges || m_usingNotify)
 			{
-				m_pollingReadListener = new TrackingWrappingReadListener(m_bleOp.getReadWriteListener(), m_device.getIManager().getPostManager().getUIHandler(), m_device.getIManager().getConfigClone().postCallbacksToMainThread);
+				m_pollingReadListener = new TrackingWrappingReadListener(m_bleOp.getReadWriteListener(), m_device.getIManager().getPostManager().getUIHandler(), m_device.getIManager().conf_mngr().postCallbacksToMainThread);
 			}
 			else
 			{
-				m_pollingReadListener = new PollingReadListener(m_bleOp.getReadWriteListener(), m_device.getIManager().getPostManager().getUIHandler(), m_device.getIManager().getConfigClone().postCallbacksToMainThread);
+				m_pollingReadListener = new PollingReadListener(m_bleOp.getReadWriteListener(), m_device.getIManager().getPostManager().getUIHandler(), m_device.getIManager().conf_mngr().postCallbacksToMainThread);
 			}
 
 			m_pollingReadListener.init(this);
+
+			if( isIntervalEnabled() )
+			{
+				// Do a first read pretty much instantly.
+				getTimerWheel().schedule(m_timer, m_lastResetTime, 0);
+			}
+		}
+
+		private P_TimerWheel getTimerWheel()
+		{
+			return m_device.getIManager().getTimerWheel();
+		}
+
+		private boolean isIntervalEnabled()
+		{
+			return m_interval > 0.0 && m_interval != Interval.INFINITE.secs();
+		}
+
+		private void scheduleNext()
+		{
+			if( isIntervalEnabled() )
+			{
+				getTimerWheel().scheduleAt(m_timer, m_lastResetTime + (long) (m_interval * 1000.0));
+			}
+			else
+			{
+				getTimerWheel().cancel(m_timer);
+			}
+		}
+
+		private void resetInterval()
+		{
+			m_lastResetTime = m_device.getIManager().currentTime();
+
+			scheduleNext();
+		}
+
+		final void setInterval(double interval)
+		{
+			m_interval = interval;
+
+			scheduleNext();
+		}
+
+		final void cancel()
+		{
+			getTimerWheel().cancel(m_timer);
 		}
 
 		final boolean trackingChanges()
@@ -479,7 +569,7 @@ final class P_PollManager
 			}
 		}
 
-		final void onCharacteristicChangedFromNativeNotify(byte[] value)
+		final void onCharacteristicChangedFromNativeNotify(byte[] value, P_NotifyBufferPool.Payload payload_nullable)
 		{
 			//--- DRK > The early-outs in this method are for when, for example, a native onNotify comes in on a random thread,
 			//---		BleDevice#disconnect() is called on main thread before notify gets passed to main thread (to here).
@@ -489,7 +579,6 @@ final class P_PollManager
 
 			final UUID m_serviceUuid = m_bleOp.getServiceUuid();
 			final UUID m_charUuid = m_bleOp.getCharacteristicUuid();
-			final DescriptorFilter m_descriptorFilter = m_bleOp.getDescriptorFilter();
 
 			BleCharacteristic characteristic = m_device.getNativeBleCharacteristic(m_serviceUuid, m_charUuid);
 
@@ -497,50 +586,49 @@ final class P_PollManager
 
 			NotificationListener.Type type = P_DeviceServiceManager.getProperNotificationType(characteristic, NotificationListener.Type.NOTIFICATION);
 			int gattStatus = BleStatuses.GATT_STATUS_NOT_APPLICABLE;
-			final BleNotify notify = new BleNotify(m_serviceUuid, m_charUuid).setDescriptorFilter(m_descriptorFilter);
-			notify.setData(new PresentData(value));
 
 			NotificationListener.Status status;
 
-			if (value == null)
+			final int length = payload_nullable != null ? payload_nullable.length() : (value != null ? value.length : -1);
+
+			if (length == -1)
 				status = NotificationListener.Status.NULL_DATA;
-			else if (value.length == 0)
+			else if (length == 0)
 				status = NotificationListener.Status.EMPTY_DATA;
 			else
 				status = NotificationListener.Status.SUCCESS;
 
-			NotificationListener.NotificationEvent result = P_Bridge_User.newNotificationEvent(m_device.getBleDevice(), notify, type, status, gattStatus, 0.0, 0.0, true);
+			final NotificationListener.NotificationEvent result;
+
+			// The event hangs on to the value itself, so there's no need to wrap it in a BleNotify first.
+			if (payload_nullable != null)
+				result = P_Bridge_User.newNotificationEvent(m_device.getBleDevice(), m_serviceUuid, m_charUuid, type, payload_nullable, payload_nullable.generation(), status, gattStatus, 0.0, 0.0, true);
+			else
+				result = P_Bridge_User.newNotificationEvent(m_device.getBleDevice(), m_serviceUuid, m_charUuid, type, value, status, gattStatus, 0.0, 0.0, true);
 			m_device.invokeNotificationCallback(null, result);
 
-			m_timeTracker = 0.0;
+			resetInterval();
 		}
 
 		final void onSuccessOrFailure()
 		{
 			m_waitingForResponse = false;
-			m_timeTracker = 0.0;
+			resetInterval();
 		}
 
-		final void update(double timeStep)
+		private void onIntervalElapsed(long currentTime)
 		{
-			if( m_interval <= 0.0 )  return;
-			if( m_interval == Interval.INFINITE.secs() )  return;
-
-			m_timeTracker += timeStep;
+			m_lastResetTime = currentTime;
+			scheduleNext();
 
-			if( m_timeTracker >= m_interval )
+			if( m_device.is(BleDeviceState.INITIALIZED) && !m_device.is(BleDeviceState.RECONNECTING_SHORT_TERM) )
 			{
-				m_timeTracker = 0.0;
-
-				if( m_device.is(BleDeviceState.INITIALIZED) && !m_device.is(BleDeviceState.RECONNECTING_SHORT_TERM) )
+				if( !m_waitingForResponse )
 				{
-					if( !m_waitingForResponse )
-					{
-						m_waitingForResponse = true;
-						final Type type = trackingChanges() ? Type.PSUEDO_NOTIFICATION : Type.POLL;
-						final BleRead read = new BleRead(m_bleOp.getServiceUuid(), m_bleOp.getCharacteristicUuid()).setReadWriteListener(m_pollingReadListener);
-						m_device.read_internal(type, read);
-					}
+					m_waitingForResponse = true;
+					final Type type = trackingChanges() ? Type.PSUEDO_NOTIFICATION : Type.POLL;
+					final BleRead read = new BleRead(m_bleOp.getServiceUuid(), m_bleOp.getCharacteristicUuid()).setReadWriteListener(m_pollingReadListener);
+					m_device.read_internal(type, read);
 				}
 			}
 		}
@@ -20,6 +20,8 @@ package com.idevicesinc.sweetblue.internal;
 
 import android.os.Handler;
 
+import com.idevicesinc.sweetblue.utils.Event;
+import com.idevicesinc.sweetblue.utils.GenericListener_Void;
 import com.idevicesinc.sweetblue.utils.UpdateThreadType;
 import com.idevicesinc.sweetblue.utils.Utils;
 
@@ -31,12 +33,18 @@ final class P_PostManager
     private final P_SweetHandler m_updateHandler;
     private final IBleManager m_manager;
 
+    // Listener events going to each thread get batched up, rather than posted one at a time.
+    private final P_EventDispatcher m_uiDispatcher;
+    private final P_EventDispatcher m_updateDispatcher;
+
 
     P_PostManager(IBleManager mgr, P_SweetHandler uiHandler, P_SweetHandler updateHandler)
     {
         m_uiHandler = uiHandler;
         m_updateHandler = updateHandler;
         m_manager = mgr;
+        m_uiDispatcher = new P_EventDispatcher(mgr, uiHandler);
+        m_updateDispatcher = new P_EventDispatcher(mgr, updateHandler);
     }
 
     public final void postToMain(Runnable action)
@@ -47,13 +55,16 @@ final class P_PostManager
         }
         else
         {
-            m_uiHandler.post(action);
+            // Goes through the dispatcher so it can't jump ahead of events posted before it.
+            m_uiDispatcher.dispatch(action);
         }
     }
 
+    // Like postToMain() and postCallback(), everything which isn't delayed goes through the dispatchers, so runnables and listener
+    // events going to the same thread run in the order they were posted.
     public final void post(Runnable action)
     {
-        if (m_manager.getConfigClone().updateThreadType == UpdateThreadType.MAIN)
+        if (m_manager.conf_mngr().updateThreadType == UpdateThreadType.MAIN)
         {
             if (Utils.isOnMainThread())
             {
@@ -61,7 +72,7 @@ final class P_PostManager
             }
             else
             {
-                m_uiHandler.post(action);
+                m_uiDispatcher.dispatch(action);
             }
         }
         else
@@ -72,14 +83,14 @@ final class P_PostManager
             }
             else
             {
-                m_updateHandler.post(action);
+                m_updateDispatcher.dispatch(action);
             }
         }
     }
 
     public final void postCallback(Runnable action)
     {
-        if (m_manager.getConfigClone().postCallbacksToMainThread)
+        if (m_manager.conf_mngr().postCallbacksToMainThread)
         {
             postToMain(action);
         }
@@ -91,14 +102,44 @@ final class P_PostManager
             }
             else
             {
-                m_updateHandler.post(action);
+                m_updateDispatcher.dispatch(action);
             }
         }
     }
 
+    /**
+     * Same as {@link #postCallback(Runnable)}, but for a single listener event. Nothing is allocated when the event can be
+     * delivered right away, and events which have to hop threads are batched together.
+     */
+    public final void postEvent(GenericListener_Void<?> listener, Event event)
+    {
+        if (m_manager.conf_mngr().postCallbacksToMainThread)
+        {
+            if (Utils.isOnMainThread())
+                P_EventDispatcher.deliver(listener, event);
+            else
+                m_uiDispatcher.dispatch(listener, event);
+        }
+        else
+        {
+            runOrDispatchToUpdateThread(listener, event);
+        }
+    }
+
+    /**
+     * Same as {@link #runOrPostToUpdateThread(Runnable)}, but for a single listener event.
+     */
+    public final void runOrDispatchToUpdateThread(GenericListener_Void<?> listener, Event event)
+    {
+        if (isOnSweetBlueThread())
+            P_EventDispatcher.deliver(listener, event);
+        else
+            m_updateDispatcher.dispatch(listener, event);
+    }
+
     public final void postToUpdateThread(Runnable action)
     {
-        m_updateHandler.post(action);
+        m_updateDispatcher.dispatch(action);
     }
 
     public final void runOrPostToUpdateThread(Runnable action)
@@ -109,10 +150,14 @@ final class P_PostManager
         }
         else
         {
-            m_updateHandler.post(action);
+            m_updateDispatcher.dispatch(action);
         }
     }
 
+    /**
+     * Posts straight to the update thread's handler, skipping the dispatcher, so the action can still be taken back out with
+     * {@link #removeUpdateCallbacks(Runnable)}. This means it may run ahead of events which are still waiting to be delivered.
+     */
     public final void forcePostToUpdate(Runnable action)
     {
         m_updateHandler.post(action);
@@ -125,7 +170,7 @@ final class P_PostManager
 
     public final void postDelayed(Runnable action, long delay)
     {
-        if (m_manager.getConfigClone().updateThreadType == UpdateThreadType.MAIN)
+        if (m_manager.conf_mngr().updateThreadType == UpdateThreadType.MAIN)
         {
             m_uiHandler.postDelayed(action, delay);
         }
@@ -137,7 +182,7 @@ final class P_PostManager
 
     public final void postCallbackDelayed(Runnable action, long delay)
     {
-        if (m_manager.getConfigClone().postCallbacksToMainThread)
+        if (m_manager.conf_mngr().postCallbacksToMainThread)
         {
             m_uiHandler.postDelayed(action, delay);
         }
@@ -0,0 +1,133 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.utils.Interval;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Holds the last known value of each characteristic of a device, along with when it was received, so batch reads can skip
+ * characteristics whose value is still fresh. Entries are keyed by service and characteristic, and times are on the manager's clock.
+ * <br><br>
+ * Nothing is kept until {@link #enable()} is called, so devices that never use batch reads don't pay for copying every value.
+ */
+final class P_ReadCache
+{
+
+    private final Map<Key, Entry> m_entries = new ConcurrentHashMap<>();
+
+    private volatile boolean m_enabled = false;
+
+
+    final void enable()
+    {
+        m_enabled = true;
+    }
+
+    final boolean isEnabled()
+    {
+        return m_enabled;
+    }
+
+    final void put(UUID serviceUuid, UUID charUuid, byte[] value, long time)
+    {
+        if (!m_enabled || charUuid == null || value == null)
+            return;
+
+        m_entries.put(new Key(serviceUuid, charUuid), new Entry(value.clone(), time));
+    }
+
+    final void remove(UUID serviceUuid, UUID charUuid)
+    {
+        if (!m_enabled || charUuid == null)
+            return;
+
+        m_entries.remove(new Key(serviceUuid, charUuid));
+    }
+
+    /**
+     * Returns a copy of the cached value for the given characteristic, or <code>null</code> if there isn't one, or it's older than
+     * <code>maxAge</code>.
+     */
+    final byte[] get(UUID serviceUuid, UUID charUuid, Interval maxAge, long currentTime)
+    {
+        if (!m_enabled || Interval.isDisabled(maxAge))
+            return null;
+
+        final Entry entry = m_entries.get(new Key(serviceUuid, charUuid));
+
+        if (entry == null)
+            return null;
+
+        if (maxAge.secs() != Interval.INFINITE.secs() && currentTime - entry.m_time > maxAge.millis())
+            return null;
+
+        return entry.m_value.clone();
+    }
+
+    final void clear()
+    {
+        m_entries.clear();
+    }
+
+
+    private static final class Key
+    {
+        private final UUID m_serviceUuid;
+        private final UUID m_charUuid;
+
+        private Key(UUID serviceUuid, UUID charUuid)
+        {
+            m_serviceUuid = serviceUuid;
+            m_charUuid = charUuid;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (!(obj instanceof Key))
+                return false;
+
+            final Key other = (Key) obj;
+
+            return m_charUuid.equals(other.m_charUuid) && (m_serviceUuid == null ? other.m_serviceUuid == null : m_serviceUuid.equals(other.m_serviceUuid));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * m_charUuid.hashCode() + (m_serviceUuid != null ? m_serviceUuid.hashCode() : 0);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final byte[] m_value;
+        private final long m_time;
+
+        private Entry(byte[] value, long time)
+        {
+            m_value = value;
+            m_time = time;
+        }
+    }
+}
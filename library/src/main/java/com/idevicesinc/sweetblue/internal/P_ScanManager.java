@@ -40,10 +40,9 @@ import com.idevicesinc.sweetblue.utils.Utils;
 import com.idevicesinc.sweetblue.utils.Utils_String;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.idevicesinc.sweetblue.BleManagerState.SCANNING;
@@ -61,9 +60,33 @@ final class P_ScanManager
     private final IBleManager m_manager;
     private AtomicReference<BleScanApi> mCurrentApi;
     private AtomicReference<BleScanPower> mCurrentPower;
-    private Set<ScanInfo> m_scanEntries;
+    // Weight given to each new RSSI reading in RssiStats' smoothed value
+    private static final double RSSI_EWMA_WEIGHT = 0.25;
+    // Most devices we keep RSSI stats for at once. Only matters for devices that never get past the ScanFilter, as those are never undiscovered.
+    private static final int MAX_RSSI_STATS = 1024;
+
+    // Newest scan result for each mac address, waiting for the next update tick. The other map is handed back and forth with it, so
+    // the update thread can process one batch while the next is coming in, without allocating a new map every tick.
+    private LinkedHashMap<String, ScanInfo> m_scanEntries;
+    private LinkedHashMap<String, ScanInfo> m_scanEntries_draining;
     private final Object entryLock = new Object();
 
+    // Running RSSI stats for each mac address. Unlike m_scanEntries, these live across update ticks, so a device advertising slower than the
+    // update rate still builds up stats. An entry is dropped when its device is undiscovered, or when it's the least recently seen one, and
+    // there are already MAX_RSSI_STATS of them. Guarded by entryLock.
+    private final LinkedHashMap<String, RssiStats> m_rssiStats = new LinkedHashMap<String, RssiStats>(16, 0.75f, /*accessOrder=*/true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RssiStats> eldest)
+        {
+            return size() > MAX_RSSI_STATS;
+        }
+    };
+
+    // Guarded by entryLock
+    private int m_peakBacklog;
+    private long m_coalescedCount;
+
 
     private final int m_retryCountMax = 3;
     private boolean m_triedToStartScanAfterTurnedOn;
@@ -74,6 +97,7 @@ final class P_ScanManager
     private double m_timeNotScanning;
     private double m_timePausedScan;
     private double m_totalTimeScanning;
+    private long m_timeScanStarted;
     private double m_intervalTimeScanning;
     private double m_classicLength;
     private double m_timeClassicBoosting;
@@ -83,9 +107,10 @@ final class P_ScanManager
     P_ScanManager(IBleManager mgr)
     {
         m_manager = mgr;
-        mCurrentApi = new AtomicReference<>(mgr.getConfigClone().scanApi);
+        mCurrentApi = new AtomicReference<>(mgr.conf_mngr().scanApi);
         mCurrentPower = new AtomicReference<>(BleScanPower.AUTO);
-        m_scanEntries = new HashSet<>();
+        m_scanEntries = new LinkedHashMap<>();
+        m_scanEntries_draining = new LinkedHashMap<>();
     }
 
 
@@ -94,7 +119,8 @@ final class P_ScanManager
         m_currentScanOptions = scanOptions;
         m_timePausedScan = 0.0;
         m_totalTimeScanning = 0.0;
-        BleScanApi scanApi = m_manager.getConfigClone().scanApi == BleScanApi.AUTO ? determineAutoApi() : m_manager.getConfigClone().scanApi;
+        m_timeScanStarted = m_manager.currentTime();
+        BleScanApi scanApi = m_manager.conf_mngr().scanApi == BleScanApi.AUTO ? determineAutoApi() : m_manager.conf_mngr().scanApi;
 
         // If using a PendingIntent, we should ignore whats set in the Manager and force post lollipop behavior
 
@@ -147,6 +173,11 @@ final class P_ScanManager
         return m_totalTimeScanning;
     }
 
+    final long getTimeScanStarted()
+    {
+        return m_timeScanStarted;
+    }
+
 
     final void stopNativeScan(final P_Task_Scan scanTask)
     {
@@ -197,10 +228,9 @@ final class P_ScanManager
 
     final void addScanResult(final P_DeviceHolder device, final int rssi, final byte[] scanRecord)
     {
-        final ScanInfo info = new ScanInfo(device, rssi, scanRecord);
         synchronized (entryLock)
         {
-            m_scanEntries.add(info);
+            addScanResult_locked(device, rssi, scanRecord);
         }
     }
 
@@ -215,12 +245,86 @@ final class P_ScanManager
         {
             for (L_Util.ScanResult res : devices)
             {
-                final ScanInfo info = new ScanInfo(res.getDevice(), res.getRssi(), res.getRecord());
-                m_scanEntries.add(info);
+                addScanResult_locked(res.getDevice(), res.getRssi(), res.getRecord());
             }
         }
     }
 
+    // Must be called while holding entryLock. A device we already have a result for just gets its record replaced, rather than the newer
+    // one being dropped, so we always process the latest advertisement, and know how many came in since the last tick.
+    private void addScanResult_locked(final P_DeviceHolder device, final int rssi, final byte[] scanRecord)
+    {
+        if (device == null)
+            return;
+
+        final String address = device.getAddress();
+
+        RssiStats stats = m_rssiStats.get(address);
+
+        if (stats == null)
+        {
+            stats = new RssiStats();
+            m_rssiStats.put(address, stats);
+        }
+
+        stats.add(rssi);
+
+        final ScanInfo existing = m_scanEntries.get(address);
+
+        if (existing != null)
+        {
+            existing.update(device, rssi, scanRecord, stats);
+            m_coalescedCount++;
+        }
+        else
+        {
+            m_scanEntries.put(address, new ScanInfo(device, rssi, scanRecord, stats));
+            m_peakBacklog = Math.max(m_peakBacklog, m_scanEntries.size());
+        }
+    }
+
+    /**
+     * Drops the running RSSI stats for the given device, so it starts fresh if it's discovered again.
+     */
+    final void onUndiscovered(final String macAddress)
+    {
+        synchronized (entryLock)
+        {
+            m_rssiStats.remove(macAddress);
+        }
+    }
+
+    /**
+     * Returns the most devices that have been waiting in the scan buffer for the next update tick at once.
+     */
+    final int getPeakBacklog()
+    {
+        synchronized (entryLock)
+        {
+            return m_peakBacklog;
+        }
+    }
+
+    /**
+     * Returns how many scan results were replaced by a newer one for the same device before an update tick got to them.
+     */
+    final long getCoalescedCount()
+    {
+        synchronized (entryLock)
+        {
+            return m_coalescedCount;
+        }
+    }
+
+    final void resetBufferStats()
+    {
+        synchronized (entryLock)
+        {
+            m_peakBacklog = m_scanEntries.size();
+            m_coalescedCount = 0;
+        }
+    }
+
     final void resetTimeNotScanning()
     {
         m_timeNotScanning = 0.0;
@@ -230,15 +334,13 @@ final class P_ScanManager
     final boolean update(double timeStep, long currentTime)
     {
         // Cache the config instance
-        final BleManagerConfig config = m_manager.getConfigClone();
+        final BleManagerConfig config = m_manager.conf_mngr();
         if (m_manager.is(SCANNING))
         {
             m_totalTimeScanning += timeStep;
             m_intervalTimeScanning += timeStep;
 
-            int size = m_scanEntries.size();
-
-            handleScanEntries(size);
+            handleScanEntries();
 
             if (!m_forceActualInfinite && m_doingInfiniteScan && Interval.isEnabled(config.infiniteScanInterval) && m_intervalTimeScanning >= config.infiniteScanInterval.secs())
                 pauseScan();
@@ -374,7 +476,7 @@ final class P_ScanManager
 
             m_manager.startScan(m_currentScanOptions);
         }
-        else if (Interval.isDisabled(m_manager.getConfigClone().autoScanDelayAfterResume))
+        else if (Interval.isDisabled(m_manager.conf_mngr().autoScanDelayAfterResume))
         {
             m_triedToStartScanAfterResume = true;
         }
@@ -393,7 +495,7 @@ final class P_ScanManager
     final void onPause()
     {
         m_triedToStartScanAfterResume = false;
-        if (m_manager.getConfigClone().stopScanOnPause && m_manager.isScanning())
+        if (m_manager.conf_mngr().stopScanOnPause && m_manager.isScanning())
         {
             if (m_currentScanOptions != null && m_currentScanOptions.isContinuous())
             {
@@ -443,7 +545,7 @@ final class P_ScanManager
         {
             m_manager.getLogger().e_native(Utils_String.concatStrings("Post lollipop scan failed with error code ", String.valueOf(errorCode)));
 
-            if (m_manager.getConfigClone().revertToClassicDiscoveryIfNeeded)
+            if (m_manager.conf_mngr().revertToClassicDiscoveryIfNeeded)
             {
                 m_manager.getLogger().i("Reverting to a CLASSIC scan...");
                 tryClassicDiscovery(PA_StateTracker.E_Intent.UNINTENTIONAL, /*suppressUhOh=*/false);
@@ -465,53 +567,47 @@ final class P_ScanManager
         return BleScanApi.PRE_LOLLIPOP;
     }
 
-    private void handleScanEntries(int size)
+    private void handleScanEntries()
     {
-        if (size > 0)
+        final LinkedHashMap<String, ScanInfo> infos;
+
+        // Everything waiting is processed in one pass. Since there's only ever one result per device, the backlog is bounded by how many
+        // devices are around, rather than how fast they're advertising.
+        synchronized (entryLock)
         {
-            final List<ScanInfo> infos;
+            if (m_scanEntries.isEmpty())
+                return;
 
-            // Get our max scan entries to process based off the update loop rate, with
-            // a minimum of 5.
-            final long upRate = m_manager.getConfigClone().autoUpdateRate.millis();
-            final int maxEntries = (int) Math.min(size, Math.max(5, upRate));
-            infos = new ArrayList<>(maxEntries);
-            synchronized (entryLock)
-            {
-                int current = 0;
-                final Iterator<ScanInfo> it = m_scanEntries.iterator();
-                while (it.hasNext() && current < maxEntries)
-                {
-                    infos.add(it.next());
-                    it.remove();
-                    current++;
-                }
-            }
+            infos = m_scanEntries;
+            m_scanEntries = m_scanEntries_draining;
+            m_scanEntries_draining = infos;
+        }
 
-            final List<DiscoveryEntry> entries = new ArrayList<>(infos.size());
+        final List<DiscoveryEntry> entries = new ArrayList<>(infos.size());
 
-            for (ScanInfo info : infos)
-            {
-                final IBluetoothDevice layer = P_Bridge_User.newDeviceLayer(m_manager, P_BleDeviceImpl.EMPTY_DEVICE(m_manager));
-                layer.setNativeDevice(info.m_device.getDevice(), info.m_device);
+        for (ScanInfo info : infos.values())
+        {
+            final IBluetoothDevice layer = P_Bridge_User.newDeviceLayer(m_manager, P_BleDeviceImpl.EMPTY_DEVICE(m_manager));
+            layer.setNativeDevice(info.m_device.getDevice(), info.m_device);
 
-                if (m_manager.getConfigClone().enableCrashResolver)
+            if (m_manager.conf_mngr().enableCrashResolver)
+            {
+                if (mCurrentApi.get() == BleScanApi.PRE_LOLLIPOP)
                 {
-                    if (mCurrentApi.get() == BleScanApi.PRE_LOLLIPOP)
-                    {
-                        m_manager.getCrashResolver().notifyScannedDevice(layer, getPreLScanCallback(), null);
-                    }
-                    else
-                    {
-                        m_manager.getCrashResolver().notifyScannedDevice(layer, null, L_Util.getNativeScanCallback());
-                    }
+                    m_manager.getCrashResolver().notifyScannedDevice(layer, getPreLScanCallback(), null);
+                }
+                else
+                {
+                    m_manager.getCrashResolver().notifyScannedDevice(layer, null, L_Util.getNativeScanCallback());
                 }
-
-                entries.add(DiscoveryEntry.newEntry(layer, info.m_rssi, info.m_record));
             }
 
-            m_manager.onDiscoveredFromNativeStack(entries);
+            entries.add(DiscoveryEntry.newEntry(layer, info.m_rssi, info.m_record, info));
         }
+
+        infos.clear();
+
+        m_manager.onDiscoveredFromNativeStack(entries);
     }
 
     private boolean startClassicDiscovery()
@@ -624,7 +720,7 @@ final class P_ScanManager
                 m_manager.getLogger().w("Started native scan with " + (retryCount + 1) + " attempts.");
             }
 
-            if (m_manager.getConfigClone().enableCrashResolver)
+            if (m_manager.conf_mngr().enableCrashResolver)
             {
                 m_manager.getCrashResolver().start();
             }
@@ -644,7 +740,7 @@ final class P_ScanManager
     {
         int nativePowerMode;
         boolean success = true;
-        BleScanPower power = m_manager.getConfigClone().scanPower;
+        BleScanPower power = m_manager.conf_mngr().scanPower;
         if (power == BleScanPower.AUTO)
         {
             if (m_manager.isForegrounded())
@@ -713,7 +809,7 @@ final class P_ScanManager
     private boolean tryClassicDiscovery(final PA_StateTracker.E_Intent intent, final boolean suppressUhOh)
     {
         boolean intentional = intent == PA_StateTracker.E_Intent.INTENTIONAL;
-        if (intentional || m_manager.getConfigClone().revertToClassicDiscoveryIfNeeded)
+        if (intentional || m_manager.conf_mngr().revertToClassicDiscoveryIfNeeded)
         {
             if (false == startClassicDiscovery())
             {
@@ -768,7 +864,7 @@ final class P_ScanManager
 
     private Interval getReportDelay()
     {
-        Interval delay = m_manager.getConfigClone().scanReportDelay;
+        Interval delay = m_manager.conf_mngr().scanReportDelay;
         if (Build.MODEL.toLowerCase().contains("pixel"))
             delay = Interval.ZERO;
         return delay;
@@ -836,6 +932,11 @@ final class P_ScanManager
         private final int rssi;
         private final byte[] scanRecord;
 
+        private int rssiCount = 1;
+        private int rssiMin;
+        private int rssiMax;
+        private double rssiSmoothed;
+
         IBleDevice m_bleDevice;
         BleDeviceOrigin m_origin;
         ScanFilter.ScanEvent m_scanEvent;
@@ -848,6 +949,8 @@ final class P_ScanManager
             deviceLayer = layer;
             this.rssi = rssi;
             scanRecord = record;
+            rssiMin = rssiMax = rssi;
+            rssiSmoothed = rssi;
         }
 
         IBluetoothDevice device()
@@ -865,50 +968,97 @@ final class P_ScanManager
             return scanRecord;
         }
 
+        int rssiCount()
+        {
+            return rssiCount;
+        }
+
+        int rssiMin()
+        {
+            return rssiMin;
+        }
+
+        int rssiMax()
+        {
+            return rssiMax;
+        }
+
+        double rssiSmoothed()
+        {
+            return rssiSmoothed;
+        }
+
         static DiscoveryEntry newEntry(IBluetoothDevice layer, int rssi, byte[] record)
         {
             return new DiscoveryEntry(layer, rssi, record);
         }
+
+        private static DiscoveryEntry newEntry(IBluetoothDevice layer, int rssi, byte[] record, ScanInfo info)
+        {
+            final DiscoveryEntry entry = new DiscoveryEntry(layer, rssi, record);
+            entry.rssiCount = info.m_rssiCount;
+            entry.rssiMin = info.m_rssiMin;
+            entry.rssiMax = info.m_rssiMax;
+            entry.rssiSmoothed = info.m_rssiSmoothed;
+            return entry;
+        }
     }
 
     // Class used to temporarily hold scan information when devices first get discovered via a scan. A lot can come in at one time, or very quickly, so we preserve the info
-    // and process in the update loop.
+    // and process in the update loop. Only the newest advertisement for a device is kept, along with a copy of the device's RSSI stats as of
+    // that advertisement, since the stats themselves keep changing while this waits for the update thread.
     private final static class ScanInfo
     {
-        private final P_DeviceHolder m_device;
-        private final int m_rssi;
-        private final byte[] m_record;
+        private P_DeviceHolder m_device;
+        private int m_rssi;
+        private byte[] m_record;
+
+        private int m_rssiCount;
+        private int m_rssiMin;
+        private int m_rssiMax;
+        private double m_rssiSmoothed;
+
+        ScanInfo(P_DeviceHolder device, int rssi, byte[] record, RssiStats stats)
+        {
+            update(device, rssi, record, stats);
+        }
 
-        ScanInfo(P_DeviceHolder device, int rssi, byte[] record)
+        void update(P_DeviceHolder device, int rssi, byte[] record, RssiStats stats)
         {
             m_device = device;
             m_rssi = rssi;
             m_record = record;
+
+            m_rssiCount = stats.m_count;
+            m_rssiMin = stats.m_min;
+            m_rssiMax = stats.m_max;
+            m_rssiSmoothed = stats.m_smoothed;
         }
+    }
 
-        @Override
-        public int hashCode()
+    // Running stats of every RSSI reading from a device, since it was first seen (or last undiscovered).
+    private final static class RssiStats
+    {
+        private int m_count;
+        private int m_min;
+        private int m_max;
+        private double m_smoothed;
+
+        void add(int rssi)
         {
-            if (m_device != null)
+            if (m_count == 0)
             {
-                return m_device.getAddress().hashCode();
+                m_min = m_max = rssi;
+                m_smoothed = rssi;
             }
-            return super.hashCode();
-        }
-
-        @Override
-        public boolean equals(Object obj)
-        {
-            if (obj == null)
-                return false;
-            if (obj instanceof ScanInfo)
+            else
             {
-                ScanInfo other = (ScanInfo) obj;
-                if ((m_device == null && other.m_device != null) || (m_device != null && other.m_device == null))
-                    return false;
-                return m_device != null && m_device.getAddress().equals(other.m_device.getAddress());
+                m_min = Math.min(m_min, rssi);
+                m_max = Math.max(m_max, rssi);
+                m_smoothed += RSSI_EWMA_WEIGHT * (rssi - m_smoothed);
             }
-            return false;
+
+            m_count++;
         }
     }
 
@@ -100,7 +100,7 @@ final class P_ServerServiceManager extends PA_ServiceManager
 			}
 		}
 
-		final PA_Task current = queue.getCurrent();
+		final PA_Task current = queue.getCurrent(PA_Task.class, m_server);
 
 		if( current != null )
 		{
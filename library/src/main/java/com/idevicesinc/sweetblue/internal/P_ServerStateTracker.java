@@ -98,7 +98,7 @@ final class P_ServerStateTracker
 		final P_TaskManager queue = m_server.getIManager().getTaskManager();
 		final List<PA_Task> queue_raw = queue.getRaw();
 		final int bitForUnknownState = BleServerState.DISCONNECTED.bit();
-		final PA_Task current = queue.getCurrent();
+		final PA_Task current = queue.getCurrent(PA_Task.class, m_server);
 
 		if( m_server.getNativeManager().isConnectingOrConnected(macAddress) )
 		{
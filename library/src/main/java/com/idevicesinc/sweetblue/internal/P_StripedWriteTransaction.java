@@ -18,86 +18,51 @@
 package com.idevicesinc.sweetblue.internal;
 
 
-import com.idevicesinc.sweetblue.BleDevice;
 import com.idevicesinc.sweetblue.BleTransaction;
 import com.idevicesinc.sweetblue.BleWrite;
 import com.idevicesinc.sweetblue.P_Bridge_User;
 import com.idevicesinc.sweetblue.ReadWriteListener;
-import com.idevicesinc.sweetblue.utils.FutureData;
-import com.idevicesinc.sweetblue.utils.PresentData;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
 
 
 final class P_StripedWriteTransaction extends BleTransaction
 {
 
     private final boolean m_requiresBonding;
-    private final ReadWriteListener.Type m_writeType;
-    private final List<P_Task_Write> m_writeList;
-    private final WriteListener m_internalListener;
-    private BleWrite m_write;
+    private final BleWrite m_write;
 
 
 
-    P_StripedWriteTransaction(BleWrite write, boolean requiresBonding, ReadWriteListener.Type writeType)
+    P_StripedWriteTransaction(BleWrite write, boolean requiresBonding)
     {
         m_write = write;
         m_requiresBonding = requiresBonding;
-        m_writeType = writeType;
-        m_writeList = new ArrayList<>();
-        m_internalListener = new WriteListener();
     }
 
 
     @Override protected final void start()
     {
-        final byte[] allData = m_write.getData().getData();
-        int curIndex = 0;
-        FutureData curData;
         final IBleDevice idevice = P_Bridge_User.getIBleDevice(getDevice());
-        while (curIndex < allData.length)
-        {
-            int end = Math.min(allData.length, curIndex + getDevice().getEffectiveWriteMtuSize());
-            curData = new PresentData(Arrays.copyOfRange(allData, curIndex, end));
-            final BleWrite write = P_Bridge_User.createDuplicate(m_write)
-                    .setReadWriteListener(m_internalListener)
-                    .setData(curData);
-            final P_Task_Write task = new P_Task_Write(idevice, write, m_requiresBonding, P_Bridge_User.getIBleTransaction(this), idevice.getOverrideReadWritePriority());
-            m_writeList.add(task);
-
-            curIndex = end;
-        }
-        idevice.getIManager().getTaskManager().add(m_writeList.remove(0));
+        final P_StripedWriter writer = new P_StripedWriter(idevice, m_write, m_requiresBonding, P_Bridge_User.getIBleTransaction(this), new WriterListener());
+        writer.start();
     }
 
-    private final class WriteListener implements ReadWriteListener
+    private final class WriterListener implements P_StripedWriter.Listener
     {
 
-        @Override public final void onEvent(ReadWriteListener.ReadWriteEvent e)
+        @Override public final void onProgress(int bytesWritten, int totalBytes)
+        {
+        }
+
+        @Override public final void onDone(ReadWriteListener.ReadWriteEvent e)
         {
             if (e.wasSuccess())
-            {
-                if (m_writeList.size() > 0)
-                {
-                    P_Bridge_User.getIBleDevice(getDevice()).getIManager().getTaskManager().add(m_writeList.remove(0));
-                }
-                else
-                {
-                    succeed();
-                    final ReadWriteListener listener = m_write.getReadWriteListener();
-                    if (listener != null)
-                        listener.onEvent(e);
-                }
-            }
+                succeed();
             else
-            {
                 fail();
-                final ReadWriteListener listener = m_write.getReadWriteListener();
-                if (listener != null)
-                    listener.onEvent(e);
-            }
+
+            final ReadWriteListener listener = m_write.getReadWriteListener();
+            if (listener != null)
+                listener.onEvent(e);
         }
     }
 }
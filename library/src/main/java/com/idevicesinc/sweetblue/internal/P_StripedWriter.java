@@ -0,0 +1,211 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.BleNodeConfig;
+import com.idevicesinc.sweetblue.BleWrite;
+import com.idevicesinc.sweetblue.P_Bridge_User;
+import com.idevicesinc.sweetblue.ReadWriteListener;
+import com.idevicesinc.sweetblue.utils.FutureData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Splits a {@link BleWrite} that's larger than the MTU into chunks, and drives them through the task queue. Up to
+ * {@link BleNodeConfig#stripedWriteWindow} chunks are kept queued at once, so the next chunk is already waiting when the one before it
+ * goes out, rather than only being queued once the one before it has succeeded. For {@link ReadWriteListener.Type#WRITE_NO_RESPONSE}
+ * writes, every {@link BleNodeConfig#stripedWriteAckInterval}th chunk is sent as an acknowledged write, and nothing past it is queued
+ * until it comes back.
+ */
+final class P_StripedWriter
+{
+
+    interface Listener
+    {
+        void onProgress(int bytesWritten, int totalBytes);
+
+        /**
+         * Called once, with the event of the last chunk if everything went through, or the event of the first chunk that failed.
+         */
+        void onDone(ReadWriteListener.ReadWriteEvent e);
+    }
+
+
+    private final IBleDevice m_device;
+    private final BleWrite m_write;
+    private final boolean m_requiresBonding;
+    private final IBleTransaction m_txn_nullable;
+    private final Listener m_listener;
+
+    // Chunk tasks which have been added to the queue, and haven't come back yet, oldest first
+    private final List<P_Task_Write> m_inFlight = new ArrayList<>();
+
+    private byte[] m_allData;
+    private int m_chunkSize;
+    private int m_window;
+    private int m_ackInterval;
+
+    private int m_nextOffset = 0;
+    private int m_nextChunk = 0;
+    private int m_bytesWritten = 0;
+
+    // Acknowledged chunk that has to come back before anything after it is queued
+    private P_Task_Write m_checkpoint = null;
+
+    private boolean m_isDone = false;
+
+
+    P_StripedWriter(IBleDevice device, BleWrite write, boolean requiresBonding, IBleTransaction txn_nullable, Listener listener)
+    {
+        m_device = device;
+        m_write = write;
+        m_requiresBonding = requiresBonding;
+        m_txn_nullable = txn_nullable;
+        m_listener = listener;
+    }
+
+
+    final void start()
+    {
+        final BleNodeConfig config = m_device.conf_device();
+
+        m_allData = m_write.getData().getData();
+        m_chunkSize = Math.max(1, m_device.getEffectiveWriteMtuSize());
+        m_window = Math.max(1, config.stripedWriteWindow);
+        m_ackInterval = m_write.getWriteType() == ReadWriteListener.Type.WRITE_NO_RESPONSE ? Math.max(0, config.stripedWriteAckInterval) : 0;
+
+        fillWindow();
+    }
+
+    private void fillWindow()
+    {
+        while (!m_isDone && m_checkpoint == null && m_inFlight.size() < m_window && m_nextOffset < m_allData.length)
+        {
+            final int end = Math.min(m_allData.length, m_nextOffset + m_chunkSize);
+            final boolean isCheckpoint = m_ackInterval > 0 && (m_nextChunk + 1) % m_ackInterval == 0 && end < m_allData.length;
+
+            final ChunkListener listener = new ChunkListener();
+            final BleWrite write = P_Bridge_User.createDuplicate(m_write)
+                    .setReadWriteListener(listener)
+                    .setData(new ChunkData(m_allData, m_nextOffset, end));
+
+            if (isCheckpoint)
+                write.setWriteType(ReadWriteListener.Type.WRITE);
+
+            final P_Task_Write task = new P_Task_Write(m_device, write, m_requiresBonding, m_txn_nullable, m_device.getOverrideReadWritePriority());
+            listener.m_task = task;
+            m_inFlight.add(task);
+
+            if (isCheckpoint)
+                m_checkpoint = task;
+
+            m_nextOffset = end;
+            m_nextChunk++;
+
+            m_device.getIManager().getTaskManager().add(task);
+        }
+    }
+
+    private void onChunkDone(P_Task_Write task, ReadWriteListener.ReadWriteEvent e)
+    {
+        if (m_isDone)
+            return;
+
+        // Chunks normally come back in the order they were queued, but nothing guarantees it (another lane, or a retry, can get
+        // in between), so only ever take off the chunk this event is actually for.
+        if (!m_inFlight.remove(task))
+            return;
+
+        if (!e.wasSuccess())
+        {
+            m_isDone = true;
+
+            // Don't let any later chunks go out after a gap in the data
+            final P_TaskManager taskManager = m_device.getIManager().getTaskManager();
+            for (int i = 0; i < m_inFlight.size(); i++)
+            {
+                taskManager.clearQueueOf(m_inFlight.get(i));
+            }
+            m_inFlight.clear();
+
+            m_listener.onDone(e);
+
+            return;
+        }
+
+        m_bytesWritten += task.m_bleOp.getData().getData().length;
+
+        if (task == m_checkpoint)
+            m_checkpoint = null;
+
+        m_listener.onProgress(m_bytesWritten, m_allData.length);
+
+        if (m_bytesWritten >= m_allData.length)
+        {
+            m_isDone = true;
+
+            m_listener.onDone(e);
+        }
+        else
+        {
+            fillWindow();
+        }
+    }
+
+    private final class ChunkListener implements ReadWriteListener
+    {
+        // Set right after the task is created, before it's added to the queue.
+        private P_Task_Write m_task;
+
+        @Override public final void onEvent(ReadWriteListener.ReadWriteEvent e)
+        {
+            onChunkDone(m_task, e);
+        }
+    }
+
+    /**
+     * Chunk of the source data. The bytes are only copied out when the write actually goes out, so a large write only ever has
+     * a window's worth of chunks copied at once, rather than the whole payload copied up front.
+     */
+    private static final class ChunkData implements FutureData
+    {
+        private final byte[] m_source;
+        private final int m_from;
+        private final int m_to;
+
+        private byte[] m_data = null;
+
+        ChunkData(byte[] source, int from, int to)
+        {
+            m_source = source;
+            m_from = from;
+            m_to = to;
+        }
+
+        @Override public final byte[] getData()
+        {
+            if (m_data == null)
+                m_data = Arrays.copyOfRange(m_source, m_from, m_to);
+
+            return m_data;
+        }
+    }
+}
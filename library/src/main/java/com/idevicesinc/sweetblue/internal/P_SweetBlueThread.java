@@ -42,13 +42,8 @@ final class P_SweetBlueThread extends ThreadHandler
         {
             while (m_running.get())
             {
-                loop();
-
-                // Sleep for a short period, so we don't hog the cpu
-                try
-                {
-                    Thread.sleep(1);
-                } catch (InterruptedException e) {}
+                // Sleeps until something is due to run, so we don't hog the cpu
+                loopBlocking();
             }
         }
     }
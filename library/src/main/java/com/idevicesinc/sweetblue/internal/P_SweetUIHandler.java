@@ -34,7 +34,7 @@ final class P_SweetUIHandler implements P_SweetHandler
     public P_SweetUIHandler(IBleManager mgr)
     {
         boolean unitTest = true;
-        if (P_Bridge_User.isUnitTest(mgr.getConfigClone()) == null)
+        if (P_Bridge_User.isUnitTest(mgr.conf_mngr()) == null)
         {
             try
             {
@@ -45,7 +45,7 @@ final class P_SweetUIHandler implements P_SweetHandler
             }
         }
         else
-            unitTest = P_Bridge_User.isUnitTest(mgr.getConfigClone());
+            unitTest = P_Bridge_User.isUnitTest(mgr.conf_mngr());
 
         if (unitTest)
         {
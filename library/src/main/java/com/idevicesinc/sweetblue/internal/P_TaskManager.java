@@ -17,22 +17,34 @@
 
 package com.idevicesinc.sweetblue.internal;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
+import com.idevicesinc.sweetblue.BleManagerConfig;
 import com.idevicesinc.sweetblue.utils.Interval;
 
 
 final class P_TaskManager
 {
-    private final P_TaskQueue m_queue;
+    // Every task runs through this lane unless BleManagerConfig.useDeviceTaskQueues is enabled. When it is, this lane only holds
+    // manager-wide tasks (scanning, turning BLE on/off, resets, etc).
+    private final Lane m_globalLane;
+    // Lanes for individual devices and servers. The list mirrors the map, and is used to round-robin through the lanes when
+    // dequeueing, so that one busy device can't starve the rest.
+    private final HashMap<Object, Lane> m_nodeLanes = new HashMap<>();
+    private final ArrayList<Lane> m_nodeLaneList = new ArrayList<>();
+    private int m_nextNodeLane = 0;
     private final Object m_lock = new Object();
-    private final AtomicReference<PA_Task> m_current;
     private long m_updateCount;
     private final P_Logger m_logger;
     private final IBleManager m_mngr;
     private double m_time = 0.0;
-    private double m_timeSinceEnding = 0.0;
     private boolean m_suspended = false;
+    private boolean m_useNodeLanes = false;
+    private int m_maxConcurrentNodeTasks = BleManagerConfig.DEFAULT_MAX_CONCURRENT_DEVICE_TASKS;
+    private final P_ConnectAdmission m_connectAdmission = new P_ConnectAdmission();
 
     // This counter tracks how many levels deep we are into a recursive loop, which lets us avoid stack overflows
     private int m_recursionCounter = 0;
@@ -41,14 +53,42 @@ final class P_TaskManager
 
     private int m_currentOrdinal;
 
+
+    /**
+     * A queue of tasks, along with its own in-flight slot. The owner is the {@link IBleDevice} or {@link IBleServer} the lane
+     * belongs to, or <code>null</code> for the global lane.
+     */
+    private static final class Lane
+    {
+        private final Object m_owner;
+        private final P_TaskQueue m_queue;
+        private final AtomicReference<PA_Task> m_current = new AtomicReference<>(null);
+        private double m_timeSinceEnding = 0.0;
+
+        private Lane(Object owner, P_TaskQueue queue)
+        {
+            m_owner = owner;
+            m_queue = queue;
+        }
+
+        private PA_Task getCurrent()
+        {
+            return m_current.get();
+        }
+
+        private boolean isGlobal()
+        {
+            return m_owner == null;
+        }
+    }
+
+
     P_TaskManager(IBleManager mngr)
     {
         m_mngr = mngr;
         m_logger = mngr.getLogger();
 
-        m_current = new AtomicReference<>(null);
-
-        m_queue = new P_TaskQueue(mngr);
+        m_globalLane = new Lane(null, new P_TaskQueue(mngr));
     }
 
     final IBleManager getManager()
@@ -56,6 +96,27 @@ final class P_TaskManager
         return m_mngr;
     }
 
+    final void onConfigChanged(BleManagerConfig config)
+    {
+        synchronized (m_lock)
+        {
+            m_useNodeLanes = config.useDeviceTaskQueues;
+            m_maxConcurrentNodeTasks = Math.max(1, config.maxConcurrentDeviceTasks);
+            m_connectAdmission.onConfigChanged(config);
+        }
+    }
+
+    /**
+     * Called when a device's connection fails, so the number of connects allowed at once can back off if the stack is struggling.
+     */
+    final void onConnectionFailed(int gattStatus)
+    {
+        synchronized (m_lock)
+        {
+            m_connectAdmission.onConnectFailed(gattStatus);
+        }
+    }
+
     //TODO:  Re-examine this and see if it's needed or not
     final int assignOrdinal()
     {
@@ -77,31 +138,40 @@ final class P_TaskManager
         m_logger.i("Setting TaskManager suspended flag to " + suspended);
     }
 
+    final boolean isSuspended()
+    {
+        return m_suspended;
+    }
+
     final int getCurrentOrdinal()
     {
         return m_currentOrdinal;
     }
 
+    /**
+     * Returns the next task in the global queue. When device task queues are enabled, this only ever returns manager-wide tasks.
+     */
     public final PA_Task peek()
     {
         synchronized (m_lock)
         {
-            return m_queue.peek();
+            return m_globalLane.m_queue.peek();
         }
     }
 
-    private boolean tryCancellingCurrentTask(PA_Task newTask)
+    private boolean tryCancellingCurrentTask(Lane lane, PA_Task newTask)
     {
         synchronized (m_lock)
         {
             // See if we can abort the current task
-            if (getCurrent() != null && getCurrent().isCancellableBy(newTask))
+            final PA_Task current = lane.getCurrent();
+            if (current != null && current.isCancellableBy(newTask))
             {
                 // If so, cancel the current...
-                endCurrentTask(PE_TaskState.CANCELLED, true);
+                endCurrentTask(lane, PE_TaskState.CANCELLED, true);
 
                 // And insert the new task at the front of the queue so it will be dequeued next
-                addToFront(newTask);
+                addToFront(lane, newTask);
 
                 return true;
             }
@@ -110,22 +180,20 @@ final class P_TaskManager
         return false;
     }
 
-    private boolean tryInterruptingCurrentTask(PA_Task newTask)
+    private boolean tryInterruptingCurrentTask(Lane lane, PA_Task newTask)
     {
         synchronized (m_lock)
         {
             // See if we can interrupt the current task
-            if (getCurrent() != null && getCurrent().isInterruptableBy(newTask))
+            final PA_Task current = lane.getCurrent();
+            if (current != null && current.isInterruptableBy(newTask))
             {
-                // Cache the current task, since we will need to reschedule it
-                PA_Task current_saved = getCurrent();
-
                 // Interrupt the current task
-                endCurrentTask(PE_TaskState.INTERRUPTED, true);
+                endCurrentTask(lane, PE_TaskState.INTERRUPTED, true);
 
                 // Shove both the current and new task into the queue so the new task will run, followed by the current
-                addToFront(current_saved);
-                addToFront(newTask);
+                addToFront(lane, current);
+                addToFront(lane, newTask);
 
                 return true;
             }
@@ -134,12 +202,36 @@ final class P_TaskManager
         return false;
     }
 
+    // When device task queues are enabled, manager-wide tasks (turning BLE off, resets, etc) get the same chance to cancel whatever
+    // is running in the device lanes that they would have if everything went through the one queue.
+    private void tryCancellingNodeTasks(PA_Task newTask)
+    {
+        for (int i = 0; i < m_nodeLaneList.size(); i++)
+        {
+            final Lane lane = m_nodeLaneList.get(i);
+            final PA_Task current = lane.getCurrent();
+
+            if (current != null && current.isCancellableBy(newTask))
+                endCurrentTask(lane, PE_TaskState.CANCELLED, true);
+        }
+    }
+
     public final void softlyCancelTasks(final PA_Task task)
     {
         synchronized (m_lock)
         {
-            // Softly cancel anything in the queue that is softly cancelable by the given task
-            m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
+            softlyCancelTasks(findLane(task), task);
+        }
+    }
+
+    private void softlyCancelTasks(final Lane lane, final PA_Task task)
+    {
+        // Tasks are only ever softly cancelled by tasks for the same device or server, so only the lane the given task
+        // belongs to needs to be checked, and only that device or server's tasks within it. Most tasks can't softly
+        // cancel anything, in which case the queue isn't looked at at all.
+        if (task.canSoftlyCancelOthers())
+        {
+            lane.m_queue.forEachTask(PA_Task.class, task.getDevice(), task.getServer(), new P_TaskQueue.ForEachTaskHandler()
             {
                 @Override
                 public ProcessResult process(PA_Task d)
@@ -150,32 +242,23 @@ final class P_TaskManager
                     return ProcessResult.Continue;
                 }
             });
-
-            PA_Task current = getCurrent();
-            if (current != null && current.isSoftlyCancellableBy(task))
-                current.attemptToSoftlyCancel(task);
         }
-    }
 
-    private void addToFront(PA_Task task)
-    {
-        synchronized (m_lock)
-        {
-            m_queue.pushFront(task);
-            onTaskAddedToQueue(task);
-        }
+        PA_Task current = lane.getCurrent();
+        if (current != null && current.isSoftlyCancellableBy(task))
+            current.attemptToSoftlyCancel(task);
     }
 
-    private void addToBack(PA_Task task)
+    private void addToFront(Lane lane, PA_Task task)
     {
         synchronized (m_lock)
         {
-            m_queue.pushBack(task);
-            onTaskAddedToQueue(task);
+            lane.m_queue.pushFront(task);
+            onTaskAddedToQueue(lane, task);
         }
     }
 
-    private void onTaskAddedToQueue(PA_Task task)
+    private void onTaskAddedToQueue(Lane lane, PA_Task task)
     {
         synchronized (m_lock)
         {
@@ -183,7 +266,7 @@ final class P_TaskManager
 
             task.onAddedToQueue(this);
 
-            softlyCancelTasks(task);
+            softlyCancelTasks(lane, task);
 
             print();
         }
@@ -214,20 +297,26 @@ final class P_TaskManager
             // Check the idle status to ensure the new task gets executed as soon as possible (rather than
             // waiting until the idle interval's next tick)
             m_mngr.checkIdleStatus();
-            if (tryCancellingCurrentTask(newTask))
+
+            final Lane lane = getOrCreateLane(newTask);
+
+            if (lane.isGlobal() && !(newTask instanceof P_Task_Scan))
+                tryCancellingNodeTasks(newTask);
+
+            if (tryCancellingCurrentTask(lane, newTask))
             {
-                if (getCurrent() == null)
-                    dequeue();
+                if (lane.getCurrent() == null)
+                    dequeue(lane);
             }
-            else if (tryInterruptingCurrentTask(newTask))
+            else if (tryInterruptingCurrentTask(lane, newTask))
             {
                 // Why don't we dequeue here, if we do after cancel?
             }
             else
             {
                 // Toss the task into the queue at the 'best' location (earliest spot it can go)
-                m_queue.insertAtSoonestPosition(newTask);
-                onTaskAddedToQueue(newTask);
+                lane.m_queue.insertAtSoonestPosition(newTask);
+                onTaskAddedToQueue(lane, newTask);
                 // return here, to avoid calling print(), as the above method already calls it
                 return;
             }
@@ -242,7 +331,7 @@ final class P_TaskManager
 
     public final boolean update(double timeStep, long currentTime)
     {
-        boolean executingTask = false;
+        boolean executingTask;
 
         synchronized (m_lock)
         {
@@ -251,69 +340,198 @@ final class P_TaskManager
 
             m_time += timeStep;
 
-            if (getCurrent() == null)
+            executingTask = updateLane(m_globalLane, timeStep, currentTime);
+
+            if (!m_nodeLaneList.isEmpty())
             {
-                if (m_timeSinceEnding < 0)
-                    m_timeSinceEnding = 0;
-                else
-                    m_timeSinceEnding += timeStep;
+                // Start at a different lane each tick, so the concurrency limit gets shared out evenly between devices. Lanes are
+                // only ever appended to while updating, so indexing off the starting size is safe.
+                final int laneCount = m_nodeLaneList.size();
+                final int startIndex = m_nextNodeLane % laneCount;
+
+                for (int i = 0; i < laneCount; i++)
+                {
+                    if (updateLane(m_nodeLaneList.get((startIndex + i) % laneCount), timeStep, currentTime))
+                        executingTask = true;
+                }
+
+                m_nextNodeLane = startIndex + 1;
+
+                removeIdleNodeLanes();
             }
 
-            if (m_current.get() == null)
-                executingTask = dequeue();
+            m_updateCount++;
+        }
 
-            PA_Task current = getCurrent();
-            if (current != null)
-            {
-                current.update_internal(timeStep, currentTime);
-                executingTask = true;
+        return executingTask;
+    }
 
-                //HACK:  Look to see if a lock is running.  If it is, try to find a task that we can pull to the front of the queue and run
-                if (current instanceof P_Task_TxnLock)
-                {
-                    // Find another task that we can attempt to dequeue and execute now
-                    final IBleTransaction transaction = ((P_Task_TxnLock) current).getTxn();
-                    PA_Task transactionTask = m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
-                    {
-                        @Override
-                        public ProcessResult process(PA_Task d)
-                        {
-                            // If the task is armable, dequeue it and return
-                            if (!(d instanceof PA_Task_Transactionable))
-                                return ProcessResult.Continue;
+    private boolean updateLane(final Lane lane, double timeStep, long currentTime)
+    {
+        boolean executingTask = false;
 
-                            if (d.isArmable() && ((PA_Task_Transactionable) d).getTxn() == transaction)
-                                return ProcessResult.ReturnAndDequeue;
+        if (lane.getCurrent() == null)
+        {
+            if (lane.m_timeSinceEnding < 0)
+                lane.m_timeSinceEnding = 0;
+            else
+                lane.m_timeSinceEnding += timeStep;
 
-                            // Otherwise, keep walking the queue
-                            return ProcessResult.Continue;
-                        }
-                    }).getTask();
+            executingTask = dequeue(lane);
+        }
+
+        PA_Task current = lane.getCurrent();
+        if (current != null)
+        {
+            current.update_internal(timeStep, currentTime);
+            executingTask = true;
 
-                    if (transactionTask != null)
+            //HACK:  Look to see if a lock is running.  If it is, try to find a task that we can pull to the front of the queue and run
+            if (current instanceof P_Task_TxnLock)
+            {
+                // Find another task that we can attempt to dequeue and execute now
+                final IBleTransaction transaction = ((P_Task_TxnLock) current).getTxn();
+                PA_Task transactionTask = lane.m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
+                {
+                    @Override
+                    public ProcessResult process(PA_Task d)
                     {
-                        m_logger.i("Moving task " + transactionTask + " ahead in the queue since it's associated with the running transaction lock");
-                        addTask(transactionTask);
+                        // If the task is armable, dequeue it and return
+                        if (!(d instanceof PA_Task_Transactionable))
+                            return ProcessResult.Continue;
+
+                        if (d.isArmable() && ((PA_Task_Transactionable) d).getTxn() == transaction)
+                            return ProcessResult.ReturnAndDequeue;
+
+                        // Otherwise, keep walking the queue
+                        return ProcessResult.Continue;
                     }
+                }).getTask();
+
+                if (transactionTask != null)
+                {
+                    m_logger.i("Moving task " + transactionTask + " ahead in the queue since it's associated with the running transaction lock");
+                    addTask(transactionTask);
                 }
             }
-
-            m_updateCount++;
         }
 
         return executingTask;
     }
 
-    private boolean hasDelayTimePassed()
+    private void removeIdleNodeLanes()
     {
-        Interval delayTime = m_mngr.getConfigClone().delayBetweenTasks;
+        for (int i = m_nodeLaneList.size() - 1; i >= 0; i--)
+        {
+            final Lane lane = m_nodeLaneList.get(i);
+
+            if (lane.getCurrent() == null && lane.m_queue.size() == 0)
+            {
+                m_nodeLaneList.remove(i);
+                m_nodeLanes.remove(lane.m_owner);
+            }
+        }
+    }
+
+    private boolean hasDelayTimePassed(Lane lane)
+    {
+        Interval delayTime = m_mngr.conf_mngr().delayBetweenTasks;
         if (Interval.isDisabled(delayTime))
             return true;
 
-        return m_timeSinceEnding >= delayTime.secs();
+        return lane.m_timeSinceEnding >= delayTime.secs();
+    }
+
+    private int getBusyNodeLaneCount()
+    {
+        int count = 0;
+        for (int i = 0; i < m_nodeLaneList.size(); i++)
+        {
+            if (m_nodeLaneList.get(i).getCurrent() != null)
+                count++;
+        }
+        return count;
+    }
+
+    private int getAdmittedNodeLaneCount()
+    {
+        int count = 0;
+        for (int i = 0; i < m_nodeLaneList.size(); i++)
+        {
+            final PA_Task current = m_nodeLaneList.get(i).getCurrent();
+            if (current != null && current.requiresConnectAdmission())
+                count++;
+        }
+        return count;
     }
 
-    private boolean dequeue()
+    private static PA_Task peekArmable(Lane lane)
+    {
+        return lane.m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
+        {
+            @Override
+            public ProcessResult process(PA_Task task)
+            {
+                if (task.isArmable())
+                    return ProcessResult.Return;
+                return ProcessResult.Continue;
+            }
+        }).getTask();
+    }
+
+    /**
+     * Returns <code>false</code> if the next task in the given device lane is a connect or service discovery that has to keep waiting,
+     * either because the admission limit has been reached, or because enough higher ranked devices are waiting to take the free slots.
+     */
+    private boolean isAdmitted(Lane lane)
+    {
+        final PA_Task next = peekArmable(lane);
+
+        if (next == null || !next.requiresConnectAdmission() || next.getDevice() == null)
+            return true;
+
+        final int freeSlots = m_connectAdmission.getLimit() - getAdmittedNodeLaneCount();
+
+        if (freeSlots <= 0)
+            return false;
+
+        int outrankedBy = 0;
+
+        for (int i = 0; i < m_nodeLaneList.size(); i++)
+        {
+            final Lane other = m_nodeLaneList.get(i);
+
+            if (other == lane || other.getCurrent() != null || !hasDelayTimePassed(other))
+                continue;
+
+            final PA_Task otherNext = peekArmable(other);
+
+            if (otherNext == null || !otherNext.requiresConnectAdmission() || otherNext.getDevice() == null)
+                continue;
+
+            if (P_ConnectAdmission.outranks(otherNext.getDevice(), next.getDevice()) && ++outrankedBy >= freeSlots)
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if a manager-wide task (other than a scan) is running, or is next in line to run. Device lanes hold off
+     * on dequeueing while this is the case, so manager-wide tasks still serialize against everything else.
+     */
+    private boolean isManagerTaskPending()
+    {
+        final PA_Task current = m_globalLane.getCurrent();
+        if (current != null && !(current instanceof P_Task_Scan))
+            return true;
+
+        final PA_Task next = peekArmable(m_globalLane);
+
+        return next != null && !(next instanceof P_Task_Scan);
+    }
+
+    private boolean dequeue(final Lane lane)
     {
         if (!m_mngr.getPostManager().isOnSweetBlueThread())
             return false;
@@ -325,32 +543,53 @@ final class P_TaskManager
                 return false;
 
             // This is only legal if there is no current task
-            if (!m_mngr.ASSERT(m_current.get() == null, ""))
+            if (!m_mngr.ASSERT(lane.getCurrent() == null, ""))
                 return false;
 
             // Make sure we obey the delay timer
-            if (!hasDelayTimePassed())
+            if (!hasDelayTimePassed(lane))
+                return false;
+
+            // Device lanes have to wait for manager-wide tasks, and respect the limit on how many can be in flight at once
+            if (!lane.isGlobal() && (isManagerTaskPending() || getBusyNodeLaneCount() >= m_maxConcurrentNodeTasks))
+                return false;
+
+            // Connects and service discoveries also have to get past admission control, which lets the highest ranked devices through first
+            if (!lane.isGlobal() && !isAdmitted(lane))
                 return false;
 
+            // Conversely, manager-wide tasks wait for any in-flight device tasks to finish. Scans are the exception, as they can
+            // safely run alongside device operations.
+            final boolean nodeTasksRunning = lane.isGlobal() && getBusyNodeLaneCount() > 0;
+
             // Locate the next armable task, if any, in the queue
-            PA_Task nextTask = m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
+            PA_Task nextTask = lane.m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
             {
                 @Override
                 public ProcessResult process(PA_Task d)
                 {
                     // If the task is armable, dequeue it and return
                     if (d.isArmable())
+                    {
+                        if (nodeTasksRunning && !(d instanceof P_Task_Scan))
+                            return ProcessResult.Return;
+
                         return ProcessResult.ReturnAndDequeue;
+                    }
 
                     // Otherwise, keep walking the queue
                     return ProcessResult.Continue;
                 }
             }).getTask();
 
+            // The next task has to wait, so it was left in the queue
+            if (nodeTasksRunning && nextTask != null && !(nextTask instanceof P_Task_Scan))
+                return false;
+
             // If we found a next task, run it.  It will already have been removed from the queue
             if (nextTask != null)
             {
-                m_current.set(nextTask);
+                lane.m_current.set(nextTask);
                 nextTask.arm();
                 if (!nextTask.tryExecuting())
                 {
@@ -368,17 +607,21 @@ final class P_TaskManager
         return m_updateCount;
     }
 
+    /**
+     * Returns the task currently running in the global queue. When device task queues are enabled, use one of the
+     * <code>getCurrent()</code> overloads which take a device or server to get the task running for that node.
+     */
     public final PA_Task getCurrent()
     {
-        return m_current.get();
+        return m_globalLane.getCurrent();
     }
 
-    private boolean endCurrentTask(PE_TaskState endingState)
+    private boolean endCurrentTask(Lane lane, PE_TaskState endingState)
     {
-        return endCurrentTask(endingState, false);
+        return endCurrentTask(lane, endingState, false);
     }
 
-    private boolean endCurrentTask(PE_TaskState endingState, boolean dontDequeue)
+    private boolean endCurrentTask(Lane lane, PE_TaskState endingState, boolean dontDequeue)
     {
         synchronized (m_lock)
         {
@@ -386,19 +629,22 @@ final class P_TaskManager
             if (!m_mngr.ASSERT(endingState.isEndingState(), ""))
                 return false;
 
-            PA_Task current_saved = m_current.get();
+            PA_Task current_saved = lane.getCurrent();
 
             if (current_saved == null)
                 return false;
 
-            m_current.set(null);
-            m_timeSinceEnding = -1.0 / 1000;
+            lane.m_current.set(null);
+            lane.m_timeSinceEnding = -1.0 / 1000;
             current_saved.setEndingState(endingState);
 
+            if (!lane.isGlobal() && endingState == PE_TaskState.SUCCEEDED && current_saved.requiresConnectAdmission())
+                m_connectAdmission.onAdmittedTaskSucceeded();
+
             boolean printed = false;
 
-            if (!dontDequeue && m_queue.size() > 0 && m_recursionCounter++ < kRecursionLimit)
-                printed = dequeue();
+            if (!dontDequeue && lane.m_queue.size() > 0 && m_recursionCounter++ < kRecursionLimit)
+                printed = dequeue(lane);
 
             --m_recursionCounter;
 
@@ -409,6 +655,104 @@ final class P_TaskManager
         }
     }
 
+    private Lane getOrCreateLane(PA_Task task)
+    {
+        final Object owner = getLaneOwner(task);
+
+        if (!m_useNodeLanes || owner == null)
+            return m_globalLane;
+
+        Lane lane = m_nodeLanes.get(owner);
+
+        if (lane == null)
+        {
+            lane = new Lane(owner, new P_TaskQueue(m_mngr));
+            m_nodeLanes.put(owner, lane);
+            m_nodeLaneList.add(lane);
+        }
+
+        return lane;
+    }
+
+    private Lane findLane(PA_Task task)
+    {
+        final Lane lane = getNodeLane(task.getDevice(), task.getServer());
+
+        return lane != null ? lane : m_globalLane;
+    }
+
+    private Lane getNodeLane(IBleDevice device_nullable, IBleServer server_nullable)
+    {
+        if (m_nodeLanes.isEmpty())
+            return null;
+
+        final Object owner = device_nullable != null ? device_nullable : server_nullable;
+
+        return owner != null ? m_nodeLanes.get(owner) : null;
+    }
+
+    private List<Lane> getNodeLanesFor(IBleDevice device_nullable, IBleServer server_nullable)
+    {
+        final Lane lane = getNodeLane(device_nullable, server_nullable);
+
+        // If there's no lane keyed to this node, fall back to checking all of them. The task may belong to a different
+        // instance which is equal to the given one, or we're looking for tasks across every node.
+        return lane != null ? Collections.singletonList(lane) : m_nodeLaneList;
+    }
+
+    private static Object getLaneOwner(PA_Task task)
+    {
+        if (task.getDevice() != null)
+            return task.getDevice();
+
+        return task.getServer();
+    }
+
+    private PA_Task findCurrent(Class<? extends PA_Task> taskClass, IBleManager mngr_nullable, IBleDevice device_nullable, IBleServer server_nullable)
+    {
+        final PA_Task current = m_globalLane.getCurrent();
+        if (doesTaskMatch(current, taskClass, mngr_nullable, device_nullable, server_nullable))
+            return current;
+
+        final List<Lane> lanes = getNodeLanesFor(device_nullable, server_nullable);
+        for (int i = 0; i < lanes.size(); i++)
+        {
+            final PA_Task ith = lanes.get(i).getCurrent();
+            if (doesTaskMatch(ith, taskClass, mngr_nullable, device_nullable, server_nullable))
+                return ith;
+        }
+
+        return null;
+    }
+
+    private P_TaskQueue.HandlerResult findInQueue(final Class<? extends PA_Task> taskClass, final IBleManager mngr_nullable, final IBleDevice device_nullable, final IBleServer server_nullable)
+    {
+        final P_TaskQueue.ForEachTaskHandler handler = new P_TaskQueue.ForEachTaskHandler()
+        {
+            @Override
+            public ProcessResult process(PA_Task task)
+            {
+                if (doesTaskMatch(task, taskClass, mngr_nullable, device_nullable, server_nullable))
+                    return ProcessResult.Return;
+                return ProcessResult.Continue;
+            }
+        };
+
+        P_TaskQueue.HandlerResult result = m_globalLane.m_queue.forEachTask(taskClass, device_nullable, server_nullable, handler);
+        if (result.getTask() != null)
+            return result;
+
+        final List<Lane> lanes = getNodeLanesFor(device_nullable, server_nullable);
+        for (int i = 0; i < lanes.size(); i++)
+        {
+            result = lanes.get(i).m_queue.forEachTask(taskClass, device_nullable, server_nullable, handler);
+            if (result.getTask() != null)
+                return result;
+        }
+
+        return result;
+    }
+
     public final void interrupt(Class<? extends PA_Task> taskClass, IBleManager manager)
     {
         synchronized (m_lock)
@@ -434,9 +778,9 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            PA_Task current = getCurrent();
+            PA_Task current = getCurrent(PA_Task.class, device);
 
-            if (current != null && current.getDevice() != null && current.getDevice().equals(device))
+            if (current != null)
             {
                 tryEndingTask(current, PE_TaskState.INTERRUPTED);
 
@@ -499,8 +843,10 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            if (doesTaskMatch(getCurrent(), taskClass, mngr_nullable, device_nullable, server_nullable))
-                return endCurrentTask(endingState);
+            final PA_Task current = findCurrent(taskClass, mngr_nullable, device_nullable, server_nullable);
+
+            if (current != null)
+                return endCurrentTask(findLane(current), endingState);
         }
 
         return false;
@@ -510,9 +856,11 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            if (task != null && task == getCurrent())
+            if (task != null)
             {
-                if (!endCurrentTask(endingState))
+                final Lane lane = findLane(task);
+
+                if (task == lane.getCurrent() && !endCurrentTask(lane, endingState))
                 {
                     m_mngr.ASSERT(false, "Unable to end task " + task);
                 }
@@ -524,7 +872,7 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            return doesTaskMatch(getCurrent(), taskClass, mngr, null, null);
+            return findCurrent(taskClass, mngr, null, null) != null;
         }
     }
 
@@ -532,7 +880,7 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            return doesTaskMatch(getCurrent(), taskClass, null, device, null);
+            return findCurrent(taskClass, null, device, null) != null;
         }
     }
 
@@ -540,7 +888,7 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            return doesTaskMatch(getCurrent(), taskClass, null, null, server);
+            return findCurrent(taskClass, null, null, server) != null;
         }
     }
 
@@ -548,33 +896,19 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            return m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
-            {
-                @Override
-                public ProcessResult process(PA_Task task)
-                {
-                    if (doesTaskMatch(task, taskClass, mngr_nullable, device_nullable, server_nullable))
-                        return ProcessResult.Return;
-                    return ProcessResult.Continue;
-                }
-            }).getTask() != null;
+            return findInQueue(taskClass, mngr_nullable, device_nullable, server_nullable).getTask() != null;
         }
     }
 
+    /**
+     * Returns the position of the first matching task within the queue it's in. When device task queues are enabled, this is the
+     * position in that device's own queue.
+     */
     private int positionInQueue(final Class<? extends PA_Task> taskClass, final IBleManager mngr_nullable, final IBleDevice device_nullable, final IBleServer server_nullable)
     {
         synchronized (m_lock)
         {
-            return m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
-            {
-                @Override
-                public ProcessResult process(PA_Task task)
-                {
-                    if (doesTaskMatch(task, taskClass, mngr_nullable, device_nullable, server_nullable))
-                        return ProcessResult.Return;
-                    return ProcessResult.Continue;
-                }
-            }).getTaskPosition();
+            return findInQueue(taskClass, mngr_nullable, device_nullable, server_nullable).getTaskPosition();
         }
     }
 
@@ -582,14 +916,27 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            return m_queue.size();
+            int size = m_globalLane.m_queue.size();
+            for (int i = 0; i < m_nodeLaneList.size(); i++)
+            {
+                size += m_nodeLaneList.get(i).m_queue.size();
+            }
+            return size;
         }
     }
 
     //FIXME:  Replace this with a way to get a read only forEach iterator over the queue
     public final List<PA_Task> getRaw()
     {
-        return m_queue.getRaw();
+        synchronized (m_lock)
+        {
+            final List<PA_Task> raw = m_globalLane.m_queue.getRaw();
+            for (int i = 0; i < m_nodeLaneList.size(); i++)
+            {
+                raw.addAll(m_nodeLaneList.get(i).m_queue.getRaw());
+            }
+            return raw;
+        }
     }
 
     public final int positionInQueue(Class<? extends PA_Task> taskClass, IBleManager mngr)
@@ -638,21 +985,12 @@ final class P_TaskManager
         synchronized (m_lock)
         {
             // See if the current task matches
-            final PA_Task current = getCurrent();
-            if (doesTaskMatch(current, taskClass, mngr, null, null))
+            final PA_Task current = findCurrent(taskClass, mngr, null, null);
+            if (current != null)
                 return (T) current;
 
             // See if any task in queue matches
-            return (T)m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
-            {
-                @Override
-                public ProcessResult process(PA_Task task)
-                {
-                    if (doesTaskMatch(task, taskClass, mngr, null, null))
-                        return ProcessResult.Return;
-                    return ProcessResult.Continue;
-                }
-            }).getTask();
+            return (T) findInQueue(taskClass, mngr, null, null).getTask();
         }
     }
 
@@ -661,12 +999,8 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            final PA_Task current = getCurrent();
-            if (doesTaskMatch(current, taskClass, null, device, null))
-                return (T) current;
+            return (T) findCurrent(taskClass, null, device, null);
         }
-
-        return null;
     }
 
     @SuppressWarnings("unchecked")
@@ -674,12 +1008,8 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            final PA_Task current = getCurrent();
-            if (doesTaskMatch(current, taskClass, mngr, null, null))
-                return (T) current;
+            return (T) findCurrent(taskClass, mngr, null, null);
         }
-
-        return null;
     }
 
     @SuppressWarnings("unchecked")
@@ -687,12 +1017,8 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            final PA_Task current = getCurrent();
-            if (doesTaskMatch(current, taskClass, null, null, server))
-                return (T) current;
+            return (T) findCurrent(taskClass, null, null, server);
         }
-
-        return null;
     }
 
     final void print()
@@ -703,36 +1029,31 @@ final class P_TaskManager
 
     public final void clearQueueOf(final Class<? extends PA_Task> taskClass, final IBleManager mngr)
     {
-        synchronized (m_lock)
-        {
-            m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
-            {
-                @Override
-                public ProcessResult process(PA_Task task)
-                {
-                    if (doesTaskMatch(task, taskClass, mngr, null, null))
-                    {
-                        onTaskRemovedFromQueue(task);
-                        return ProcessResult.ContinueAndDequeue;
-                    }
-                    return ProcessResult.Continue;
-                }
-            });
-        }
+        clearQueueOf(taskClass, mngr, null, null, -1);
     }
 
     public final void clearQueueOf(final Class<? extends PA_Task> taskClass, final IBleDevice device, final int ordinal)
+    {
+        clearQueueOf(taskClass, null, device, null, ordinal);
+    }
+
+    public final void clearQueueOf(final Class<? extends PA_Task> taskClass, final IBleServer server)
+    {
+        clearQueueOf(taskClass, null, null, server, -1);
+    }
+
+    private void clearQueueOf(final Class<? extends PA_Task> taskClass, final IBleManager mngr_nullable, final IBleDevice device_nullable, final IBleServer server_nullable, final int ordinal)
     {
         synchronized (m_lock)
         {
-            m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
+            final P_TaskQueue.ForEachTaskHandler handler = new P_TaskQueue.ForEachTaskHandler()
             {
                 @Override
                 public ProcessResult process(PA_Task task)
                 {
                     if (ordinal <= -1 || ordinal >= 0 && task.getOrdinal() <= ordinal)
                     {
-                        if (doesTaskMatch(task, taskClass, null, device, null))
+                        if (doesTaskMatch(task, taskClass, mngr_nullable, device_nullable, server_nullable))
                         {
                             onTaskRemovedFromQueue(task);
                             return ProcessResult.ContinueAndDequeue;
@@ -740,27 +1061,40 @@ final class P_TaskManager
                     }
                     return ProcessResult.Continue;
                 }
-            });
+            };
+
+            m_globalLane.m_queue.forEachTask(taskClass, device_nullable, server_nullable, handler);
+
+            final List<Lane> lanes = getNodeLanesFor(device_nullable, server_nullable);
+            for (int i = 0; i < lanes.size(); i++)
+            {
+                lanes.get(i).m_queue.forEachTask(taskClass, device_nullable, server_nullable, handler);
+            }
         }
     }
 
-    public final void clearQueueOf(final Class<? extends PA_Task> taskClass, final IBleServer server)
+    /**
+     * Removes the given task from the queue, if it hasn't been dequeued yet.
+     */
+    final void clearQueueOf(final PA_Task task)
     {
         synchronized (m_lock)
         {
-            m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
+            final P_TaskQueue.ForEachTaskHandler handler = new P_TaskQueue.ForEachTaskHandler()
             {
                 @Override
-                public ProcessResult process(PA_Task task)
+                public ProcessResult process(PA_Task queuedTask)
                 {
-                    if (doesTaskMatch(task, taskClass, null, null, server))
+                    if (queuedTask == task)
                     {
-                        onTaskRemovedFromQueue(task);
-                        return ProcessResult.ContinueAndDequeue;
+                        onTaskRemovedFromQueue(queuedTask);
+                        return ProcessResult.ReturnAndDequeue;
                     }
                     return ProcessResult.Continue;
                 }
-            });
+            };
+
+            findLane(task).m_queue.forEachTask(task.getClass(), task.getDevice(), task.getServer(), handler);
         }
     }
 
@@ -768,7 +1102,7 @@ final class P_TaskManager
     {
         synchronized (m_lock)
         {
-            m_queue.forEachTask(new P_TaskQueue.ForEachTaskHandler()
+            final P_TaskQueue.ForEachTaskHandler handler = new P_TaskQueue.ForEachTaskHandler()
             {
                 @Override
                 public ProcessResult process(PA_Task task)
@@ -776,7 +1110,14 @@ final class P_TaskManager
                     onTaskRemovedFromQueue(task);
                     return ProcessResult.ContinueAndDequeue;
                 }
-            });
+            };
+
+            m_globalLane.m_queue.forEachTask(handler);
+
+            for (int i = 0; i < m_nodeLaneList.size(); i++)
+            {
+                m_nodeLaneList.get(i).m_queue.forEachTask(handler);
+            }
         }
     }
 
@@ -792,29 +1133,42 @@ final class P_TaskManager
         {
             StringBuilder sb = new StringBuilder();
 
-            sb.append(m_current.get() != null ? m_current.get().toString() : "no current task");
+            appendLane(sb, m_globalLane, taskLimit);
 
-            sb.append(" ");
-
-            int queueSize = m_queue.size();
-            int loopLimit = taskLimit >= 0 ? Math.min(taskLimit, queueSize) : queueSize;
-
-            sb.append("[");
-            for (int i = 0; i < loopLimit; ++i)
+            for (int i = 0; i < m_nodeLaneList.size(); i++)
             {
-                sb.append(m_queue.get(i).toString());
-                if (i < loopLimit - 1)
-                    sb.append(", ");
+                sb.append(" | ");
+                appendLane(sb, m_nodeLaneList.get(i), taskLimit);
             }
 
-            // Make a note of how many we skipped over
-            if (loopLimit < queueSize)
-                sb.append(" ... and " + (queueSize - loopLimit) + " more");
+            return sb.toString();
+        }
+    }
+
+    private static void appendLane(StringBuilder sb, Lane lane, int taskLimit)
+    {
+        final PA_Task current = lane.getCurrent();
 
-            sb.append("]");
+        sb.append(current != null ? current.toString() : "no current task");
 
-            return sb.toString();
+        sb.append(" ");
+
+        int queueSize = lane.m_queue.size();
+        int loopLimit = taskLimit >= 0 ? Math.min(taskLimit, queueSize) : queueSize;
+
+        sb.append("[");
+        for (int i = 0; i < loopLimit; ++i)
+        {
+            sb.append(lane.m_queue.get(i).toString());
+            if (i < loopLimit - 1)
+                sb.append(", ");
         }
+
+        // Make a note of how many we skipped over
+        if (loopLimit < queueSize)
+            sb.append(" ... and " + (queueSize - loopLimit) + " more");
+
+        sb.append("]");
     }
 
     // Utility method to determine if a given task matches a set of requirements
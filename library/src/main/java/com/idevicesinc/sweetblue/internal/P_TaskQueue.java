@@ -18,26 +18,75 @@
 package com.idevicesinc.sweetblue.internal;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 
 
+/**
+ * The task queue backing {@link P_TaskManager}. Tasks are kept in a doubly linked list (which is the order they will be dequeued in), and
+ * are additionally indexed by {@link PE_TaskPriority}, and by task class and device/server, so that inserting a task, or looking up the tasks
+ * of a given type for a given device doesn't require walking the whole queue.
+ */
 public final class P_TaskQueue
 {
-    private List<PA_Task> m_taskList = new ArrayList<>();
-    private List<PA_Task> m_lockedList = null;
+    // Gap between the ordering labels given to nodes at either end of the list. Inserting in the middle halves the gap, so this allows
+    // for 32 inserts at the same spot before the list has to be relabelled.
+    private static final long LABEL_SPACING = 1L << 32;
+
+    // Owner key used in the index for tasks which don't belong to a device or server
+    private static final Object NO_OWNER = new Object();
+
+    private static final Comparator<Node> s_labelComparator = (n1, n2) -> {
+        if (n1.m_label < n2.m_label)
+            return -1;
+        if (n1.m_label > n2.m_label)
+            return 1;
+        return 0;
+    };
+
+    private Node m_head = null;
+    private Node m_tail = null;
+    private int m_size = 0;
+    private long m_nextSerial = 0L;
+
+    // Nodes, by priority ordinal, kept in queue order
+    private final List<TreeSet<Node>> m_priorityBuckets;
+    // Nodes by task class, then by owner (device mac address, or server), kept in queue order
+    private final Map<Class<?>, Map<Object, TreeSet<Node>>> m_classIndex = new HashMap<>();
+
+    // Lists reused by forEachTask(Class, ...), one per level of nesting, as a handler may iterate the queue again
+    private final List<List<Node>> m_scratchLists = new ArrayList<>();
+    private int m_iterationDepth = 0;
+    // Reused by getIndexedNodes() to merge the sets which match a lookup
+    private final List<TreeSet<Node>> m_mergeSets = new ArrayList<>();
+    private final List<Node> m_mergeHeads = new ArrayList<>();
+
     private IBleManager m_manager;
     private Object m_lock = new Object();
 
     public P_TaskQueue(IBleManager manager)
     {
         m_manager = manager;
+
+        final PE_TaskPriority[] priorities = PE_TaskPriority.values();
+        m_priorityBuckets = new ArrayList<>(priorities.length);
+        for (int i = 0; i < priorities.length; i++)
+        {
+            m_priorityBuckets.add(new TreeSet<>(s_labelComparator));
+        }
     }
 
     static class HandlerResult
     {
+        private static final int POSITION_UNKNOWN = -2;
+
         PA_Task mTask;
         int mTaskPosition;
+        private P_TaskQueue mQueue;
+        private Node mNode;
 
         private HandlerResult(PA_Task task, int taskPosition)
         {
@@ -45,6 +94,16 @@ public final class P_TaskQueue
             mTaskPosition = taskPosition;
         }
 
+        // Used when iterating over a subset of the queue, where the position of the task isn't known up front. It only gets worked out if
+        // asked for.
+        private HandlerResult(P_TaskQueue queue, Node node)
+        {
+            mTask = node.m_task;
+            mTaskPosition = POSITION_UNKNOWN;
+            mQueue = queue;
+            mNode = node;
+        }
+
         PA_Task getTask()
         {
             return mTask;
@@ -52,6 +111,9 @@ public final class P_TaskQueue
 
         int getTaskPosition()
         {
+            if (mTaskPosition == POSITION_UNKNOWN)
+                mTaskPosition = mQueue.positionOf(mNode);
+
             return mTaskPosition;
         }
     }
@@ -68,6 +130,28 @@ public final class P_TaskQueue
         public abstract ProcessResult process(PA_Task task);
     }
 
+    private static final class Node
+    {
+        private final PA_Task m_task;
+        private final int m_priority;
+        private final Object m_owner;
+        // Used to skip over tasks that were added after an iteration started
+        private final long m_serial;
+
+        private long m_label;
+        private Node m_prev;
+        private Node m_next;
+        private boolean m_removed;
+
+        private Node(PA_Task task, long serial)
+        {
+            m_task = task;
+            m_priority = task.getPriority() != null ? task.getPriority().ordinal() : PE_TaskPriority.TRIVIAL.ordinal();
+            m_owner = getOwnerKey(task.getDevice(), task.getServer());
+            m_serial = serial;
+        }
+    }
+
     /**
      * Allows for forward iteration of the task queue. You <b>MUST</b> remember to syncrhonize to {@link P_TaskManager#m_lock} when calling this
      * method.
@@ -76,65 +160,106 @@ public final class P_TaskQueue
     {
         synchronized (m_lock)
         {
-            boolean createdLockedList = false;
-            if (m_lockedList == null)
+            // Anything added while iterating is skipped, and anything removed is seen, as removed nodes keep their link to the next node
+            final long lastSerial = m_nextSerial - 1;
+
+            Node node = m_head;
+            int index = 0;
+
+            while (node != null)
             {
-                m_lockedList = new ArrayList<>(m_taskList);
-                createdLockedList = true;
+                if (node.m_removed || node.m_serial > lastSerial)
+                {
+                    node = node.m_next;
+                    continue;
+                }
+
+                final PA_Task task = node.m_task;
+
+                ForEachTaskHandler.ProcessResult pr = handler.process(task);
+
+                switch (pr)
+                {
+                    case Return:
+                        return new HandlerResult(task, index);
+
+                    case ReturnAndDequeue:
+                        remove(node);
+                        return new HandlerResult(task, index);
+
+                    case ContinueAndDequeue:
+                        remove(node);
+                        break;
+                }
+                index++;
+                node = node.m_next;
             }
 
+            return new HandlerResult(null, -1);
+        }
+    }
+
+    /**
+     * Same as {@link #forEachTask(ForEachTaskHandler)}, only the handler is only given the tasks which are an instance of the given class,
+     * and belong to the given device or server (if one is provided). Tasks are still processed in queue order. The handler should still
+     * check the device/server itself, as devices are looked up by mac address.
+     */
+    final HandlerResult forEachTask(Class<? extends PA_Task> taskClass, IBleDevice device_nullable, IBleServer server_nullable, ForEachTaskHandler handler)
+    {
+        synchronized (m_lock)
+        {
+            final Object owner = device_nullable != null || server_nullable != null ? getOwnerKey(device_nullable, server_nullable) : null;
+
+            if (m_scratchLists.size() == m_iterationDepth)
+                m_scratchLists.add(new ArrayList<>());
+
+            final List<Node> nodes = m_scratchLists.get(m_iterationDepth++);
+
             try
             {
-                Iterator<PA_Task> it = m_lockedList.iterator();
-                int index = 0;
+                getIndexedNodes(taskClass, owner, nodes);
 
-                while (it.hasNext())
+                for (int i = 0; i < nodes.size(); i++)
                 {
-                    PA_Task task = it.next();
+                    final Node node = nodes.get(i);
 
-                    // Avoid iterating over this task if it is no longer in the list
-                    // This allows us to 'see' removes w/o actually modifying the locked list
-                    if (!m_taskList.contains(task))
+                    if (node.m_removed)
                         continue;
 
-                    ForEachTaskHandler.ProcessResult pr = handler.process(task);
+                    ForEachTaskHandler.ProcessResult pr = handler.process(node.m_task);
 
                     switch (pr)
                     {
                         case Return:
-                            return new HandlerResult(task, index);
+                            return new HandlerResult(this, node);
 
                         case ReturnAndDequeue:
-                            // We can directly remove the task now, as the method is returning right after this.
-                            m_taskList.remove(task);
-                            return new HandlerResult(task, index);
+                            final HandlerResult result = new HandlerResult(node.m_task, positionOf(node));
+                            remove(node);
+                            return result;
 
                         case ContinueAndDequeue:
-                            // As we are iterating over a clone, we simply add the removed tasks to a new list to be removed later.
-                            m_taskList.remove(task);
-                            //removeList.add(task);
+                            remove(node);
                             break;
                     }
-                    index++;
                 }
 
                 return new HandlerResult(null, -1);
             }
             finally
             {
-                // Discard the locked list (if we created it)
-                if (createdLockedList)
-                    m_lockedList = null;
+                // Don't hang on to the nodes (and their tasks) until the next lookup
+                nodes.clear();
+                m_iterationDepth--;
             }
         }
     }
 
     final PA_Task peek()
     {
-        //FIXME:  Should this use the locked list?
         synchronized (m_lock)
         {
-            return m_taskList.size() > 0 ? m_taskList.get(0) : null;
+            return m_head != null ? m_head.m_task : null;
         }
     }
 
@@ -143,25 +268,31 @@ public final class P_TaskQueue
     {
         synchronized (m_lock)
         {
-            return m_taskList.get(index);
+            if (index < 0 || index >= m_size)
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + m_size);
+
+            Node node = m_head;
+            for (int i = 0; i < index; i++)
+            {
+                node = node.m_next;
+            }
+            return node.m_task;
         }
     }
 
     final void pushFront(PA_Task task)
     {
-        //m_manager.ASSERT(!m_inForEach, "Tried to push to the front when in a foreach iteration!");
         synchronized (m_lock)
         {
-            m_taskList.add(0, task);
+            insertBefore(new Node(task, m_nextSerial++), m_head);
         }
     }
 
     final void pushBack(PA_Task task)
     {
-        //m_manager.ASSERT(!m_inForEach, "Tried to push to the back when in a foreach iteration!");
         synchronized (m_lock)
         {
-            m_taskList.add(m_taskList.size(), task);
+            insertBefore(new Node(task, m_nextSerial++), null);
         }
     }
 
@@ -169,31 +300,92 @@ public final class P_TaskQueue
     {
         synchronized (m_lock)
         {
-            //m_manager.ASSERT(!m_inForEach, "Tried to insert at soonest position when in a foreach iteration!");
-            // Before walking the entire list, see if the task is more important than the last.  If not, just throw it in the back
-            if (m_taskList.size() > 0)
+            final Node node = new Node(task, m_nextSerial++);
+
+            // Before looking for a spot, see if the task is more important than the last.  If not, just throw it in the back
+            if (m_tail == null || !task.isMoreImportantThan(m_tail.m_task))
+            {
+                insertBefore(node, null);
+                return;
+            }
+
+            final PE_TaskImportance importance = task.getImportance();
+
+            if (importance == PE_TaskImportance.PRIORITY)
             {
-                PA_Task last = m_taskList.get(m_taskList.size() - 1);
-                if (!task.isMoreImportantThan(last))
+                // The task goes in front of the first task which has a lower priority. The list isn't strictly sorted (tasks can get pushed
+                // to the front), so this is the earliest of the first tasks of each lower priority.
+                Node soonest = null;
+                for (int i = 0; i < node.m_priority; i++)
                 {
-                    m_taskList.add(task);
-                    return;
+                    if (m_priorityBuckets.get(i).isEmpty())
+                        continue;
+
+                    final Node first = m_priorityBuckets.get(i).first();
+                    if (soonest == null || first.m_label < soonest.m_label)
+                        soonest = first;
                 }
+
+                insertBefore(node, soonest);
+                return;
             }
 
-            //FIXME:  This can be done with a modified binary search that finds the first element that task claims it is more important than
+            if (importance == PE_TaskImportance.TRANSACTIONABLE)
+            {
+                // Same as above, only the task may pass over some lower priority tasks (scans), so each bucket is walked until it gets to
+                // one the task will go in front of. On top of that, the task goes ahead of its own transaction's lock, whatever the lock's
+                // priority, so that's checked for separately.
+                Node soonest = null;
+                for (int i = 0; i < node.m_priority; i++)
+                {
+                    final TreeSet<Node> bucket = m_priorityBuckets.get(i);
+
+                    for (Node n = bucket.isEmpty() ? null : bucket.first(); n != null; n = bucket.higher(n))
+                    {
+                        if (soonest != null && n.m_label > soonest.m_label)
+                            break;
 
-            // Locate the best spot to insert, and put the task there
-            for (int i = 0; i < m_taskList.size(); ++i)
+                        if (task.isMoreImportantThan(n.m_task))
+                        {
+                            soonest = n;
+                            break;
+                        }
+                    }
+                }
+
+                final Map<Object, TreeSet<Node>> locksByOwner = m_classIndex.get(P_Task_TxnLock.class);
+                final TreeSet<Node> locks = locksByOwner != null ? locksByOwner.get(node.m_owner) : null;
+                if (locks != null)
+                {
+                    for (Node n = locks.first(); n != null; n = locks.higher(n))
+                    {
+                        if (soonest != null && n.m_label > soonest.m_label)
+                            break;
+
+                        if (task.isMoreImportantThan(n.m_task))
+                        {
+                            soonest = n;
+                            break;
+                        }
+                    }
+                }
+
+                insertBefore(node, soonest);
+                return;
+            }
+
+            // The task has its own idea of what it's more important than, so the only way to honor that is to ask it about each task in
+            // turn.
+            for (Node n = m_head; n != null; n = n.m_next)
             {
-                if (task.isMoreImportantThan(m_taskList.get(i)))
+                if (task.isMoreImportantThan(n.m_task))
                 {
-                    m_taskList.add(i, task);
+                    insertBefore(node, n);
                     return;
                 }
             }
 
-            m_taskList.add(task);
+            insertBefore(node, null);
         }
     }
 
@@ -201,7 +393,7 @@ public final class P_TaskQueue
     {
         synchronized (m_lock)
         {
-            return m_taskList.size();
+            return m_size;
         }
     }
 
@@ -209,12 +401,204 @@ public final class P_TaskQueue
     {
         synchronized (m_lock)
         {
-            return new ArrayList<>(m_taskList);
+            final List<PA_Task> raw = new ArrayList<>(m_size);
+            for (Node n = m_head; n != null; n = n.m_next)
+            {
+                raw.add(n.m_task);
+            }
+            return raw;
         }
     }
 
     @Override public final String toString()
     {
-        return m_taskList.toString();
+        return getRaw().toString();
+    }
+
+    private int positionOf(Node node)
+    {
+        if (node.m_removed)
+            return -1;
+
+        int position = 0;
+        for (Node n = m_head; n != node; n = n.m_next)
+        {
+            position++;
+        }
+        return position;
+    }
+
+    // Fills nodes_out with the (not yet removed) nodes for the given class and owner, in queue order. A null owner returns the nodes for
+    // any owner.
+    private void getIndexedNodes(Class<? extends PA_Task> taskClass, Object owner_nullable, List<Node> nodes_out)
+    {
+        for (Map.Entry<Class<?>, Map<Object, TreeSet<Node>>> entry : m_classIndex.entrySet())
+        {
+            if (!taskClass.isAssignableFrom(entry.getKey()))
+                continue;
+
+            final Map<Object, TreeSet<Node>> byOwner = entry.getValue();
+
+            if (owner_nullable != null)
+            {
+                final TreeSet<Node> set = byOwner.get(owner_nullable);
+                if (set != null)
+                    m_mergeSets.add(set);
+            }
+            else
+            {
+                for (TreeSet<Node> set : byOwner.values())
+                {
+                    m_mergeSets.add(set);
+                }
+            }
+        }
+
+        // Each set is already in queue order, so they just need merging. There's rarely more than a handful of them, so the smallest head
+        // is found by walking the heads, rather than keeping them in a heap.
+        final int setCount = m_mergeSets.size();
+        for (int i = 0; i < setCount; i++)
+        {
+            m_mergeHeads.add(m_mergeSets.get(i).first());
+        }
+
+        while (true)
+        {
+            int smallest = -1;
+            for (int i = 0; i < setCount; i++)
+            {
+                final Node head = m_mergeHeads.get(i);
+                if (head != null && (smallest == -1 || head.m_label < m_mergeHeads.get(smallest).m_label))
+                    smallest = i;
+            }
+
+            if (smallest == -1)
+                break;
+
+            final Node node = m_mergeHeads.get(smallest);
+            nodes_out.add(node);
+            m_mergeHeads.set(smallest, m_mergeSets.get(smallest).higher(node));
+        }
+
+        m_mergeSets.clear();
+        m_mergeHeads.clear();
+    }
+
+    // Links the node in ahead of next_nullable (or at the end of the list if it's null), and adds it to the indexes
+    private void insertBefore(Node node, Node next_nullable)
+    {
+        final Node prev = next_nullable != null ? next_nullable.m_prev : m_tail;
+
+        if (prev == null && next_nullable == null)
+            node.m_label = 0L;
+        else if (next_nullable == null)
+        {
+            if (prev.m_label > Long.MAX_VALUE - LABEL_SPACING)
+                relabel();
+            node.m_label = prev.m_label + LABEL_SPACING;
+        }
+        else if (prev == null)
+        {
+            if (next_nullable.m_label < Long.MIN_VALUE + LABEL_SPACING)
+                relabel();
+            node.m_label = next_nullable.m_label - LABEL_SPACING;
+        }
+        else
+        {
+            if (next_nullable.m_label - prev.m_label < 2)
+                relabel();
+            node.m_label = prev.m_label + (next_nullable.m_label - prev.m_label) / 2;
+        }
+
+        node.m_prev = prev;
+        node.m_next = next_nullable;
+
+        if (prev != null)
+            prev.m_next = node;
+        else
+            m_head = node;
+
+        if (next_nullable != null)
+            next_nullable.m_prev = node;
+        else
+            m_tail = node;
+
+        m_size++;
+
+        m_priorityBuckets.get(node.m_priority).add(node);
+
+        Map<Object, TreeSet<Node>> byOwner = m_classIndex.get(node.m_task.getClass());
+        if (byOwner == null)
+        {
+            byOwner = new HashMap<>();
+            m_classIndex.put(node.m_task.getClass(), byOwner);
+        }
+        TreeSet<Node> set = byOwner.get(node.m_owner);
+        if (set == null)
+        {
+            set = new TreeSet<>(s_labelComparator);
+            byOwner.put(node.m_owner, set);
+        }
+        set.add(node);
+    }
+
+    private void remove(Node node)
+    {
+        if (node.m_removed)
+            return;
+
+        // Take it out of the indexes first, as they rely on the label, which stops being updated once the node is unlinked
+        m_priorityBuckets.get(node.m_priority).remove(node);
+
+        final Map<Object, TreeSet<Node>> byOwner = m_classIndex.get(node.m_task.getClass());
+        if (byOwner != null)
+        {
+            final TreeSet<Node> set = byOwner.get(node.m_owner);
+            if (set != null)
+            {
+                set.remove(node);
+                if (set.isEmpty())
+                    byOwner.remove(node.m_owner);
+            }
+            if (byOwner.isEmpty())
+                m_classIndex.remove(node.m_task.getClass());
+        }
+
+        if (node.m_prev != null)
+            node.m_prev.m_next = node.m_next;
+        else
+            m_head = node.m_next;
+
+        if (node.m_next != null)
+            node.m_next.m_prev = node.m_prev;
+        else
+            m_tail = node.m_prev;
+
+        // The next link is left alone, so that an iteration currently sitting on this node can carry on from it
+        node.m_prev = null;
+        node.m_removed = true;
+        m_size--;
+    }
+
+    // Spreads the labels back out evenly. This keeps the relative order of every node, so the indexes remain valid.
+    private void relabel()
+    {
+        long label = -(m_size / 2) * LABEL_SPACING;
+        for (Node n = m_head; n != null; n = n.m_next)
+        {
+            n.m_label = label;
+            label += LABEL_SPACING;
+        }
+    }
+
+    private static Object getOwnerKey(IBleDevice device_nullable, IBleServer server_nullable)
+    {
+        if (device_nullable != null)
+            return device_nullable.getMacAddress();
+
+        if (server_nullable != null)
+            return server_nullable;
+
+        return NO_OWNER;
     }
 }
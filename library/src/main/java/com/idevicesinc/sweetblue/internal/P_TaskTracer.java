@@ -0,0 +1,217 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.TaskTrace;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Bounded ring of the most recent {@link TaskTrace}s, sized by {@link com.idevicesinc.sweetblue.BleManagerConfig#taskTraceCapacity}. Once
+ * full, each new trace replaces the oldest one. A capacity of zero turns tracing off.
+ */
+final class P_TaskTracer
+{
+
+    private TaskTrace[] m_traces = new TaskTrace[0];
+    private int m_next = 0;
+    private int m_size = 0;
+
+    // Only read outside the lock, to skip building traces when tracing is off.
+    private volatile boolean m_enabled = false;
+
+
+    final boolean isEnabled()
+    {
+        return m_enabled;
+    }
+
+    /**
+     * Resizes the ring, keeping as many of the most recent traces as still fit.
+     */
+    final synchronized void setCapacity(int capacity)
+    {
+        capacity = Math.max(capacity, 0);
+
+        if (capacity == m_traces.length)
+            return;
+
+        final List<TaskTrace> traces = getTraces();
+        final int keep = Math.min(traces.size(), capacity);
+
+        m_traces = new TaskTrace[capacity];
+        m_next = 0;
+        m_size = 0;
+        m_enabled = capacity > 0;
+
+        for (int i = traces.size() - keep; i < traces.size(); i++)
+        {
+            add(traces.get(i));
+        }
+    }
+
+    final synchronized void add(TaskTrace trace)
+    {
+        if (m_traces.length == 0)
+            return;
+
+        m_traces[m_next] = trace;
+        m_next = (m_next + 1) % m_traces.length;
+        m_size = Math.min(m_size + 1, m_traces.length);
+    }
+
+    /**
+     * Returns the traces currently held, oldest first.
+     */
+    final synchronized List<TaskTrace> getTraces()
+    {
+        final List<TaskTrace> traces = new ArrayList<>(m_size);
+        final int start = m_next - m_size + (m_next < m_size ? m_traces.length : 0);
+
+        for (int i = 0; i < m_size; i++)
+        {
+            traces.add(m_traces[(start + i) % m_traces.length]);
+        }
+
+        return traces;
+    }
+
+    final synchronized void clear()
+    {
+        for (int i = 0; i < m_traces.length; i++)
+        {
+            m_traces[i] = null;
+        }
+
+        m_next = 0;
+        m_size = 0;
+    }
+
+    /**
+     * Returns the traces currently held in Chrome's trace event format, which can be loaded into chrome://tracing, or Perfetto. Queue
+     * waits for different tasks overlap, so each task is an async event, with its queued, armed, and executing phases nested inside it.
+     * Each device gets its own row, named with its mac address, and everything else goes in a row of its own.
+     */
+    final String toChromeTraceJson()
+    {
+        final List<TaskTrace> traces = getTraces();
+        final Map<String, Integer> rows = new HashMap<>();
+        final StringBuilder events = new StringBuilder();
+
+        long base = Long.MAX_VALUE;
+
+        for (TaskTrace trace : traces)
+        {
+            base = Math.min(base, startOf(trace));
+        }
+
+        for (int i = 0; i < traces.size(); i++)
+        {
+            final TaskTrace trace = traces.get(i);
+            final String rowName = trace.macAddress() != null ? trace.macAddress() : "manager";
+
+            Integer row = rows.get(rowName);
+
+            if (row == null)
+            {
+                row = rows.size() + 1;
+                rows.put(rowName, row);
+
+                appendEvent(events, "thread_name", "M", null, row, -1, -1).append(",\"args\":{\"name\":\"").append(rowName).append("\"}}");
+            }
+
+            final long start = startOf(trace);
+
+            appendEvent(events, trace.name(), "b", i, row, start, base).append(",\"args\":{");
+            appendArgs(events, trace);
+            events.append("}}");
+
+            appendPhase(events, "queued", i, row, trace.timeQueued(), firstOf(trace.timeArmed(), trace.timeExecuting(), trace.timeEnded()), base);
+            appendPhase(events, "armed", i, row, trace.timeArmed(), firstOf(trace.timeExecuting(), trace.timeEnded()), base);
+            appendPhase(events, "executing", i, row, trace.timeExecuting(), trace.timeEnded(), base);
+
+            appendEvent(events, trace.name(), "e", i, row, trace.timeEnded(), base).append("}");
+        }
+
+        return "{\"traceEvents\":[" + events + "],\"displayTimeUnit\":\"ms\"}";
+    }
+
+
+    private static void appendPhase(StringBuilder events, String name, int id, int row, long start, long end, long base)
+    {
+        if (start == 0 || end == 0)
+            return;
+
+        appendEvent(events, name, "b", id, row, start, base).append("}");
+        appendEvent(events, name, "e", id, row, end, base).append("}");
+    }
+
+    // Leaves the event open, so args can be added before closing it.
+    private static StringBuilder appendEvent(StringBuilder events, String name, String phase, Integer id, int row, long time, long base)
+    {
+        if (events.length() > 0)
+            events.append(",");
+
+        events.append("{\"name\":\"").append(name).append("\",\"ph\":\"").append(phase).append("\",\"pid\":1,\"tid\":").append(row);
+
+        if (id != null)
+            events.append(",\"cat\":\"task\",\"id\":").append(id);
+
+        if (time != -1)
+            events.append(",\"ts\":").append((time - base) / 1000);
+
+        return events;
+    }
+
+    private static void appendArgs(StringBuilder events, TaskTrace trace)
+    {
+        events.append("\"state\":\"").append(trace.endState()).append("\"");
+
+        if (trace.taskType() != null)
+            events.append(",\"type\":\"").append(trace.taskType().name()).append("\"");
+
+        if (trace.charUuid() != null)
+            events.append(",\"char\":\"").append(trace.charUuid()).append("\"");
+
+        if (trace.descUuid() != null)
+            events.append(",\"desc\":\"").append(trace.descUuid()).append("\"");
+
+        if (trace.byteCount() > 0)
+            events.append(",\"bytes\":").append(trace.byteCount());
+    }
+
+    private static long startOf(TaskTrace trace)
+    {
+        return firstOf(trace.timeQueued(), trace.timeArmed(), trace.timeExecuting(), trace.timeEnded());
+    }
+
+    private static long firstOf(long... times)
+    {
+        for (long time : times)
+        {
+            if (time != 0)
+                return time;
+        }
+
+        return 0;
+    }
+}
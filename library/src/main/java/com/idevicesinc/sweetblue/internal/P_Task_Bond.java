@@ -171,6 +171,11 @@ final class P_Task_Bond extends PA_Task_RequiresBleOn
         return super.isMoreImportantThan(task);
     }
 
+    @Override public final PE_TaskImportance getImportance()
+    {
+        return PE_TaskImportance.CUSTOM;
+    }
+
     public final void onNativeSuccess()
     {
         succeed();
@@ -174,6 +174,16 @@ final class P_Task_Connect extends PA_Task_RequiresBleOn
 		return super.isSoftlyCancellableBy(task);
 	}
 	
+	@Override protected boolean canSoftlyCancelOthers()
+	{
+		return true;
+	}
+
+	@Override protected boolean requiresConnectAdmission()
+	{
+		return true;
+	}
+
 	@Override protected BleTask getTaskType()
 	{
 		return BleTask.CONNECT;
@@ -78,6 +78,11 @@ final class P_Task_DisconnectServer extends PA_Task_ConnectOrDisconnectServer
 		succeed();
 	}
 
+	@Override protected boolean canSoftlyCancelOthers()
+	{
+		return true;
+	}
+
 	@Override protected BleTask getTaskType()
 	{
 		return BleTask.DISCONNECT_SERVER;
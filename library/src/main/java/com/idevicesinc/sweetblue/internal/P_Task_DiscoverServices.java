@@ -87,6 +87,11 @@ final class P_Task_DiscoverServices extends PA_Task_RequiresConnection
 	{
 		return PE_TaskPriority.MEDIUM;
 	}
+
+	@Override protected boolean requiresConnectAdmission()
+	{
+		return true;
+	}
 	
 	public void onNativeFail(int gattStatus)
 	{
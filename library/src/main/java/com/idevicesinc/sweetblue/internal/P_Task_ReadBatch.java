@@ -0,0 +1,246 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import android.bluetooth.BluetoothGatt;
+
+import com.idevicesinc.sweetblue.BleCharacteristic;
+import com.idevicesinc.sweetblue.BleRead;
+import com.idevicesinc.sweetblue.BleStatuses;
+import com.idevicesinc.sweetblue.BleTask;
+import com.idevicesinc.sweetblue.P_Bridge_User;
+import com.idevicesinc.sweetblue.ReadBatchListener;
+import com.idevicesinc.sweetblue.ReadBatchListener.ReadBatchEvent;
+import com.idevicesinc.sweetblue.ReadWriteListener.Status;
+import com.idevicesinc.sweetblue.UhOhListener.UhOh;
+import com.idevicesinc.sweetblue.internal.android.P_GattHolder;
+import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.Utils;
+
+
+/**
+ * Reads a list of characteristics as one task, so the whole batch holds the queue until it's done. Android only allows one gatt
+ * operation in flight at a time, so each read is sent out as soon as the previous one comes back, rather than each going back
+ * through the queue as its own task.
+ */
+final class P_Task_ReadBatch extends PA_Task_Transactionable implements PA_Task.I_StateListener
+{
+	private final List<BleRead> m_reads;
+	private final Interval m_maxCacheAge;
+	private final ReadBatchListener m_listener;
+
+	private final Map<UUID, byte[]> m_values = new LinkedHashMap<>();
+	private final Map<UUID, Status> m_statuses;
+	private final Set<UUID> m_cached = new HashSet<>();
+
+	// Index of the next read that hasn't come back yet. Not reset on execute(), so an interrupted batch picks up where it left off.
+	private int m_index = 0;
+	private BleCharacteristic m_current = null;
+	private int m_byteCount = 0;
+	private boolean m_delivered = false;
+
+
+	/**
+	 * @param statuses		Status of every read in the batch, in order, with the ones still to be read set to {@link Status#NULL}.
+	 */
+	public P_Task_ReadBatch(IBleDevice device, List<BleRead> reads, Map<UUID, Status> statuses, Interval maxCacheAge_nullable, ReadBatchListener listener_nullable, boolean requiresBonding, IBleTransaction txn, PE_TaskPriority priority)
+	{
+		super(device, txn, requiresBonding, priority);
+
+		m_reads = reads;
+		m_statuses = statuses;
+		m_maxCacheAge = maxCacheAge_nullable;
+		m_listener = listener_nullable;
+	}
+
+	@Override public void execute()
+	{
+		readNext();
+	}
+
+	private void readNext()
+	{
+		m_current = null;
+
+		while( m_index < m_reads.size() )
+		{
+			final BleRead read = m_reads.get(m_index);
+			final UUID charUuid = read.getCharacteristicUuid();
+			final BleCharacteristic char_native = getDevice().getNativeBleCharacteristic(read.getServiceUuid(), charUuid, read.getDescriptorFilter());
+
+			if( char_native == null || char_native.isNull() || char_native.hasUhOh() )
+			{
+				final Status status;
+				if( char_native != null && char_native.hasUhOh() )
+					status = char_native.getUhOh() == UhOh.CONCURRENT_EXCEPTION ? Status.GATT_CONCURRENT_EXCEPTION : Status.GATT_RANDOM_EXCEPTION;
+				else
+					status = Status.NO_MATCHING_TARGET;
+
+				onItemDone(charUuid, status, null);
+
+				continue;
+			}
+
+			// Looked up after resolving the characteristic, so the cache is keyed by the service it actually lives in, even if the read didn't name one.
+			final byte[] cached = getDevice().getCachedReadValue(char_native.getService().getUuid(), charUuid, m_maxCacheAge);
+
+			if( cached != null )
+			{
+				m_cached.add(charUuid);
+				onItemDone(charUuid, Status.SUCCESS, cached);
+
+				continue;
+			}
+
+			if( false == getDevice().nativeManager().readCharacteristic(char_native) )
+			{
+				onItemDone(charUuid, Status.FAILED_TO_SEND_OUT, null);
+
+				continue;
+			}
+
+			m_current = char_native;
+
+			// Each read gets the same time to come back as it would as its own task, rather than the whole batch sharing one timeout.
+			resetTimeout(getInitialTimeout());
+
+			return;
+		}
+
+		succeed();
+	}
+
+	public boolean isFor(final BleCharacteristic characteristic)
+	{
+		return m_current != null &&
+				characteristic.getUuid().equals(m_current.getUuid()) &&
+						characteristic.getService().getUuid().equals(m_current.getService().getUuid());
+	}
+
+	public void onCharacteristicRead(P_GattHolder gatt, UUID uuid, byte[] value, int gattStatus)
+	{
+		getManager().ASSERT(getDevice().nativeManager().gattEquals(gatt), "");
+
+		if( m_current == null || false == m_current.getUuid().equals(uuid) )  return;
+
+		// Same as PA_Task_ReadOrWrite, auth failures are ignored so an implicit bond can interrupt us, and the read is sent again after.
+		if( gattStatus == BluetoothGatt.GATT_INSUFFICIENT_AUTHENTICATION || gattStatus == BleStatuses.GATT_AUTH_FAIL )  return;
+
+		if( Utils.isSuccess(gattStatus) )
+		{
+			if( value == null )
+			{
+				onItemDone(uuid, Status.NULL_DATA, null);
+
+				getManager().uhOh(UhOh.READ_RETURNED_NULL);
+			}
+			else if( value.length == 0 )
+			{
+				onItemDone(uuid, Status.EMPTY_DATA, null);
+			}
+			else
+			{
+				m_byteCount += value.length;
+
+				getDevice().onBatchReadValue(m_current.getService().getUuid(), uuid, value);
+
+				onItemDone(uuid, Status.SUCCESS, value);
+			}
+		}
+		else
+		{
+			onItemDone(uuid, Status.REMOTE_GATT_FAILURE, null);
+		}
+
+		readNext();
+	}
+
+	private void onItemDone(UUID charUuid, Status status, byte[] value_nullable)
+	{
+		if( value_nullable != null )
+		{
+			m_values.put(charUuid, value_nullable);
+		}
+
+		m_statuses.put(charUuid, status);
+		m_index++;
+	}
+
+	@Override public void onStateChange(PA_Task task, PE_TaskState state)
+	{
+		if( false == state.isEndingState() || state == PE_TaskState.INTERRUPTED || m_delivered )  return;
+
+		if( state != PE_TaskState.SUCCEEDED )
+		{
+			final Status status;
+
+			if( state == PE_TaskState.TIMED_OUT )
+			{
+				getLogger().w(getLogger().charName(getCharUuid()) + " batch read timed out!");
+
+				getManager().uhOh(UhOh.READ_TIMED_OUT);
+
+				status = Status.TIMED_OUT;
+			}
+			else if( state == PE_TaskState.FAILED || state == PE_TaskState.FAILED_IMMEDIATELY )
+			{
+				status = Status.NOT_CONNECTED;
+			}
+			else
+			{
+				status = getCancelType();
+			}
+
+			// Whatever was in flight, and everything after it, gets the reason the batch ended.
+			for( int i = m_index; i < m_reads.size(); i++ )
+			{
+				m_statuses.put(m_reads.get(i).getCharacteristicUuid(), status);
+			}
+		}
+
+		m_delivered = true;
+
+		final ReadBatchEvent event = P_Bridge_User.newReadBatchEvent(getDevice().getBleDevice(), m_values, m_statuses, m_cached, getTotalTime());
+
+		getDevice().postEventAsCallback(m_listener, event);
+	}
+
+	@Override protected UUID getCharUuid()
+	{
+		final int index = Math.min(m_index, m_reads.size() - 1);
+
+		return m_reads.get(index).getCharacteristicUuid();
+	}
+
+	@Override protected int getByteCount()
+	{
+		return m_byteCount;
+	}
+
+	@Override protected BleTask getTaskType()
+	{
+		return BleTask.READ;
+	}
+}
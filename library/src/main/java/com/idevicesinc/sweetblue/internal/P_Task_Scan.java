@@ -54,7 +54,7 @@ final class P_Task_Scan extends PA_Task_RequiresBleOn
         // Account for the classic scan boost here, we don't want to count the time doing the classic boost towards the timeout of the BLE scan
         if (isClassicBoosted())
         {
-            return m_scanOptions.getScanTime().secs() + getManager().getConfigClone().scanClassicBoostLength.secs();
+            return m_scanOptions.getScanTime().secs() + getManager().conf_mngr().scanClassicBoostLength.secs();
         }
         return m_scanOptions.getScanTime().secs();
     }
@@ -74,7 +74,7 @@ final class P_Task_Scan extends PA_Task_RequiresBleOn
 
             if (isClassicBoosted())
             {
-                if (!getManager().getScanManager().classicBoost(getManager().getConfigClone().scanClassicBoostLength.secs()))
+                if (!getManager().getScanManager().classicBoost(getManager().conf_mngr().scanClassicBoostLength.secs()))
                 {
                     fail();
 
@@ -110,8 +110,8 @@ final class P_Task_Scan extends PA_Task_RequiresBleOn
 
     boolean isClassicBoosted()
     {
-        boolean isClassicScan = getManager().getConfigClone().scanApi == BleScanApi.CLASSIC;
-        return !isClassicScan && Interval.isEnabled(getManager().getConfigClone().scanClassicBoostLength);
+        boolean isClassicScan = getManager().conf_mngr().scanApi == BleScanApi.CLASSIC;
+        return !isClassicScan && Interval.isEnabled(getManager().conf_mngr().scanClassicBoostLength);
     }
 
     void onClassicBoostFinished()
@@ -131,14 +131,14 @@ final class P_Task_Scan extends PA_Task_RequiresBleOn
 
     private double getMinimumScanTime()
     {
-        return Interval.secs(getManager().getConfigClone().idealMinScanTime);
+        return Interval.secs(getManager().conf_mngr().idealMinScanTime);
     }
 
     @Override protected void update(double timeStep)
     {
         if (this.getState() == PE_TaskState.EXECUTING)
         {
-            if (getTotalTimeExecuting(getManager().currentTime()) >= getMinimumScanTime() && (getQueue().getSize() > 0 && isSelfInterruptableBy(getQueue().peek())))
+            if (getTotalTimeExecuting(getManager().currentTime()) >= getMinimumScanTime() && isSelfInterruptableBy(getQueue().peek()))
             {
                 selfInterrupt();
             }
@@ -156,6 +156,10 @@ final class P_Task_Scan extends PA_Task_RequiresBleOn
 
     private boolean isSelfInterruptableBy(final PA_Task otherTask)
     {
+        if (otherTask == null)
+        {
+            return false;
+        }
 //        if (otherTask.getPriority().ordinal() > PE_TaskPriority.TRIVIAL.ordinal())
         if (otherTask.getPriority().ordinal() > m_priority.ordinal())
         {
@@ -0,0 +1,294 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.BleCharacteristic;
+import com.idevicesinc.sweetblue.BleManagerState;
+import com.idevicesinc.sweetblue.BleStatuses;
+import com.idevicesinc.sweetblue.BleTask;
+import com.idevicesinc.sweetblue.ExchangeListener;
+import com.idevicesinc.sweetblue.MulticastListener;
+import com.idevicesinc.sweetblue.OutgoingListener;
+import com.idevicesinc.sweetblue.P_Bridge_User;
+import com.idevicesinc.sweetblue.internal.android.IBluetoothDevice;
+import com.idevicesinc.sweetblue.internal.android.P_DeviceHolder;
+import com.idevicesinc.sweetblue.utils.FutureData;
+import com.idevicesinc.sweetblue.utils.P_Const;
+import com.idevicesinc.sweetblue.utils.Utils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+
+/**
+ * Sends one notification (or indication) to a list of clients, one after the other, as a single task. The data is only
+ * pulled from the {@link FutureData} and set on the characteristic once, and one {@link MulticastListener.MulticastEvent}
+ * is posted at the end with how it went for each client.
+ */
+final class P_Task_SendMulticastNotification extends PA_Task_RequiresBleOn implements PA_Task.I_StateListener
+{
+	private static final int NOT_WAITING = -1;
+
+	private final List<IBluetoothDevice> m_clients;
+	private final OutgoingListener.OutgoingEvent[] m_results;
+
+	private final MulticastListener m_listener;
+	private final FutureData m_futureData;
+
+	private final UUID m_charUuid;
+	private final UUID m_serviceUuid;
+
+	private final boolean m_confirm;
+
+	private byte[] m_data_sent = null;
+	private BleCharacteristic m_characteristic = null;
+
+	private int m_next = 0;
+	private int m_waitingOn = NOT_WAITING;
+
+	private OutgoingListener.Status m_failStatus = OutgoingListener.Status.NOT_CONNECTED;
+	private boolean m_eventPosted = false;
+
+
+	public P_Task_SendMulticastNotification(IBleServer server, List<IBluetoothDevice> clients, final UUID serviceUuid, final UUID charUuid, final FutureData futureData, boolean confirm, final MulticastListener listener)
+	{
+		super(server, null);
+
+		m_clients = new ArrayList<>(clients);
+		m_results = new OutgoingListener.OutgoingEvent[m_clients.size()];
+		m_futureData = futureData;
+		m_listener = listener;
+		m_charUuid = charUuid;
+		m_serviceUuid = serviceUuid;
+		m_confirm = confirm;
+	}
+
+	private byte[] data_sent()
+	{
+		if( m_data_sent == null )
+		{
+			m_data_sent = m_futureData.getData();
+		}
+
+		return m_data_sent;
+	}
+
+	@Override protected BleTask getTaskType()
+	{
+		return BleTask.SEND_NOTIFICATION;
+	}
+
+	@Override void execute()
+	{
+		// If we were interrupted while waiting on a client, it gets the notification again.
+		if( m_waitingOn != NOT_WAITING )
+		{
+			m_next = m_waitingOn;
+			m_waitingOn = NOT_WAITING;
+		}
+
+		m_characteristic = getServer().getNativeBleCharacteristic(m_serviceUuid, m_charUuid, null);
+
+		if( m_characteristic == null || m_characteristic.isNull() )
+		{
+			fail(OutgoingListener.Status.NO_MATCHING_TARGET);
+		}
+		else if( !P_Bridge_User.setCharValue(m_characteristic, data_sent()) )
+		{
+			fail(OutgoingListener.Status.FAILED_TO_SET_VALUE_ON_TARGET);
+		}
+		else
+		{
+			sendToNext();
+		}
+	}
+
+	private void sendToNext()
+	{
+		while( m_next < m_clients.size() )
+		{
+			final int index = m_next++;
+			final IBluetoothDevice client = m_clients.get(index);
+
+			if( !isConnected(client) )
+			{
+				setResult(index, OutgoingListener.Status.NOT_CONNECTED, BleStatuses.GATT_STATUS_NOT_APPLICABLE);
+			}
+			else
+			{
+				m_waitingOn = index;
+
+				if( !getServer().getNativeLayer().notifyCharacteristicChanged(newHolder(client), m_characteristic, m_confirm) )
+				{
+					m_waitingOn = NOT_WAITING;
+
+					setResult(index, OutgoingListener.Status.FAILED_TO_SEND_OUT, BleStatuses.GATT_STATUS_NOT_APPLICABLE);
+				}
+				else
+				{
+					// Each client gets the full timeout, rather than the whole batch sharing one.
+					resetTimeout(getTimeout());
+
+					return;
+				}
+			}
+		}
+
+		succeed();
+	}
+
+	@Override protected void update(double timeStep)
+	{
+		if( getState() == PE_TaskState.EXECUTING && m_waitingOn != NOT_WAITING )
+		{
+			// The client dropped while we were waiting to hear back, so we never will.
+			if( !isConnected(m_clients.get(m_waitingOn)) )
+			{
+				final int index = m_waitingOn;
+				m_waitingOn = NOT_WAITING;
+
+				setResult(index, OutgoingListener.Status.CANCELLED_FROM_DISCONNECT, BleStatuses.GATT_STATUS_NOT_APPLICABLE);
+
+				sendToNext();
+			}
+		}
+	}
+
+	boolean isWaitingOn(final String macAddress)
+	{
+		return m_waitingOn != NOT_WAITING && m_clients.get(m_waitingOn).getAddress().equals(macAddress);
+	}
+
+	void onNotificationSent(final P_DeviceHolder device, final int gattStatus)
+	{
+		final int index = m_waitingOn;
+		m_waitingOn = NOT_WAITING;
+
+		if( Utils.isSuccess(gattStatus) )
+		{
+			setResult(index, OutgoingListener.Status.SUCCESS, gattStatus);
+		}
+		else
+		{
+			setResult(index, OutgoingListener.Status.REMOTE_GATT_FAILURE, gattStatus);
+		}
+
+		sendToNext();
+	}
+
+	private boolean isConnected(final IBluetoothDevice client)
+	{
+		return getServer().getNativeManager().isConnected(client.getAddress());
+	}
+
+	private P_DeviceHolder newHolder(final IBluetoothDevice client)
+	{
+		return P_DeviceHolder.newHolder(client.getNativeDevice(), client.getAddress());
+	}
+
+	private void setResult(final int index, final OutgoingListener.Status status, final int gattStatus_received)
+	{
+		m_results[index] = P_Bridge_User.newOutgoingEvent(
+			getServer().getBleServer(), newHolder(m_clients.get(index)), m_serviceUuid, m_charUuid, ExchangeListener.ExchangeEvent.NON_APPLICABLE_UUID, getType(),
+			ExchangeListener.Target.CHARACTERISTIC, P_Const.EMPTY_BYTE_ARRAY, data_sent(), ExchangeListener.ExchangeEvent.NON_APPLICABLE_REQUEST_ID,
+			/*offset=*/0, /*responseNeeded=*/false, status, BleStatuses.GATT_STATUS_NOT_APPLICABLE, gattStatus_received, /*solicited=*/true
+		);
+	}
+
+	private ExchangeListener.Type getType()
+	{
+		return m_confirm ? ExchangeListener.Type.INDICATION : ExchangeListener.Type.NOTIFICATION;
+	}
+
+	private void fail(final OutgoingListener.Status status)
+	{
+		m_failStatus = status;
+
+		super.fail();
+	}
+
+	private OutgoingListener.Status getCancelStatusType()
+	{
+		if( getManager().isAny(BleManagerState.TURNING_OFF, BleManagerState.OFF) )
+		{
+			return OutgoingListener.Status.CANCELLED_FROM_BLE_TURNING_OFF;
+		}
+		else
+		{
+			return OutgoingListener.Status.CANCELLED_FROM_DISCONNECT;
+		}
+	}
+
+	private void postEvent(final OutgoingListener.Status status)
+	{
+		if( m_eventPosted )
+			return;
+
+		m_eventPosted = true;
+
+		final List<OutgoingListener.OutgoingEvent> events = new ArrayList<>(m_results.length);
+
+		// Anyone we didn't get to shares the fate of the batch.
+		final OutgoingListener.Status unsentStatus = status == OutgoingListener.Status.SUCCESS ? OutgoingListener.Status.NOT_CONNECTED : status;
+
+		for( int i = 0; i < m_results.length; i++ )
+		{
+			if( m_results[i] == null )
+			{
+				setResult(i, unsentStatus, BleStatuses.GATT_STATUS_NOT_APPLICABLE);
+			}
+
+			events.add(m_results[i]);
+		}
+
+		final MulticastListener.MulticastEvent e = P_Bridge_User.newMulticastEvent(getServer().getBleServer(), m_serviceUuid, m_charUuid, getType(), data_sent(), status, events);
+
+		getServer().invokeMulticastListeners(e, m_listener);
+	}
+
+	public PE_TaskPriority getPriority()
+	{
+		return PE_TaskPriority.FOR_NORMAL_READS_WRITES;
+	}
+
+	@Override public void onStateChange( PA_Task task, PE_TaskState state )
+	{
+		if( !state.isEndingState() || state == PE_TaskState.INTERRUPTED )
+		{
+			return;
+		}
+
+		if( state == PE_TaskState.SUCCEEDED )
+		{
+			postEvent(OutgoingListener.Status.SUCCESS);
+		}
+		else if( state == PE_TaskState.TIMED_OUT )
+		{
+			postEvent(OutgoingListener.Status.TIMED_OUT);
+		}
+		else if( state == PE_TaskState.FAILED || state == PE_TaskState.FAILED_IMMEDIATELY )
+		{
+			postEvent(m_failStatus);
+		}
+		else
+		{
+			postEvent(getCancelStatusType());
+		}
+	}
+}
@@ -246,6 +246,12 @@ final class P_Task_ToggleNotify extends PA_Task_ReadOrWrite implements PA_Task.I
         return isMoreImportantThan_default(task);
     }
 
+    @Override
+    public PE_TaskImportance getImportance()
+    {
+        return PE_TaskImportance.PRIORITY;
+    }
+
     private NotificationListener.Type getNotifyType()
     {
         return m_enable ? NotificationListener.Type.ENABLING_NOTIFICATION : NotificationListener.Type.DISABLING_NOTIFICATION;
@@ -90,4 +90,9 @@ final class P_Task_TurnBleOff extends PA_Task
 			return super.isMoreImportantThan(task);
 		}
 	}
+
+	@Override public PE_TaskImportance getImportance()
+	{
+		return PE_TaskImportance.CUSTOM;
+	}
 }
@@ -0,0 +1,323 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import java.util.ArrayList;
+
+
+/**
+ * Hierarchical timer wheel, owned by the manager and advanced once per update tick. Scheduling, cancelling, and expiring a
+ * {@link Timer} are all constant time, so the update loop no longer has to visit every task and poll entry each tick just to
+ * find out that nothing is due yet.
+ * <br><br>
+ * Each level has {@link #WHEEL_SIZE} slots, and each slot of a level spans a whole turn of the level below it. Timers are
+ * placed on the lowest level that can hold them, and trickle down a level each time the level above turns over, until they land
+ * in a {@link #TICK_MILLIS} slot of the lowest level and expire. Deadlines are absolute, in the same millisecond time base as
+ * {@link System#currentTimeMillis()}.
+ * <br><br>
+ * All methods are thread-safe. {@link Timer#onExpired(long)} is always called from the thread calling {@link #advance(long)},
+ * outside of the wheel's lock, so it's free to schedule itself again.
+ */
+final class P_TimerWheel
+{
+
+    /**
+     * Resolution of the wheel. Timers may fire up to this much later than asked for, but never earlier.
+     */
+    static final long TICK_MILLIS = 10;
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    // 64^5 ticks of 10ms is around 124 days. Anything further out than that is parked in the top level, and put back when it comes around.
+    private static final int LEVELS = 5;
+    private static final long MAX_TICKS = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+    private static final int NOT_SCHEDULED = -1;
+
+
+    /**
+     * Something which can be scheduled on a {@link P_TimerWheel}. A timer can only be scheduled once at a time; scheduling it
+     * again moves it.
+     */
+    static abstract class Timer
+    {
+        private Timer m_prev;
+        private Timer m_next;
+        private int m_level = NOT_SCHEDULED;
+        private int m_slot;
+        private long m_deadline;
+        private long m_expiresTick;
+        // Bumped whenever the timer is scheduled or cancelled, so an expiry which was collected right before that gets dropped.
+        private int m_generation;
+        private int m_expiredGeneration;
+
+
+        /**
+         * Called on the update thread once the deadline has passed.
+         */
+        abstract void onExpired(long currentTime);
+
+        final long getDeadline()
+        {
+            return m_deadline;
+        }
+    }
+
+
+    private final Object m_lock = new Object();
+
+    private final Timer[][] m_slots = new Timer[LEVELS][WHEEL_SIZE];
+    private final ArrayList<Timer> m_expired = new ArrayList<>();
+
+    private long m_tick;
+    private int m_count;
+
+
+    P_TimerWheel(final long currentTime)
+    {
+        m_tick = currentTime / TICK_MILLIS;
+    }
+
+
+    /**
+     * Schedules the given timer to expire <code>delayMillis</code> from <code>currentTime</code>. A delay of zero (or less)
+     * expires on the next tick.
+     */
+    final void schedule(final Timer timer, final long currentTime, final long delayMillis)
+    {
+        scheduleAt(timer, currentTime + Math.max(0, delayMillis));
+    }
+
+    /**
+     * Schedules the given timer to expire at the given absolute time. If it was already scheduled, it's moved.
+     */
+    final void scheduleAt(final Timer timer, final long deadline)
+    {
+        synchronized (m_lock)
+        {
+            unlink(timer);
+
+            timer.m_deadline = deadline;
+            timer.m_generation++;
+
+            insert(timer, m_tick + 1);
+        }
+    }
+
+    /**
+     * Removes the given timer from the wheel, if it's on it. Safe to call on a timer which was never scheduled.
+     */
+    final void cancel(final Timer timer)
+    {
+        synchronized (m_lock)
+        {
+            unlink(timer);
+
+            timer.m_generation++;
+        }
+    }
+
+    final boolean isScheduled(final Timer timer)
+    {
+        synchronized (m_lock)
+        {
+            return timer.m_level != NOT_SCHEDULED;
+        }
+    }
+
+    /**
+     * Returns how many timers are currently scheduled.
+     */
+    final int getSize()
+    {
+        synchronized (m_lock)
+        {
+            return m_count;
+        }
+    }
+
+    /**
+     * Moves the wheel up to <code>currentTime</code>, firing every timer whose deadline has passed. Only meant to be called from
+     * the update thread.
+     */
+    final void advance(final long currentTime)
+    {
+        final long targetTick = currentTime / TICK_MILLIS;
+
+        synchronized (m_lock)
+        {
+            if (m_count == 0)
+            {
+                // Nothing to walk through, so just jump ahead.
+                m_tick = Math.max(m_tick, targetTick);
+            }
+            else
+            {
+                while (m_tick < targetTick)
+                {
+                    m_tick++;
+
+                    cascade();
+
+                    collect((int) (m_tick & WHEEL_MASK));
+
+                    if (m_count == 0)
+                    {
+                        m_tick = targetTick;
+                        break;
+                    }
+                }
+            }
+
+            if (m_expired.isEmpty())
+                return;
+        }
+
+        for (int i = 0; i < m_expired.size(); i++)
+        {
+            final Timer timer = m_expired.get(i);
+
+            final boolean stillValid;
+
+            synchronized (m_lock)
+            {
+                stillValid = timer.m_generation == timer.m_expiredGeneration && timer.m_level == NOT_SCHEDULED;
+            }
+
+            if (stillValid)
+                timer.onExpired(currentTime);
+        }
+
+        m_expired.clear();
+    }
+
+
+    // minTick is the soonest the timer may go off. New timers always wait for the next tick, but ones coming down from a
+    // higher level may be due on this one.
+    private void insert(final Timer timer, final long minTick)
+    {
+        final long deadlineTick = (timer.m_deadline + TICK_MILLIS - 1) / TICK_MILLIS;
+        final long expiresTick = Math.max(deadlineTick, minTick);
+        timer.m_expiresTick = expiresTick;
+
+        // Anything past the top of the wheel is parked at the farthest slot we have, and re-inserted when it gets there.
+        final long delta = Math.min(expiresTick - m_tick, MAX_TICKS);
+        final long placementTick = m_tick + delta;
+
+        int level = 0;
+
+        while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1))))
+        {
+            level++;
+        }
+
+        final int slot = (int) ((placementTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+
+        timer.m_level = level;
+        timer.m_slot = slot;
+        timer.m_prev = null;
+        timer.m_next = m_slots[level][slot];
+
+        if (timer.m_next != null)
+            timer.m_next.m_prev = timer;
+
+        m_slots[level][slot] = timer;
+
+        m_count++;
+    }
+
+    private void unlink(final Timer timer)
+    {
+        if (timer.m_level == NOT_SCHEDULED)
+            return;
+
+        if (timer.m_prev != null)
+            timer.m_prev.m_next = timer.m_next;
+        else
+            m_slots[timer.m_level][timer.m_slot] = timer.m_next;
+
+        if (timer.m_next != null)
+            timer.m_next.m_prev = timer.m_prev;
+
+        timer.m_prev = null;
+        timer.m_next = null;
+        timer.m_level = NOT_SCHEDULED;
+
+        m_count--;
+    }
+
+    // When a level turns over, the matching slot of the level above gets spread out over the levels below it.
+    private void cascade()
+    {
+        for (int level = 1; level < LEVELS; level++)
+        {
+            if (((m_tick >>> (WHEEL_BITS * (level - 1))) & WHEEL_MASK) != 0)
+                return;
+
+            final int slot = (int) ((m_tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+
+            Timer timer = m_slots[level][slot];
+            m_slots[level][slot] = null;
+
+            while (timer != null)
+            {
+                final Timer next = timer.m_next;
+
+                timer.m_prev = null;
+                timer.m_next = null;
+                timer.m_level = NOT_SCHEDULED;
+                m_count--;
+
+                insert(timer, m_tick);
+
+                timer = next;
+            }
+        }
+    }
+
+    private void collect(final int slot)
+    {
+        Timer timer = m_slots[0][slot];
+        m_slots[0][slot] = null;
+
+        while (timer != null)
+        {
+            final Timer next = timer.m_next;
+
+            timer.m_prev = null;
+            timer.m_next = null;
+            timer.m_level = NOT_SCHEDULED;
+            m_count--;
+
+            if (timer.m_expiresTick > m_tick)
+            {
+                // Was parked past the top of the wheel, and isn't due yet.
+                insert(timer, m_tick + 1);
+            }
+            else
+            {
+                timer.m_expiredGeneration = timer.m_generation;
+                m_expired.add(timer);
+            }
+
+            timer = next;
+        }
+    }
+}
@@ -47,7 +47,7 @@ final class P_UhOhThrottler
 	{
 		m_mngr = mngr;
 		m_throttle = throttle;
-		if (mngr.getConfigClone().manageLastUhOhOnDisk)
+		if (mngr.conf_mngr().manageLastUhOhOnDisk)
 		{
 			loadLastUhOhs();
 		}
@@ -80,7 +80,7 @@ final class P_UhOhThrottler
 			}
 		}
 
-		if (m_mngr.getConfigClone().manageLastUhOhOnDisk)
+		if (m_mngr.conf_mngr().manageLastUhOhOnDisk)
 		{
 			prefs().edit().putString(reason.toString(), String.valueOf(m_timeTracker))
 					.putString(TIME_TRACKER_KEY, String.valueOf(m_timeTracker))
@@ -102,7 +102,7 @@ final class P_UhOhThrottler
 
 	final void shutdown()
 	{
-		if (m_mngr.getConfigClone().manageLastUhOhOnDisk)
+		if (m_mngr.conf_mngr().manageLastUhOhOnDisk)
 		{
 			prefs().edit().putString(TIME_TRACKER_KEY, String.valueOf(m_timeTracker))
 					.putString(LAST_TIME, String.valueOf(System.currentTimeMillis())).commit();
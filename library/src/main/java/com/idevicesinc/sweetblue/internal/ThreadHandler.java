@@ -20,8 +20,11 @@ package com.idevicesinc.sweetblue.internal;
 
 import com.idevicesinc.sweetblue.annotations.Advanced;
 import java.util.Iterator;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 
 /**
@@ -34,7 +37,12 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class ThreadHandler implements P_SweetHandler
 {
 
-    private final LinkedBlockingQueue<SweetRunnable> m_runnables;
+    // Runnables ordered by the time they are due to run (ties are broken by the order they were posted in)
+    private final PriorityQueue<SweetRunnable> m_runnables;
+    private final ReentrantLock m_lock;
+    // Signalled whenever a runnable is posted that is due sooner than anything else in the queue
+    private final Condition m_headChanged;
+    private long m_postCount = 0L;
     private /*final-ish*/ Thread m_thread = null;
     protected final AtomicBoolean m_running;
 
@@ -46,7 +54,9 @@ public class ThreadHandler implements P_SweetHandler
      */
     public ThreadHandler()
     {
-        m_runnables = new LinkedBlockingQueue<>();
+        m_runnables = new PriorityQueue<>();
+        m_lock = new ReentrantLock();
+        m_headChanged = m_lock.newCondition();
         m_running = new AtomicBoolean(true);
     }
 
@@ -75,6 +85,46 @@ public class ThreadHandler implements P_SweetHandler
         processRunnables();
     }
 
+    /**
+     * Returns the time, in nanoseconds, that posted {@link Runnable}s are scheduled against. This is {@link System#nanoTime()}, unless
+     * overridden to run the handler off of some other clock (for instance, a simulated one in unit tests). Only differences
+     * between values matter, so the clock can start anywhere, but it must never go backwards.
+     */
+    @Advanced
+    protected long currentTimeNanos()
+    {
+        return System.nanoTime();
+    }
+
+    /**
+     * Returns the time (in terms of {@link #currentTimeNanos()}) the soonest posted {@link Runnable} is due, or {@link Long#MAX_VALUE}
+     * if nothing has been posted.
+     */
+    @Advanced
+    protected final long getNextDueTimeNanos()
+    {
+        m_lock.lock();
+        try
+        {
+            final SweetRunnable head = m_runnables.peek();
+            return head != null ? head.m_dueTime : Long.MAX_VALUE;
+        }
+        finally
+        {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks the calling thread until the next {@link Runnable} is due, or one is posted which is due sooner, then runs everything
+     * that is due. Used by {@link P_SweetBlueThread}, so that it isn't spinning when there is nothing to do.
+     */
+    final void loopBlocking()
+    {
+        awaitNextRunnable();
+        loop();
+    }
+
 
     /**
      * Post a {@link Runnable} to be executed by the {@link Thread} backing this handler.
@@ -82,7 +132,7 @@ public class ThreadHandler implements P_SweetHandler
     @Override
     public final void post(Runnable action)
     {
-        m_runnables.add(new SweetRunnable(action, System.currentTimeMillis()));
+        add(action, 0L, null);
     }
 
     /**
@@ -103,7 +153,7 @@ public class ThreadHandler implements P_SweetHandler
     @Override
     public void postDelayed(Runnable action, long delay, Object tag)
     {
-        m_runnables.add(new SweetRunnable(action, System.currentTimeMillis(), delay, tag));
+        add(action, delay, tag);
     }
 
     /**
@@ -112,31 +162,47 @@ public class ThreadHandler implements P_SweetHandler
     @Override
     public final void removeCallbacks(Runnable action)
     {
-        Iterator<SweetRunnable> it = m_runnables.iterator();
-        while (it.hasNext())
+        m_lock.lock();
+        try
         {
-            SweetRunnable run = it.next();
-            if (run.m_runnable == action)
+            Iterator<SweetRunnable> it = m_runnables.iterator();
+            while (it.hasNext())
             {
-                run.cancel();
-                it.remove();
+                SweetRunnable run = it.next();
+                if (run.m_runnable == action)
+                {
+                    run.cancel();
+                    it.remove();
+                }
             }
         }
+        finally
+        {
+            m_lock.unlock();
+        }
     }
 
     @Override
     public void removeCallbacks(Object tag)
     {
-        Iterator<SweetRunnable> it = m_runnables.iterator();
-        while (it.hasNext())
+        m_lock.lock();
+        try
         {
-            SweetRunnable run = it.next();
-            if (run.m_tag != null && run.m_tag.equals(tag))
+            Iterator<SweetRunnable> it = m_runnables.iterator();
+            while (it.hasNext())
             {
-                run.cancel();
-                it.remove();
+                SweetRunnable run = it.next();
+                if (run.m_tag != null && run.m_tag.equals(tag))
+                {
+                    run.cancel();
+                    it.remove();
+                }
             }
         }
+        finally
+        {
+            m_lock.unlock();
+        }
     }
 
     @Override
@@ -160,25 +226,20 @@ public class ThreadHandler implements P_SweetHandler
     }
 
 
-    private final static class SweetRunnable
+    private final static class SweetRunnable implements Comparable<SweetRunnable>
     {
         private final Runnable m_runnable;
-        private final long m_postedTime;
-        private final Long m_delay;
+        private final long m_dueTime;
+        private final long m_sequence;
         private final Object m_tag;
         private boolean m_canceled = false;
 
 
-        SweetRunnable(Runnable action, long postedTime)
-        {
-            this(action, postedTime, null, null);
-        }
-
-        SweetRunnable(Runnable action, long postedTime, Long delay, Object tag)
+        SweetRunnable(Runnable action, long dueTime, long sequence, Object tag)
         {
             m_runnable = action;
-            m_postedTime = postedTime;
-            m_delay = delay;
+            m_dueTime = dueTime;
+            m_sequence = sequence;
             m_tag = tag;
         }
 
@@ -202,42 +263,100 @@ public class ThreadHandler implements P_SweetHandler
 
         public final boolean ready(long curTime)
         {
-            if (m_canceled || m_delay == null)
-                return true;
-            return (curTime - m_postedTime) > m_delay;
+            return m_canceled || curTime - m_dueTime >= 0;
         }
 
-        public final boolean ready()
+        @Override
+        public final int compareTo(SweetRunnable other)
         {
-            return ready(System.currentTimeMillis());
+            final long diff = m_dueTime != other.m_dueTime ? m_dueTime - other.m_dueTime : m_sequence - other.m_sequence;
+            return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
         }
     }
 
-    private void processRunnables()
+    private void add(Runnable action, long delay, Object tag)
     {
-        if (m_running.get() && !m_runnables.isEmpty())
+        final long dueTime = currentTimeNanos() + TimeUnit.MILLISECONDS.toNanos(Math.max(delay, 0L));
+
+        m_lock.lock();
+        try
         {
-            if (m_thread.isInterrupted())
-                return;
-            final Iterator<SweetRunnable> it = m_runnables.iterator();
-            while (it.hasNext())
+            final SweetRunnable run = new SweetRunnable(action, dueTime, m_postCount++, tag);
+            m_runnables.add(run);
+
+            // Only wake the thread up if it's now got to run something sooner than it was waiting for
+            if (m_runnables.peek() == run)
+                m_headChanged.signal();
+        }
+        finally
+        {
+            m_lock.unlock();
+        }
+    }
+
+    private void awaitNextRunnable()
+    {
+        m_lock.lock();
+        try
+        {
+            while (m_running.get())
             {
-                if (!m_running.get())
-                    break;
+                final SweetRunnable head = m_runnables.peek();
+
+                if (head == null)
+                    m_headChanged.await();
+                else
+                {
+                    final long wait = head.m_dueTime - currentTimeNanos();
+                    if (wait <= 0)
+                        return;
+                    m_headChanged.awaitNanos(wait);
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            // Either we're being shut down, in which case the caller will see that we're no longer running, or something else interrupted
+            // the thread. Either way the interrupted flag is now cleared, so the next pass isn't skipped.
+        }
+        finally
+        {
+            m_lock.unlock();
+        }
+    }
 
-                if (m_thread.isInterrupted())
-                    return;
+    // Removes and returns the next runnable, if it's due by the given time
+    private SweetRunnable pollReady(long curTime)
+    {
+        m_lock.lock();
+        try
+        {
+            final SweetRunnable head = m_runnables.peek();
+            if (head == null || !head.ready(curTime))
+                return null;
 
-                SweetRunnable run = it.next();
+            return m_runnables.poll();
+        }
+        finally
+        {
+            m_lock.unlock();
+        }
+    }
 
-                // Skip any tasks that aren't ready
-                if (!run.ready())
-                    continue;
+    private void processRunnables()
+    {
+        if (!m_running.get() || m_thread.isInterrupted())
+            return;
 
-                // Run the task then remove it.  If the task was already canceled, it will not perform it's run operation
-                run.run();
-                it.remove();
-            }
+        // Only run what is due as of now. Anything posted while running gets picked up on the next pass, so a runnable which keeps
+        // re-posting itself can't starve everything else.
+        final long curTime = currentTimeNanos();
+
+        SweetRunnable run;
+        while (m_running.get() && !m_thread.isInterrupted() && (run = pollReady(curTime)) != null)
+        {
+            // If the task was already canceled, it will not perform it's run operation
+            run.run();
         }
     }
 
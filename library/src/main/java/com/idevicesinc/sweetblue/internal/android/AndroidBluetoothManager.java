@@ -306,13 +306,13 @@ public final class AndroidBluetoothManager implements IBluetoothManager
     @Override
     public final boolean isLocationEnabledForScanning_byRuntimePermissions()
     {
-        return Utils.isLocationEnabledForScanning_byRuntimePermissions(m_bleManager.getApplicationContext(), m_bleManager.getConfigClone().requestBackgroundOperation);
+        return Utils.isLocationEnabledForScanning_byRuntimePermissions(m_bleManager.getApplicationContext(), m_bleManager.conf_mngr().requestBackgroundOperation);
     }
 
     @Override
     public final boolean isLocationEnabledForScanning()
     {
-        return Utils.isLocationEnabledForScanning(m_bleManager.getApplicationContext(), m_bleManager.getConfigClone().requestBackgroundOperation);
+        return Utils.isLocationEnabledForScanning(m_bleManager.getApplicationContext(), m_bleManager.conf_mngr().requestBackgroundOperation);
     }
 
     @Override
@@ -336,13 +336,13 @@ public final class AndroidBluetoothManager implements IBluetoothManager
     @Override
     public final void startLScan(int scanMode, Interval delay, L_Util.ScanCallback callback)
     {
-        L_Util.startNativeScan(m_adaptor, scanMode, delay, m_bleManager.getConfigClone().defaultNativeScanFilterList, callback);
+        L_Util.startNativeScan(m_adaptor, scanMode, delay, m_bleManager.conf_mngr().defaultNativeScanFilterList, callback);
     }
 
     @Override
     public final void startMScan(int scanMode, int matchMode, int matchNum, Interval delay, L_Util.ScanCallback callback)
     {
-        M_Util.startNativeScan(m_adaptor, scanMode, matchMode, matchNum, delay, m_bleManager.getConfigClone().defaultNativeScanFilterList, callback);
+        M_Util.startNativeScan(m_adaptor, scanMode, matchMode, matchNum, delay, m_bleManager.conf_mngr().defaultNativeScanFilterList, callback);
     }
 
     @SuppressLint("MissingPermission")
@@ -358,7 +358,7 @@ public final class AndroidBluetoothManager implements IBluetoothManager
     @Override
     public boolean startPendingIntentScan(int scanMode, int matchMode, int matchNum, Interval delay, PendingIntent pendingIntent)
     {
-        return O_Util.startScan(m_adaptor, scanMode, matchMode, matchNum, delay, m_bleManager.getConfigClone().defaultNativeScanFilterList, pendingIntent);
+        return O_Util.startScan(m_adaptor, scanMode, matchMode, matchNum, delay, m_bleManager.conf_mngr().defaultNativeScanFilterList, pendingIntent);
     }
 
     @SuppressLint("MissingPermission")
@@ -59,13 +59,9 @@ public final class EventQueue
 			final DispatchEntry entry = m_queue.get(i);
 
 			entry.listener.onEvent(entry.event);
-
-			m_queue.set(i, null);
 		}
 
-		while( m_queue.size() > 0 && m_queue.get(0) == null )
-		{
-			m_queue.remove(0);
-		}
+		// Anything added while dispatching stays queued for next time. Clearing the dispatched range in one go keeps this linear.
+		m_queue.subList(0, size).clear();
 	}
 }
@@ -0,0 +1,288 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.utils;
+
+
+import com.idevicesinc.sweetblue.annotations.Immutable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Log-linear histogram of durations, in nanoseconds. Each power of two is split into {@value #SUB_BUCKET_COUNT} equally sized buckets, so
+ * any percentile read back is within about 3% of the actual value, while the whole thing takes up a fixed few kilobytes no matter how
+ * many values are recorded.
+ * <br><br>
+ * Recording is lock-free, so it's safe to call {@link #record(long)} from any thread, while another thread takes a {@link #snapshot()}.
+ *
+ * @see MetricsRegistry
+ */
+public final class Histogram
+{
+
+    /**
+     * The number of buckets each power of two is split into.
+     */
+    public static final int SUB_BUCKET_COUNT = 16;
+
+    /**
+     * Values larger than this (about 18 minutes) are counted in the last bucket, although {@link Snapshot#max()} still reports the real maximum.
+     */
+    public static final long MAX_TRACKABLE_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT * 2;
+    private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_VALUE) + 1;
+
+
+    private final AtomicLongArray m_buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong m_sum = new AtomicLong();
+    private final AtomicLong m_min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong m_max = new AtomicLong(Long.MIN_VALUE);
+
+
+    /**
+     * Records a single value. Negative values are counted as zero.
+     */
+    public final void record(long value)
+    {
+        if (value < 0)
+            value = 0;
+
+        m_buckets.incrementAndGet(bucketIndex(Math.min(value, MAX_TRACKABLE_VALUE)));
+        m_sum.addAndGet(value);
+
+        long current = m_min.get();
+        while (value < current && !m_min.compareAndSet(current, value))
+        {
+            current = m_min.get();
+        }
+
+        current = m_max.get();
+        while (value > current && !m_max.compareAndSet(current, value))
+        {
+            current = m_max.get();
+        }
+    }
+
+    /**
+     * Returns a copy of everything recorded so far.
+     */
+    public final Snapshot snapshot()
+    {
+        final long[] counts = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            counts[i] = m_buckets.get(i);
+        }
+
+        return new Snapshot(counts, m_sum.get(), m_min.get(), m_max.get());
+    }
+
+    /**
+     * Same as {@link #snapshot()}, only this histogram is also cleared, without losing anything recorded while the snapshot is being taken. Such
+     * a value shows up in either this snapshot, or the next one.
+     */
+    public final Snapshot snapshotAndReset()
+    {
+        final long[] counts = new long[BUCKET_COUNT];
+
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            counts[i] = m_buckets.getAndSet(i, 0);
+        }
+
+        return new Snapshot(counts, m_sum.getAndSet(0), m_min.getAndSet(Long.MAX_VALUE), m_max.getAndSet(Long.MIN_VALUE));
+    }
+
+    /**
+     * Clears everything recorded so far.
+     */
+    public final void reset()
+    {
+        snapshotAndReset();
+    }
+
+
+    // Values under LINEAR_LIMIT get a bucket each. Past that, each power of two gets SUB_BUCKET_COUNT buckets, indexed by the bits just under the top one.
+    private static int bucketIndex(long value)
+    {
+        if (value < LINEAR_LIMIT)
+            return (int) value;
+
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    private static long bucketLowerBound(int index)
+    {
+        if (index < LINEAR_LIMIT)
+            return index;
+
+        final int shift = index / SUB_BUCKET_COUNT - 1;
+
+        return (long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+    }
+
+    private static long bucketWidth(int index)
+    {
+        return index < LINEAR_LIMIT ? 1 : 1L << (index / SUB_BUCKET_COUNT - 1);
+    }
+
+
+    /**
+     * Point-in-time copy of a {@link Histogram}. All values are in nanoseconds.
+     */
+    @Immutable
+    public static final class Snapshot
+    {
+        private final long[] m_counts;
+        private final long m_count;
+        private final long m_sum;
+        private final long m_min;
+        private final long m_max;
+
+
+        private Snapshot(long[] counts, long sum, long min, long max)
+        {
+            long count = 0;
+
+            for (long c : counts)
+            {
+                count += c;
+            }
+
+            m_counts = counts;
+            m_count = count;
+            m_sum = sum;
+            m_min = count == 0 ? 0 : min;
+            m_max = count == 0 ? 0 : max;
+        }
+
+        /**
+         * Returns how many values were recorded.
+         */
+        public final long count()
+        {
+            return m_count;
+        }
+
+        /**
+         * Returns the total of all values recorded.
+         */
+        public final long sum()
+        {
+            return m_sum;
+        }
+
+        /**
+         * Returns the smallest value recorded, or <code>0</code> if nothing was.
+         */
+        public final long min()
+        {
+            return m_min;
+        }
+
+        /**
+         * Returns the largest value recorded, or <code>0</code> if nothing was.
+         */
+        public final long max()
+        {
+            return m_max;
+        }
+
+        /**
+         * Returns the average of all values recorded, or <code>0</code> if nothing was.
+         */
+        public final long mean()
+        {
+            return m_count == 0 ? 0 : m_sum / m_count;
+        }
+
+        /**
+         * Returns the value that the given percent (from <code>0.0</code> to <code>100.0</code>) of recorded values are at or below. This is the
+         * middle of the bucket the value landed in, clamped to {@link #min()} and {@link #max()}. Returns <code>0</code> if nothing was recorded.
+         */
+        public final long percentile(double percent)
+        {
+            if (m_count == 0)
+                return 0;
+
+            final double clamped = Math.max(0.0, Math.min(percent, 100.0));
+            final long rank = Math.max(1, (long) Math.ceil(clamped / 100.0 * m_count));
+
+            long seen = 0;
+
+            for (int i = 0; i < m_counts.length; i++)
+            {
+                seen += m_counts[i];
+
+                if (seen >= rank)
+                {
+                    final long value = bucketLowerBound(i) + bucketWidth(i) / 2;
+
+                    return Math.max(m_min, Math.min(value, m_max));
+                }
+            }
+
+            return m_max;
+        }
+
+        /**
+         * Shorthand for {@link #percentile(double)} with <code>50.0</code>.
+         */
+        public final long p50()
+        {
+            return percentile(50.0);
+        }
+
+        /**
+         * Shorthand for {@link #percentile(double)} with <code>99.0</code>.
+         */
+        public final long p99()
+        {
+            return percentile(99.0);
+        }
+
+        /**
+         * Shorthand for {@link #percentile(double)} with <code>99.9</code>.
+         */
+        public final long p999()
+        {
+            return percentile(99.9);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "count: " + m_count + ", mean: " + format(mean()) + ", p50: " + format(p50()) +
+                    ", p99: " + format(p99()) + ", p999: " + format(p999()) +
+                    ", max: " + format(m_max);
+        }
+
+        private static String format(long nanos)
+        {
+            if (nanos >= 1000000)
+                return (nanos / 1000000) + "ms";
+
+            return (nanos / 1000 / 1000.0f) + "ms";
+        }
+    }
+}
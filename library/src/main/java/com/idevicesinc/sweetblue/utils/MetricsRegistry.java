@@ -0,0 +1,269 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.utils;
+
+
+import com.idevicesinc.sweetblue.BleManager;
+import com.idevicesinc.sweetblue.BleManagerConfig;
+import com.idevicesinc.sweetblue.annotations.Immutable;
+import com.idevicesinc.sweetblue.annotations.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Set of {@link Histogram}s, each one found by a name (what is being measured, e.g. {@link #TASK_EXECUTION}), a type (what kind of thing it's
+ * being measured for, e.g. the task class) and, optionally, the mac address of the device it was measured on. Get the one for a
+ * {@link BleManager} with {@link BleManager#getMetrics()}, and pull from it with {@link #snapshot()} or {@link #snapshotAndReset()} as
+ * often as your own telemetry needs.
+ * <br><br>
+ * Every value is in nanoseconds. Nothing gets recorded unless {@link BleManagerConfig#enableMetrics} is <code>true</code>.
+ */
+public final class MetricsRegistry
+{
+
+    /**
+     * How long each task waited in the queue, from being added to starting to execute. The type is the task's class, e.g. "Read", or "Connect".
+     */
+    public static final String TASK_QUEUE_WAIT = "task_queue_wait";
+
+    /**
+     * How long each task took to execute, from starting until it succeeded, failed, timed out, etc. The type is the task's class.
+     */
+    public static final String TASK_EXECUTION = "task_execution";
+
+    /**
+     * Same as {@link #TASK_EXECUTION}, only for tasks that talk to the remote device, with the name of its
+     * {@link com.idevicesinc.sweetblue.BleTask} as the type, e.g. "READ", or "WRITE".
+     */
+    public static final String GATT_OPERATION = "gatt_operation";
+
+    /**
+     * How long a device spent in each phase of connecting. The type is the name of the {@link com.idevicesinc.sweetblue.BleDeviceState}, e.g.
+     * "BLE_CONNECTING", or "DISCOVERING_SERVICES". This is timed with the manager's clock, which only moves once per update, so it's only as
+     * precise as {@link BleManagerConfig#autoUpdateRate}.
+     */
+    public static final String CONNECT_PHASE = "connect_phase";
+
+    /**
+     * How long after a scan started a device was first discovered. The type is the name of the {@link com.idevicesinc.sweetblue.BleScanApi}
+     * used for the scan. Like {@link #CONNECT_PHASE}, this is only as precise as {@link BleManagerConfig#autoUpdateRate}.
+     */
+    public static final String SCAN_TO_DISCOVERY = "scan_to_discovery";
+
+    /**
+     * Time spent in each part of the library's update loop, recorded by {@link TimeTracker}. The type is the tag it was given.
+     */
+    public static final String UPDATE_LOOP = "update_loop";
+
+
+    private final ConcurrentHashMap<Key, Histogram> m_histograms = new ConcurrentHashMap<>();
+
+
+    /**
+     * Returns the histogram for the given name, type, and mac address (<code>null</code> for the one covering all devices), creating it if need be.
+     */
+    public final Histogram histogram(String name, String type, @Nullable(Nullable.Prevalence.NORMAL) String macAddress_nullable)
+    {
+        final Key key = new Key(name, type, macAddress_nullable);
+        Histogram histogram = m_histograms.get(key);
+
+        if (histogram == null)
+        {
+            final Histogram newHistogram = new Histogram();
+            histogram = m_histograms.putIfAbsent(key, newHistogram);
+
+            if (histogram == null)
+                histogram = newHistogram;
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Records a value in the histogram with the given name and type. If a mac address is given, it's also recorded in that device's own histogram.
+     */
+    public final void record(String name, String type, @Nullable(Nullable.Prevalence.NORMAL) String macAddress_nullable, long nanos)
+    {
+        histogram(name, type, null).record(nanos);
+
+        if (macAddress_nullable != null)
+            histogram(name, type, macAddress_nullable).record(nanos);
+    }
+
+    /**
+     * Returns a snapshot of the given histogram, or <code>null</code> if nothing has been recorded in it yet.
+     */
+    public final @Nullable(Nullable.Prevalence.NORMAL) Histogram.Snapshot get(String name, String type, @Nullable(Nullable.Prevalence.NORMAL) String macAddress_nullable)
+    {
+        final Histogram histogram = m_histograms.get(new Key(name, type, macAddress_nullable));
+
+        return histogram != null ? histogram.snapshot() : null;
+    }
+
+    /**
+     * Returns a snapshot of every histogram in this registry.
+     */
+    public final List<Metric> snapshot()
+    {
+        return snapshot(false);
+    }
+
+    /**
+     * Same as {@link #snapshot()}, only every histogram is also cleared, so the next call only returns what's been recorded since.
+     * See {@link Histogram#snapshotAndReset()}.
+     */
+    public final List<Metric> snapshotAndReset()
+    {
+        return snapshot(true);
+    }
+
+    /**
+     * Throws away every histogram in this registry.
+     */
+    public final void reset()
+    {
+        m_histograms.clear();
+    }
+
+    /**
+     * Throws away every histogram with the given name.
+     */
+    public final void reset(String name)
+    {
+        final Iterator<Key> keys = m_histograms.keySet().iterator();
+
+        while (keys.hasNext())
+        {
+            if (keys.next().m_name.equals(name))
+                keys.remove();
+        }
+    }
+
+
+    private List<Metric> snapshot(boolean reset)
+    {
+        final List<Metric> metrics = new ArrayList<>(m_histograms.size());
+
+        for (Map.Entry<Key, Histogram> entry : m_histograms.entrySet())
+        {
+            final Histogram.Snapshot snapshot = reset ? entry.getValue().snapshotAndReset() : entry.getValue().snapshot();
+
+            metrics.add(new Metric(entry.getKey(), snapshot));
+        }
+
+        return metrics;
+    }
+
+
+    private static final class Key
+    {
+        private final String m_name;
+        private final String m_type;
+        private final String m_macAddress;
+
+
+        private Key(String name, String type, String macAddress)
+        {
+            m_name = name;
+            m_type = type != null ? type : "";
+            m_macAddress = macAddress;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (!(o instanceof Key))
+                return false;
+
+            final Key other = (Key) o;
+
+            return m_name.equals(other.m_name) && m_type.equals(other.m_type) &&
+                    (m_macAddress == null ? other.m_macAddress == null : m_macAddress.equals(other.m_macAddress));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int hash = m_name.hashCode();
+            hash = 31 * hash + m_type.hashCode();
+            hash = 31 * hash + (m_macAddress != null ? m_macAddress.hashCode() : 0);
+
+            return hash;
+        }
+    }
+
+
+    /**
+     * One entry returned by {@link MetricsRegistry#snapshot()}.
+     */
+    @Immutable
+    public static final class Metric
+    {
+        private final Key m_key;
+        private final Histogram.Snapshot m_snapshot;
+
+
+        private Metric(Key key, Histogram.Snapshot snapshot)
+        {
+            m_key = key;
+            m_snapshot = snapshot;
+        }
+
+        /**
+         * Returns what was measured, e.g. {@link MetricsRegistry#TASK_EXECUTION}.
+         */
+        public final String name()
+        {
+            return m_key.m_name;
+        }
+
+        /**
+         * Returns what kind of thing it was measured for, e.g. the task class.
+         */
+        public final String type()
+        {
+            return m_key.m_type;
+        }
+
+        /**
+         * Returns the mac address of the device this was measured on, or <code>null</code> if this covers all devices.
+         */
+        public final @Nullable(Nullable.Prevalence.NORMAL) String macAddress()
+        {
+            return m_key.m_macAddress;
+        }
+
+        /**
+         * Returns the values recorded.
+         */
+        public final Histogram.Snapshot snapshot()
+        {
+            return m_snapshot;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name() + "/" + type() + (macAddress() != null ? "/" + macAddress() : "") + " - (" + m_snapshot + ")";
+        }
+    }
+}
@@ -0,0 +1,556 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.utils;
+
+import com.idevicesinc.sweetblue.BleNodeConfig;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+
+/**
+ * Read-only view over a raw scan record. Unlike {@link Utils_ScanRecord#parseScanRecord(byte[])}, which decodes everything up front into a
+ * {@link BleScanRecord}, this only walks the record once to note where each advertising structure is, and decodes a field when it's
+ * actually asked for. Standard 16 and 32-bit service {@link UUID}s found in {@link Uuids} are shared, rather than creating a new instance
+ * for each advertisement.
+ * <br><br>
+ * The given byte array is not copied, so it must not be modified afterwards. Anything that is decoded is cached, so the same instance is
+ * returned each time; don't modify those either.
+ */
+public final class ScanRecordView
+{
+
+    private static final int DATA_TYPE_FLAGS = 0x01;
+    private static final int DATA_TYPE_SERVICE_UUIDS_16_BIT_PARTIAL = 0x02;
+    private static final int DATA_TYPE_SERVICE_UUIDS_16_BIT_COMPLETE = 0x03;
+    private static final int DATA_TYPE_SERVICE_UUIDS_32_BIT_PARTIAL = 0x04;
+    private static final int DATA_TYPE_SERVICE_UUIDS_32_BIT_COMPLETE = 0x05;
+    private static final int DATA_TYPE_SERVICE_UUIDS_128_BIT_PARTIAL = 0x06;
+    private static final int DATA_TYPE_SERVICE_UUIDS_128_BIT_COMPLETE = 0x07;
+    private static final int DATA_TYPE_LOCAL_NAME_SHORT = 0x08;
+    private static final int DATA_TYPE_LOCAL_NAME_COMPLETE = 0x09;
+    private static final int DATA_TYPE_TX_POWER_LEVEL = 0x0A;
+    private static final int DATA_TYPE_SERVICE_DATA_16_BIT = 0x16;
+    private static final int DATA_TYPE_SERVICE_DATA_32_BIT = 0x20;
+    private static final int DATA_TYPE_SERVICE_DATA_128_BIT = 0x21;
+    private static final int DATA_TYPE_MANUFACTURER_SPECIFIC_DATA = 0xFF;
+
+    private static final int UUID_BYTES_16_BIT = 2;
+    private static final int UUID_BYTES_32_BIT = 4;
+    private static final int UUID_BYTES_128_BIT = 16;
+
+    private static final long BASE_UUID_MSB = 0x0000000000001000L;
+    private static final long BASE_UUID_LSB = 0x800000805F9B34FBL;
+
+    // Sorted short values of every standard UUID in Uuids, and the matching instances, so lookups don't allocate
+    private static final long[] STANDARD_SHORT_VALUES;
+    private static final UUID[] STANDARD_UUIDS;
+
+    static
+    {
+        final HashMap<Long, UUID> standard = new HashMap<>();
+
+        for (Field field : Uuids.class.getFields())
+        {
+            if (field.getType() != UUID.class || !Modifier.isStatic(field.getModifiers()))
+                continue;
+
+            try
+            {
+                final UUID uuid = (UUID) field.get(null);
+
+                if (uuid != null && isStandardBase(uuid))
+                    standard.put(uuid.getMostSignificantBits() >>> 32, uuid);
+            }
+            catch (IllegalAccessException e)
+            {
+                // Public field, so this shouldn't happen. If it does, that UUID just won't be shared.
+            }
+        }
+
+        final List<Long> keys = new ArrayList<>(standard.keySet());
+        Collections.sort(keys);
+
+        STANDARD_SHORT_VALUES = new long[keys.size()];
+        STANDARD_UUIDS = new UUID[keys.size()];
+
+        for (int i = 0; i < keys.size(); i++)
+        {
+            STANDARD_SHORT_VALUES[i] = keys.get(i);
+            STANDARD_UUIDS[i] = standard.get(keys.get(i));
+        }
+    }
+
+
+    private final byte[] m_record;
+
+    // One entry per advertising structure: field type in the top 8 bits, offset of the data in the next 16, and the declared data length
+    // in the bottom 8.
+    private final int[] m_structures;
+    private final int m_structureCount;
+
+    private List<UUID> m_serviceUuids;
+    private Map<UUID, byte[]> m_serviceData;
+    private List<ManufacturerData> m_manufacturerDataList;
+
+
+    /**
+     * Creates a view over the given scan record, which may be <code>null</code>.
+     */
+    public ScanRecordView(final byte[] scanRecord_nullable)
+    {
+        m_record = scanRecord_nullable;
+
+        if (scanRecord_nullable == null)
+        {
+            m_structures = null;
+            m_structureCount = 0;
+            return;
+        }
+
+        // Every structure takes at least 2 bytes (length and type), which bounds how many there can be
+        final int[] structures = new int[scanRecord_nullable.length / 2];
+        int count = 0;
+        int currentPos = 0;
+
+        while (currentPos < scanRecord_nullable.length)
+        {
+            final int length = scanRecord_nullable[currentPos++] & 0xFF;
+
+            if (length == 0)
+                break;
+
+            // Some records come in with a length, but nothing after it, or a type with no data
+            if (currentPos >= scanRecord_nullable.length - 1 || currentPos > 0xFFFF)
+                break;
+
+            final int fieldType = scanRecord_nullable[currentPos++] & 0xFF;
+            final int dataLength = length - 1;
+
+            structures[count++] = (fieldType << 24) | (currentPos << 8) | dataLength;
+
+            currentPos += dataLength;
+        }
+
+        m_structures = structures;
+        m_structureCount = count;
+    }
+
+
+    /**
+     * Returns the raw scan record this is a view of.
+     */
+    public final byte[] getRecord()
+    {
+        return m_record;
+    }
+
+    /**
+     * Returns <code>true</code> if there was no scan record to look at.
+     */
+    public final boolean isNull()
+    {
+        return m_record == null;
+    }
+
+    /**
+     * Returns how many advertising structures are in the record.
+     */
+    public final int getStructureCount()
+    {
+        return m_structureCount;
+    }
+
+    /**
+     * Returns the advertising flags, or <code>-1</code> if the record doesn't have any.
+     */
+    public final int getAdvFlags()
+    {
+        final int index = indexOf(DATA_TYPE_FLAGS, DATA_TYPE_FLAGS, true);
+
+        // A flags structure with no data would have us reading the next structure's length byte (or off the end).
+        return index != -1 && length(index) >= 1 ? m_record[offset(index)] & 0xFF : -1;
+    }
+
+    /**
+     * Returns the advertised transmission power, or {@link BleNodeConfig#INVALID_TX_POWER} if the record doesn't have it.
+     */
+    public final int getTxPower()
+    {
+        final int index = indexOf(DATA_TYPE_TX_POWER_LEVEL, DATA_TYPE_TX_POWER_LEVEL, true);
+
+        return index != -1 && length(index) >= 1 ? m_record[offset(index)] : BleNodeConfig.INVALID_TX_POWER;
+    }
+
+    /**
+     * Returns the local name, either shortened or complete, whichever comes last in the record, or <code>null</code> if there isn't one.
+     */
+    public final String getName()
+    {
+        for (int i = m_structureCount - 1; i >= 0; i--)
+        {
+            final int type = type(i);
+
+            if ((type == DATA_TYPE_LOCAL_NAME_SHORT || type == DATA_TYPE_LOCAL_NAME_COMPLETE) && isInBounds(i))
+                return new String(m_record, offset(i), length(i));
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the first non-empty complete local name, or <code>null</code> if there isn't one. This ignores shortened names.
+     */
+    public final String getName_complete()
+    {
+        for (int i = 0; i < m_structureCount; i++)
+        {
+            if (type(i) == DATA_TYPE_LOCAL_NAME_COMPLETE && length(i) > 0 && isInBounds(i))
+                return new String(m_record, offset(i), length(i));
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns <code>true</code> if the record has a shortened local name.
+     */
+    public final boolean isShortName()
+    {
+        return indexOf(DATA_TYPE_LOCAL_NAME_SHORT, DATA_TYPE_LOCAL_NAME_SHORT, false) != -1;
+    }
+
+    /**
+     * Returns <code>true</code> if the record says its list of service {@link UUID}s is complete.
+     */
+    public final boolean isServiceUuidListComplete()
+    {
+        for (int i = 0; i < m_structureCount; i++)
+        {
+            final int type = type(i);
+
+            if (type == DATA_TYPE_SERVICE_UUIDS_16_BIT_COMPLETE || type == DATA_TYPE_SERVICE_UUIDS_32_BIT_COMPLETE || type == DATA_TYPE_SERVICE_UUIDS_128_BIT_COMPLETE)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the advertised service {@link UUID}s. This does NOT include {@link UUID}s that only come with service data, see
+     * {@link #getServiceData()} for those.
+     */
+    public final List<UUID> getServiceUuids()
+    {
+        if (m_serviceUuids == null)
+        {
+            final List<UUID> uuids = new ArrayList<>();
+
+            for (int i = 0; i < m_structureCount; i++)
+            {
+                final int uuidLength = serviceUuidLength(type(i));
+
+                if (uuidLength == 0)
+                    continue;
+
+                final int end = Math.min(offset(i) + length(i), m_record.length);
+
+                for (int pos = offset(i); pos + uuidLength <= end; pos += uuidLength)
+                {
+                    uuids.add(uuidAt(m_record, pos, uuidLength));
+                }
+            }
+
+            m_serviceUuids = uuids;
+        }
+
+        return m_serviceUuids;
+    }
+
+    /**
+     * Returns the service data in the record, keyed by service {@link UUID}.
+     */
+    public final Map<UUID, byte[]> getServiceData()
+    {
+        if (m_serviceData == null)
+        {
+            final Map<UUID, byte[]> serviceData = new HashMap<>();
+
+            for (int i = 0; i < m_structureCount; i++)
+            {
+                final int uuidLength = serviceDataUuidLength(type(i));
+
+                if (uuidLength == 0 || length(i) < uuidLength || !isInBounds(i))
+                    continue;
+
+                final int offset = offset(i);
+                serviceData.put(uuidAt(m_record, offset, uuidLength), Arrays.copyOfRange(m_record, offset + uuidLength, offset + length(i)));
+            }
+
+            m_serviceData = serviceData;
+        }
+
+        return m_serviceData;
+    }
+
+    /**
+     * Returns the service data for the given service {@link UUID}, or <code>null</code> if there isn't any. Unlike {@link #getServiceData()},
+     * this only copies out the one you ask for.
+     */
+    public final byte[] getServiceData(final UUID serviceUuid)
+    {
+        if (m_serviceData != null)
+            return m_serviceData.get(serviceUuid);
+
+        byte[] data = null;
+
+        // The last one wins, same as the map
+        for (int i = 0; i < m_structureCount; i++)
+        {
+            final int uuidLength = serviceDataUuidLength(type(i));
+
+            if (uuidLength == 0 || length(i) < uuidLength || !isInBounds(i))
+                continue;
+
+            final int offset = offset(i);
+
+            if (uuidEquals(m_record, offset, uuidLength, serviceUuid))
+                data = Arrays.copyOfRange(m_record, offset + uuidLength, offset + length(i));
+        }
+
+        return data;
+    }
+
+    /**
+     * Returns all the manufacturer-specific data in the record.
+     */
+    public final List<ManufacturerData> getManufacturerDataList()
+    {
+        if (m_manufacturerDataList == null)
+        {
+            final List<ManufacturerData> list = new ArrayList<>();
+
+            for (int i = 0; i < m_structureCount; i++)
+            {
+                if (type(i) != DATA_TYPE_MANUFACTURER_SPECIFIC_DATA || length(i) < 2 || !isInBounds(i))
+                    continue;
+
+                final int offset = offset(i);
+                final ManufacturerData data = new ManufacturerData();
+                data.m_id = manufacturerIdAt(offset);
+                data.m_data = Arrays.copyOfRange(m_record, offset + 2, offset + length(i));
+                list.add(data);
+            }
+
+            m_manufacturerDataList = list;
+        }
+
+        return m_manufacturerDataList;
+    }
+
+    /**
+     * Returns the id of the first manufacturer-specific data in the record, or <code>-1</code> if there isn't any.
+     */
+    public final short getManufacturerId()
+    {
+        final int index = firstManufacturerData();
+
+        return index != -1 ? manufacturerIdAt(offset(index)) : -1;
+    }
+
+    /**
+     * Returns the first manufacturer-specific data in the record, or an empty array if there isn't any.
+     */
+    public final byte[] getManufacturerData()
+    {
+        if (m_manufacturerDataList != null)
+            return m_manufacturerDataList.isEmpty() ? P_Const.EMPTY_BYTE_ARRAY : m_manufacturerDataList.get(0).m_data;
+
+        final int index = firstManufacturerData();
+
+        return index != -1 ? Arrays.copyOfRange(m_record, offset(index) + 2, offset(index) + length(index)) : P_Const.EMPTY_BYTE_ARRAY;
+    }
+
+    /**
+     * Decodes everything into a new {@link BleScanRecord}, the same as {@link Utils_ScanRecord#parseScanRecord(byte[])}.
+     */
+    public final BleScanRecord toBleScanRecord()
+    {
+        if (isNull())
+            return BleScanRecord.NULL;
+
+        return new BleScanRecord(
+                new Pointer<>(getAdvFlags()), new Pointer<>(getTxPower()),
+                new ArrayList<>(getServiceUuids()), isServiceUuidListComplete(),
+                new ArrayList<>(getManufacturerDataList()), new HashMap<>(getServiceData()),
+                getName(), isShortName()
+        );
+    }
+
+
+    /**
+     * Returns the {@link UUID} at the given position of a little-endian byte array, which may be 2, 4, or 16 bytes long. 16 and 32-bit
+     * {@link UUID}s use the Bluetooth base {@link UUID}, and standard ones are shared instances from {@link Uuids}.
+     */
+    private static UUID uuidAt(final byte[] bytes, final int pos, final int uuidLength)
+    {
+        if (uuidLength == UUID_BYTES_128_BIT)
+        {
+            long lsb = 0;
+            long msb = 0;
+
+            for (int i = 7; i >= 0; i--)
+            {
+                lsb = (lsb << 8) | (bytes[pos + i] & 0xFF);
+                msb = (msb << 8) | (bytes[pos + 8 + i] & 0xFF);
+            }
+
+            return new UUID(msb, lsb);
+        }
+
+        long shortValue = (bytes[pos] & 0xFF) | ((bytes[pos + 1] & 0xFF) << 8);
+
+        if (uuidLength == UUID_BYTES_32_BIT)
+            shortValue |= ((long) (bytes[pos + 2] & 0xFF) << 16) | ((long) (bytes[pos + 3] & 0xFF) << 24);
+
+        final int index = Arrays.binarySearch(STANDARD_SHORT_VALUES, shortValue);
+
+        if (index >= 0)
+            return STANDARD_UUIDS[index];
+
+        return new UUID(BASE_UUID_MSB + (shortValue << 32), BASE_UUID_LSB);
+    }
+
+
+    private static boolean isStandardBase(final UUID uuid)
+    {
+        return uuid.getLeastSignificantBits() == BASE_UUID_LSB && (uuid.getMostSignificantBits() & 0xFFFFFFFFL) == BASE_UUID_MSB;
+    }
+
+    private static boolean uuidEquals(final byte[] bytes, final int pos, final int uuidLength, final UUID uuid)
+    {
+        if (uuidLength == UUID_BYTES_128_BIT)
+            return uuidAt(bytes, pos, uuidLength).equals(uuid);
+
+        if (!isStandardBase(uuid))
+            return false;
+
+        long shortValue = (bytes[pos] & 0xFF) | ((bytes[pos + 1] & 0xFF) << 8);
+
+        if (uuidLength == UUID_BYTES_32_BIT)
+            shortValue |= ((long) (bytes[pos + 2] & 0xFF) << 16) | ((long) (bytes[pos + 3] & 0xFF) << 24);
+
+        return shortValue == uuid.getMostSignificantBits() >>> 32;
+    }
+
+    private static int serviceUuidLength(final int type)
+    {
+        switch (type)
+        {
+            case DATA_TYPE_SERVICE_UUIDS_16_BIT_PARTIAL:
+            case DATA_TYPE_SERVICE_UUIDS_16_BIT_COMPLETE:
+                return UUID_BYTES_16_BIT;
+            case DATA_TYPE_SERVICE_UUIDS_32_BIT_PARTIAL:
+            case DATA_TYPE_SERVICE_UUIDS_32_BIT_COMPLETE:
+                return UUID_BYTES_32_BIT;
+            case DATA_TYPE_SERVICE_UUIDS_128_BIT_PARTIAL:
+            case DATA_TYPE_SERVICE_UUIDS_128_BIT_COMPLETE:
+                return UUID_BYTES_128_BIT;
+            default:
+                return 0;
+        }
+    }
+
+    private static int serviceDataUuidLength(final int type)
+    {
+        switch (type)
+        {
+            case DATA_TYPE_SERVICE_DATA_16_BIT:
+                return UUID_BYTES_16_BIT;
+            case DATA_TYPE_SERVICE_DATA_32_BIT:
+                return UUID_BYTES_32_BIT;
+            case DATA_TYPE_SERVICE_DATA_128_BIT:
+                return UUID_BYTES_128_BIT;
+            default:
+                return 0;
+        }
+    }
+
+    private int type(final int index)
+    {
+        return m_structures[index] >>> 24;
+    }
+
+    private int offset(final int index)
+    {
+        return (m_structures[index] >>> 8) & 0xFFFF;
+    }
+
+    private int length(final int index)
+    {
+        return m_structures[index] & 0xFF;
+    }
+
+    // The declared length of the last structure can run past the end of the record
+    private boolean isInBounds(final int index)
+    {
+        return offset(index) + length(index) <= m_record.length;
+    }
+
+    private int indexOf(final int type1, final int type2, final boolean last)
+    {
+        int found = -1;
+
+        for (int i = 0; i < m_structureCount; i++)
+        {
+            final int type = type(i);
+
+            if (type == type1 || type == type2)
+            {
+                if (!last)
+                    return i;
+
+                found = i;
+            }
+        }
+
+        return found;
+    }
+
+    private int firstManufacturerData()
+    {
+        for (int i = 0; i < m_structureCount; i++)
+        {
+            if (type(i) == DATA_TYPE_MANUFACTURER_SPECIFIC_DATA && length(i) >= 2 && isInBounds(i))
+                return i;
+        }
+
+        return -1;
+    }
+
+    private short manufacturerIdAt(final int offset)
+    {
+        return (short) (((m_record[offset + 1] & 0xFF) << 8) + (m_record[offset] & 0xFF));
+    }
+}
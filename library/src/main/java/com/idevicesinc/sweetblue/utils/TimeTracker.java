@@ -23,10 +23,13 @@ import com.idevicesinc.sweetblue.TimeTrackerSetting;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 
+/**
+ * Times sections of the library's update loop, by tag. Each section's time is recorded in a {@link Histogram}, under
+ * {@link MetricsRegistry#UPDATE_LOOP}, with the tag as the type.
+ */
 public class TimeTracker
 {
     private static TimeTracker s_instance = null;
@@ -36,6 +39,11 @@ public class TimeTracker
         s_instance = new TimeTracker(tts);
     }
 
+    public static void createInstance(TimeTrackerSetting tts, MetricsRegistry registry)
+    {
+        s_instance = new TimeTracker(tts, registry);
+    }
+
     public static TimeTracker getInstance()
     {
         /*if (s_instance == null)
@@ -43,88 +51,6 @@ public class TimeTracker
         return s_instance;
     }
 
-    public class Record implements Comparable<Record>
-    {
-        // Record name, also key in map
-        private String m_tag;
-
-        // Total time accumulated
-        private long m_timeAccumulator;
-
-        // How many times this record has been updated
-        private long m_hitCount;
-
-        // Longest single update
-        private long m_longestTime;
-
-        // Shortest single update
-        private long m_shortestTime;
-
-        Record(StackEntry se, long timeNow)
-        {
-            m_tag = se.getTag();
-
-            assert(m_tag != null);
-
-            m_timeAccumulator = timeNow - se.getStartTime();
-
-            m_hitCount = 1;
-
-            m_longestTime = m_timeAccumulator;
-
-            m_shortestTime = m_timeAccumulator;
-        }
-
-        void update(StackEntry se, long timeNow)
-        {
-            assert(m_tag.equals(se.getTag()));
-
-            long dt = timeNow - se.getStartTime();
-
-            m_timeAccumulator += dt;
-
-            ++m_hitCount;
-
-            m_longestTime = Math.max(m_longestTime, dt);
-
-            m_shortestTime = Math.min(m_shortestTime, dt);
-        }
-
-        @Override
-        public String toString()
-        {
-            StringBuilder sb = new StringBuilder();
-
-            sb.append("TimeTracker Record for '" + m_tag + "' - (");
-            sb.append("hits: " + m_hitCount + ", ");
-            sb.append("total: " + printTimeNanos(m_timeAccumulator) + ", ");
-            sb.append("avg: " + printTimeNanos(m_timeAccumulator / m_hitCount) + ", ");
-            sb.append("best: " + printTimeNanos(m_shortestTime) + ", ");
-            sb.append("worst: " + printTimeNanos(m_longestTime) + ")");
-
-            return sb.toString();
-        }
-
-        private String printTimeNanos(long timeNanos)
-        {
-            long timeMs = timeNanos / 1000000;
-            if (timeMs > 0)
-                return "" + timeMs + "ms";
-
-            long timeFrac = timeNanos / 1000;
-            if (timeFrac > 0)
-                return "" + (timeFrac / 1000.0f) + "ms";
-
-            return "0ms";
-        }
-
-        @Override
-        public int compareTo(Record record)
-        {
-            return m_tag.compareTo(record.m_tag);
-        }
-    }
-
     private class StackEntry
     {
         private String m_tag;
@@ -149,10 +75,11 @@ public class TimeTracker
 
     private TimeTrackerSetting m_timeTrackerSetting;
 
+    private final MetricsRegistry m_registry;
+
     private Object m_lock = new Object();
 
     private List<StackEntry> m_stack = new ArrayList<>();
-    private Map<String, Record> m_records = new HashMap<>();
 
     private boolean checkAbort(boolean printing)
     {
@@ -162,8 +89,14 @@ public class TimeTracker
     }
 
     public TimeTracker(TimeTrackerSetting tts)
+    {
+        this(tts, new MetricsRegistry());
+    }
+
+    public TimeTracker(TimeTrackerSetting tts, MetricsRegistry registry)
     {
         m_timeTrackerSetting = tts;
+        m_registry = registry;
     }
 
     public void start(String tag)
@@ -202,6 +135,8 @@ public class TimeTracker
         if (tag == null)
             tag = "";
 
+        final StackEntry se;
+
         synchronized (m_lock)
         {
             if (m_stack.size() < 1)
@@ -211,25 +146,18 @@ public class TimeTracker
             }
 
             int idx = m_stack.size() - 1;
-            StackEntry se = m_stack.get(idx);
+            se = m_stack.get(idx);
             m_stack.remove(idx);
+        }
 
-            // Make sure the tag matches the previous entry...  This is just a redundancy check
-            if (!se.getTag().equals(tag))
-            {
-                assert (false);
-                return;
-            }
-
-            Record r = m_records.get(tag);
-            if (r == null)
-            {
-                r = new Record(se, timeNow);
-                m_records.put(tag, r);
-            }
-            else
-                r.update(se, timeNow);
+        // Make sure the tag matches the previous entry...  This is just a redundancy check
+        if (!se.getTag().equals(tag))
+        {
+            assert (false);
+            return;
         }
+
+        m_registry.histogram(MetricsRegistry.UPDATE_LOOP, tag, null).record(timeNow - se.getStartTime());
     }
 
     public void transition(String stopTag, String startTag)
@@ -245,10 +173,7 @@ public class TimeTracker
     {
         if (checkAbort(false))
             return;
-        synchronized (m_lock)
-        {
-            m_records.clear();
-        }
+        m_registry.reset(MetricsRegistry.UPDATE_LOOP);
     }
 
     public void clear(String tag)
@@ -259,24 +184,34 @@ public class TimeTracker
         if (tag == null)
             tag = "";
 
-        synchronized (m_lock)
-        {
-            m_records.remove(tag);
-        }
+        m_registry.histogram(MetricsRegistry.UPDATE_LOOP, tag, null).reset();
     }
 
     public void print()
     {
         if (checkAbort(true))
             return;
-        synchronized (m_lock)
+
+        final List<MetricsRegistry.Metric> records = new ArrayList<>();
+
+        for (MetricsRegistry.Metric metric : m_registry.snapshot())
         {
-            List<Record> records = new ArrayList<>(m_records.values());
-            Collections.sort(records);
-            Log.i("TimeTracker", "Sorted Results:");
-            for (Record r : records)
-                Log.i("TimeTracker", r.toString());
+            if (metric.name().equals(MetricsRegistry.UPDATE_LOOP) && metric.snapshot().count() > 0)
+                records.add(metric);
         }
+
+        Collections.sort(records, new Comparator<MetricsRegistry.Metric>()
+        {
+            @Override
+            public int compare(MetricsRegistry.Metric lhs, MetricsRegistry.Metric rhs)
+            {
+                return lhs.type().compareTo(rhs.type());
+            }
+        });
+
+        Log.i("TimeTracker", "Sorted Results:");
+        for (MetricsRegistry.Metric r : records)
+            Log.i("TimeTracker", "TimeTracker Record for '" + r.type() + "' - (" + r.snapshot() + ")");
     }
 
     public void setTimeTrackerSetting(TimeTrackerSetting tts)
@@ -33,18 +33,11 @@
 
 package com.idevicesinc.sweetblue.utils;
 
-import java.nio.ByteOrder;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import android.bluetooth.le.*;
-import android.os.ParcelUuid;
-import android.text.TextUtils;
-import android.util.Log;
-import com.idevicesinc.sweetblue.BleNodeConfig;
 
 /**
  * Some utilities for dealing with raw byte array scan records.
@@ -57,8 +50,6 @@ public final class Utils_ScanRecord extends com.idevicesinc.sweetblue.utils.Util
 {
 	private Utils_ScanRecord(){super();}
 
-	private static final String TAG = Utils_ScanRecord.class.getName();
-
 	private static final byte DATA_TYPE_FLAGS = 0x01;
 	private static final byte DATA_TYPE_SERVICE_UUIDS_16_BIT_PARTIAL = 0x02;
 	private static final byte DATA_TYPE_SERVICE_UUIDS_16_BIT_COMPLETE = 0x03;
@@ -74,268 +65,20 @@ public final class Utils_ScanRecord extends com.idevicesinc.sweetblue.utils.Util
 	private static final byte DATA_TYPE_SERVICE_DATA_128_BIT = 0x21;
 	private static final int DATA_TYPE_MANUFACTURER_SPECIFIC_DATA = 0xFF;
 
-	/** Length of bytes for 16 bit UUID */
-	private static final int UUID_BYTES_16_BIT = 2;
-	/** Length of bytes for 32 bit UUID */
-	private static final int UUID_BYTES_32_BIT = 4;
-	/** Length of bytes for 128 bit UUID */
-	private static final int UUID_BYTES_128_BIT = 16;
-
-	private static final UUID BASE_UUID = UUID.fromString("00000000-0000-1000-8000-00805F9B34FB");
-
 
+	/**
+	 * Decodes everything in the given scan record into a new {@link BleScanRecord}. If you only need a few fields, {@link ScanRecordView} is
+	 * cheaper, as it only decodes what you ask for.
+	 */
 	public static BleScanRecord parseScanRecord(final byte[] scanRecord)
 	{
-		Pointer<Integer> txPower = new Pointer<>();
-		txPower.value = BleNodeConfig.INVALID_TX_POWER;
-
-		Pointer<Integer> advFlags = new Pointer<>();
-		advFlags.value = -1;
-
-		Map<UUID, byte[]> serviceData = new HashMap<>();
-		serviceData.clear();
-
-		List<UUID> serviceUUIDs = new ArrayList<>();
-		serviceUUIDs.clear();
-
-		boolean shortName = false;
-		boolean completeList = false;
-
-		List<ManufacturerData> mfgData = new ArrayList<>();
-
-		if(scanRecord == null)
-		{
-			return BleScanRecord.NULL;
-		}
-
-		int currentPos = 0;
-		String localName = null;
-		while( currentPos < scanRecord.length ) {
-			// length is unsigned int.
-			int length = scanRecord[currentPos++] & 0xFF;
-			if (length == 0) {
-				break;
-			}
-
-			// New problem in Android 8.0. It seems some records come in with a length greater than 0, but then there's nothing afterwards, causing
-			// a crash. This check avoids the crash. This also early outs if there's a type int, but no data afterwards. It seems we're seeing more
-			// and more malformed scan records out in the field
-			if (currentPos >= scanRecord.length - 1)
-				break;
-
-			// Note the length includes the length of the field type itself.
-			int dataLength = length - 1;
-			// fieldType is unsigned int.
-			int fieldType = scanRecord[currentPos++] & 0xFF;
-			switch (fieldType) {
-				case DATA_TYPE_FLAGS:
-					advFlags.value = scanRecord[currentPos] & 0xFF;
-					break;
-				case DATA_TYPE_SERVICE_UUIDS_16_BIT_COMPLETE:
-					completeList = true;
-				case DATA_TYPE_SERVICE_UUIDS_16_BIT_PARTIAL:
-					parseServiceUuid(scanRecord, currentPos, dataLength, UUID_BYTES_16_BIT, serviceUUIDs);
-					break;
-				case DATA_TYPE_SERVICE_UUIDS_32_BIT_COMPLETE:
-					completeList = true;
-				case DATA_TYPE_SERVICE_UUIDS_32_BIT_PARTIAL:
-					parseServiceUuid(scanRecord, currentPos, dataLength, UUID_BYTES_32_BIT, serviceUUIDs);
-					break;
-				case DATA_TYPE_SERVICE_UUIDS_128_BIT_COMPLETE:
-					completeList = true;
-				case DATA_TYPE_SERVICE_UUIDS_128_BIT_PARTIAL:
-					parseServiceUuid(scanRecord, currentPos, dataLength, UUID_BYTES_128_BIT, serviceUUIDs);
-					break;
-				case DATA_TYPE_LOCAL_NAME_SHORT:
-					shortName = true;
-				case DATA_TYPE_LOCAL_NAME_COMPLETE:
-					try
-					{
-						localName = new String(extractBytes(scanRecord, currentPos, dataLength));
-					}
-					catch(Exception e)
-					{
-						Log.e(TAG, "unable to parse name");
-					}
-					break;
-				case DATA_TYPE_TX_POWER_LEVEL:
-					txPower.value = (int) scanRecord[currentPos];
-					break;
-				case DATA_TYPE_SERVICE_DATA_16_BIT:
-				case DATA_TYPE_SERVICE_DATA_32_BIT:
-				case DATA_TYPE_SERVICE_DATA_128_BIT:
-					int serviceUuidLength = UUID_BYTES_16_BIT;
-					if (fieldType == DATA_TYPE_SERVICE_DATA_32_BIT)
-						serviceUuidLength = UUID_BYTES_32_BIT;
-					else if (fieldType == DATA_TYPE_SERVICE_DATA_128_BIT)
-						serviceUuidLength = UUID_BYTES_128_BIT;
-					// The first two bytes of the service data are service data UUID in little
-					// endian. The rest bytes are service data.
-					try
-					{
-						byte[] serviceDataUuidBytes = extractBytes(scanRecord, currentPos, serviceUuidLength);
-						UUID serviceDataUuid = parseUuidFrom(serviceDataUuidBytes);
-						byte[] serviceDataArray = extractBytes(scanRecord, currentPos + serviceUuidLength, dataLength - serviceUuidLength);
-						serviceData.put(serviceDataUuid, serviceDataArray);
-					}
-					catch(Exception e)
-					{
-						Log.e(TAG, "unable to parse service data");
-					}
-
-					break;
-				case DATA_TYPE_MANUFACTURER_SPECIFIC_DATA:
-					// The first two bytes of the manufacturer specific data are
-					// manufacturer ids in little endian.
-					try
-					{
-						final ManufacturerData mdata = new ManufacturerData();
-						mdata.m_id = (short) (((scanRecord[currentPos + 1] & 0xFF) << 8) + (scanRecord[currentPos] & 0xFF));
-						mdata.m_data = extractBytes(scanRecord, currentPos + 2, dataLength - 2);
-						mfgData.add(mdata);
-					}
-					catch(Exception e)
-					{
-						Log.e(TAG, "unable to parse manufacturer data");
-					}
-
-					break;
-				default:
-					// Just ignore, we don't handle such data type.
-					break;
-			}
-			currentPos += dataLength;
-		}
-		return new BleScanRecord(advFlags, txPower, serviceUUIDs, completeList, mfgData, serviceData, localName, shortName);
+		return new ScanRecordView(scanRecord).toBleScanRecord();
 	}
 
 	public static String parseName(byte[] scanRecord) {
-		String name = "<NO_NAME>";
-		if (scanRecord == null)
-		{
-			return name;
-		}
-		int currentPos = 0;
-		try
-		{
-			while( currentPos < scanRecord.length )
-			{
-				// length is unsigned int.
-				int length = scanRecord[currentPos++] & 0xFF;
-				if( length == 0 )
-				{
-					break;
-				}
-				// Note the length includes the length of the field type itself.
-				int dataLength = length - 1;
-				// fieldType is unsigned int.
-				int fieldType = scanRecord[currentPos++] & 0xFF;
-				switch( fieldType )
-				{
-					case DATA_TYPE_LOCAL_NAME_COMPLETE:
-						String n = new String(extractBytes(scanRecord, currentPos, dataLength));
-						if (!TextUtils.isEmpty(n)) {
-							return n;
-						}
-						break;
-					default:
-						// Just ignore, we don't handle such data type.
-						break;
-				}
-				currentPos += dataLength;
-			}
-		}
-		catch(Exception e)
-		{
-			Log.e(TAG, "unable to parse scan record: " + Arrays.toString(scanRecord));
-		}
-		return name;
-	}
-
-	// Parse service UUIDs.
-	private static int parseServiceUuid(byte[] scanRecord, int currentPos, int dataLength, int uuidLength, final List<UUID> serviceUuids_nullable)
-	{
-		try
-		{
-			while( dataLength > 0 )
-			{
-				byte[] uuidBytes = extractBytes(scanRecord, currentPos, uuidLength);
-
-				if( serviceUuids_nullable != null )
-				{
-					serviceUuids_nullable.add(parseUuidFrom(uuidBytes));
-				}
-
-				dataLength -= uuidLength;
-				currentPos += uuidLength;
-			}
-		}
-		catch(Exception e)
-		{
-			Log.e(TAG, "unable to parse service uuid of length " + dataLength);
-		}
-
-		return currentPos;
-	}
-
-	// Helper method to extract bytes from byte array.
-	private static byte[] extractBytes(byte[] scanRecord, int start, int length)
-	{
-		byte[] bytes = new byte[length];
-		System.arraycopy(scanRecord, start, bytes, 0, length);
-		return bytes;
-	}
-
-	/**
-	 * Parse UUID from bytes. The {@code uuidBytes} can represent a 16-bit, 32-bit or 128-bit UUID,
-	 * but the returned UUID is always in 128-bit format.
-	 * Note UUID is little endian in Bluetooth.
-	 *
-	 * @param uuidBytes Byte representation of uuid.
-	 * @return {@link ParcelUuid} parsed from bytes.
-	 * @throws IllegalArgumentException If the {@code uuidBytes} cannot be parsed.
-	 */
-	private static UUID parseUuidFrom(byte[] uuidBytes)
-	{
-		if( uuidBytes == null )
-		{
-			throw new IllegalArgumentException("uuidBytes cannot be null");
-		}
-		int length = uuidBytes.length;
-		if( length != UUID_BYTES_16_BIT && length != UUID_BYTES_32_BIT &&
-				length != UUID_BYTES_128_BIT )
-		{
-			throw new IllegalArgumentException("uuidBytes length invalid - " + length);
-		}
-
-		// Construct a 128 bit UUID.
-		if( length == UUID_BYTES_128_BIT )
-		{
-			java.nio.ByteBuffer buf = java.nio.ByteBuffer.wrap(uuidBytes).order(ByteOrder.LITTLE_ENDIAN);
-			long msb = buf.getLong(8);
-			long lsb = buf.getLong(0);
-			return new UUID(msb, lsb);
-		}
-
-		// For 16 bit and 32 bit UUID we need to convert them to 128 bit value.
-		// 128_bit_value = uuid * 2^96 + BASE_UUID
-		long shortUuid;
-		if( length == UUID_BYTES_16_BIT )
-		{
-			shortUuid = uuidBytes[0] & 0xFF;
-			shortUuid += (uuidBytes[1] & 0xFF) << 8;
-		}
-		else
-		{
-			shortUuid = uuidBytes[0] & 0xFF;
-			shortUuid += (uuidBytes[1] & 0xFF) << 8;
-			shortUuid += (uuidBytes[2] & 0xFF) << 16;
-			shortUuid += (uuidBytes[3] & 0xFF) << 24;
-		}
-		long msb = BASE_UUID.getMostSignificantBits() + (shortUuid << 32);
-		long lsb = BASE_UUID.getLeastSignificantBits();
-		return new UUID(msb, lsb);
+		final String name = new ScanRecordView(scanRecord).getName_complete();
 
+		return name != null ? name : "<NO_NAME>";
 	}
 
 
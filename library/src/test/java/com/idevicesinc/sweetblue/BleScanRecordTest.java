@@ -19,6 +19,7 @@ package com.idevicesinc.sweetblue;
 
 import com.idevicesinc.sweetblue.utils.BleScanRecord;
 import com.idevicesinc.sweetblue.utils.BleUuid;
+import com.idevicesinc.sweetblue.utils.ScanRecordView;
 import com.idevicesinc.sweetblue.utils.Utils_ScanRecord;
 import com.idevicesinc.sweetblue.utils.Utils_String;
 import com.idevicesinc.sweetblue.utils.Uuids;
@@ -176,4 +177,77 @@ public class BleScanRecordTest extends AbstractTestClass
         succeed();
     }
 
+    @Test(timeout = 5000)
+    public void scanRecordViewTest() throws Exception
+    {
+        startSynchronousTest();
+        final UUID custom = UUID.fromString("4de6a908-7cc2-831d-48d8-7196e2845530");
+        final short manId = (short) 1234;
+        final byte[] manData = new byte[] { 0x1, 0x2, 0x3 };
+        BleScanRecord bleRecord = new BleScanRecord()
+                .setName("Viewer")
+                .setAdvFlags((byte) 0x6)
+                .setTxPower((byte) -8)
+                .addServiceUuid(Uuids.BATTERY_SERVICE_UUID, BleUuid.UuidSize.SHORT)
+                .addServiceUuid(custom)
+                .addServiceData(Uuids.HEART_RATE_SERVICE_UUID, new byte[] { 72 })
+                .addManufacturerData(manId, manData);
+        byte[] record = bleRecord.buildPacket();
+
+        ScanRecordView view = new ScanRecordView(record);
+        assertEquals("Viewer", view.getName());
+        assertEquals("Viewer", view.getName_complete());
+        assertEquals(0x6, view.getAdvFlags());
+        assertEquals(-8, view.getTxPower());
+        assertEquals(manId, view.getManufacturerId());
+        assertArrayEquals(manData, view.getManufacturerData());
+        assertArrayEquals(new byte[] { 72 }, view.getServiceData(Uuids.HEART_RATE_SERVICE_UUID));
+        assertNull(view.getServiceData(Uuids.BATTERY_SERVICE_UUID));
+
+        // Standard short UUIDs are shared, rather than a new instance for every advertisement
+        List<UUID> services = view.getServiceUuids();
+        assertEquals(2, services.size());
+        final UUID battery = services.get(0).equals(Uuids.BATTERY_SERVICE_UUID) ? services.get(0) : services.get(1);
+        assertTrue(battery == Uuids.BATTERY_SERVICE_UUID);
+        assertTrue(services.contains(custom));
+
+        // Decoding everything gives the same thing the parser always has
+        BleScanRecord info = view.toBleScanRecord();
+        assertEquals("Viewer", info.getName());
+        assertEquals(0x6, info.getAdvFlags().value);
+        assertEquals(-8, info.getTxPower().value);
+        assertTrue(services.equals(info.getServiceUUIDS()));
+        assertArrayEquals(new byte[] { 72 }, info.getServiceData().get(Uuids.HEART_RATE_SERVICE_UUID));
+        assertEquals(1, info.getManufacturerDataList().size());
+        assertEquals("Viewer", Utils_ScanRecord.parseName(record));
+        succeed();
+    }
+
+    @Test(timeout = 5000)
+    public void scanRecordViewMalformedTest() throws Exception
+    {
+        startSynchronousTest();
+        // Name structure claims more bytes than are left in the record
+        byte[] record = Utils_String.hexStringToBytes("0201060A0941424344");
+        ScanRecordView view = new ScanRecordView(record);
+        assertEquals(2, view.getStructureCount());
+        assertEquals(0x6, view.getAdvFlags());
+        assertNull(view.getName());
+        assertEquals("<NO_NAME>", Utils_ScanRecord.parseName(record));
+        assertEquals(BleNodeConfig.INVALID_TX_POWER, view.getTxPower());
+        assertEquals(-1, view.getManufacturerId());
+
+        // Flags and tx power structures with no data in them, followed by manufacturer data
+        ScanRecordView emptyView = new ScanRecordView(Utils_String.hexStringToBytes("0101010A03FF0100"));
+        assertEquals(3, emptyView.getStructureCount());
+        assertEquals(-1, emptyView.getAdvFlags());
+        assertEquals(BleNodeConfig.INVALID_TX_POWER, emptyView.getTxPower());
+
+        ScanRecordView nullView = new ScanRecordView(null);
+        assertTrue(nullView.isNull());
+        assertEquals(0, nullView.getServiceUuids().size());
+        assertTrue(Utils_ScanRecord.parseScanRecord(null) == BleScanRecord.NULL);
+        succeed();
+    }
+
 }
@@ -19,12 +19,16 @@ package com.idevicesinc.sweetblue;
 
 
 import com.idevicesinc.sweetblue.utils.Util_Unit;
+import com.idevicesinc.sweetblue.utils.Utils_String;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 @Config(manifest = Config.NONE, sdk = 25)
 @RunWith(RobolectricTestRunner.class)
@@ -66,4 +70,116 @@ public class DeviceManagerTest extends BaseBleUnitTest
         startAsyncTest();
     }
 
+    @Test(timeout = 60000)
+    public void fleetLookupTest() throws Exception
+    {
+        startSynchronousTest();
+
+        m_manager.setConfig(m_config);
+
+        final int count = 5000;
+        final String[] macs = new String[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            macs[i] = Utils_String.bytesToMacAddress(new byte[]{(byte) 0xC0, (byte) 0xFF, (byte) 0xEE, 0x0, (byte) (i >> 8), (byte) i});
+            m_manager.newDevice(macs[i]);
+        }
+
+        assertEquals(count, m_manager.getDeviceCount());
+
+        for (int i = 0; i < count; i++)
+        {
+            final BleDevice device = m_manager.getDevice(macs[i]);
+
+            assertFalse(device.isNull());
+            assertTrue(device.getMacAddress().equals(macs[i]));
+
+            // Lookups shouldn't care about case or delimiter
+            assertTrue(m_manager.getDevice(macs[i].toLowerCase().replace(':', '-')).equals(device));
+        }
+
+        assertTrue(m_manager.getDevice("C0:FF:EE:FF:FF:FF").isNull());
+        assertTrue(m_manager.getDevice("not a mac address").isNull());
+
+        // Devices are still handed back in the order they were added
+        final List<BleDevice> devices = m_manager.getDevices_List();
+
+        assertEquals(count, devices.size());
+
+        for (int i = 0; i < count; i++)
+        {
+            assertTrue(devices.get(i).getMacAddress().equals(macs[i]));
+        }
+
+        succeed();
+    }
+
+    @Test(timeout = 20000)
+    public void stateQueryTest() throws Exception
+    {
+        m_manager.setConfig(m_config);
+
+        final BleDevice first = m_manager.newDevice(Util_Unit.randomMacAddress());
+        final BleDevice second = m_manager.newDevice(Util_Unit.randomMacAddress());
+        final BleDevice third = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        assertFalse(m_manager.hasDevice(BleDeviceState.PERFORMING_OTA));
+        assertEquals(0, m_manager.getDeviceCount(BleDeviceState.BLE_CONNECTED));
+        assertStateQueriesMatch();
+
+        second.connect(e -> {
+            DeviceManagerTest.this.assertTrue(e.wasSuccess());
+
+            final List<BleDevice> connected = m_manager.getDevices_List(BleDeviceState.BLE_CONNECTED);
+            DeviceManagerTest.this.assertEquals(1, connected.size());
+            DeviceManagerTest.this.assertTrue(connected.get(0).equals(second));
+            DeviceManagerTest.this.assertEquals(1, m_manager.getDeviceCount(BleDeviceState.BLE_CONNECTED));
+            DeviceManagerTest.this.assertTrue(m_manager.getDevice(BleDeviceState.BLE_CONNECTED).equals(second));
+            DeviceManagerTest.this.assertStateQueriesMatch();
+
+            // Devices in more than one of the given states are only returned once, in the order they were added
+            final List<BleDevice> either = m_manager.getDevices_List(BleDeviceState.BLE_CONNECTED.bit() | BleDeviceState.BLE_DISCONNECTED.bit());
+            DeviceManagerTest.this.assertEquals(3, either.size());
+            DeviceManagerTest.this.assertTrue(either.get(0).equals(first));
+            DeviceManagerTest.this.assertTrue(either.get(1).equals(second));
+            DeviceManagerTest.this.assertTrue(either.get(2).equals(third));
+
+            // Queries should already be up to date by the time state listeners hear about a change
+            second.setListener_State(e1 -> {
+                if (e1.didEnter(BleDeviceState.DISCONNECTED))
+                {
+                    DeviceManagerTest.this.assertEquals(0, m_manager.getDeviceCount(BleDeviceState.BLE_CONNECTED));
+                    DeviceManagerTest.this.assertFalse(m_manager.hasDevice(BleDeviceState.BLE_CONNECTED));
+                    DeviceManagerTest.this.assertStateQueriesMatch();
+                    DeviceManagerTest.this.succeed();
+                }
+            });
+
+            second.disconnect();
+        });
+
+        startAsyncTest();
+    }
+
+    // Checks the state queries against walking every device by hand
+    private void assertStateQueriesMatch()
+    {
+        final List<BleDevice> all = m_manager.getDevices_List();
+
+        for (BleDeviceState state : BleDeviceState.VALUES())
+        {
+            final List<BleDevice> expected = new ArrayList<>();
+
+            for (BleDevice device : all)
+            {
+                if (device.is(state))
+                    expected.add(device);
+            }
+
+            assertTrue(expected.equals(m_manager.getDevices_List(state)));
+            assertEquals(expected.size(), m_manager.getDeviceCount(state));
+        }
+    }
+
 }
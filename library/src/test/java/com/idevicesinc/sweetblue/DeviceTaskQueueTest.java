@@ -0,0 +1,250 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.internal.IBleDevice;
+import com.idevicesinc.sweetblue.internal.P_Bridge_BleManager;
+import com.idevicesinc.sweetblue.internal.TestHoldingConnectTask;
+import com.idevicesinc.sweetblue.internal.TestHoldingTask;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class DeviceTaskQueueTest extends BaseBleUnitTest
+{
+
+    @Test(timeout = 15000)
+    public void singleQueueTest() throws Exception
+    {
+        final List<TestHoldingTask> executing = new ArrayList<>();
+
+        final TestHoldingTask.Listener listener = task ->
+        {
+            executing.add(task);
+
+            if (executing.size() == 1)
+            {
+                // Make sure the other device's task is still waiting on this one, then let it through
+                P_Bridge_BleManager.postUpdateDelayed(m_manager.getIBleManager(), () ->
+                {
+                    assertEquals(1, executing.size());
+                    executing.get(0).finish();
+                }, 250);
+            }
+            else
+                succeed();
+        };
+
+        addDeviceTasks(2, listener);
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void concurrentDeviceTasksTest() throws Exception
+    {
+        m_config.useDeviceTaskQueues = true;
+        m_config.maxConcurrentDeviceTasks = 2;
+        m_manager.setConfig(m_config);
+
+        final List<TestHoldingTask> executing = new ArrayList<>();
+
+        final TestHoldingTask.Listener listener = task ->
+        {
+            executing.add(task);
+
+            if (executing.size() == 2)
+            {
+                // The third device should be held back by the concurrency limit until one of the first two finishes
+                P_Bridge_BleManager.postUpdateDelayed(m_manager.getIBleManager(), () ->
+                {
+                    assertEquals(2, executing.size());
+                    executing.get(0).finish();
+                }, 250);
+            }
+            else if (executing.size() == 3)
+                succeed();
+        };
+
+        addDeviceTasks(3, listener);
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void managerTaskBlocksDeviceTasksTest() throws Exception
+    {
+        m_config.useDeviceTaskQueues = true;
+        m_manager.setConfig(m_config);
+
+        final List<TestHoldingTask> executing = new ArrayList<>();
+
+        final TestHoldingTask.Listener deviceListener = task ->
+        {
+            assertTrue(executing.isEmpty());
+            succeed();
+        };
+
+        final TestHoldingTask.Listener managerListener = task ->
+        {
+            executing.add(task);
+
+            // Device tasks must wait for the manager-wide task to end
+            P_Bridge_BleManager.postUpdateDelayed(m_manager.getIBleManager(), () ->
+            {
+                final TestHoldingTask managerTask = executing.remove(0);
+                managerTask.finish();
+            }, 250);
+        };
+
+        P_Bridge_BleManager.suspendQueue(m_manager.getIBleManager());
+        P_Bridge_BleManager.addTask(m_manager.getIBleManager(), new TestHoldingTask(m_manager.getIBleManager(), managerListener));
+        addDeviceTasks(1, deviceListener);
+        P_Bridge_BleManager.unsuspendQueue(m_manager.getIBleManager());
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void connectAdmissionPriorityTest() throws Exception
+    {
+        m_config.useDeviceTaskQueues = true;
+        m_config.maxConcurrentDeviceTasks = 4;
+        m_config.maxConcurrentConnects = 2;
+        m_manager.setConfig(m_config);
+
+        final List<IBleDevice> devices = new ArrayList<>();
+        final List<TestHoldingTask> executing = new ArrayList<>();
+
+        final TestHoldingTask.Listener listener = task ->
+        {
+            executing.add(task);
+
+            // Highest priority goes first, and only two can connect at once. The devices were added lowest priority first.
+            if (executing.size() == 2)
+            {
+                assertTrue(isDevice(executing, devices.get(3)) && isDevice(executing, devices.get(2)));
+
+                P_Bridge_BleManager.postUpdateDelayed(m_manager.getIBleManager(), () ->
+                {
+                    assertEquals(2, executing.size());
+                    executing.get(0).finish();
+                }, 250);
+            }
+            else if (executing.size() == 3)
+            {
+                assertTrue(task.getDevice() == devices.get(1));
+                task.finish();
+            }
+            else if (executing.size() == 4)
+            {
+                assertTrue(task.getDevice() == devices.get(0));
+                succeed();
+            }
+        };
+
+        P_Bridge_BleManager.suspendQueue(m_manager.getIBleManager());
+
+        for (int i = 0; i < 4; i++)
+        {
+            final BleDeviceConfig config = new BleDeviceConfig();
+            config.connectAdmissionPriority = i;
+
+            final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress(), "Device " + i, config);
+            devices.add(device.getIBleDevice());
+            P_Bridge_BleManager.addTask(m_manager.getIBleManager(), new TestHoldingConnectTask(device.getIBleDevice(), listener));
+        }
+
+        P_Bridge_BleManager.unsuspendQueue(m_manager.getIBleManager());
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void connectAdmissionBackoffTest() throws Exception
+    {
+        m_config.useDeviceTaskQueues = true;
+        m_config.maxConcurrentDeviceTasks = 4;
+        m_config.maxConcurrentConnects = 2;
+        m_manager.setConfig(m_config);
+
+        // A 133 should drop us down to one connect at a time
+        P_Bridge_BleManager.onConnectionFailed(m_manager.getIBleManager(), BleStatuses.GATT_ERROR);
+
+        final List<TestHoldingTask> executing = new ArrayList<>();
+
+        final TestHoldingTask.Listener listener = task ->
+        {
+            executing.add(task);
+
+            if (executing.size() == 1)
+            {
+                P_Bridge_BleManager.postUpdateDelayed(m_manager.getIBleManager(), () ->
+                {
+                    assertEquals(1, executing.size());
+                    executing.get(0).finish();
+                }, 250);
+            }
+            else if (executing.size() == 2)
+            {
+                // That success should have opened the second slot back up, so another device can connect alongside this one
+                addDeviceTasks(1, third -> succeed(), true);
+            }
+        };
+
+        addDeviceTasks(2, listener, true);
+
+        startAsyncTest();
+    }
+
+    private static boolean isDevice(List<TestHoldingTask> tasks, IBleDevice device)
+    {
+        for (TestHoldingTask task : tasks)
+        {
+            if (task.getDevice() == device)
+                return true;
+        }
+        return false;
+    }
+
+    private void addDeviceTasks(int count, TestHoldingTask.Listener listener)
+    {
+        addDeviceTasks(count, listener, false);
+    }
+
+    private void addDeviceTasks(int count, TestHoldingTask.Listener listener, boolean connect)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress(), "Device " + i);
+            final TestHoldingTask task = connect ? new TestHoldingConnectTask(device.getIBleDevice(), listener) : new TestHoldingTask(device.getIBleDevice(), listener);
+            P_Bridge_BleManager.addTask(m_manager.getIBleManager(), task);
+        }
+    }
+
+}
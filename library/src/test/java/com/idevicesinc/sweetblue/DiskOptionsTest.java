@@ -0,0 +1,104 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.backend.options.Backend_OptionsStore_Memory;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class DiskOptionsTest extends BaseBleUnitTest
+{
+
+    private final Backend_OptionsStore_Memory m_store = new Backend_OptionsStore_Memory();
+
+
+    @Test(timeout = 10000)
+    public void coalescedWriteTest() throws Exception
+    {
+        final String mac = Util_Unit.randomMacAddress();
+        final BleDevice device = m_manager.newDevice(mac, "Original");
+
+        // Let the name saved when the device was created make it out
+        Thread.sleep(500);
+        final int writeCount = m_store.getWriteCount();
+
+        device.setName("First");
+        device.setName("Second");
+        device.setName("Third");
+
+        // Nothing's hit the store yet, but it's still visible right away
+        assertEquals(writeCount, m_store.getWriteCount());
+        assertEquals("Third", m_manager.newDevice(mac).getName_override());
+
+        Thread.sleep(500);
+
+        // The whole burst went out in one batch
+        assertEquals(writeCount + 1, m_store.getWriteCount());
+
+        relaunch();
+
+        assertEquals("Third", m_manager.newDevice(mac).getName_override());
+    }
+
+    @Test(timeout = 10000)
+    public void shutdownFlushTest() throws Exception
+    {
+        final String mac = Util_Unit.randomMacAddress();
+        m_manager.newDevice(mac, "Original").setName("Renamed");
+
+        // Shutting down right away has to write out anything still pending
+        relaunch();
+
+        assertEquals("Renamed", m_manager.newDevice(mac).getName_override());
+    }
+
+    @Test(timeout = 10000)
+    public void clearTest() throws Exception
+    {
+        final String mac = Util_Unit.randomMacAddress();
+        m_manager.newDevice(mac, "Original").setName("Renamed");
+        m_manager.clearSharedPreferences();
+
+        relaunch();
+
+        assertEquals("", m_manager.newDevice(mac).getName_override());
+    }
+
+    @Override
+    public BleManagerConfig getConfig()
+    {
+        final BleManagerConfig config = super.getConfig();
+        config.optionsStoreFactory = context -> m_store;
+        return config;
+    }
+
+
+    private void relaunch()
+    {
+        m_manager.shutdown();
+        initManager(getConfig());
+    }
+}
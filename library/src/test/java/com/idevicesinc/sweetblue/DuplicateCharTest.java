@@ -42,6 +42,7 @@ public class DuplicateCharTest extends BaseBleUnitTest
 {
 
     private final static UUID mTestService = Uuids.fromShort("ABCD");
+    private final static UUID mTestService2 = Uuids.fromShort("ABCE");
     private final static UUID mTestChar = Uuids.fromShort("1234");
     private final static UUID mTestDesc = Uuids.CHARACTERISTIC_PRESENTATION_FORMAT_DESCRIPTOR_UUID;
     private final static UUID mNotifyDesc = Uuids.CLIENT_CHARACTERISTIC_CONFIGURATION_DESCRIPTOR_UUID;
@@ -59,6 +60,80 @@ public class DuplicateCharTest extends BaseBleUnitTest
             .addDescriptor(mNotifyDesc).setPermissions().readWrite().completeChar()
             .addCharacteristic(mTestChar).setValue(new byte[]{0x2, 0x3, 0x4, 0x5, 0x6}).setProperties().readWrite().setPermissions().readWrite().completeService();
 
+    private GattDatabase db3 = new GattDatabase().addService(mTestService)
+            .addCharacteristic(mTestChar).setValue(new byte[]{0x1}).setProperties().readWriteNotify().setPermissions().readWrite().build()
+            .addDescriptor(mTestDesc).setValue(new byte[]{0x1}).setPermissions().read().completeService()
+            .addService(mTestService2)
+            .addCharacteristic(mTestChar).setValue(new byte[]{0x2}).setProperties().readWriteNotify().setPermissions().readWrite().build()
+            .addDescriptor(mTestDesc).setValue(new byte[]{0x2}).setPermissions().read().completeChar()
+            .addCharacteristic(mTestChar).setValue(new byte[]{0x3}).setProperties().readWriteNotify().setPermissions().readWrite().build()
+            .addDescriptor(mTestDesc).setValue(new byte[]{0x3}).setPermissions().read().completeService();
+
+
+    @Test(timeout = 10000)
+    public void duplicateCharAcrossServicesTest() throws Exception
+    {
+        m_device = null;
+
+        m_config.gattFactory = device -> new UnitTestBluetoothGatt(device, db3);
+
+        m_manager.setConfig(m_config);
+
+        m_manager.setListener_Discovery(e -> {
+            if (e.was(DiscoveryListener.LifeCycle.DISCOVERED))
+            {
+                m_device = e.device();
+                m_device.connect(e1 -> {
+                    DuplicateCharTest.this.assertTrue(e1.wasSuccess());
+
+                    // Without a service, the first match in the database wins
+                    DuplicateCharTest.this.assertTrue(m_device.getNativeBleCharacteristic(mTestChar).getValue()[0] == 0x1);
+                    DuplicateCharTest.this.assertTrue(m_device.getNativeBleCharacteristic(mTestService2, mTestChar).getValue()[0] == 0x2);
+                    DuplicateCharTest.this.assertTrue(m_device.getNativeBleDescriptor(mTestService2, mTestChar, mTestDesc).getValue()[0] == 0x2);
+                    DuplicateCharTest.this.assertTrue(m_device.getNativeBleCharacteristic(Uuids.fromShort("ABCF"), mTestChar).isNull());
+
+                    // The filter has to be able to see every duplicate, in every service
+                    final BleCharacteristic third = m_device.getNativeCharacteristic(null, mTestChar, new DescriptorFilter()
+                    {
+                        @Override
+                        public Please onEvent(DescriptorEvent event)
+                        {
+                            return Please.acceptIf(event.value()[0] == 0x3);
+                        }
+
+                        @Override
+                        public UUID descriptorUuid()
+                        {
+                            return mTestDesc;
+                        }
+                    });
+                    DuplicateCharTest.this.assertTrue(third.getValue()[0] == 0x3);
+                    DuplicateCharTest.this.assertTrue(third.getService().getUuid().equals(mTestService2));
+
+                    final BleCharacteristic none = m_device.getNativeCharacteristic(mTestService, mTestChar, new DescriptorFilter()
+                    {
+                        @Override
+                        public Please onEvent(DescriptorEvent event)
+                        {
+                            return Please.acceptIf(event.value()[0] == 0x3);
+                        }
+
+                        @Override
+                        public UUID descriptorUuid()
+                        {
+                            return mTestDesc;
+                        }
+                    });
+                    DuplicateCharTest.this.assertTrue(none.isNull());
+                    DuplicateCharTest.this.succeed();
+                });
+            }
+        });
+
+        m_manager.newDevice(Util_Unit.randomMacAddress(), "Test Device");
+
+        startAsyncTest();
+    }
 
     @Test(timeout = 10000)
     public void writeCharWhenMultipleExistTest() throws Exception
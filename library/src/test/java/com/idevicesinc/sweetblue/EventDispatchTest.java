@@ -0,0 +1,218 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.internal.TestEventDispatcher;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import java.util.ArrayList;
+import java.util.List;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class EventDispatchTest extends BaseBleUnitTest
+{
+
+    @Test(timeout = 10000)
+    public void batchedDrainTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestEventDispatcher dispatcher = new TestEventDispatcher(m_manager, 1024);
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+        final List<DeviceStateListener.StateEvent> received = new ArrayList<>();
+        final DeviceStateListener listener = received::add;
+
+        for (int i = 0; i < 100; i++)
+        {
+            dispatcher.dispatch(listener, newEvent(device, i, i + 1));
+        }
+
+        // The whole burst goes out with one post
+        assertEquals(1, dispatcher.getPostedCount());
+
+        dispatcher.runPosted();
+
+        assertEquals(100, received.size());
+
+        for (int i = 0; i < 100; i++)
+        {
+            assertEquals(i, received.get(i).oldStateBits());
+        }
+
+        succeed();
+    }
+
+    @Test(timeout = 10000)
+    public void runnableOrderTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestEventDispatcher dispatcher = new TestEventDispatcher(m_manager, 1024);
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+        final List<Integer> received = new ArrayList<>();
+        final DeviceStateListener listener = e -> received.add(e.oldStateBits());
+
+        dispatcher.dispatch(listener, newEvent(device, 1, 2));
+        dispatcher.dispatch(() -> received.add(-1));
+        dispatcher.dispatch(listener, newEvent(device, 2, 3));
+
+        // Still just the one drain, and the runnable stays between the two events
+        assertEquals(1, dispatcher.getPostedCount());
+
+        dispatcher.runPosted();
+
+        assertEquals(3, received.size());
+        assertEquals(1, (int) received.get(0));
+        assertEquals(-1, (int) received.get(1));
+        assertEquals(2, (int) received.get(2));
+
+        succeed();
+    }
+
+    @Test(timeout = 10000)
+    public void overflowTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestEventDispatcher dispatcher = new TestEventDispatcher(m_manager, 4);
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+        final List<DeviceStateListener.StateEvent> received = new ArrayList<>();
+        final DeviceStateListener listener = received::add;
+
+        for (int i = 0; i < 6; i++)
+        {
+            dispatcher.dispatch(listener, newEvent(device, i, i + 1));
+        }
+
+        // The two that didn't fit spill over, but still go out with the same drain
+        assertEquals(1, dispatcher.getPostedCount());
+
+        dispatcher.runPosted();
+
+        assertEquals(6, received.size());
+
+        for (int i = 0; i < 6; i++)
+        {
+            assertEquals(i, received.get(i).oldStateBits());
+        }
+
+        // Once the overflow has been delivered, the ring gets used again
+        dispatcher.dispatch(listener, newEvent(device, 6, 7));
+        dispatcher.runPosted();
+
+        assertEquals(7, received.size());
+        assertEquals(6, received.get(6).oldStateBits());
+
+        succeed();
+    }
+
+    @Test(timeout = 20000)
+    public void multipleProducersTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final int producers = 4;
+        final int perProducer = 500;
+
+        final TestEventDispatcher dispatcher = new TestEventDispatcher(m_manager, producers * perProducer);
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+        final List<DeviceStateListener.StateEvent> received = new ArrayList<>();
+        final DeviceStateListener listener = received::add;
+
+        final Thread[] threads = new Thread[producers];
+
+        for (int p = 0; p < producers; p++)
+        {
+            final int producer = p;
+
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++)
+                {
+                    dispatcher.dispatch(listener, newEvent(device, producer, i));
+                }
+            });
+            threads[p].start();
+        }
+
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        dispatcher.runPosted();
+
+        assertEquals(producers * perProducer, received.size());
+
+        // Each producer's events still arrive in the order it sent them
+        final int[] next = new int[producers];
+
+        for (DeviceStateListener.StateEvent e : received)
+        {
+            assertEquals(next[e.oldStateBits()]++, e.newStateBits());
+        }
+
+        succeed();
+    }
+
+    @Test(timeout = 10000)
+    public void coalesceStateEventsTest() throws Exception
+    {
+        startSynchronousTest();
+
+        m_config.coalesceDeviceStateEvents = true;
+        m_manager.setConfig(m_config);
+
+        final TestEventDispatcher dispatcher = new TestEventDispatcher(m_manager, 1024);
+        final BleDevice first = m_manager.newDevice(Util_Unit.randomMacAddress());
+        final BleDevice second = m_manager.newDevice(Util_Unit.randomMacAddress());
+        final List<DeviceStateListener.StateEvent> received = new ArrayList<>();
+        final DeviceStateListener listener = received::add;
+
+        final int disconnected = BleDeviceState.DISCONNECTED.bit();
+        final int connecting = BleDeviceState.CONNECTING_OVERALL.bit();
+        final int connected = BleDeviceState.CONNECTED.bit();
+
+        dispatcher.dispatch(listener, newEvent(first, disconnected, connecting));
+        dispatcher.dispatch(listener, newEvent(second, disconnected, connecting));
+        dispatcher.dispatch(listener, newEvent(first, connecting, connected));
+        // Ends up right back where it started, so shouldn't produce anything
+        dispatcher.dispatch(listener, newEvent(second, connecting, disconnected));
+
+        dispatcher.runPosted();
+
+        assertEquals(1, received.size());
+        assertTrue(received.get(0).device().equals(first));
+        assertEquals(disconnected, received.get(0).oldStateBits());
+        assertEquals(connected, received.get(0).newStateBits());
+
+        succeed();
+    }
+
+
+    private static DeviceStateListener.StateEvent newEvent(BleDevice device, int oldStateBits, int newStateBits)
+    {
+        return P_Bridge_User.newDeviceStateEvent(device, oldStateBits, newStateBits, 0x0, BleStatuses.GATT_STATUS_NOT_APPLICABLE);
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.defaults.NoReconnectFilter;
+import com.idevicesinc.sweetblue.utils.GattDatabase;
+import com.idevicesinc.sweetblue.utils.Interval;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class FleetSimulatorTest extends BaseBleUnitTest
+{
+
+    private static final UUID SERVICE_UUID = UUID.fromString("1234666a-1000-2000-8000-001199334455");
+    private static final UUID CHAR_UUID = UUID.fromString("1234666b-1000-2000-8000-001199334455");
+
+    private static final GattDatabase DATABASE = new GattDatabase().addService(SERVICE_UUID)
+            .addCharacteristic(CHAR_UUID).setProperties().readWriteNotify().setPermissions().read().completeService();
+
+
+    @Test(timeout = 60000)
+    public void fleetConnectTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final int deviceCount = 200;
+        final FleetSimulator sim = newSimulator(1L);
+
+        sim.addPeripherals(deviceCount, new VirtualPeripheral().setGattDatabase(DATABASE));
+
+        connectEverythingDiscovered();
+
+        assertTrue(sim.runUntil(() -> m_manager.getDeviceCount(BleDeviceState.INITIALIZED) == deviceCount, Interval.mins(2)));
+
+        // Connected peripherals stop advertising, so the scan shouldn't have turned up anything extra
+        assertEquals(deviceCount, m_manager.getDeviceCount());
+
+        succeed();
+    }
+
+    @Test(timeout = 60000)
+    public void determinismTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final List<String> first = runScript(42L);
+        final List<String> second = runScript(42L);
+
+        assertFalse(first.isEmpty());
+        assertTrue(first.equals(second));
+
+        succeed();
+    }
+
+    @Test(timeout = 30000)
+    public void connectFailureTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final FleetSimulator sim = newSimulator(2L);
+        final VirtualPeripheral peripheral = sim.addPeripheral(new VirtualPeripheral().setConnectFailureRate(1.0));
+
+        m_manager.setListener_DeviceReconnect(new NoReconnectFilter());
+
+        final BleDevice device = m_manager.newDevice(peripheral.getMacAddress());
+        final DeviceConnectListener.ConnectEvent[] result = new DeviceConnectListener.ConnectEvent[1];
+
+        device.connect(e -> result[0] = e);
+
+        assertTrue(sim.runUntil(() -> result[0] != null, Interval.secs(30)));
+        assertFalse(result[0].wasSuccess());
+        assertEquals(BleStatuses.GATT_ERROR, result[0].failEvent().gattStatus());
+
+        succeed();
+    }
+
+    @Test(timeout = 30000)
+    public void spontaneousDisconnectTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final FleetSimulator sim = newSimulator(3L);
+        final VirtualPeripheral peripheral = sim.addPeripheral(new VirtualPeripheral().setMeanTimeToDisconnect(Interval.secs(5)));
+
+        // Otherwise a short term reconnect hides the drop
+        m_manager.setListener_DeviceReconnect(new NoReconnectFilter());
+
+        final int[] dropped = new int[1];
+
+        final BleDevice device = m_manager.newDevice(peripheral.getMacAddress());
+
+        device.setListener_State(e -> {
+            if (e.didEnter(BleDeviceState.DISCONNECTED) && e.gattStatus() == BleStatuses.GATT_ERROR)
+                dropped[0]++;
+        });
+
+        for (int i = 1; i <= 3; i++)
+        {
+            device.connect();
+
+            assertTrue(sim.runUntil(() -> device.is(BleDeviceState.INITIALIZED), Interval.secs(10)));
+
+            final int expected = i;
+            assertTrue(sim.runUntil(() -> dropped[0] == expected, Interval.mins(5)));
+            assertTrue(device.is(BleDeviceState.DISCONNECTED));
+        }
+
+        succeed();
+    }
+
+    @Test(timeout = 30000)
+    public void notifyStreamTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final FleetSimulator sim = newSimulator(4L);
+        final VirtualPeripheral peripheral = sim.addPeripheral(new VirtualPeripheral().setGattDatabase(DATABASE)
+                .addNotifyStream(CHAR_UUID, Interval.millis(100), 20));
+
+        final int[] received = new int[1];
+        final boolean[] enabled = new boolean[1];
+
+        final BleDevice device = m_manager.newDevice(peripheral.getMacAddress());
+
+        device.setListener_Notification(e -> {
+            if (e.type() == NotificationListener.Type.ENABLING_NOTIFICATION)
+                enabled[0] = e.wasSuccess();
+            else if (e.type() == NotificationListener.Type.NOTIFICATION)
+            {
+                FleetSimulatorTest.this.assertEquals(20, e.data().length);
+                received[0]++;
+            }
+        });
+
+        device.connect();
+
+        assertTrue(sim.runUntil(() -> device.is(BleDeviceState.INITIALIZED), Interval.secs(10)));
+
+        device.enableNotify(SERVICE_UUID, CHAR_UUID);
+
+        assertTrue(sim.runUntil(() -> enabled[0], Interval.secs(10)));
+
+        received[0] = 0;
+        sim.run(Interval.secs(10));
+
+        // One every 100ms, give or take where the ten seconds happen to start and end
+        assertTrue(received[0] >= 99 && received[0] <= 101);
+
+        succeed();
+    }
+
+
+    private FleetSimulator newSimulator(long seed)
+    {
+        final BleManagerConfig_UnitTest config = new BleManagerConfig_UnitTest();
+        config.loggingOptions = LogOptions.OFF;
+
+        final FleetSimulator sim = new FleetSimulator(m_activity, config, seed);
+
+        // The simulator replaces the manager, so make sure it's the one that gets shut down at the end of the test
+        m_manager = sim.getManager();
+
+        return sim;
+    }
+
+    private void connectEverythingDiscovered()
+    {
+        m_manager.setListener_Discovery(e -> {
+            if (e.was(DiscoveryListener.LifeCycle.DISCOVERED))
+                e.device().connect();
+        });
+
+        m_manager.startScan(new ScanOptions().scanFor(Interval.INFINITE).forceIndefinite(true));
+    }
+
+    // Scans for, and connects to, a small, unreliable fleet, and returns everything that happened, in order.
+    private List<String> runScript(long seed)
+    {
+        final FleetSimulator sim = newSimulator(seed);
+        final List<String> events = new ArrayList<>();
+
+        sim.addPeripherals(20, new VirtualPeripheral().setGattDatabase(DATABASE)
+                .setConnectFailureRate(0.3)
+                .setMeanTimeToDisconnect(Interval.secs(10)));
+
+        m_manager.setListener_DeviceState(e -> {
+            if (e.didEnter(BleDeviceState.CONNECTED) || e.didEnter(BleDeviceState.DISCONNECTED))
+                events.add(sim.getTime().millis() + " " + e.macAddress() + " " + e.device().is(BleDeviceState.CONNECTED) + " " + e.gattStatus());
+        });
+
+        connectEverythingDiscovered();
+
+        sim.run(Interval.secs(30));
+        sim.shutdown();
+
+        return events;
+    }
+}
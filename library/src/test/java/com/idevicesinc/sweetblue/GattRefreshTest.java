@@ -18,13 +18,16 @@
 package com.idevicesinc.sweetblue;
 
 
+import com.idevicesinc.sweetblue.utils.GattDatabase;
 import com.idevicesinc.sweetblue.utils.Pointer;
 import com.idevicesinc.sweetblue.utils.UpdateThreadType;
 import com.idevicesinc.sweetblue.utils.Util_Unit;
+import com.idevicesinc.sweetblue.utils.Uuids;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
+import java.util.UUID;
 
 
 @Config(manifest = Config.NONE, sdk = 25)
@@ -74,4 +77,56 @@ public class GattRefreshTest extends BaseBleUnitTest
 
     }
 
+    @Test(timeout = 12000)
+    public void refreshGattPicksUpNewDatabaseTest() throws Exception
+    {
+        final UUID serviceUuid = Uuids.fromShort("ABCD");
+        final UUID oldCharUuid = Uuids.fromShort("1234");
+        final UUID newCharUuid = Uuids.fromShort("1235");
+
+        final GattDatabase oldDb = new GattDatabase().addService(serviceUuid)
+                .addCharacteristic(oldCharUuid).setValue(new byte[]{0x1}).setProperties().readWrite().setPermissions().readWrite().completeService();
+        final GattDatabase newDb = new GattDatabase().addService(serviceUuid)
+                .addCharacteristic(newCharUuid).setValue(new byte[]{0x2}).setProperties().readWrite().setPermissions().readWrite().completeService();
+
+        final Pointer<UnitTestBluetoothGatt> gatt = new Pointer<>();
+
+        m_config.gattFactory = device -> gatt.value = new UnitTestBluetoothGatt(device, oldDb);
+        m_config.loggingOptions = LogOptions.ON;
+        m_config.defaultDeviceStates = new BleDeviceState[] { BleDeviceState.CONNECTED, BleDeviceState.SERVICES_DISCOVERED };
+
+        m_manager.setConfig(m_config);
+
+        final Pointer<Boolean> refreshingGatt = new Pointer<>(false);
+
+        m_manager.setListener_Discovery(e -> {
+            if (e.was(DiscoveryListener.LifeCycle.DISCOVERED))
+            {
+                final BleDevice device = e.device();
+                device.setListener_State(e1 -> {
+                    if (e1.didEnter(BleDeviceState.SERVICES_DISCOVERED) && refreshingGatt.value)
+                    {
+                        // Lookups must not be served from what was cached before the refresh
+                        GattRefreshTest.this.assertTrue(device.getNativeBleCharacteristic(serviceUuid, oldCharUuid).isNull());
+                        GattRefreshTest.this.assertTrue(device.getNativeBleCharacteristic(serviceUuid, newCharUuid).getValue()[0] == 0x2);
+                        GattRefreshTest.this.succeed();
+                    }
+                });
+                device.connect(e1 -> {
+                    GattRefreshTest.this.assertTrue(e1.wasSuccess());
+                    GattRefreshTest.this.assertTrue(device.getNativeBleCharacteristic(serviceUuid, oldCharUuid).getValue()[0] == 0x1);
+                    GattRefreshTest.this.assertTrue(device.getNativeBleCharacteristic(serviceUuid, newCharUuid).isNull());
+
+                    refreshingGatt.value = true;
+                    gatt.value.setDatabase(newDb);
+                    device.refreshGattDatabase();
+                });
+            }
+        });
+
+        m_manager.newDevice(Util_Unit.randomMacAddress(), "Test Device");
+
+        startAsyncTest();
+    }
+
 }
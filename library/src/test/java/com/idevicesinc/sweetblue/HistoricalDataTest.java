@@ -0,0 +1,269 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.backend.historical.Backend_HistoricalDatabase_Default;
+import com.idevicesinc.sweetblue.utils.EpochTimeRange;
+import com.idevicesinc.sweetblue.utils.HistoricalData;
+import com.idevicesinc.sweetblue.utils.HistoricalDataCursor;
+import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+import com.idevicesinc.sweetblue.utils.Uuids;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class HistoricalDataTest extends BaseBleUnitTest
+{
+
+    private static final long DAY = 24L * 60L * 60L * 1000L;
+    private static final long START = 1500000000000L;
+
+    private static final UUID UUID_1 = Uuids.BATTERY_LEVEL;
+    private static final UUID UUID_2 = Uuids.DEVICE_NAME;
+
+
+    @Test(timeout = 15000)
+    public void rangeCountAndCursorTest() throws Exception
+    {
+        final Backend_HistoricalDatabase_Default database = newDatabase();
+        final String mac = Util_Unit.randomMacAddress();
+
+        // Spread 300 points over 3 days, batched together
+        database.add_multiple_start();
+        for (int i = 0; i < 300; i++)
+        {
+            database.add_multiple_next(mac, UUID_1, data(START + i * (DAY / 100), i));
+        }
+        database.add_multiple_end();
+
+        database.add_single(mac, UUID_2, data(START, 0), 0);
+
+        assertTrue(database.doesDataExist(mac, UUID_1));
+        assertEquals(300, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+        assertEquals(1, database.getCount(mac, UUID_2, EpochTimeRange.FROM_MIN_TO_MAX));
+
+        // Range cutting through the middle of the first and last day
+        final EpochTimeRange range = new EpochTimeRange(START + 50 * (DAY / 100), START + 249 * (DAY / 100));
+        assertEquals(200, database.getCount(mac, UUID_1, range));
+
+        final HistoricalDataCursor cursor = database.getCursor(mac, UUID_1, range);
+        assertEquals(200, cursor.getCount());
+
+        int expected = 50;
+        while (cursor.moveToNext())
+        {
+            assertEquals(START + expected * (DAY / 100), cursor.getEpochTime());
+            assertEquals((byte) expected, cursor.getBlob()[0]);
+            expected++;
+        }
+        assertEquals(250, expected);
+
+        assertTrue(cursor.moveToPosition(123));
+        assertEquals(START + 173 * (DAY / 100), cursor.getEpochTime());
+        assertTrue(cursor.moveToFirst());
+        assertTrue(cursor.isFirst());
+        assertTrue(cursor.moveToLast());
+        assertEquals(START + 249 * (DAY / 100), cursor.getEpochTime());
+        assertFalse(cursor.moveToPosition(200));
+        assertTrue(cursor.isAfterLast());
+        cursor.close();
+    }
+
+    @Test(timeout = 15000)
+    public void outOfOrderAndPersistenceTest() throws Exception
+    {
+        final String mac = Util_Unit.randomMacAddress();
+
+        Backend_HistoricalDatabase_Default database = newDatabase();
+        database.add_single(mac, UUID_1, data(START + 3000, 3), 0);
+        database.add_single(mac, UUID_1, data(START + 1000, 1), 0);
+        database.add_single(mac, UUID_1, data(START + 2000, 2), 0);
+        database.add_single(mac, UUID_1, data(START + DAY, 4), 0);
+
+        // A fresh instance has to find everything by scanning the files
+        database = newDatabase();
+        assertEquals(4, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+
+        final List<Long> times = new ArrayList<>();
+        database.load(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX, next -> times.add(next.getEpochTime_millis()));
+
+        assertEquals(4, times.size());
+        assertEquals(START + 1000, (long) times.get(0));
+        assertEquals(START + 2000, (long) times.get(1));
+        assertEquals(START + 3000, (long) times.get(2));
+        assertEquals(START + DAY, (long) times.get(3));
+    }
+
+    @Test(timeout = 15000)
+    public void truncatedRecordTest() throws Exception
+    {
+        final String mac = Util_Unit.randomMacAddress();
+
+        Backend_HistoricalDatabase_Default database = newDatabase();
+        database.add_single(mac, UUID_1, data(START, 1), 0);
+        database.add_single(mac, UUID_1, data(START + 1000, 2), 0);
+
+        // Simulate a crash in the middle of writing the second record
+        final File directory = new File(new File(m_activity.getFilesDir(), Backend_HistoricalDatabase_Default.DIRECTORY_NAME), database.getTableName(mac, UUID_1));
+        final File[] files = directory.listFiles();
+        assertEquals(1, files.length);
+        final RandomAccessFile file = new RandomAccessFile(files[0], "rw");
+        file.setLength(file.length() - 3);
+        file.close();
+
+        database = newDatabase();
+        assertEquals(1, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+
+        // Appending after the recovery has to leave a readable file behind
+        database.add_single(mac, UUID_1, data(START + 2000, 3), 0);
+        database = newDatabase();
+        assertEquals(2, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+    }
+
+    @Test(timeout = 15000)
+    public void unreadableSegmentTest() throws Exception
+    {
+        final String mac = Util_Unit.randomMacAddress();
+
+        Backend_HistoricalDatabase_Default database = newDatabase();
+        database.add_single(mac, UUID_1, data(START, 1), 0);
+
+        // A directory in place of the next day's segment can't be opened, which stands in for any read failure
+        final File directory = new File(new File(m_activity.getFilesDir(), Backend_HistoricalDatabase_Default.DIRECTORY_NAME), database.getTableName(mac, UUID_1));
+        final File unreadable = new File(directory, ((START + DAY) / DAY) * DAY + ".seg");
+        assertTrue(unreadable.mkdir());
+
+        database = newDatabase();
+        assertEquals(1, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+
+        // The failed segment is skipped, not deleted
+        assertTrue(unreadable.exists());
+    }
+
+    @Test(timeout = 15000)
+    public void deleteTest() throws Exception
+    {
+        final Backend_HistoricalDatabase_Default database = newDatabase();
+        final String mac = Util_Unit.randomMacAddress();
+
+        for (int i = 0; i < 10; i++)
+        {
+            database.add_single(mac, UUID_1, data(START + i * (DAY / 2), i), 0);
+        }
+
+        // Adding with a max count to delete trims the oldest
+        database.add_single(mac, UUID_1, data(START + 10 * (DAY / 2), 10), 3);
+        assertEquals(8, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+
+        final HistoricalDataCursor cursor = database.getCursor(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX);
+        assertTrue(cursor.moveToFirst());
+        assertEquals(START + 3 * (DAY / 2), cursor.getEpochTime());
+        cursor.close();
+
+        database.delete_singleUuid_singleDate(mac, UUID_1, START + 5 * (DAY / 2));
+        assertEquals(7, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+
+        database.delete_singleUuid_inRange(mac, UUID_1, new EpochTimeRange(START, START + 8 * (DAY / 2)), Long.MAX_VALUE);
+        assertEquals(2, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+
+        database.delete_singleUuid_all(mac, UUID_1);
+        assertFalse(database.doesDataExist(mac, UUID_1));
+        assertEquals(0, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+    }
+
+    @Test(timeout = 15000)
+    public void maxAgeTest() throws Exception
+    {
+        m_config.historicalDataMaxAge = Interval.secs(2 * 24 * 60 * 60);
+        m_manager.setConfig(m_config);
+
+        final Backend_HistoricalDatabase_Default database = newDatabase();
+        final String mac = Util_Unit.randomMacAddress();
+        final long now = System.currentTimeMillis();
+
+        database.add_single(mac, UUID_1, data(now - 10 * DAY, 0), 0);
+        database.add_single(mac, UUID_1, data(now - 5 * DAY, 1), 0);
+        database.add_single(mac, UUID_1, data(now, 2), 0);
+
+        assertEquals(1, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+    }
+
+    @Test(timeout = 15000)
+    public void batchAcrossSegmentsTest() throws Exception
+    {
+        final String mac = Util_Unit.randomMacAddress();
+
+        // Alternate between two days, so every add in the batch switches segments
+        Backend_HistoricalDatabase_Default database = newDatabase();
+        database.add_multiple_start();
+        for (int i = 0; i < 20; i++)
+        {
+            database.add_multiple_next(mac, UUID_1, data(START + (i % 2) * DAY + i, i));
+        }
+        database.add_multiple_end();
+
+        database = newDatabase();
+        assertEquals(20, database.getCount(mac, UUID_1, EpochTimeRange.FROM_MIN_TO_MAX));
+        assertEquals(10, database.getCount(mac, UUID_1, new EpochTimeRange(START + DAY, START + DAY + 100)));
+    }
+
+    @Test(timeout = 15000)
+    public void deviceLogToDiskTest() throws Exception
+    {
+        m_config.historicalDataLogFilter = e -> BleNodeConfig.HistoricalDataLogFilter.Please.logToDisk().andLimitLogTo(5);
+        m_manager.setConfig(m_config);
+
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress(), "Historian");
+
+        for (int i = 0; i < 8; i++)
+        {
+            device.addHistoricalData(UUID_1, data(START + i * 1000, i));
+        }
+
+        assertEquals(5, device.getHistoricalDataCount(UUID_1));
+        assertEquals(START + 3000, device.getHistoricalData_atOffset(UUID_1, 0).getEpochTime_millis());
+        assertEquals(START + 7000, device.getHistoricalData_latest(UUID_1).getEpochTime_millis());
+        assertEquals(3, device.getHistoricalDataCount(UUID_1, new EpochTimeRange(START + 5000, START + 9000)));
+    }
+
+
+    private Backend_HistoricalDatabase_Default newDatabase()
+    {
+        final Backend_HistoricalDatabase_Default database = new Backend_HistoricalDatabase_Default(m_activity);
+        database.init(m_manager.getIBleManager());
+        return database;
+    }
+
+    private static HistoricalData data(final long time, final int value)
+    {
+        return new HistoricalData(time, new byte[]{(byte) value, 0x1, 0x2});
+    }
+}
@@ -0,0 +1,172 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.internal.P_Logger;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+import com.idevicesinc.sweetblue.utils.Uuids;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class LoggingTest extends BaseBleUnitTest
+{
+
+    private static final int WARMUP_ITERATIONS = 20000;
+    private static final int ITERATIONS = 100000;
+
+    // Leaves some room for anything the JVM itself decides to allocate while we're measuring
+    private static final long ALLOCATION_SLACK = 4096;
+
+
+    @Test(timeout = 15000)
+    public void formattedLogTest() throws Exception
+    {
+        final List<String> entries = new ArrayList<>();
+
+        m_config.loggingOptions = LogOptions.ALL_ON;
+        m_config.logger = (level, tag, msg) -> entries.add(msg);
+        m_manager.setConfig(m_config);
+
+        final P_Logger logger = m_manager.getIBleManager().getLogger();
+        final String mac = Util_Unit.randomMacAddress();
+        final UUID uuid = Uuids.BATTERY_LEVEL;
+
+        entries.clear();
+
+        logger.logf_native(LogOptions.LogLevel.DEBUG.nativeBit(), mac, "characteristic=%s", uuid);
+        logger.logf(LogOptions.LogLevel.INFO.nativeBit(), "LoggingTest", mac, "%s %s", "first", 2);
+        logger.log_status_native(mac, BleStatuses.GATT_SUCCESS, "char", uuid);
+
+        assertEquals(3, entries.size());
+        assertTrue(entries.get(0).contains("[" + mac + "]"));
+        assertTrue(entries.get(0).endsWith("characteristic=" + uuid));
+        assertTrue(entries.get(1).endsWith("first 2"));
+        assertTrue(entries.get(2).endsWith(logger.charName(uuid)));
+
+        m_config.loggingOptions = new LogOptions(LogOptions.LogLevel.ERROR, LogOptions.LogLevel.ERROR);
+        m_manager.setConfig(m_config);
+
+        entries.clear();
+
+        logger.logf_native(LogOptions.LogLevel.DEBUG.nativeBit(), mac, "characteristic=%s", uuid);
+        logger.logf(LogOptions.LogLevel.INFO.nativeBit(), "LoggingTest", mac, "%s %s", "first", 2);
+        logger.log_status_native(mac, BleStatuses.GATT_SUCCESS, "char", uuid);
+
+        assertTrue(entries.isEmpty());
+        assertFalse(logger.isNativeEnabled(LogOptions.LogLevel.WARN.nativeBit()));
+        assertTrue(logger.isNativeEnabled(LogOptions.LogLevel.ERROR.nativeBit()));
+    }
+
+    @Test(timeout = 15000)
+    public void nativeOffTest() throws Exception
+    {
+        final List<String> entries = new ArrayList<>();
+
+        m_config.loggingOptions = new LogOptions().enableSweetBlueLogs(LogOptions.LogLevel.DEBUG);
+        m_config.logger = (level, tag, msg) -> entries.add(msg);
+        m_manager.setConfig(m_config);
+
+        final P_Logger logger = m_manager.getIBleManager().getLogger();
+        final String mac = Util_Unit.randomMacAddress();
+        final UUID uuid = Uuids.BATTERY_LEVEL;
+
+        entries.clear();
+
+        logger.logf_native(LogOptions.LogLevel.ERROR.nativeBit(), mac, "characteristic=%s", uuid);
+        logger.log_status_native(mac, BleStatuses.GATT_SUCCESS, "char", uuid);
+        logger.log_native(LogOptions.LogLevel.ERROR.nativeBit(), mac, "native");
+        logger.logf(LogOptions.LogLevel.INFO.nativeBit(), "LoggingTest", mac, "%s %s", "first", 2);
+
+        // Only the SweetBlue entry gets through, native logging being off means off at every level
+        assertEquals(1, entries.size());
+        assertTrue(entries.get(0).endsWith("first 2"));
+        assertTrue(logger.isEnabled(LogOptions.LogLevel.INFO.nativeBit()));
+        assertFalse(logger.isNativeEnabled(LogOptions.LogLevel.ERROR.nativeBit()));
+
+        m_config.loggingOptions = new LogOptions().enableNativeLogs(LogOptions.LogLevel.DEBUG);
+        m_manager.setConfig(m_config);
+
+        assertFalse(logger.isEnabled(LogOptions.LogLevel.ERROR.nativeBit()));
+        assertTrue(logger.isNativeEnabled(LogOptions.LogLevel.DEBUG.nativeBit()));
+    }
+
+    @Test(timeout = 30000)
+    public void disabledLoggingAllocationTest() throws Exception
+    {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean allocBean = (com.sun.management.ThreadMXBean) bean;
+
+        Assume.assumeTrue(allocBean.isThreadAllocatedMemorySupported());
+
+        allocBean.setThreadAllocatedMemoryEnabled(true);
+
+        m_config.loggingOptions = LogOptions.OFF;
+        m_manager.setConfig(m_config);
+
+        final P_Logger logger = m_manager.getIBleManager().getLogger();
+        final String mac = Util_Unit.randomMacAddress();
+        final UUID uuid = Uuids.BATTERY_LEVEL;
+        final long threadId = Thread.currentThread().getId();
+
+        // Same calls the native notify/read/write callbacks make, so this covers the logging those paths do
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+        {
+            logNotificationPath(logger, mac, uuid);
+        }
+
+        final long overheadStart = allocBean.getThreadAllocatedBytes(threadId);
+        final long overhead = allocBean.getThreadAllocatedBytes(threadId) - overheadStart;
+
+        final long start = allocBean.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < ITERATIONS; i++)
+        {
+            logNotificationPath(logger, mac, uuid);
+        }
+
+        final long allocated = allocBean.getThreadAllocatedBytes(threadId) - start - overhead;
+
+        assertTrue("Expected no allocations with logging off, but got " + allocated + " bytes", allocated < ALLOCATION_SLACK);
+    }
+
+    private static void logNotificationPath(P_Logger logger, String mac, UUID uuid)
+    {
+        logger.logf_native(LogOptions.LogLevel.DEBUG.nativeBit(), mac, "characteristic=%s", uuid);
+        logger.log_status_native(mac, BleStatuses.GATT_SUCCESS, "char", uuid);
+        logger.log_status_native(mac, BleStatuses.GATT_SUCCESS);
+        logger.logf(LogOptions.LogLevel.DEBUG.nativeBit(), null, mac, "characteristic=%s", uuid);
+    }
+
+}
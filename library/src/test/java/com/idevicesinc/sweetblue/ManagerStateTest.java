@@ -139,6 +139,27 @@ public final class ManagerStateTest extends BaseBleUnitTest
         startAsyncTest();
     }
 
+    @Test(timeout = 20000)
+    public void configSnapshotTest() throws Exception
+    {
+        m_config.loggingOptions = LogOptions.ON;
+
+        m_manager.setConfig(m_config);
+
+        final BleManagerConfig current = m_manager.getIBleManager().conf_mngr();
+
+        // Internal reads share the current config, users always get their own copy
+        assertTrue(current == m_manager.getIBleManager().conf_mngr());
+        assertTrue(current != m_manager.getConfigClone());
+        assertTrue(m_manager.getConfigClone() != m_manager.getConfigClone());
+
+        m_manager.setConfig(m_config);
+
+        // Setting the config again should swap in a new instance, rather than changing the one other threads may be reading
+        assertTrue(current != m_manager.getIBleManager().conf_mngr());
+        assertTrue(current.loggingOptions == LogOptions.ON);
+    }
+
     private class DontTurnOffBluetoothManager extends UnitTestBluetoothManager
     {
         // Don't turn the state to off, so we stay in the turning off state to test going into turning on/ble turning on from here
@@ -0,0 +1,186 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.internal.IBleDevice;
+import com.idevicesinc.sweetblue.internal.android.IBluetoothGatt;
+import com.idevicesinc.sweetblue.utils.GattDatabase;
+import com.idevicesinc.sweetblue.utils.Histogram;
+import com.idevicesinc.sweetblue.utils.MetricsRegistry;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import java.util.UUID;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class MetricsTest extends BaseBleUnitTest
+{
+
+    private static final UUID SERVICE_UUID = UUID.randomUUID();
+    private static final UUID CHAR_UUID = UUID.randomUUID();
+
+    private final GattDatabase db = new GattDatabase().addService(SERVICE_UUID)
+            .addCharacteristic(CHAR_UUID).setProperties().readWrite().setPermissions().readWrite().completeService();
+
+
+    @Test(timeout = 5000)
+    public void percentileTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final Histogram histogram = new Histogram();
+
+        // One through ten thousand microseconds, once each
+        for (long i = 1; i <= 10000; i++)
+        {
+            histogram.record(i * 1000);
+        }
+
+        final Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(10000, snapshot.count());
+        assertEquals(1000, snapshot.min());
+        assertEquals(10000000, snapshot.max());
+        assertEquals(5000500, snapshot.mean());
+
+        assertWithinError(5000000, snapshot.p50());
+        assertWithinError(9900000, snapshot.p99());
+        assertWithinError(9990000, snapshot.p999());
+        assertEquals(snapshot.max(), snapshot.percentile(100.0));
+
+        succeed();
+    }
+
+    @Test(timeout = 5000)
+    public void snapshotAndResetTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final MetricsRegistry registry = new MetricsRegistry();
+        final String mac = Util_Unit.randomMacAddress();
+
+        registry.record(MetricsRegistry.TASK_EXECUTION, "Read", mac, 100);
+        registry.record(MetricsRegistry.TASK_EXECUTION, "Read", null, 300);
+
+        assertEquals(2, registry.get(MetricsRegistry.TASK_EXECUTION, "Read", null).count());
+        assertEquals(1, registry.get(MetricsRegistry.TASK_EXECUTION, "Read", mac).count());
+        assertNull(registry.get(MetricsRegistry.TASK_EXECUTION, "Write", null));
+
+        int total = 0;
+
+        for (MetricsRegistry.Metric metric : registry.snapshotAndReset())
+        {
+            total += metric.snapshot().count();
+        }
+
+        assertEquals(3, total);
+
+        // The histograms stick around, they're just empty now
+        assertEquals(0, registry.get(MetricsRegistry.TASK_EXECUTION, "Read", null).count());
+
+        registry.reset();
+
+        assertTrue(registry.snapshot().isEmpty());
+
+        succeed();
+    }
+
+    @Test(timeout = 15000)
+    public void taskMetricsTest() throws Exception
+    {
+        m_config.enableMetrics = true;
+        m_config.metricsPerDevice = true;
+        m_manager.setConfig(m_config);
+
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        device.connect(e ->
+        {
+            MetricsTest.this.assertTrue(e.wasSuccess());
+
+            // Tasks end before their callbacks go out, so everything should be recorded by the time this comes back
+            device.read(new BleRead(SERVICE_UUID, CHAR_UUID).setReadWriteListener(r ->
+            {
+                MetricsTest.this.assertTrue(r.wasSuccess());
+
+                final MetricsRegistry metrics = m_manager.getMetrics();
+
+                assertCount(1, metrics.get(MetricsRegistry.TASK_QUEUE_WAIT, "Read", null));
+                assertCount(1, metrics.get(MetricsRegistry.TASK_EXECUTION, "Read", null));
+                assertCount(1, metrics.get(MetricsRegistry.TASK_EXECUTION, "Read", device.getMacAddress()));
+                assertCount(1, metrics.get(MetricsRegistry.GATT_OPERATION, BleTask.READ.name(), null));
+                assertCount(1, metrics.get(MetricsRegistry.GATT_OPERATION, BleTask.CONNECT.name(), null));
+                assertCount(1, metrics.get(MetricsRegistry.CONNECT_PHASE, BleDeviceState.CONNECTING_OVERALL.name(), null));
+                assertCount(1, metrics.get(MetricsRegistry.CONNECT_PHASE, BleDeviceState.DISCOVERING_SERVICES.name(), device.getMacAddress()));
+
+                succeed();
+            }));
+        });
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void disabledByDefaultTest() throws Exception
+    {
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        device.connect(e ->
+        {
+            MetricsTest.this.assertTrue(e.wasSuccess());
+            MetricsTest.this.assertTrue(m_manager.getMetrics().snapshot().isEmpty());
+
+            succeed();
+        });
+
+        startAsyncTest();
+    }
+
+
+    @Override
+    public IBluetoothGatt getGattLayer(IBleDevice device)
+    {
+        return new UnitTestBluetoothGatt(device, db)
+        {
+            @Override
+            public boolean readCharacteristic(BleCharacteristic characteristic)
+            {
+                characteristic.setValue(Util_Unit.randomBytes(20));
+                return super.readCharacteristic(characteristic);
+            }
+        };
+    }
+
+
+    // Percentiles come from the middle of a bucket, so can be off by up to half of one, which is 1/32nd of the value
+    private void assertWithinError(long expected, long actual)
+    {
+        assertTrue("Expected " + expected + ", got " + actual, Math.abs(expected - actual) <= expected / 32);
+    }
+
+    private void assertCount(long expected, Histogram.Snapshot snapshot_nullable)
+    {
+        assertNotNull(snapshot_nullable);
+        assertEquals(expected, snapshot_nullable.count());
+    }
+}
@@ -0,0 +1,185 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.internal.TestNotifyBufferPool;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class NotifyBufferPoolTest extends BaseBleUnitTest
+{
+
+    @Test(timeout = 10000)
+    public void acquireReleaseTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestNotifyBufferPool pool = new TestNotifyBufferPool(4);
+        final byte[] value = new byte[] { 0x1, 0x2, 0x3, 0x4 };
+
+        final TestNotifyBufferPool.Handle handle = pool.acquire(value);
+
+        assertNotNull(handle);
+        assertEquals(3, pool.getFreeCount());
+        assertArrayEquals(value, handle.copy());
+
+        // A listener holding its own reference keeps the slot alive after the acquirer lets go
+        handle.retain();
+        handle.release();
+
+        assertTrue(handle.isValid());
+        assertEquals(3, pool.getFreeCount());
+
+        handle.release();
+
+        assertFalse(handle.isValid());
+        assertNull(handle.view());
+        assertNull(handle.copy());
+        assertEquals(4, pool.getFreeCount());
+
+        // Releasing too many times shouldn't put the slot back twice
+        handle.release();
+
+        assertEquals(4, pool.getFreeCount());
+
+        succeed();
+    }
+
+    @Test(timeout = 10000)
+    public void reusedListenerWrapperTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestNotifyBufferPool pool = new TestNotifyBufferPool(1);
+        final int[] calls = new int[1];
+        final NotificationListener listener = e -> calls[0]++;
+
+        final TestNotifyBufferPool.Handle first = pool.acquire(new byte[] { 0x1, 0x2 });
+        final NotificationListener firstWrapper = first.retainFor(listener);
+        first.release();
+
+        // The wrapper's reference is the only thing keeping the slot out of the pool
+        assertEquals(0, pool.getFreeCount());
+
+        firstWrapper.onEvent(null);
+
+        assertEquals(1, calls[0]);
+        assertEquals(1, pool.getFreeCount());
+
+        // Same slot, so the same wrapper gets handed out again, rather than a new one
+        final TestNotifyBufferPool.Handle second = pool.acquire(new byte[] { 0x3 });
+
+        assertTrue(firstWrapper == second.retainFor(listener));
+        assertEquals(1, second.view().remaining());
+
+        succeed();
+    }
+
+    @Test(timeout = 10000)
+    public void recycledSlotTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestNotifyBufferPool pool = new TestNotifyBufferPool(1);
+
+        final TestNotifyBufferPool.Handle first = pool.acquire(new byte[] { 0x1, 0x2 });
+        first.release();
+
+        final TestNotifyBufferPool.Handle second = pool.acquire(new byte[] { 0x3, 0x4, 0x5 });
+
+        // Same slot, but anyone still holding on to the first value shouldn't see the second one
+        assertNotNull(second);
+        assertFalse(first.isValid());
+        assertNull(first.copy());
+        assertArrayEquals(new byte[] { 0x3, 0x4, 0x5 }, second.copy());
+
+        second.release();
+
+        succeed();
+    }
+
+    @Test(timeout = 10000)
+    public void fallbackTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestNotifyBufferPool pool = new TestNotifyBufferPool(2);
+
+        assertNull(pool.acquire(null));
+        assertNull(pool.acquire(new byte[TestNotifyBufferPool.SLOT_SIZE + 1]));
+
+        final TestNotifyBufferPool.Handle first = pool.acquire(new byte[TestNotifyBufferPool.SLOT_SIZE]);
+        final TestNotifyBufferPool.Handle second = pool.acquire(new byte[0]);
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(0, second.view().remaining());
+
+        // Exhausted, so the caller has to fall back to copying
+        assertNull(pool.acquire(new byte[] { 0x1 }));
+
+        first.release();
+
+        assertNotNull(pool.acquire(new byte[] { 0x1 }));
+
+        succeed();
+    }
+
+    @Test(timeout = 10000)
+    public void readOnlyViewTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestNotifyBufferPool pool = new TestNotifyBufferPool(2);
+
+        // Fill the first slot, so the view of the second has to start at the right offset
+        pool.acquire(new byte[] { 0x7, 0x7, 0x7 });
+
+        final TestNotifyBufferPool.Handle handle = pool.acquire(new byte[] { 0x1, 0x2, 0x3 });
+        final ByteBuffer view = handle.view();
+
+        assertTrue(view.isReadOnly());
+        assertEquals(0, view.position());
+        assertEquals(3, view.remaining());
+        assertEquals(0x1, view.get(0));
+        assertEquals(0x3, view.get(2));
+
+        boolean threw = false;
+
+        try
+        {
+            view.put(0, (byte) 0x9);
+        }
+        catch (ReadOnlyBufferException e)
+        {
+            threw = true;
+        }
+
+        assertTrue(threw);
+
+        succeed();
+    }
+}
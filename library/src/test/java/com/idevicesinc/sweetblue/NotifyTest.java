@@ -21,6 +21,7 @@ package com.idevicesinc.sweetblue;
 import android.bluetooth.BluetoothGattCharacteristic;
 
 import com.idevicesinc.sweetblue.internal.IBleDevice;
+import com.idevicesinc.sweetblue.internal.TestNotifyBufferPool;
 import com.idevicesinc.sweetblue.utils.GattDatabase;
 import com.idevicesinc.sweetblue.utils.Interval;
 import com.idevicesinc.sweetblue.utils.Util_Unit;
@@ -29,6 +30,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Random;
 import java.util.UUID;
@@ -287,6 +289,140 @@ public class NotifyTest extends BaseBleUnitTest
         startAsyncTest();
     }
 
+    @Test(timeout = 15000)
+    public void notifyRoutedToCharacteristicTest() throws Exception
+    {
+        m_config.gattFactory = device -> new UnitTestBluetoothGatt(device, NotifyTest.this.dbNotify);
+
+        m_config.loggingOptions = LogOptions.ON;
+
+        m_manager.setConfig(m_config);
+
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress(), "NotifyRouter");
+
+        final byte[] firstData = new byte[] { 0x1, 0x2, 0x3 };
+        final byte[] secondData = new byte[] { 0x4, 0x5, 0x6 };
+        final int[] received = new int[1];
+
+        // Each notification should come through exactly once, for the characteristic it was sent on, even with
+        // notifications enabled on more than one characteristic
+        device.setListener_Notification(e -> {
+            if (e.type() == NotificationListener.Type.ENABLING_NOTIFICATION && e.charUuid().equals(mTest2Char))
+            {
+                NotifyTest.this.assertTrue(e.wasSuccess());
+                Util_Native.sendNotification(device, e.characteristic(), firstData, Interval.millis(100));
+                Util_Native.sendNotification(device, e.characteristic(), secondData, Interval.millis(200));
+            }
+            else if (e.type() == NotificationListener.Type.NOTIFICATION)
+            {
+                NotifyTest.this.assertTrue(e.charUuid().equals(mTest2Char));
+                NotifyTest.this.assertArrayEquals(received[0] == 0 ? firstData : secondData, e.data());
+                received[0]++;
+
+                if (received[0] == 2)
+                    NotifyTest.this.succeed();
+            }
+        });
+
+        device.connect(e -> {
+            NotifyTest.this.assertTrue(e.wasSuccess());
+            BleNotify.Builder builder = new BleNotify.Builder(mTestService, mTestChar);
+            builder.next().setCharacteristicUUID(mTest2Char);
+            device.enableNotifies(builder.build());
+        });
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 20000)
+    public void pooledNotificationTest() throws Exception
+    {
+        m_config.gattFactory = device -> new UnitTestBluetoothGatt(device, NotifyTest.this.dbNotify);
+
+        m_config.usePooledNotificationBuffers = true;
+
+        m_manager.setConfig(m_config);
+
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress(), "NotifyPooled");
+        final TestNotifyBufferPool pool = new TestNotifyBufferPool(m_manager);
+
+        final int count = 20;
+        final byte[][] sent = new byte[count][];
+        final byte[][] kept = new byte[count][];
+        final NotificationListener.NotificationEvent[] previous = new NotificationListener.NotificationEvent[1];
+        final int[] received = new int[1];
+
+        for (int i = 0; i < count; i++)
+        {
+            sent[i] = new byte[] { (byte) i, (byte) (i + 1), (byte) (i + 2) };
+        }
+
+        device.setListener_Notification(e -> {
+            if (e.type() == NotificationListener.Type.ENABLING_NOTIFICATION)
+            {
+                NotifyTest.this.assertTrue(e.wasSuccess());
+
+                for (int i = 0; i < count; i++)
+                {
+                    Util_Native.sendNotification(device, e.characteristic(), sent[i], Interval.millis(50 + i * 25));
+                }
+            }
+            else if (e.type() == NotificationListener.Type.NOTIFICATION)
+            {
+                final int index = received[0]++;
+
+                final ByteBuffer buffer = e.data_buffer();
+                final byte[] viewed = new byte[buffer.remaining()];
+                buffer.get(viewed);
+
+                NotifyTest.this.assertTrue(buffer.isReadOnly());
+                NotifyTest.this.assertArrayEquals(sent[index], viewed);
+
+                // Only the notification being handled right now should be holding a buffer
+                NotifyTest.this.assertEquals(pool.getSlotCount() - 1, pool.getFreeCount());
+
+                // The last event's buffer is gone, so it can only be read if data() was called while it was being handled
+                if (previous[0] != null)
+                {
+                    boolean threw = false;
+
+                    try
+                    {
+                        kept[index - 1] = previous[0].data();
+                    }
+                    catch (IllegalStateException ex)
+                    {
+                        threw = true;
+                    }
+
+                    NotifyTest.this.assertTrue(threw == ((index - 1) % 2 == 1));
+                }
+
+                if (index % 2 == 0)
+                    kept[index] = e.data();
+
+                previous[0] = e;
+
+                if (received[0] == count)
+                {
+                    for (int i = 0; i < count; i += 2)
+                    {
+                        NotifyTest.this.assertArrayEquals(sent[i], kept[i]);
+                    }
+
+                    NotifyTest.this.succeed();
+                }
+            }
+        });
+
+        device.connect(e -> {
+            NotifyTest.this.assertTrue(e.wasSuccess());
+            device.enableNotify(new BleNotify(mTestService, mTestChar));
+        });
+
+        startAsyncTest();
+    }
+
     @Test(timeout = 15000)
     public void disableNotifyTest() throws Exception
     {
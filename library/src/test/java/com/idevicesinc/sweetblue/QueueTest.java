@@ -23,6 +23,7 @@ import com.idevicesinc.sweetblue.internal.TestTask;
 import com.idevicesinc.sweetblue.internal.TestTaskA;
 import com.idevicesinc.sweetblue.internal.TestTaskB;
 import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -205,6 +206,50 @@ public class QueueTest extends BaseBleUnitTest
         startAsyncTest();
     }
 
+    @Test(timeout = 30000)
+    public void queueDeviceLookupTest() throws Exception
+    {
+        startSynchronousTest();
+
+        P_Bridge_BleManager.suspendQueue(m_manager.getIBleManager());
+
+        final BleDevice device1 = m_manager.newDevice(Util_Unit.randomMacAddress(), "Device 1");
+        final BleDevice device2 = m_manager.newDevice(Util_Unit.randomMacAddress(), "Device 2");
+        final String taskClassName = TestTask.class.getName();
+
+        final Random r = new Random();
+
+        // Fill the queue with tasks for the first device, so lookups for the second one have something to skip over
+        for (int i = 0; i < 500; i++)
+        {
+            final TestTask tt = new TestTask(device1.getIBleDevice(), i);
+            tt.setPriority(P_Bridge_BleManager.randomPriority(r));
+            P_Bridge_BleManager.addTask(m_manager.getIBleManager(), tt);
+        }
+
+        assertFalse(P_Bridge_BleManager.isInQueue(m_manager.getIBleManager(), device2.getIBleDevice(), taskClassName));
+        assertEquals(-1, P_Bridge_BleManager.getPositionInQueue(m_manager.getIBleManager(), device2.getIBleDevice(), taskClassName));
+
+        final TestTask device2Task = new TestTask(device2.getIBleDevice(), 500);
+        device2Task.setPriority(P_Bridge_BleManager.randomPriority(r));
+        P_Bridge_BleManager.addTask(m_manager.getIBleManager(), device2Task);
+
+        assertTrue(P_Bridge_BleManager.isInQueue(m_manager.getIBleManager(), device2.getIBleDevice(), taskClassName));
+        assertTrue(P_Bridge_BleManager.isInQueue(m_manager.getIBleManager(), device1.getIBleDevice(), taskClassName));
+
+        // The position reported through the index has to match where the task actually sits in the queue
+        final List<TestTask> queued = P_Bridge_BleManager.getFromQueue(m_manager.getIBleManager(), TestTask.class);
+        assertEquals(queued.indexOf(device2Task), P_Bridge_BleManager.getPositionInQueue(m_manager.getIBleManager(), device2.getIBleDevice(), taskClassName));
+        assertEquals(501, P_Bridge_BleManager.getQueueSize(m_manager.getIBleManager()));
+
+        P_Bridge_BleManager.clearQueueOf(m_manager.getIBleManager(), TestTask.class);
+
+        assertEquals(0, P_Bridge_BleManager.getQueueSize(m_manager.getIBleManager()));
+        assertFalse(P_Bridge_BleManager.isInQueue(m_manager.getIBleManager(), device1.getIBleDevice(), taskClassName));
+
+        succeed();
+    }
+
     private void onDelayExecuted(TestTask tt)
     {
         /*if (mRemainingTasks == null)
@@ -0,0 +1,258 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.internal.IBleDevice;
+import com.idevicesinc.sweetblue.internal.android.IBluetoothGatt;
+import com.idevicesinc.sweetblue.utils.GattDatabase;
+import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class ReadBatchTest extends BaseBleUnitTest
+{
+
+    private static final UUID SERVICE_UUID = UUID.randomUUID();
+    private static final UUID CHAR_1 = UUID.randomUUID();
+    private static final UUID CHAR_2 = UUID.randomUUID();
+    private static final UUID CHAR_3 = UUID.randomUUID();
+    private static final UUID MISSING_CHAR = UUID.randomUUID();
+
+    private final GattDatabase db = new GattDatabase().addService(SERVICE_UUID)
+            .addCharacteristic(CHAR_1).setProperties().read().write().setPermissions().read().write().completeChar()
+            .addCharacteristic(CHAR_2).setProperties().read().setPermissions().read().completeChar()
+            .addCharacteristic(CHAR_3).setProperties().read().setPermissions().read().completeService();
+
+    private final List<UUID> m_gattReads = new ArrayList<>();
+
+
+    @Test(timeout = 15000)
+    public void readBatchTest() throws Exception
+    {
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        device.connect(e ->
+        {
+            ReadBatchTest.this.assertTrue(e.wasSuccess());
+
+            device.readBatch(reads(CHAR_1, CHAR_2, CHAR_3), r ->
+            {
+                ReadBatchTest.this.assertTrue(r.wasSuccess());
+                ReadBatchTest.this.assertEquals(3, r.values().size());
+                ReadBatchTest.this.assertEquals(20, r.data(CHAR_2).length);
+                ReadBatchTest.this.assertFalse(r.wasCached(CHAR_1));
+                ReadBatchTest.this.assertEquals(3, m_gattReads.size());
+
+                // Results come back in the order they were asked for
+                ReadBatchTest.this.assertTrue(new ArrayList<>(r.statuses().keySet()).equals(Arrays.asList(CHAR_1, CHAR_2, CHAR_3)));
+
+                succeed();
+            });
+        });
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void perItemStatusTest() throws Exception
+    {
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        device.connect(e ->
+        {
+            ReadBatchTest.this.assertTrue(e.wasSuccess());
+
+            device.readBatch(reads(CHAR_1, MISSING_CHAR, CHAR_3), r ->
+            {
+                ReadBatchTest.this.assertFalse(r.wasSuccess());
+                ReadBatchTest.this.assertTrue(r.status(CHAR_1) == ReadWriteListener.Status.SUCCESS);
+                ReadBatchTest.this.assertTrue(r.status(MISSING_CHAR) == ReadWriteListener.Status.NO_MATCHING_TARGET);
+                ReadBatchTest.this.assertTrue(r.status(CHAR_3) == ReadWriteListener.Status.SUCCESS);
+                ReadBatchTest.this.assertNull(r.data(MISSING_CHAR));
+                ReadBatchTest.this.assertEquals(2, r.values().size());
+
+                succeed();
+            });
+        });
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void cachedValueTest() throws Exception
+    {
+        m_config.cacheReadValues = true;
+        m_manager.setConfig(m_config);
+
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        device.connect(e ->
+        {
+            ReadBatchTest.this.assertTrue(e.wasSuccess());
+
+            device.read(new BleRead(SERVICE_UUID, CHAR_1).setReadWriteListener(read ->
+            {
+                ReadBatchTest.this.assertTrue(read.wasSuccess());
+
+                final byte[] value = read.data();
+
+                device.readBatch(reads(CHAR_1, CHAR_2), Interval.mins(5), r ->
+                {
+                    ReadBatchTest.this.assertTrue(r.wasSuccess());
+                    ReadBatchTest.this.assertTrue(r.wasCached(CHAR_1));
+                    ReadBatchTest.this.assertFalse(r.wasCached(CHAR_2));
+                    ReadBatchTest.this.assertArrayEquals(value, r.data(CHAR_1));
+
+                    // One for the single read, and one for CHAR_2, CHAR_1 never went out again
+                    ReadBatchTest.this.assertEquals(2, m_gattReads.size());
+
+                    succeed();
+                });
+            }));
+        });
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void notCachedByDefaultTest() throws Exception
+    {
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        device.connect(e ->
+        {
+            ReadBatchTest.this.assertTrue(e.wasSuccess());
+
+            device.read(new BleRead(SERVICE_UUID, CHAR_1).setReadWriteListener(read ->
+            {
+                ReadBatchTest.this.assertTrue(read.wasSuccess());
+
+                // Nothing had asked for caching when the single read came back, so it wasn't kept
+                device.readBatch(reads(CHAR_1), Interval.mins(5), r ->
+                {
+                    ReadBatchTest.this.assertTrue(r.wasSuccess());
+                    ReadBatchTest.this.assertFalse(r.wasCached(CHAR_1));
+
+                    // ...but the batch turned caching on, so the next one doesn't go out
+                    device.readBatch(reads(CHAR_1), Interval.mins(5), r2 ->
+                    {
+                        ReadBatchTest.this.assertTrue(r2.wasCached(CHAR_1));
+                        ReadBatchTest.this.assertEquals(2, m_gattReads.size());
+
+                        succeed();
+                    });
+                });
+            }));
+        });
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void writeClearsCachedValueTest() throws Exception
+    {
+        m_config.cacheReadValues = true;
+        m_manager.setConfig(m_config);
+
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        device.connect(e ->
+        {
+            ReadBatchTest.this.assertTrue(e.wasSuccess());
+
+            device.read(new BleRead(SERVICE_UUID, CHAR_1).setReadWriteListener(read ->
+            {
+                ReadBatchTest.this.assertTrue(read.wasSuccess());
+
+                device.write(new BleWrite(SERVICE_UUID, CHAR_1).setBytes(new byte[] { 0x1, 0x2 }).setReadWriteListener(write ->
+                {
+                    ReadBatchTest.this.assertTrue(write.wasSuccess());
+
+                    device.readBatch(reads(CHAR_1), Interval.mins(5), r ->
+                    {
+                        ReadBatchTest.this.assertTrue(r.wasSuccess());
+                        ReadBatchTest.this.assertFalse(r.wasCached(CHAR_1));
+                        ReadBatchTest.this.assertEquals(2, m_gattReads.size());
+
+                        succeed();
+                    });
+                }));
+            }));
+        });
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void notConnectedTest() throws Exception
+    {
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        device.readBatch(reads(CHAR_1, CHAR_2), r ->
+        {
+            ReadBatchTest.this.assertFalse(r.wasSuccess());
+            ReadBatchTest.this.assertTrue(r.status(CHAR_1) == ReadWriteListener.Status.NOT_CONNECTED);
+            ReadBatchTest.this.assertTrue(r.status(CHAR_2) == ReadWriteListener.Status.NOT_CONNECTED);
+            ReadBatchTest.this.assertTrue(r.values().isEmpty());
+
+            succeed();
+        });
+
+        startAsyncTest();
+    }
+
+
+    @Override
+    public IBluetoothGatt getGattLayer(IBleDevice device)
+    {
+        return new UnitTestBluetoothGatt(device, db)
+        {
+            @Override
+            public boolean readCharacteristic(BleCharacteristic characteristic)
+            {
+                m_gattReads.add(characteristic.getUuid());
+                characteristic.setValue(Util_Unit.randomBytes(20));
+                return super.readCharacteristic(characteristic);
+            }
+        };
+    }
+
+
+    private static List<BleRead> reads(UUID... charUuids)
+    {
+        final List<BleRead> reads = new ArrayList<>();
+
+        for (UUID charUuid : charUuids)
+        {
+            reads.add(new BleRead(SERVICE_UUID, charUuid));
+        }
+
+        return reads;
+    }
+}
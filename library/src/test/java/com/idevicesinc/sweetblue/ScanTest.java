@@ -438,6 +438,130 @@ public class ScanTest extends BaseBleUnitTest
         startAsyncTest();
     }
 
+    @Test(timeout = 15000)
+    public void coalescedScanResultsTest() throws Exception
+    {
+        final int deviceCount = 250;
+        final String repeatedMac = Util_Unit.randomMacAddress();
+        final byte[] record = new BleScanRecord().setName("Beacon").buildPacket();
+        final byte[] repeatedRecord = new BleScanRecord().setName("Chatty Beacon").buildPacket();
+
+        // Lots of devices, with one of them advertising several times before the update loop can get to it
+        final List<L_Util.ScanResult> scanResults = new ArrayList<>();
+        for (int i = 0; i < deviceCount; i++)
+        {
+            scanResults.add(new L_Util.ScanResult(P_DeviceHolder.newNullHolder(Util_Unit.randomMacAddress()), -60, record));
+        }
+        final int[] repeatedRssis = { -70, -40, -90, -55, -65 };
+        for (int rssi : repeatedRssis)
+        {
+            scanResults.add(new L_Util.ScanResult(P_DeviceHolder.newNullHolder(repeatedMac), rssi, repeatedRecord));
+        }
+
+        final AtomicInteger discovered = new AtomicInteger(0);
+
+        final ScanFilter scanFilter = e ->
+        {
+            if (e.name_native().equals("Chatty Beacon"))
+            {
+                // The newest advertisement wins, but every one counts towards the RSSI stats
+                assertEquals(repeatedRssis.length, e.advertisementCount());
+                assertEquals(-65, e.rssi());
+                assertEquals(-90, e.rssi_min());
+                assertEquals(-40, e.rssi_max());
+                assertTrue(e.rssi_smoothed() < -40 && e.rssi_smoothed() > -90);
+            }
+            else
+            {
+                assertEquals(1, e.advertisementCount());
+            }
+            return ScanFilter.Please.acknowledge();
+        };
+
+        final DiscoveryListener discoveryListener = e ->
+        {
+            if (e.was(DiscoveryListener.LifeCycle.DISCOVERED) && discovered.incrementAndGet() == deviceCount + 1)
+            {
+                assertEquals(repeatedRssis.length - 1, m_manager.getScanResults_coalescedCount());
+                assertTrue(m_manager.getScanBacklog_peak() >= deviceCount + 1);
+
+                m_manager.resetScanBufferStats();
+                assertEquals(0, m_manager.getScanResults_coalescedCount());
+
+                m_manager.stopScan();
+                succeed();
+            }
+        };
+
+        m_manager.setListener_State(e ->
+        {
+            if (e.didEnter(BleManagerState.SCANNING))
+                Util_Native.advertiseDeviceList(m_manager, scanResults, Interval.ZERO);
+        });
+
+        m_manager.startScan(scanFilter, discoveryListener);
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void rssiStatsAcrossTicksTest() throws Exception
+    {
+        final String macAddress = Util_Unit.randomMacAddress();
+        final byte[] record = new BleScanRecord().setName("Slow Beacon").buildPacket();
+        final int[] rssis = { -70, -40, -90, -55 };
+        final List<Integer> counts = new ArrayList<>();
+
+        // Hold off on the device until it's been heard from enough times, which can only happen if the stats carry over between ticks
+        final ScanFilter scanFilter = e ->
+        {
+            if (!e.name_native().equals("Slow Beacon"))
+                return ScanFilter.Please.ignore();
+
+            counts.add(e.advertisementCount());
+
+            if (e.advertisementCount() < rssis.length)
+                return ScanFilter.Please.ignore();
+
+            assertEquals(-55, e.rssi());
+            assertEquals(-90, e.rssi_min());
+            assertEquals(-40, e.rssi_max());
+            assertTrue(e.rssi_smoothed() < -40 && e.rssi_smoothed() > -90);
+            return ScanFilter.Please.acknowledge();
+        };
+
+        final DiscoveryListener discoveryListener = e ->
+        {
+            if (e.was(DiscoveryListener.LifeCycle.DISCOVERED))
+            {
+                // Each tick only saw one new advertisement
+                assertEquals(rssis.length, counts.size());
+                for (int i = 0; i < counts.size(); i++)
+                {
+                    assertEquals(i + 1, counts.get(i));
+                }
+
+                m_manager.stopScan();
+                succeed();
+            }
+        };
+
+        m_manager.setListener_State(e ->
+        {
+            if (e.didEnter(BleManagerState.SCANNING))
+            {
+                for (int i = 0; i < rssis.length; i++)
+                {
+                    Util_Native.advertiseDevice(m_manager, rssis[i], record, macAddress, Interval.millis(200 * i));
+                }
+            }
+        });
+
+        m_manager.startScan(scanFilter, discoveryListener);
+
+        startAsyncTest();
+    }
+
     @Test(timeout = 12000)
     public void scanDelayAfterResumeTest() throws Exception
     {
@@ -0,0 +1,104 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.utils.GattDatabase;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+import com.idevicesinc.sweetblue.utils.Uuids;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class ServerMulticastTest extends BaseBleUnitTest
+{
+
+    @Test(timeout = 15000)
+    public void notifyAllClientsTest() throws Exception
+    {
+        m_config.loggingOptions = LogOptions.ON;
+
+        m_manager.setConfig(m_config);
+
+        final GattDatabase db = new GattDatabase()
+                .addService(Uuids.BATTERY_SERVICE_UUID)
+                .addCharacteristic(Uuids.BATTERY_LEVEL).setPermissions().readWrite().setProperties().readWriteNotify().completeService();
+
+        final String mac1 = Util_Unit.randomMacAddress();
+        final String mac2 = Util_Unit.randomMacAddress();
+        final String mac3 = Util_Unit.randomMacAddress();
+
+        final byte[] data = new byte[]{0x4, 0x5};
+
+        final BleServer server = m_manager.getServer(e -> IncomingListener.Please.respondWithSuccess(), db, e -> {
+            e.server().connect(mac1);
+            e.server().connect(mac2);
+            e.server().connect(mac3, e1 -> {
+                ServerMulticastTest.this.assertTrue(e1.wasSuccess());
+
+                e1.server().sendNotificationToAll(Uuids.BATTERY_LEVEL, data, e2 -> {
+                    ServerMulticastTest.this.assertTrue(e2.wasSuccess());
+                    ServerMulticastTest.this.assertTrue(e2.successCount() == 3);
+                    ServerMulticastTest.this.assertTrue(e2.type() == ExchangeListener.Type.NOTIFICATION);
+                    ServerMulticastTest.this.assertArrayEquals(data, e2.data_sent());
+                    ServerMulticastTest.this.assertNotNull(e2.event(mac1));
+                    ServerMulticastTest.this.assertNotNull(e2.event(mac2));
+                    ServerMulticastTest.this.assertNotNull(e2.event(mac3));
+                    ServerMulticastTest.this.succeed();
+                });
+            });
+        });
+
+        // The per-client results only go to the MulticastListener
+        server.setListener_Outgoing(e -> {
+            if (e.type() == ExchangeListener.Type.NOTIFICATION)
+                ServerMulticastTest.this.assertTrue(false);
+        });
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void notifyAllNoClientsTest() throws Exception
+    {
+        m_config.loggingOptions = LogOptions.ON;
+
+        m_manager.setConfig(m_config);
+
+        final GattDatabase db = new GattDatabase()
+                .addService(Uuids.BATTERY_SERVICE_UUID)
+                .addCharacteristic(Uuids.BATTERY_LEVEL).setPermissions().readWrite().setProperties().readWriteNotify().completeService();
+
+        m_manager.getServer(e -> IncomingListener.Please.respondWithSuccess(), db, e -> {
+            final MulticastListener.MulticastEvent early = e.server().sendIndicationToAll(Uuids.BATTERY_LEVEL, new byte[]{0x1}, e1 -> {
+                ServerMulticastTest.this.assertTrue(e1.status() == OutgoingListener.Status.NOT_CONNECTED);
+                ServerMulticastTest.this.assertTrue(e1.events().isEmpty());
+                ServerMulticastTest.this.succeed();
+            });
+
+            ServerMulticastTest.this.assertFalse(early.isNull());
+        });
+
+        startAsyncTest();
+    }
+
+}
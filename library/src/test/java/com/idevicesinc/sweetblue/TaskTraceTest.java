@@ -0,0 +1,200 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.internal.IBleDevice;
+import com.idevicesinc.sweetblue.internal.android.IBluetoothGatt;
+import com.idevicesinc.sweetblue.utils.GattDatabase;
+import com.idevicesinc.sweetblue.utils.Util_Unit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import java.util.List;
+import java.util.UUID;
+
+
+@Config(manifest = Config.NONE, sdk = 25)
+@RunWith(RobolectricTestRunner.class)
+public class TaskTraceTest extends BaseBleUnitTest
+{
+
+    private static final UUID SERVICE_UUID = UUID.randomUUID();
+    private static final UUID CHAR_UUID = UUID.randomUUID();
+
+    private final GattDatabase db = new GattDatabase().addService(SERVICE_UUID)
+            .addCharacteristic(CHAR_UUID).setProperties().readWrite().setPermissions().readWrite().completeService();
+
+
+    @Test(timeout = 15000)
+    public void readTraceTest() throws Exception
+    {
+        m_config.taskTraceCapacity = 50;
+        m_manager.setConfig(m_config);
+
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        device.connect(e ->
+        {
+            TaskTraceTest.this.assertTrue(e.wasSuccess());
+
+            device.read(new BleRead(SERVICE_UUID, CHAR_UUID).setReadWriteListener(r ->
+            {
+                TaskTraceTest.this.assertTrue(r.wasSuccess());
+
+                // Tasks end before their callbacks go out, so the read should be the latest trace
+                final List<TaskTrace> traces = m_manager.getTaskTraces();
+                final TaskTrace trace = traces.get(traces.size() - 1);
+
+                TaskTraceTest.this.assertEquals("Read", trace.name());
+                TaskTraceTest.this.assertTrue(trace.taskType() == BleTask.READ);
+                TaskTraceTest.this.assertEquals(device.getMacAddress(), trace.macAddress());
+                TaskTraceTest.this.assertTrue(CHAR_UUID.equals(trace.charUuid()));
+                TaskTraceTest.this.assertNull(trace.descUuid());
+                TaskTraceTest.this.assertEquals(20, trace.byteCount());
+                TaskTraceTest.this.assertEquals("SUCCEEDED", trace.endState());
+
+                TaskTraceTest.this.assertTrue(trace.timeQueued() != 0);
+                TaskTraceTest.this.assertTrue(trace.timeQueued() <= trace.timeArmed());
+                TaskTraceTest.this.assertTrue(trace.timeArmed() <= trace.timeExecuting());
+                TaskTraceTest.this.assertTrue(trace.timeExecuting() <= trace.timeEnded());
+
+                checkChromeJson(traces.size());
+
+                succeed();
+            }));
+        });
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void ringBufferTest() throws Exception
+    {
+        m_config.taskTraceCapacity = 3;
+        m_manager.setConfig(m_config);
+
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+        final int readCount = 10;
+        final int[] reads = new int[1];
+
+        device.setListener_ReadWrite(r ->
+        {
+            TaskTraceTest.this.assertTrue(r.wasSuccess());
+
+            if (++reads[0] < readCount)
+                return;
+
+            final List<TaskTrace> traces = m_manager.getTaskTraces();
+
+            TaskTraceTest.this.assertEquals(3, traces.size());
+
+            for (TaskTrace trace : traces)
+            {
+                TaskTraceTest.this.assertEquals("Read", trace.name());
+            }
+
+            // Oldest first
+            TaskTraceTest.this.assertTrue(traces.get(0).timeEnded() <= traces.get(1).timeEnded());
+            TaskTraceTest.this.assertTrue(traces.get(1).timeEnded() <= traces.get(2).timeEnded());
+
+            m_manager.clearTaskTraces();
+
+            TaskTraceTest.this.assertTrue(m_manager.getTaskTraces().isEmpty());
+
+            succeed();
+        });
+
+        device.connect(e ->
+        {
+            TaskTraceTest.this.assertTrue(e.wasSuccess());
+
+            for (int i = 0; i < readCount; i++)
+            {
+                device.read(new BleRead(SERVICE_UUID, CHAR_UUID));
+            }
+        });
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void disabledByDefaultTest() throws Exception
+    {
+        final BleDevice device = m_manager.newDevice(Util_Unit.randomMacAddress());
+
+        device.connect(e ->
+        {
+            TaskTraceTest.this.assertTrue(e.wasSuccess());
+            TaskTraceTest.this.assertTrue(m_manager.getTaskTraces().isEmpty());
+
+            succeed();
+        });
+
+        startAsyncTest();
+    }
+
+
+    @Override
+    public IBluetoothGatt getGattLayer(IBleDevice device)
+    {
+        return new UnitTestBluetoothGatt(device, db)
+        {
+            @Override
+            public boolean readCharacteristic(BleCharacteristic characteristic)
+            {
+                characteristic.setValue(Util_Unit.randomBytes(20));
+                return super.readCharacteristic(characteristic);
+            }
+        };
+    }
+
+
+    // Every task should open and close an async event, and they should all be on the row named after the device, or the manager's
+    private void checkChromeJson(int traceCount)
+    {
+        try
+        {
+            final JSONArray events = new JSONObject(m_manager.getTaskTraces_chromeJson()).getJSONArray("traceEvents");
+
+            int begins = 0;
+            int ends = 0;
+
+            for (int i = 0; i < events.length(); i++)
+            {
+                final JSONObject event = events.getJSONObject(i);
+                final String phase = event.getString("ph");
+
+                if (phase.equals("b") && event.has("args"))
+                    begins++;
+                else if (phase.equals("e") && !event.getString("name").equals("queued") && !event.getString("name").equals("armed") && !event.getString("name").equals("executing"))
+                    ends++;
+            }
+
+            assertEquals(traceCount, begins);
+            assertEquals(traceCount, ends);
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
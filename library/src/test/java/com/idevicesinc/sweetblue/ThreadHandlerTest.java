@@ -25,6 +25,8 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 
@@ -67,7 +69,38 @@ public class ThreadHandlerTest extends BaseBleUnitTest
         startAsyncTest();
     }
 
+    @Test(timeout = 15000)
+    public void delayedRunnableOrderTest() throws Exception
+    {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final ThreadHandler handler = new ThreadHandler();
+        final List<String> order = new ArrayList<>();
+
+        // Post out of order, so the handler has to sort them by due time. The tagged one gets removed before it's due.
+        handler.postDelayed(() -> order.add("third"), 300);
+        handler.postDelayed(() -> order.add("removed"), 200, "tag");
+        handler.postDelayed(() -> order.add("second"), 150);
+        handler.post(() -> order.add("first"));
+        handler.postDelayed(() -> {
+            running.set(false);
+            assertEquals(3, order.size());
+            assertEquals("first", order.get(0));
+            assertEquals("second", order.get(1));
+            assertEquals("third", order.get(2));
+            succeed();
+        }, 500);
+
+        handler.removeCallbacks("tag");
+
+        final Thread thread = new Thread(() -> {
+            while (running.get())
+            {
+                handler.loop();
+            }
+        });
+        thread.start();
 
-
+        startAsyncTest();
+    }
 
 }
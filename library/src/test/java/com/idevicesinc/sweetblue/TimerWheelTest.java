@@ -0,0 +1,113 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.framework.AbstractTestClass;
+import com.idevicesinc.sweetblue.internal.TestTimerWheel;
+import org.junit.Test;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class TimerWheelTest extends AbstractTestClass
+{
+
+    private static final long START = 1000000L;
+
+
+    @Test(timeout = 5000)
+    public void firesOnDeadlineTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestTimerWheel wheel = new TestTimerWheel(START);
+        final long tick = TestTimerWheel.getTickMillis();
+
+        // One for each level we expect to use, so timers have to cascade down to fire
+        final long[] delays = { 5, 250, 30000, 45 * 60 * 1000 };
+
+        for (int i = 0; i < delays.length; i++)
+        {
+            wheel.schedule(wheel.newTimer(i), START, delays[i]);
+        }
+
+        assertEquals(delays.length, wheel.getSize());
+
+        for (int i = 0; i < delays.length; i++)
+        {
+            // Never early...
+            assertTrue(wheel.advance(START + delays[i] - tick).isEmpty());
+
+            // ...and no more than a tick late
+            assertTrue(wheel.advance(START + delays[i] + tick).equals(Arrays.asList(i)));
+        }
+
+        assertEquals(0, wheel.getSize());
+
+        succeed();
+    }
+
+    @Test(timeout = 5000)
+    public void cancelAndRescheduleTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestTimerWheel wheel = new TestTimerWheel(START);
+
+        final TestTimerWheel.TestTimer cancelled = wheel.newTimer(0);
+        final TestTimerWheel.TestTimer moved = wheel.newTimer(1);
+
+        wheel.schedule(cancelled, START, 100);
+        wheel.schedule(moved, START, 100);
+
+        wheel.cancel(cancelled);
+        wheel.schedule(moved, START, 1000);
+
+        assertEquals(1, wheel.getSize());
+        assertTrue(wheel.advance(START + 500).isEmpty());
+        assertTrue(wheel.advance(START + 1010).equals(Arrays.asList(1)));
+
+        // Cancelling something that isn't scheduled is harmless
+        wheel.cancel(cancelled);
+        wheel.cancel(moved);
+
+        assertEquals(0, wheel.getSize());
+
+        succeed();
+    }
+
+    @Test(timeout = 5000)
+    public void pastDeadlineFiresNextTickTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final TestTimerWheel wheel = new TestTimerWheel(START);
+
+        wheel.schedule(wheel.newTimer(0), START, -500);
+        wheel.schedule(wheel.newTimer(1), START, 0);
+
+        final List<Integer> fired = wheel.advance(START + TestTimerWheel.getTickMillis());
+
+        assertEquals(2, fired.size());
+        assertTrue(fired.contains(0) && fired.contains(1));
+
+        succeed();
+    }
+
+}
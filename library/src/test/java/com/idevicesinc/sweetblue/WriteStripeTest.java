@@ -18,6 +18,8 @@
 package com.idevicesinc.sweetblue;
 
 
+import android.bluetooth.BluetoothGattCharacteristic;
+
 import com.idevicesinc.sweetblue.internal.IBleDevice;
 import com.idevicesinc.sweetblue.internal.android.IBluetoothGatt;
 import com.idevicesinc.sweetblue.utils.ByteBuffer;
@@ -29,6 +31,8 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import java.util.UUID;
 
@@ -52,8 +56,19 @@ public class WriteStripeTest extends BaseBleUnitTest
             .addCharacteristic(tempUuid).setProperties().write().setPermissions().write().build()
             .addDescriptor(tempDescUuid).setPermissions().write().completeService();
 
+    // For the pipelined tests, which write without response. Kept apart from db, as Android defaults a characteristic with this
+    // property to WRITE_TYPE_NO_RESPONSE, which would change the write path the other tests cover.
+    private GattDatabase dbNoResponse = new GattDatabase().addService(tempServiceUuid)
+            .addCharacteristic(tempUuid).setProperties().write().write_no_response().setPermissions().write().build()
+            .addDescriptor(tempDescUuid).setPermissions().write().completeService();
+
+    private GattDatabase m_gattDb = db;
+
     private ByteBuffer m_buffer;
 
+    // Native write type of each chunk, in the order they were sent out
+    private final List<Integer> m_writeTypes = new ArrayList<>();
+
 
     @Test(timeout = 15000)
     public void stripedWriteTest() throws Exception
@@ -122,6 +137,114 @@ public class WriteStripeTest extends BaseBleUnitTest
         startAsyncTest();
     }
 
+    @Test(timeout = 15000)
+    public void pipelinedStripedWriteTest() throws Exception
+    {
+        m_config.loggingOptions = LogOptions.ON;
+        m_config.stripedWriteWindow = 4;
+        m_config.stripedWriteAckInterval = 3;
+
+        m_gattDb = dbNoResponse;
+
+        m_buffer = new ByteBuffer();
+
+        m_manager.setConfig(m_config);
+
+        m_manager.setListener_Discovery(e -> {
+            if (e.was(DiscoveryListener.LifeCycle.DISCOVERED))
+            {
+                m_device = e.device();
+                m_device.connect(e1 -> {
+                    WriteStripeTest.this.assertTrue(e1.wasSuccess());
+                    // 10 chunks at the default MTU
+                    final byte[] data = new byte[200];
+                    new Random().nextBytes(data);
+                    final BleWrite bleWrite = new BleWrite(tempUuid).setBytes(data).setWriteType(ReadWriteListener.Type.WRITE_NO_RESPONSE);
+                    m_device.write(bleWrite, e11 -> {
+                        WriteStripeTest.this.assertTrue(e11.wasSuccess());
+                        WriteStripeTest.this.assertArrayEquals(data, m_buffer.bytesAndClear());
+
+                        // Every third chunk is acknowledged, except the last one
+                        WriteStripeTest.this.assertEquals(10, m_writeTypes.size());
+                        for (int i = 0; i < m_writeTypes.size(); i++)
+                        {
+                            final int expected = i == 2 || i == 5 || i == 8 ? BluetoothGattCharacteristic.WRITE_TYPE_DEFAULT : BluetoothGattCharacteristic.WRITE_TYPE_NO_RESPONSE;
+                            WriteStripeTest.this.assertEquals(expected, (int) m_writeTypes.get(i));
+                        }
+                        WriteStripeTest.this.succeed();
+                    });
+                });
+            }
+        });
+
+        m_manager.newDevice(Util_Unit.randomMacAddress(), "Test Device");
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void otaStripedWriteProgressTest() throws Exception
+    {
+        m_config.loggingOptions = LogOptions.ON;
+        m_config.stripedWriteWindow = 3;
+
+        m_gattDb = dbNoResponse;
+
+        m_buffer = new ByteBuffer();
+
+        m_manager.setConfig(m_config);
+
+        final List<Integer> progress = new ArrayList<>();
+        final byte[] data = new byte[150];
+        new Random().nextBytes(data);
+
+        m_manager.setListener_Discovery(e -> {
+            if (e.was(DiscoveryListener.LifeCycle.DISCOVERED))
+            {
+                m_device = e.device();
+                m_device.connect(e1 -> {
+                    WriteStripeTest.this.assertTrue(e1.wasSuccess());
+                    m_device.performOta(new BleTransaction.Ota()
+                    {
+                        @Override protected void start()
+                        {
+                            write(new BleWrite(tempUuid).setBytes(data).setWriteType(ReadWriteListener.Type.WRITE_NO_RESPONSE), e11 -> {
+                                if (e11.wasSuccess())
+                                    succeed();
+                                else
+                                    fail();
+                            });
+                        }
+
+                        @Override protected void onWriteProgress(int bytesWritten, int totalBytes)
+                        {
+                            WriteStripeTest.this.assertEquals(data.length, totalBytes);
+                            progress.add(bytesWritten);
+                        }
+
+                        @Override protected void onEnd(EndReason reason)
+                        {
+                            WriteStripeTest.this.assertTrue(reason == EndReason.SUCCEEDED);
+                            WriteStripeTest.this.assertArrayEquals(data, m_buffer.bytesAndClear());
+                            // 8 chunks at the default MTU
+                            WriteStripeTest.this.assertEquals(8, progress.size());
+                            for (int i = 1; i < progress.size(); i++)
+                            {
+                                WriteStripeTest.this.assertTrue(progress.get(i) > progress.get(i - 1));
+                            }
+                            WriteStripeTest.this.assertEquals(data.length, (int) progress.get(progress.size() - 1));
+                            WriteStripeTest.this.succeed();
+                        }
+                    });
+                });
+            }
+        });
+
+        m_manager.newDevice(Util_Unit.randomMacAddress(), "Test Device");
+
+        startAsyncTest();
+    }
+
     @Override
     public IBluetoothGatt getGattLayer(IBleDevice device)
     {
@@ -134,13 +257,14 @@ public class WriteStripeTest extends BaseBleUnitTest
 
         public StripeBluetoothGatt(IBleDevice device)
         {
-            super(device, db);
+            super(device, m_gattDb);
         }
 
         @Override
         public boolean setCharValue(BleCharacteristic characteristic, byte[] data)
         {
             m_buffer.append(data);
+            m_writeTypes.add(characteristic.getCharacteristic().getWriteType());
             return super.setCharValue(characteristic, data);
         }
 
@@ -0,0 +1,119 @@
+/*
+ 
+  Copyright 2022 Hubbell Incorporated
+ 
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+ 
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ 
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ 
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.BleManager;
+import com.idevicesinc.sweetblue.P_Bridge_User;
+import com.idevicesinc.sweetblue.utils.Event;
+import com.idevicesinc.sweetblue.utils.GenericListener_Void;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class TestEventDispatcher
+{
+
+    private final P_EventDispatcher m_dispatcher;
+    private final List<Runnable> m_posted = new ArrayList<>();
+
+
+    public TestEventDispatcher(BleManager manager, int capacity)
+    {
+        m_dispatcher = new P_EventDispatcher(P_Bridge_User.getIBleManager(manager), new HoldingHandler(), capacity);
+    }
+
+    public <T extends Event> void dispatch(GenericListener_Void<T> listener, T event)
+    {
+        m_dispatcher.dispatch(listener, event);
+    }
+
+    public void dispatch(Runnable action)
+    {
+        m_dispatcher.dispatch(action);
+    }
+
+    /**
+     * Returns how many runnables have been posted to the handler, and not yet run.
+     */
+    public int getPostedCount()
+    {
+        synchronized (m_posted)
+        {
+            return m_posted.size();
+        }
+    }
+
+    /**
+     * Runs everything posted to the handler so far, the way the handler's thread would.
+     */
+    public void runPosted()
+    {
+        final List<Runnable> posted;
+
+        synchronized (m_posted)
+        {
+            posted = new ArrayList<>(m_posted);
+            m_posted.clear();
+        }
+
+        for (Runnable r : posted)
+        {
+            r.run();
+        }
+    }
+
+
+    private final class HoldingHandler implements P_SweetHandler
+    {
+        @Override public void post(Runnable action)
+        {
+            synchronized (m_posted)
+            {
+                m_posted.add(action);
+            }
+        }
+
+        @Override public void postDelayed(Runnable action, long delay)
+        {
+            post(action);
+        }
+
+        @Override public void postDelayed(Runnable action, long delay, Object tag)
+        {
+            post(action);
+        }
+
+        @Override public void removeCallbacks(Runnable action)
+        {
+        }
+
+        @Override public void removeCallbacks(Object tag)
+        {
+        }
+
+        @Override public void quit()
+        {
+        }
+
+        @Override public Thread getThread()
+        {
+            return Thread.currentThread();
+        }
+    }
+}
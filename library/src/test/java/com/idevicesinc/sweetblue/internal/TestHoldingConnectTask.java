@@ -0,0 +1,36 @@
+/*
+ 
+  Copyright 2022 Hubbell Incorporated
+ 
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+ 
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ 
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ 
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+/**
+ * {@link TestHoldingTask} which has to go through connect admission control, like a connect or service discovery does.
+ */
+public class TestHoldingConnectTask extends TestHoldingTask
+{
+    public TestHoldingConnectTask(IBleDevice device, Listener listener)
+    {
+        super(device, listener);
+    }
+
+    @Override
+    protected boolean requiresConnectAdmission()
+    {
+        return true;
+    }
+}
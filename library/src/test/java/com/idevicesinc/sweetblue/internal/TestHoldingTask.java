@@ -0,0 +1,75 @@
+/*
+ 
+  Copyright 2022 Hubbell Incorporated
+ 
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+ 
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ 
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ 
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.BleTask;
+
+
+/**
+ * Task which stays in the executing state until {@link #finish()} is called.
+ */
+public class TestHoldingTask extends PA_Task
+{
+    public interface Listener
+    {
+        void onExecute(TestHoldingTask task);
+    }
+
+    public TestHoldingTask(IBleDevice device, final Listener listener)
+    {
+        super(device, newStateListener(listener));
+    }
+
+    public TestHoldingTask(IBleManager manager, final Listener listener)
+    {
+        super(manager, newStateListener(listener));
+    }
+
+    private static I_StateListener newStateListener(final Listener listener)
+    {
+        return (task, state) -> {
+            if (listener != null && state == PE_TaskState.EXECUTING)
+            {
+                listener.onExecute((TestHoldingTask) task);
+            }
+        };
+    }
+
+    public void finish()
+    {
+        succeed();
+    }
+
+    @Override
+    protected BleTask getTaskType()
+    {
+        return BleTask.READ;
+    }
+
+    @Override
+    void execute()
+    {
+    }
+
+    @Override
+    public PE_TaskPriority getPriority()
+    {
+        return PE_TaskPriority.LOW;
+    }
+}
@@ -0,0 +1,112 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import com.idevicesinc.sweetblue.BleManager;
+import com.idevicesinc.sweetblue.NotificationListener;
+import com.idevicesinc.sweetblue.P_Bridge_User;
+import java.nio.ByteBuffer;
+
+
+public class TestNotifyBufferPool
+{
+
+    public static final int SLOT_SIZE = P_NotifyBufferPool.SLOT_SIZE;
+
+
+    private final P_NotifyBufferPool m_pool;
+
+
+    public TestNotifyBufferPool(int slotCount)
+    {
+        m_pool = new P_NotifyBufferPool(slotCount);
+    }
+
+    /**
+     * Wraps the pool owned by the given manager.
+     */
+    public TestNotifyBufferPool(BleManager manager)
+    {
+        m_pool = P_Bridge_User.getIBleManager(manager).getNotifyBufferPool();
+    }
+
+    /**
+     * Returns a handle to the acquired payload, or <code>null</code> if the pool turned the value down.
+     */
+    public Handle acquire(byte[] value)
+    {
+        final P_NotifyBufferPool.Payload payload = m_pool.acquire(value);
+
+        return payload != null ? new Handle(payload) : null;
+    }
+
+    public int getFreeCount()
+    {
+        return m_pool.getFreeCount();
+    }
+
+    public int getSlotCount()
+    {
+        return m_pool.getSlotCount();
+    }
+
+
+    public static final class Handle
+    {
+        private final P_NotifyBufferPool.Payload m_payload;
+        private final int m_generation;
+
+
+        private Handle(P_NotifyBufferPool.Payload payload)
+        {
+            m_payload = payload;
+            m_generation = payload.generation();
+        }
+
+        public boolean isValid()
+        {
+            return m_payload.isValid(m_generation);
+        }
+
+        public ByteBuffer view()
+        {
+            return m_payload.view(m_generation);
+        }
+
+        public byte[] copy()
+        {
+            return m_payload.copy(m_generation);
+        }
+
+        public void retain()
+        {
+            m_payload.retain();
+        }
+
+        public void release()
+        {
+            m_payload.release();
+        }
+
+        public NotificationListener retainFor(NotificationListener listener)
+        {
+            return m_payload.retainFor(listener);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ 
+  Copyright 2022 Hubbell Incorporated
+ 
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+ 
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ 
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ 
+ */
+
+package com.idevicesinc.sweetblue.internal;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class TestTimerWheel
+{
+
+    private final P_TimerWheel m_wheel;
+    private final List<Integer> m_fired = new ArrayList<>();
+
+
+    public TestTimerWheel(long currentTime)
+    {
+        m_wheel = new P_TimerWheel(currentTime);
+    }
+
+    public TestTimer newTimer(int id)
+    {
+        return new TestTimer(id);
+    }
+
+    public void schedule(TestTimer timer, long currentTime, long delayMillis)
+    {
+        m_wheel.schedule(timer, currentTime, delayMillis);
+    }
+
+    public void cancel(TestTimer timer)
+    {
+        m_wheel.cancel(timer);
+    }
+
+    public int getSize()
+    {
+        return m_wheel.getSize();
+    }
+
+    public static long getTickMillis()
+    {
+        return P_TimerWheel.TICK_MILLIS;
+    }
+
+    /**
+     * Advances the wheel, and returns the ids of the timers which fired, in the order they fired.
+     */
+    public List<Integer> advance(long currentTime)
+    {
+        m_fired.clear();
+        m_wheel.advance(currentTime);
+        return new ArrayList<>(m_fired);
+    }
+
+
+    public final class TestTimer extends P_TimerWheel.Timer
+    {
+        private final int m_id;
+
+        private TestTimer(int id)
+        {
+            m_id = id;
+        }
+
+        @Override void onExpired(long currentTime)
+        {
+            m_fired.add(m_id);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.rx;
+
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.FlowableOperator;
+import io.reactivex.FlowableSubscriber;
+
+
+/**
+ * Operator behind {@link RxBackpressure}. It requests everything from upstream, and holds up to {@link RxBackpressure#getCapacity()}
+ * items until downstream asks for them, dropping the oldest one to make room for each new one past that. This is what
+ * {@link io.reactivex.Flowable#onBackpressureBuffer(long, io.reactivex.functions.Action, io.reactivex.BackpressureOverflowStrategy)}
+ * does, only that doesn't say which item it dropped, which we need to count drops per characteristic.
+ */
+final class P_BoundedBufferOperator<T> implements FlowableOperator<T, T>
+{
+
+    private final RxBackpressure m_backpressure;
+
+
+    P_BoundedBufferOperator(RxBackpressure backpressure)
+    {
+        m_backpressure = backpressure;
+    }
+
+
+    @Override
+    public final Subscriber<? super T> apply(Subscriber<? super T> downstream)
+    {
+        return new BoundedSubscriber<>(downstream, m_backpressure);
+    }
+
+
+    private static final class BoundedSubscriber<T> implements FlowableSubscriber<T>, Subscription
+    {
+        private final Subscriber<? super T> m_downstream;
+        private final RxBackpressure m_backpressure;
+        private final ArrayDeque<T> m_queue;
+
+        private final AtomicLong m_requested = new AtomicLong();
+        private final AtomicInteger m_wip = new AtomicInteger();
+
+        private Subscription m_upstream;
+
+        private volatile boolean m_done;
+        private volatile boolean m_cancelled;
+        private Throwable m_error;
+
+
+        BoundedSubscriber(Subscriber<? super T> downstream, RxBackpressure backpressure)
+        {
+            m_downstream = downstream;
+            m_backpressure = backpressure;
+            m_queue = new ArrayDeque<>(Math.min(backpressure.getCapacity(), 16));
+        }
+
+
+        @Override
+        public final void onSubscribe(Subscription s)
+        {
+            m_upstream = s;
+
+            m_downstream.onSubscribe(this);
+
+            s.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public final void onNext(T t)
+        {
+            if (m_done)
+                return;
+
+            final T dropped;
+
+            synchronized (m_queue)
+            {
+                dropped = m_queue.size() >= m_backpressure.getCapacity() ? m_queue.poll() : null;
+
+                m_queue.offer(t);
+            }
+
+            if (dropped != null)
+                m_backpressure.onDropped(dropped);
+
+            drain();
+        }
+
+        @Override
+        public final void onError(Throwable t)
+        {
+            if (m_done)
+                return;
+
+            m_error = t;
+            m_done = true;
+
+            drain();
+        }
+
+        @Override
+        public final void onComplete()
+        {
+            if (m_done)
+                return;
+
+            m_done = true;
+
+            drain();
+        }
+
+        @Override
+        public final void request(long n)
+        {
+            if (n <= 0)
+                return;
+
+            while (true)
+            {
+                final long current = m_requested.get();
+
+                if (current == Long.MAX_VALUE)
+                    break;
+
+                final long updated = current + n < 0 ? Long.MAX_VALUE : current + n;
+
+                if (m_requested.compareAndSet(current, updated))
+                    break;
+            }
+
+            drain();
+        }
+
+        @Override
+        public final void cancel()
+        {
+            if (m_cancelled)
+                return;
+
+            m_cancelled = true;
+
+            m_upstream.cancel();
+
+            if (m_wip.getAndIncrement() == 0)
+                clear();
+        }
+
+        private void clear()
+        {
+            synchronized (m_queue)
+            {
+                m_queue.clear();
+            }
+        }
+
+        private T poll()
+        {
+            synchronized (m_queue)
+            {
+                return m_queue.poll();
+            }
+        }
+
+        private boolean isEmpty()
+        {
+            synchronized (m_queue)
+            {
+                return m_queue.isEmpty();
+            }
+        }
+
+        // Only ever runs on one thread at a time. Whichever thread gets in first emits everything that's ready, including
+        // anything another thread added, or requested, while it was busy.
+        private void drain()
+        {
+            if (m_wip.getAndIncrement() != 0)
+                return;
+
+            int missed = 1;
+
+            do
+            {
+                final long requested = m_requested.get();
+                long emitted = 0;
+
+                while (emitted != requested)
+                {
+                    if (m_cancelled)
+                    {
+                        clear();
+                        return;
+                    }
+
+                    final boolean done = m_done;
+                    final T item = poll();
+
+                    if (done && item == null)
+                    {
+                        terminate();
+                        return;
+                    }
+
+                    if (item == null)
+                        break;
+
+                    m_downstream.onNext(item);
+
+                    emitted++;
+                }
+
+                if (m_cancelled)
+                {
+                    clear();
+                    return;
+                }
+
+                if (m_done && isEmpty())
+                {
+                    terminate();
+                    return;
+                }
+
+                if (emitted != 0 && requested != Long.MAX_VALUE)
+                    m_requested.addAndGet(-emitted);
+
+                missed = m_wip.addAndGet(-missed);
+            }
+            while (missed != 0);
+        }
+
+        private void terminate()
+        {
+            final Throwable error = m_error;
+
+            if (error != null)
+                m_downstream.onError(error);
+            else
+                m_downstream.onComplete();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue.rx;
+
+
+import com.idevicesinc.sweetblue.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableTransformer;
+
+
+/**
+ * Bounded backpressure strategy for the {@link Flowable}s returned by {@link RxBleDevice}, such as
+ * {@link RxBleDevice#observeNotifyEvents(RxBackpressure)}. The default overloads buffer without limit, so a device notifying
+ * faster than a subscriber can keep up will keep growing the heap. With one of these, at most {@link #getCapacity()} events
+ * are held for a slow subscriber, and the oldest ones are dropped to make room.
+ * <br><br>
+ * Every dropped event is counted, both overall, and per characteristic for {@link RxNotificationEvent}s and
+ * {@link RxReadWriteEvent}s, so you can tell how big a buffer a given characteristic actually needs. Use a separate instance
+ * for each stream you want counted separately.
+ */
+public final class RxBackpressure
+{
+
+    /**
+     * The capacity used by {@link #dropOldest()}.
+     */
+    public static final int DEFAULT_CAPACITY = Flowable.bufferSize();
+
+
+    private final int m_capacity;
+    private final AtomicLong m_droppedCount = new AtomicLong();
+    private final Map<UUID, Long> m_droppedCounts = new HashMap<>();
+
+
+    private RxBackpressure(int capacity)
+    {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be at least 1, was " + capacity);
+
+        m_capacity = capacity;
+    }
+
+
+    /**
+     * Only the most recent event is kept for a subscriber who isn't ready for it yet. Good for things like sensor readings,
+     * where only the current value matters.
+     */
+    public static RxBackpressure latest()
+    {
+        return new RxBackpressure(1);
+    }
+
+    /**
+     * Keeps up to {@link #DEFAULT_CAPACITY} events for a subscriber who isn't ready for them, dropping the oldest ones past that.
+     */
+    public static RxBackpressure dropOldest()
+    {
+        return new RxBackpressure(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Keeps up to the given number of events for a subscriber who isn't ready for them, dropping the oldest ones past that.
+     */
+    public static RxBackpressure ringBuffer(int capacity)
+    {
+        return new RxBackpressure(capacity);
+    }
+
+
+    /**
+     * Returns the most events that are held for a subscriber at once.
+     */
+    public final int getCapacity()
+    {
+        return m_capacity;
+    }
+
+    /**
+     * Returns how many events have been dropped so far, across every stream this instance was used with.
+     */
+    public final long getDroppedCount()
+    {
+        return m_droppedCount.get();
+    }
+
+    /**
+     * Returns how many events for the given characteristic have been dropped so far.
+     */
+    public final long getDroppedCount(@Nullable(Nullable.Prevalence.NEVER) UUID charUuid)
+    {
+        synchronized (m_droppedCounts)
+        {
+            final Long count = m_droppedCounts.get(charUuid);
+
+            return count != null ? count : 0L;
+        }
+    }
+
+    /**
+     * Returns a copy of the dropped counts, keyed by characteristic UUID.
+     */
+    public final @Nullable(Nullable.Prevalence.NEVER) Map<UUID, Long> getDroppedCounts()
+    {
+        synchronized (m_droppedCounts)
+        {
+            return new HashMap<>(m_droppedCounts);
+        }
+    }
+
+    /**
+     * Clears all the dropped counts back to <code>0</code>.
+     */
+    public final void resetCounts()
+    {
+        synchronized (m_droppedCounts)
+        {
+            m_droppedCount.set(0);
+            m_droppedCounts.clear();
+        }
+    }
+
+    /**
+     * Returns a {@link FlowableTransformer} which applies this strategy to any {@link Flowable}, through {@link Flowable#compose(FlowableTransformer)}.
+     * The returned {@link Flowable} always requests everything from upstream, so a slow subscriber never holds up the source, or anyone
+     * else subscribed to it.
+     */
+    public final <T> FlowableTransformer<T, T> transformer()
+    {
+        return upstream -> upstream.lift(new P_BoundedBufferOperator<T>(this));
+    }
+
+
+    final void onDropped(Object event)
+    {
+        final UUID charUuid;
+
+        if (event instanceof RxNotificationEvent)
+            charUuid = ((RxNotificationEvent) event).charUuid();
+        else if (event instanceof RxReadWriteEvent)
+            charUuid = ((RxReadWriteEvent) event).charUuid();
+        else
+            charUuid = null;
+
+        synchronized (m_droppedCounts)
+        {
+            m_droppedCount.incrementAndGet();
+
+            if (charUuid != null)
+            {
+                final Long count = m_droppedCounts.get(charUuid);
+                m_droppedCounts.put(charUuid, count != null ? count + 1 : 1L);
+            }
+        }
+    }
+}
@@ -125,6 +125,15 @@ public class RxBleDevice
         return m_stateFlowable.share();
     }
 
+    /**
+     * Same as {@link #observeStateEvents()}, only events are held for a slow subscriber according to the given {@link RxBackpressure},
+     * rather than buffered without limit.
+     */
+    public final @HotObservable @Nullable(Nullable.Prevalence.NEVER) Flowable<RxDeviceStateEvent> observeStateEvents(@Nullable(Nullable.Prevalence.NEVER) RxBackpressure backpressure)
+    {
+        return observeStateEvents().compose(backpressure.transformer());
+    }
+
     /**
      * Returns a {@link Flowable} which emits {@link RxNotificationEvent} when any notifications are received for this
      * {@link RxBleDevice}.
@@ -141,7 +150,7 @@ public class RxBleDevice
                 {
                     if (emitter.isCancelled()) return;
 
-                    emitter.onNext(e);
+                    emitter.onNext(RxNotificationEvent.detach(e));
                 });
 
                 emitter.setCancellable(() ->
@@ -155,6 +164,16 @@ public class RxBleDevice
         return m_notifyFlowable.share();
     }
 
+    /**
+     * Same as {@link #observeNotifyEvents()}, only events are held for a slow subscriber according to the given {@link RxBackpressure},
+     * rather than buffered without limit. Use this for devices which notify faster than you can handle. The number of notifications
+     * dropped for each characteristic is available from {@link RxBackpressure#getDroppedCount(UUID)}.
+     */
+    public final @HotObservable @Nullable(Nullable.Prevalence.NEVER) Flowable<RxNotificationEvent> observeNotifyEvents(@Nullable(Nullable.Prevalence.NEVER) RxBackpressure backpressure)
+    {
+        return observeNotifyEvents().compose(backpressure.transformer());
+    }
+
     /**
      * Returns a {@link Flowable} which emits {@link RxBondEvent} when any bonding events happen for this device.
      */
@@ -213,6 +232,15 @@ public class RxBleDevice
         return m_readWriteFlowable.share();
     }
 
+    /**
+     * Same as {@link #observeReadWriteEvents()}, only events are held for a slow subscriber according to the given {@link RxBackpressure},
+     * rather than buffered without limit.
+     */
+    public final @HotObservable @Nullable(Nullable.Prevalence.NEVER) Flowable<RxReadWriteEvent> observeReadWriteEvents(@Nullable(Nullable.Prevalence.NEVER) RxBackpressure backpressure)
+    {
+        return observeReadWriteEvents().compose(backpressure.transformer());
+    }
+
     /**
      * Returns a {@link Flowable} which emits {@link RxHistoricalDataLoadEvent} when any {@link com.idevicesinc.sweetblue.HistoricalDataLoadListener.HistoricalDataLoadEvent} is posted
      * for this device.
@@ -1836,9 +1864,9 @@ public class RxBleDevice
                 if (emitter.isDisposed()) return;
 
                 if (e.wasSuccess())
-                    emitter.onSuccess(e);
+                    emitter.onSuccess(RxNotificationEvent.detach(e));
                 else
-                    emitter.onError(new NotifyEnableException(e));
+                    emitter.onError(new NotifyEnableException(RxNotificationEvent.detach(e)));
             });
 
             if (transaction != null)
@@ -1874,7 +1902,7 @@ public class RxBleDevice
             {
                 if (emitter.isDisposed()) return;
 
-                emitter.onNext(e);
+                emitter.onNext(RxNotificationEvent.detach(e));
             };
 
             for (BleNotify n : notifies)
@@ -1924,9 +1952,9 @@ public class RxBleDevice
                 if (emitter.isDisposed()) return;
 
                 if (e.wasSuccess())
-                    emitter.onSuccess(e);
+                    emitter.onSuccess(RxNotificationEvent.detach(e));
                 else
-                    emitter.onError(new NotifyEnableException(e));
+                    emitter.onError(new NotifyEnableException(RxNotificationEvent.detach(e)));
             });
 
             if (transaction != null)
@@ -1962,7 +1990,7 @@ public class RxBleDevice
             {
                 if (emitter.isDisposed()) return;
 
-                emitter.onNext(e);
+                emitter.onNext(RxNotificationEvent.detach(e));
             };
 
             for (BleNotify n : notifies)
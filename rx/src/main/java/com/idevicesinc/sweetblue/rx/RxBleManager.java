@@ -479,7 +479,7 @@ public final class RxBleManager
                 {
                     if (emitter.isCancelled()) return;
 
-                    emitter.onNext(e);
+                    emitter.onNext(RxNotificationEvent.detach(e));
                 });
 
                 emitter.setCancellable(() ->
@@ -1455,6 +1455,30 @@ public final class RxBleManager
         return m_mgr.isScanning();
     }
 
+    /**
+     * See {@link BleManager#getScanBacklog_peak()}.
+     */
+    public final int getScanBacklog_peak()
+    {
+        return m_mgr.getScanBacklog_peak();
+    }
+
+    /**
+     * See {@link BleManager#getScanResults_coalescedCount()}.
+     */
+    public final long getScanResults_coalescedCount()
+    {
+        return m_mgr.getScanResults_coalescedCount();
+    }
+
+    /**
+     * See {@link BleManager#resetScanBufferStats()}.
+     */
+    public final void resetScanBufferStats()
+    {
+        m_mgr.resetScanBufferStats();
+    }
+
     /**
      * Returns <code>true</code> if location is enabled to a degree that allows scanning on {@link android.os.Build.VERSION_CODES#M} and above.
      * If this returns <code>false</code> it means you're on Android M and you either (A) do not have {@link android.Manifest.permission#ACCESS_COARSE_LOCATION}
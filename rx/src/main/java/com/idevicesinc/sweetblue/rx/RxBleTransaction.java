@@ -63,6 +63,12 @@ public abstract class RxBleTransaction implements P_ITransaction
         {
             return Type.OTA;
         }
+
+        /**
+         * Called each time another chunk of an auto-striped write (see {@link com.idevicesinc.sweetblue.BleNodeConfig#autoStripeWrites})
+         * made from this transaction goes through. Override this to drive a progress bar, for example.
+         */
+        protected void onWriteProgress(int bytesWritten, int totalBytes) {}
     }
 
 
@@ -99,6 +105,13 @@ public abstract class RxBleTransaction implements P_ITransaction
         {
             return RxBleTransaction.this.getAtomicity();
         }
+
+        @Override
+        public void onWriteProgress(int bytesWritten, int totalBytes)
+        {
+            if (RxBleTransaction.this instanceof RxOta)
+                ((RxOta) RxBleTransaction.this).onWriteProgress(bytesWritten, totalBytes);
+        }
     };
 
     // This forwards calls into BleTransaction from the internal library into this RxBleTransaction
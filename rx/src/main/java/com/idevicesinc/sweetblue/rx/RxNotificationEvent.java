@@ -17,6 +17,14 @@ public final class RxNotificationEvent extends RxDeviceEvent<NotificationListene
         super(event);
     }
 
+    // With BleDeviceConfig#usePooledNotificationBuffers on, the event's data is only readable until the listener it was handed to
+    // returns. Rx can hold on to an event well past that (buffering, observeOn), so the data is copied out before it's emitted.
+    static NotificationListener.NotificationEvent detach(NotificationListener.NotificationEvent event)
+    {
+        event.data();
+        return event;
+    }
+
 
     public final boolean wasSuccess()
     {
@@ -0,0 +1,97 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.framework.AbstractTestClass;
+import com.idevicesinc.sweetblue.rx.RxBackpressure;
+import org.junit.Test;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+
+
+public class RxBackpressureTest extends AbstractTestClass
+{
+
+    @Test(timeout = 5000)
+    public void ringBufferTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final RxBackpressure backpressure = RxBackpressure.ringBuffer(4);
+        final PublishProcessor<Integer> source = PublishProcessor.create();
+        final TestSubscriber<Integer> slow = source.compose(backpressure.<Integer>transformer()).test(0);
+        final TestSubscriber<Integer> fast = source.test();
+
+        for (int i = 0; i < 10; i++)
+        {
+            source.onNext(i);
+        }
+
+        // The slow subscriber didn't hold up the fast one
+        fast.assertValueCount(10);
+        slow.assertNoValues();
+        assertEquals(6, backpressure.getDroppedCount());
+
+        slow.request(2);
+        slow.assertValues(6, 7);
+
+        source.onNext(10);
+        slow.request(Long.MAX_VALUE);
+        slow.assertValues(6, 7, 8, 9, 10);
+
+        // Once there's demand, nothing else gets dropped
+        source.onNext(11);
+        source.onComplete();
+        slow.assertValues(6, 7, 8, 9, 10, 11);
+        slow.assertComplete();
+        assertEquals(6, backpressure.getDroppedCount());
+
+        backpressure.resetCounts();
+        assertEquals(0, backpressure.getDroppedCount());
+
+        succeed();
+    }
+
+    @Test(timeout = 5000)
+    public void latestTest() throws Exception
+    {
+        startSynchronousTest();
+
+        final RxBackpressure backpressure = RxBackpressure.latest();
+        final PublishProcessor<Integer> source = PublishProcessor.create();
+        final TestSubscriber<Integer> slow = source.compose(backpressure.<Integer>transformer()).test(1);
+
+        source.onNext(0);
+        source.onNext(1);
+        source.onNext(2);
+        source.onNext(3);
+
+        slow.assertValues(0);
+        assertEquals(2, backpressure.getDroppedCount());
+
+        slow.request(5);
+        slow.assertValues(0, 3);
+
+        final RuntimeException error = new RuntimeException();
+        source.onError(error);
+        slow.assertError(error);
+
+        succeed();
+    }
+}
@@ -19,8 +19,10 @@ package com.idevicesinc.sweetblue;
 
 
 import com.idevicesinc.sweetblue.internal.IBleDevice;
+import com.idevicesinc.sweetblue.rx.RxBackpressure;
 import com.idevicesinc.sweetblue.rx.RxBleDevice;
 import com.idevicesinc.sweetblue.rx.RxBleTransaction;
+import com.idevicesinc.sweetblue.rx.RxNotificationEvent;
 import com.idevicesinc.sweetblue.utils.GattDatabase;
 import com.idevicesinc.sweetblue.utils.Interval;
 import com.idevicesinc.sweetblue.utils.Util_Unit;
@@ -31,6 +33,7 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 import java.util.Random;
 import java.util.UUID;
+import io.reactivex.subscribers.TestSubscriber;
 
 
 @Config(manifest = Config.NONE, sdk = 25)
@@ -489,6 +492,130 @@ public final class RxNotifyTest extends RxBaseBleUnitTest
     }
 
 
+    @Test(timeout = 15000)
+    public void boundedNotifyStreamTest() throws Exception
+    {
+        m_device = null;
+
+        m_config.gattFactory = device -> new UnitTestBluetoothGatt(device, dbNotifyWithDesc);
+
+        m_config.loggingOptions = LogOptions.ON;
+
+        m_manager.setConfig(m_config);
+
+        final RxBackpressure backpressure = RxBackpressure.ringBuffer(2);
+        final int notificationCount = 5;
+
+        m_disposables.add(m_manager.observeDiscoveryEvents().subscribe(e ->
+        {
+            if (e.was(DiscoveryListener.LifeCycle.DISCOVERED))
+            {
+                m_device = e.device();
+
+                // Doesn't ask for anything until all the notifications have come in
+                final TestSubscriber<RxNotificationEvent> slow = m_device.observeNotifyEvents(backpressure).test(0);
+                m_disposables.add(slow);
+
+                final int[] received = { 0 };
+                m_disposables.add(m_device.observeNotifyEvents().subscribe(e1 ->
+                {
+                    if (e1.type() == NotificationListener.Type.ENABLING_NOTIFICATION)
+                    {
+                        assertTrue("Enabling notification failed with status " + e1.status(), e1.wasSuccess());
+                        for (int i = 0; i < notificationCount; i++)
+                        {
+                            Util_Native.sendNotification(m_device.getBleDevice(), e1.characteristic(), new byte[] { (byte) i }, Interval.millis(50 * (i + 1)));
+                        }
+                    }
+                    else if (e1.type() == NotificationListener.Type.NOTIFICATION)
+                    {
+                        received[0]++;
+                        if (received[0] == notificationCount)
+                        {
+                            // Enabling event plus 5 notifications, with room for 2
+                            assertEquals(4, backpressure.getDroppedCount());
+                            assertEquals(4, backpressure.getDroppedCount(mTestChar));
+
+                            slow.request(Long.MAX_VALUE);
+                            slow.assertValueCount(2);
+                            assertArrayEquals(new byte[] { 3 }, slow.values().get(0).data());
+                            assertArrayEquals(new byte[] { 4 }, slow.values().get(1).data());
+                            RxNotifyTest.this.succeed();
+                        }
+                    }
+                }));
+
+                m_disposables.add(m_device.connect().subscribe(() ->
+                        m_disposables.add(m_device.enableNotify(new BleNotify(mTestChar)).subscribe(e1 -> {}, throwable -> {})), throwable -> {}));
+            }
+        }));
+
+        m_manager.newDevice(Util_Unit.randomMacAddress(), "Test Device");
+
+        startAsyncTest();
+    }
+
+    @Test(timeout = 15000)
+    public void pooledNotifyStreamTest() throws Exception
+    {
+        m_device = null;
+
+        m_config.gattFactory = device -> new UnitTestBluetoothGatt(device, dbNotifyWithDesc);
+
+        m_config.usePooledNotificationBuffers = true;
+
+        m_manager.setConfig(m_config);
+
+        final int notificationCount = 5;
+
+        m_disposables.add(m_manager.observeDiscoveryEvents().subscribe(e ->
+        {
+            if (e.was(DiscoveryListener.LifeCycle.DISCOVERED))
+            {
+                m_device = e.device();
+
+                // Holds on to every event until well after the listener it came through has returned, and the pooled buffer was reused
+                final TestSubscriber<RxNotificationEvent> slow = m_device.observeNotifyEvents(RxBackpressure.ringBuffer(notificationCount + 1)).test(0);
+                m_disposables.add(slow);
+
+                final int[] received = { 0 };
+                m_disposables.add(m_device.observeNotifyEvents().subscribe(e1 ->
+                {
+                    if (e1.type() == NotificationListener.Type.ENABLING_NOTIFICATION)
+                    {
+                        assertTrue("Enabling notification failed with status " + e1.status(), e1.wasSuccess());
+                        for (int i = 0; i < notificationCount; i++)
+                        {
+                            Util_Native.sendNotification(m_device.getBleDevice(), e1.characteristic(), new byte[] { (byte) i }, Interval.millis(50 * (i + 1)));
+                        }
+                    }
+                    else if (e1.type() == NotificationListener.Type.NOTIFICATION)
+                    {
+                        received[0]++;
+                        if (received[0] == notificationCount)
+                        {
+                            slow.request(Long.MAX_VALUE);
+                            slow.assertValueCount(notificationCount + 1);
+                            for (int i = 0; i < notificationCount; i++)
+                            {
+                                assertArrayEquals(new byte[] { (byte) i }, slow.values().get(i + 1).data());
+                            }
+                            RxNotifyTest.this.succeed();
+                        }
+                    }
+                }));
+
+                m_disposables.add(m_device.connect().subscribe(() ->
+                        m_disposables.add(m_device.enableNotify(new BleNotify(mTestChar)).subscribe(e1 -> {}, throwable -> {})), throwable -> {}));
+            }
+        }));
+
+        m_manager.newDevice(Util_Unit.randomMacAddress(), "Test Device");
+
+        startAsyncTest();
+    }
+
+
 
     private static class PollNotifyBluetoothGatt extends UnitTestBluetoothGatt
     {
@@ -0,0 +1,441 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import android.bluetooth.BluetoothGattCallback;
+import android.content.Context;
+import com.idevicesinc.sweetblue.internal.IBleDevice;
+import com.idevicesinc.sweetblue.internal.IBleManager;
+import com.idevicesinc.sweetblue.internal.P_Bridge_BleDevice;
+import com.idevicesinc.sweetblue.internal.P_Bridge_BleManager;
+import com.idevicesinc.sweetblue.internal.ThreadHandler;
+import com.idevicesinc.sweetblue.internal.android.IBluetoothDevice;
+import com.idevicesinc.sweetblue.internal.android.P_DeviceHolder;
+import com.idevicesinc.sweetblue.internal.android.P_GattHolder;
+import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.UpdateThreadType;
+import com.idevicesinc.sweetblue.utils.Utils_String;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Runs a {@link BleManager} against a fleet of scripted {@link VirtualPeripheral}s, on a virtual clock.
+ * <br><br>
+ * The manager's update thread is whichever thread calls {@link #run(Interval)}, and nothing happens in between calls. Each call
+ * steps virtual time forward one update tick at a time, running everything that comes due along the way, in order, so a
+ * minute of a busy fleet takes only as long as the work in it does. Every random choice (latencies, failures, payloads, mac
+ * addresses) comes from a single {@link Random} seeded by the constructor, so a given seed and script always plays out the same way.
+ * <br><br>
+ * Everything which is scheduled through SweetBlue's update handler, or driven by its update loop (timeouts, scan times, reconnect
+ * delays, etc) runs on virtual time. The few places in the library which read the system clock directly still see real time.
+ */
+public class FleetSimulator
+{
+
+    // Advertisements are pushed out by up to this much, so peripherals with the same interval don't all land on the same tick.
+    private static final long ADVERTISING_JITTER = 10;
+
+
+    public interface Condition
+    {
+        boolean isMet();
+    }
+
+
+    private final VirtualClockHandler m_handler;
+    private final BleManager m_manager;
+    private final Random m_random;
+    private final long m_tickNanos;
+    private final double m_tickSecs;
+    private final long m_startEpoch;
+
+    private final Map<String, Node> m_nodes = new HashMap<>();
+    private final List<VirtualPeripheral> m_peripherals = new ArrayList<>();
+    private final VirtualPeripheral m_defaultPeripheral = new VirtualPeripheral();
+
+
+    /**
+     * Creates the simulator and its {@link BleManager}. The given config is taken over: {@link BleManagerConfig#updateThreadType},
+     * {@link BleManagerConfig#updateHandler}, {@link BleManagerConfig#gattFactory}, and {@link BleManagerConfig#postCallbacksToMainThread}
+     * are all overwritten. {@link BleManagerConfig#autoUpdateRate} becomes the size of each virtual tick (or
+     * {@link BleManagerConfig#DEFAULT_AUTO_UPDATE_RATE}, if it's disabled). Any {@link BleManager} which already exists is shut down.
+     */
+    public FleetSimulator(Context context, BleManagerConfig_UnitTest config, long seed)
+    {
+        m_random = new Random(seed);
+
+        final double tickSecs = Interval.isDisabled(config.autoUpdateRate) ? BleManagerConfig.DEFAULT_AUTO_UPDATE_RATE : config.autoUpdateRate.secs();
+        m_tickNanos = Math.max((long) (tickSecs * TimeUnit.SECONDS.toNanos(1)), 1L);
+        m_tickSecs = m_tickNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        m_startEpoch = System.currentTimeMillis();
+
+        m_handler = new VirtualClockHandler();
+
+        config.updateThreadType = UpdateThreadType.USER_CUSTOM;
+        config.updateHandler = m_handler;
+        config.autoUpdateRate = Interval.DISABLED;
+        config.postCallbacksToMainThread = false;
+        config.gattFactory = SimulatedBluetoothGatt::new;
+
+        // The manager is a singleton, and an existing one would keep its own update thread, so start from scratch.
+        if (BleManager.s_instance != null)
+            BleManager.s_instance.shutdown();
+
+        m_manager = BleManager.get(context, config);
+        Util_Native.forceOn(m_manager);
+        m_manager.onResume();
+
+        step();
+    }
+
+
+    /**
+     * Adds the given peripheral to the fleet. It starts advertising right away (after a random fraction of its advertising interval).
+     * If it has no mac address, one is generated for it.
+     */
+    public final VirtualPeripheral addPeripheral(VirtualPeripheral peripheral)
+    {
+        if (peripheral.getMacAddress() == null)
+            peripheral.setMacAddress(nextMacAddress());
+        else if (m_nodes.containsKey(peripheral.getMacAddress()))
+            throw new IllegalArgumentException("A peripheral with the mac address " + peripheral.getMacAddress() + " is already in the fleet.");
+
+        final Node node = new Node(peripheral);
+        m_nodes.put(peripheral.getMacAddress(), node);
+        m_peripherals.add(peripheral);
+
+        final Interval interval = peripheral.getAdvertisingInterval();
+        if (!Interval.isDisabled(interval))
+            post(() -> advertise(node), (long) (m_random.nextDouble() * interval.millis()));
+
+        return peripheral;
+    }
+
+    /**
+     * Adds <code>count</code> copies of the given peripheral to the fleet, each with its own mac address.
+     */
+    public final List<VirtualPeripheral> addPeripherals(int count, VirtualPeripheral template)
+    {
+        final List<VirtualPeripheral> added = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++)
+        {
+            added.add(addPeripheral(new VirtualPeripheral(template)));
+        }
+
+        return added;
+    }
+
+    public final BleManager getManager()
+    {
+        return m_manager;
+    }
+
+    public final List<VirtualPeripheral> getPeripherals()
+    {
+        return Collections.unmodifiableList(m_peripherals);
+    }
+
+    /**
+     * Returns how much virtual time has passed since the simulator was created.
+     */
+    public final Interval getTime()
+    {
+        return Interval.millis(TimeUnit.NANOSECONDS.toMillis(m_handler.m_now));
+    }
+
+    /**
+     * Runs the simulation for the given amount of virtual time.
+     */
+    public final void run(Interval duration)
+    {
+        final long end = m_handler.m_now + TimeUnit.MILLISECONDS.toNanos(duration.millis());
+
+        while (m_handler.m_now < end)
+        {
+            step();
+        }
+    }
+
+    /**
+     * Runs the simulation until the given condition is met (it's checked after every tick), or the given amount of virtual time has
+     * passed. Returns whether the condition was met.
+     */
+    public final boolean runUntil(Condition condition, Interval timeout)
+    {
+        final long end = m_handler.m_now + TimeUnit.MILLISECONDS.toNanos(timeout.millis());
+
+        while (!condition.isMet())
+        {
+            if (m_handler.m_now >= end)
+                return false;
+
+            step();
+        }
+
+        return true;
+    }
+
+    public final void shutdown()
+    {
+        m_manager.shutdown();
+    }
+
+
+    // Moves the clock forward one tick, running everything that comes due on the way at the time it was due, then updates the manager.
+    private void step()
+    {
+        final long tickEnd = m_handler.m_now + m_tickNanos;
+
+        long next;
+        while ((next = m_handler.nextDueTime()) <= tickEnd)
+        {
+            m_handler.m_now = Math.max(m_handler.m_now, next);
+            m_handler.loop();
+        }
+
+        m_handler.m_now = tickEnd;
+
+        final IBleManager manager = m_manager.getIBleManager();
+        manager.update(m_tickSecs, m_startEpoch + TimeUnit.NANOSECONDS.toMillis(tickEnd));
+
+        m_handler.loop();
+    }
+
+    private void post(Runnable action, long delay)
+    {
+        P_Bridge_BleManager.postUpdateDelayed(m_manager.getIBleManager(), action, delay);
+    }
+
+    private String nextMacAddress()
+    {
+        final byte[] raw = new byte[6];
+        String macAddress;
+
+        do
+        {
+            m_random.nextBytes(raw);
+            macAddress = Utils_String.bytesToMacAddress(raw);
+        }
+        while (m_nodes.containsKey(macAddress));
+
+        return macAddress;
+    }
+
+    private void advertise(final Node node)
+    {
+        final VirtualPeripheral peripheral = node.m_peripheral;
+
+        // Like a real peripheral, it stops advertising while connected. It keeps to its schedule either way though.
+        if (!node.m_connected && m_manager.is(BleManagerState.SCANNING))
+        {
+            P_Bridge_BleManager.addScanResult(m_manager.getIBleManager(), P_DeviceHolder.newNullHolder(peripheral.getMacAddress()),
+                    peripheral.getRssi(), peripheral.getScanRecord());
+        }
+
+        final long jitter = (long) (m_random.nextDouble() * ADVERTISING_JITTER);
+        post(() -> advertise(node), peripheral.getAdvertisingInterval().millis() + jitter);
+    }
+
+    private long nextMillis(VirtualPeripheral.Latency latency)
+    {
+        return Math.max(latency.nextMillis(m_random), 0L);
+    }
+
+
+    // Runtime state of a peripheral, which the gatt layer and the advertiser share.
+    private static final class Node
+    {
+        private final VirtualPeripheral m_peripheral;
+        private boolean m_connected = false;
+
+
+        private Node(VirtualPeripheral peripheral)
+        {
+            m_peripheral = peripheral;
+        }
+    }
+
+
+    // Handler which schedules against the simulator's clock, rather than the system's.
+    private static final class VirtualClockHandler extends ThreadHandler
+    {
+        private long m_now = 0L;
+
+
+        @Override
+        protected long currentTimeNanos()
+        {
+            return m_now;
+        }
+
+        private long nextDueTime()
+        {
+            return getNextDueTimeNanos();
+        }
+
+        // The update thread is the caller's own thread, so don't interrupt it when the manager shuts down.
+        @Override
+        public void quit()
+        {
+            m_running.set(false);
+        }
+    }
+
+
+    /**
+     * Gatt layer for one device, which plays out the script of its {@link VirtualPeripheral}. Everything it schedules is tied to the
+     * connection it was scheduled in, so nothing from an old connection leaks into a new one.
+     */
+    private final class SimulatedBluetoothGatt extends UnitTestBluetoothGatt
+    {
+        private final Node m_node;
+        private final VirtualPeripheral m_peripheral;
+        private final Set<UUID> m_notifying = new HashSet<>();
+        private int m_session = 0;
+
+
+        private SimulatedBluetoothGatt(IBleDevice device)
+        {
+            super(device, null);
+
+            final Node node = m_nodes.get(device.getMacAddress());
+            m_node = node != null ? node : new Node(m_defaultPeripheral);
+            m_peripheral = m_node.m_peripheral;
+
+            setDatabase(m_peripheral.getGattDatabase());
+        }
+
+
+        @Override
+        public void connect(IBluetoothDevice device, Context context, boolean useAutoConnect, BluetoothGattCallback callback)
+        {
+            final int session = ++m_session;
+
+            m_notifying.clear();
+            setGattNull(false);
+            device.connect(context, useAutoConnect, callback);
+
+            final boolean fail = m_random.nextDouble() < m_peripheral.getConnectFailureRate();
+
+            postInSession(session, this::setToConnecting, 0);
+            postInSession(session, () -> {
+
+                if (fail)
+                    Util_Native.setToDisconnected(getBleDevice(), m_peripheral.getConnectFailureStatus(), Interval.ZERO);
+                else
+                    onConnected(session);
+
+            }, nextMillis(m_peripheral.getConnectLatency()));
+        }
+
+        @Override
+        public void disconnect()
+        {
+            m_session++;
+            m_node.m_connected = false;
+            m_notifying.clear();
+            super.disconnect();
+        }
+
+        @Override
+        public boolean setCharacteristicNotification(BleCharacteristic characteristic, boolean enable)
+        {
+            final UUID charUuid = characteristic.getUuid();
+
+            if (!enable)
+                m_notifying.remove(charUuid);
+            else
+            {
+                final VirtualPeripheral.NotifyStream stream = m_peripheral.getNotifyStream(charUuid);
+
+                if (stream != null && m_notifying.add(charUuid))
+                    scheduleNotification(m_session, characteristic, stream);
+            }
+
+            return true;
+        }
+
+        @Override
+        public Interval getDelayTime()
+        {
+            return Interval.millis(nextMillis(m_peripheral.getGattLatency()));
+        }
+
+
+        private void onConnected(final int session)
+        {
+            m_node.m_connected = true;
+            setToConnected();
+
+            final Interval meanTime = m_peripheral.getMeanTimeToDisconnect();
+            if (Interval.isDisabled(meanTime))
+                return;
+
+            // Exponentially distributed, so drops are memoryless, like independent failures.
+            final long uptime = (long) (-Math.log(1.0 - m_random.nextDouble()) * meanTime.millis());
+
+            postInSession(session, () -> {
+
+                m_session++;
+                m_node.m_connected = false;
+                m_notifying.clear();
+                setGattNull(true);
+                Util_Native.setToDisconnected(getBleDevice(), m_peripheral.getDisconnectStatus(), Interval.ZERO);
+
+            }, uptime);
+        }
+
+        private void scheduleNotification(final int session, final BleCharacteristic characteristic, final VirtualPeripheral.NotifyStream stream)
+        {
+            postInSession(session, () -> {
+
+                if (!m_notifying.contains(stream.m_charUuid))
+                    return;
+
+                final byte[] data = new byte[stream.m_size];
+                m_random.nextBytes(data);
+                characteristic.setValue(data);
+                P_Bridge_BleDevice.onCharacteristicChanged(getBleDevice().getIBleDevice(), P_GattHolder.NULL, characteristic);
+
+                scheduleNotification(session, characteristic, stream);
+
+            }, stream.m_period.millis());
+        }
+
+        private void postInSession(final int session, final Runnable action, long delay)
+        {
+            post(() -> {
+
+                if (session == m_session)
+                    action.run();
+
+            }, delay);
+        }
+    }
+}
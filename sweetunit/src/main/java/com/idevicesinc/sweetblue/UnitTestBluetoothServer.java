@@ -128,11 +128,14 @@ public class UnitTestBluetoothServer implements IBluetoothServer
     }
 
     /**
-     * Called by the system to say that a notification has changed.
+     * Called by the system to send a notification to a client. By default, this reports the notification as having been sent
+     * successfully after a short delay.
      */
     @Override
     public boolean notifyCharacteristicChanged(P_DeviceHolder device, BleCharacteristic characteristic, boolean confirm)
     {
+        Util_Native.notificationSent(m_manager.getServer().getBleServer(), device.getAddress(), BleStatuses.GATT_SUCCESS, Interval.millis(25));
+
         return true;
     }
 
@@ -394,6 +394,17 @@ public final class Util_Native
         }, delay.millis());
     }
 
+    /**
+     * Send a callback to a server instance, mimicking the native stack telling us a notification (or indication) went out to the client.
+     */
+    public static void notificationSent(final BleServer server, final String macAddress, final int gattStatus, Interval delay)
+    {
+        P_Bridge_BleManager.postUpdateDelayed(fromServer(server), () ->
+        {
+            P_Bridge_BleServer.onNotificationSent(server.getIBleServer(), P_DeviceHolder.newNullHolder(macAddress), gattStatus);
+        }, delay.millis());
+    }
+
     public static void addServiceSuccess(final BleServer server, final BleService service, Interval delay)
     {
         P_Bridge_BleManager.postUpdateDelayed(fromServer(server), () ->
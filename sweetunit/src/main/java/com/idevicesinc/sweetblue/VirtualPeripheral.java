@@ -0,0 +1,366 @@
+/*
+
+  Copyright 2022 Hubbell Incorporated
+
+  Licensed under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License.
+
+  You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+
+ */
+
+package com.idevicesinc.sweetblue;
+
+
+import com.idevicesinc.sweetblue.utils.GattDatabase;
+import com.idevicesinc.sweetblue.utils.Interval;
+import com.idevicesinc.sweetblue.utils.Utils_ScanRecord;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+
+/**
+ * Script for one simulated device in a {@link FleetSimulator}. It describes how the device advertises, how long it takes to answer
+ * gatt operations, what it notifies, and how (and how often) it misbehaves. Every setter returns this instance, so they can be chained.
+ * <br><br>
+ * All times here are in the simulator's virtual time, so an advertising interval of a second means one advertisement per second of
+ * simulated time, no matter how fast the simulation actually runs.
+ *
+ * @see FleetSimulator#addPeripheral(VirtualPeripheral)
+ * @see FleetSimulator#addPeripherals(int, VirtualPeripheral)
+ */
+public class VirtualPeripheral
+{
+
+    private String m_macAddress = null;
+    private String m_name = "Virtual Peripheral";
+    private int m_rssi = -60;
+    private byte[] m_scanRecord = null;
+    private Interval m_advertisingInterval = Interval.millis(500);
+    private GattDatabase m_gattDatabase = null;
+    private Latency m_gattLatency = Latency.uniform(Interval.millis(5), Interval.millis(30));
+    private Latency m_connectLatency = Latency.uniform(Interval.millis(50), Interval.millis(300));
+    private double m_connectFailureRate = 0.0;
+    private int m_connectFailureStatus = BleStatuses.GATT_ERROR;
+    private Interval m_meanTimeToDisconnect = Interval.DISABLED;
+    private int m_disconnectStatus = BleStatuses.GATT_ERROR;
+    private final List<NotifyStream> m_notifyStreams = new ArrayList<>();
+
+
+    public VirtualPeripheral()
+    {
+    }
+
+    /**
+     * Copy constructor. The mac address is <b>not</b> copied, so the simulator hands the copy an address of its own.
+     */
+    public VirtualPeripheral(VirtualPeripheral peripheral)
+    {
+        m_name = peripheral.m_name;
+        m_rssi = peripheral.m_rssi;
+        m_scanRecord = peripheral.m_scanRecord;
+        m_advertisingInterval = peripheral.m_advertisingInterval;
+        m_gattDatabase = peripheral.m_gattDatabase;
+        m_gattLatency = peripheral.m_gattLatency;
+        m_connectLatency = peripheral.m_connectLatency;
+        m_connectFailureRate = peripheral.m_connectFailureRate;
+        m_connectFailureStatus = peripheral.m_connectFailureStatus;
+        m_meanTimeToDisconnect = peripheral.m_meanTimeToDisconnect;
+        m_disconnectStatus = peripheral.m_disconnectStatus;
+        m_notifyStreams.addAll(peripheral.m_notifyStreams);
+    }
+
+
+    /**
+     * Sets the mac address of this peripheral. Default is <code>null</code>, which means the simulator will generate one from its seed.
+     */
+    public VirtualPeripheral setMacAddress(String macAddress)
+    {
+        m_macAddress = macAddress;
+        return this;
+    }
+
+    /**
+     * Sets the name this peripheral advertises with, unless {@link #setScanRecord(byte[])} is used. Default is <code>"Virtual Peripheral"</code>.
+     */
+    public VirtualPeripheral setName(String name)
+    {
+        m_name = name;
+        return this;
+    }
+
+    /**
+     * Sets the rssi this peripheral is seen at. Default is <code>-60</code>.
+     */
+    public VirtualPeripheral setRssi(int rssi)
+    {
+        m_rssi = rssi;
+        return this;
+    }
+
+    /**
+     * Sets the raw scan record this peripheral advertises. Default is <code>null</code>, which advertises just the name given to
+     * {@link #setName(String)}.
+     */
+    public VirtualPeripheral setScanRecord(byte[] scanRecord)
+    {
+        m_scanRecord = scanRecord;
+        return this;
+    }
+
+    /**
+     * Sets how often this peripheral advertises while it isn't connected. A random delay of up to 10ms is added to each interval,
+     * the same as a real advertiser. Default is 500ms. Pass {@link Interval#DISABLED} to never advertise.
+     */
+    public VirtualPeripheral setAdvertisingInterval(Interval interval)
+    {
+        m_advertisingInterval = interval;
+        return this;
+    }
+
+    /**
+     * Sets the gatt database this peripheral exposes once connected. Default is <code>null</code>, which means no services.
+     */
+    public VirtualPeripheral setGattDatabase(GattDatabase database)
+    {
+        m_gattDatabase = database;
+        return this;
+    }
+
+    /**
+     * Sets how long this peripheral takes to answer gatt operations (reads, writes, service discovery, mtu requests, etc).
+     * Default is uniform, from 5 to 30ms.
+     */
+    public VirtualPeripheral setGattLatency(Latency latency)
+    {
+        m_gattLatency = latency;
+        return this;
+    }
+
+    /**
+     * Sets how long it takes for a connection attempt to either succeed, or fail (see {@link #setConnectFailureRate(double)}).
+     * Default is uniform, from 50 to 300ms.
+     */
+    public VirtualPeripheral setConnectLatency(Latency latency)
+    {
+        m_connectLatency = latency;
+        return this;
+    }
+
+    /**
+     * Sets the chance, from <code>0.0</code> to <code>1.0</code>, that any one connection attempt fails with the given gatt status.
+     * Default is <code>0.0</code>, and {@link BleStatuses#GATT_ERROR} (the infamous 133).
+     */
+    public VirtualPeripheral setConnectFailureRate(double rate, int gattStatus)
+    {
+        m_connectFailureRate = rate;
+        m_connectFailureStatus = gattStatus;
+        return this;
+    }
+
+    /**
+     * Overload of {@link #setConnectFailureRate(double, int)}, which fails with {@link BleStatuses#GATT_ERROR}.
+     */
+    public VirtualPeripheral setConnectFailureRate(double rate)
+    {
+        return setConnectFailureRate(rate, BleStatuses.GATT_ERROR);
+    }
+
+    /**
+     * Makes this peripheral drop the connection on its own, with the given gatt status. The time it stays connected is random, and
+     * exponentially distributed around the given mean, so drops happen the way independent, random failures would. Default is
+     * {@link Interval#DISABLED}, which means it never disconnects on its own.
+     */
+    public VirtualPeripheral setMeanTimeToDisconnect(Interval meanTime, int gattStatus)
+    {
+        m_meanTimeToDisconnect = meanTime;
+        m_disconnectStatus = gattStatus;
+        return this;
+    }
+
+    /**
+     * Overload of {@link #setMeanTimeToDisconnect(Interval, int)}, which disconnects with {@link BleStatuses#GATT_ERROR}.
+     */
+    public VirtualPeripheral setMeanTimeToDisconnect(Interval meanTime)
+    {
+        return setMeanTimeToDisconnect(meanTime, BleStatuses.GATT_ERROR);
+    }
+
+    /**
+     * Makes this peripheral notify on the given characteristic at the given rate, once notifications have been enabled for it. Each
+     * value is <code>size</code> bytes of (seeded) random data.
+     */
+    public VirtualPeripheral addNotifyStream(UUID charUuid, Interval period, int size)
+    {
+        m_notifyStreams.add(new NotifyStream(charUuid, period, size));
+        return this;
+    }
+
+
+    public String getMacAddress()
+    {
+        return m_macAddress;
+    }
+
+    public String getName()
+    {
+        return m_name;
+    }
+
+    final int getRssi()
+    {
+        return m_rssi;
+    }
+
+    final byte[] getScanRecord()
+    {
+        if (m_scanRecord == null)
+            m_scanRecord = Utils_ScanRecord.newScanRecord(m_name);
+
+        return m_scanRecord;
+    }
+
+    final Interval getAdvertisingInterval()
+    {
+        return m_advertisingInterval;
+    }
+
+    final GattDatabase getGattDatabase()
+    {
+        return m_gattDatabase;
+    }
+
+    final Latency getGattLatency()
+    {
+        return m_gattLatency;
+    }
+
+    final Latency getConnectLatency()
+    {
+        return m_connectLatency;
+    }
+
+    final double getConnectFailureRate()
+    {
+        return m_connectFailureRate;
+    }
+
+    final int getConnectFailureStatus()
+    {
+        return m_connectFailureStatus;
+    }
+
+    final Interval getMeanTimeToDisconnect()
+    {
+        return m_meanTimeToDisconnect;
+    }
+
+    final int getDisconnectStatus()
+    {
+        return m_disconnectStatus;
+    }
+
+    final NotifyStream getNotifyStream(UUID charUuid)
+    {
+        for (NotifyStream stream : m_notifyStreams)
+        {
+            if (stream.m_charUuid.equals(charUuid))
+                return stream;
+        }
+
+        return null;
+    }
+
+
+    static final class NotifyStream
+    {
+        final UUID m_charUuid;
+        final Interval m_period;
+        final int m_size;
+
+
+        private NotifyStream(UUID charUuid, Interval period, int size)
+        {
+            m_charUuid = charUuid;
+            m_period = period;
+            m_size = size;
+        }
+    }
+
+
+    /**
+     * Distribution that the time a {@link VirtualPeripheral} takes to respond is drawn from. Use one of the static methods to get an instance,
+     * or subclass it for anything else.
+     */
+    public abstract static class Latency
+    {
+
+        /**
+         * Returns the next delay, in milliseconds. Only draw from the given {@link Random}, so runs with the same seed are repeatable.
+         */
+        public abstract long nextMillis(Random random);
+
+
+        /**
+         * Always takes exactly the given amount of time.
+         */
+        public static Latency fixed(final Interval time)
+        {
+            final long millis = time.millis();
+
+            return new Latency()
+            {
+                @Override
+                public long nextMillis(Random random)
+                {
+                    return millis;
+                }
+            };
+        }
+
+        /**
+         * Takes anywhere from <code>min</code> to <code>max</code>, with every time in between as likely as any other.
+         */
+        public static Latency uniform(final Interval min, final Interval max)
+        {
+            final long minMillis = min.millis();
+            final long range = Math.max(max.millis() - minMillis, 0L);
+
+            return new Latency()
+            {
+                @Override
+                public long nextMillis(Random random)
+                {
+                    return minMillis + (long) (random.nextDouble() * (range + 1));
+                }
+            };
+        }
+
+        /**
+         * Takes a normally distributed amount of time, with the given mean and standard deviation. Values which would be negative are
+         * clamped to zero.
+         */
+        public static Latency normal(final Interval mean, final Interval standardDeviation)
+        {
+            final double meanMillis = mean.millis();
+            final double deviationMillis = standardDeviation.millis();
+
+            return new Latency()
+            {
+                @Override
+                public long nextMillis(Random random)
+                {
+                    return Math.max(Math.round(meanMillis + random.nextGaussian() * deviationMillis), 0L);
+                }
+            };
+        }
+    }
+}
@@ -122,6 +122,11 @@ public final class P_Bridge_BleManager
         mgr.getTaskManager().add(task);
     }
 
+    public static void onConnectionFailed(IBleManager mgr, int gattStatus)
+    {
+        mgr.getTaskManager().onConnectionFailed(gattStatus);
+    }
+
     public static void suspendQueue(IBleManager mgr)
     {
         mgr.getTaskManager().setSuspended(true);
@@ -49,4 +49,9 @@ public final class P_Bridge_BleServer
         server.getNativeManager().getNativeListener().onServiceAdded(gattStatus, service);
     }
 
+    public static void onNotificationSent(IBleServer server, final P_DeviceHolder device, final int gattStatus)
+    {
+        server.getNativeManager().getNativeListener().onNotificationSent(device, gattStatus);
+    }
+
 }